@@ -26,6 +26,9 @@ import org.eclipse.core.runtime.Status;
 
 import org.eclipse.jdt.core.manipulation.JavaManipulation;
 
+import org.eclipse.jdt.internal.corext.callhierarchy.CallerGraph;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.SharedTypeEnvironments;
+
 import org.eclipse.jdt.internal.ui.IJavaStatusConstants;
 
 /**
@@ -67,6 +70,8 @@ public class JavaManipulationPlugin extends Plugin implements DebugOptionsListen
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		SharedTypeEnvironments.shutdown();
+		CallerGraph.shutdown();
 		super.stop(context);
 		fgDefault= null;
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020 IBM Corporation and others.
+ * Copyright (c) 2020, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,14 +14,25 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.jarpackager;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Enumeration;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 import java.util.zip.CRC32;
@@ -47,9 +58,41 @@ import org.eclipse.jdt.internal.ui.IJavaStatusConstants;
 
 public class JarPackagerUtilCore {
 
+	/**
+	 * Size of the buffers used to copy contents into the archive.
+	 */
+	private static final int BUFFER_SIZE= 64 * 1024;
+
+	/**
+	 * Number of entries of a source archive that are read ahead of the entry being written.
+	 */
+	private static final int READ_AHEAD= 32;
+
+	/**
+	 * Entries and files that are larger than this are not kept in memory, but streamed.
+	 */
+	private static final long MAX_BUFFERED_SIZE= 1024 * 1024;
+
+	/**
+	 * Reads the entries of source archives ahead. The pool is shared by all exports, and its
+	 * threads end when they have been idle for a while.
+	 */
+	private static final ThreadPoolExecutor fgReader= createReader();
+
 	private JarPackagerUtilCore() {
 
 	}
+
+	private static ThreadPoolExecutor createReader() {
+		int threads= Runtime.getRuntime().availableProcessors();
+		ThreadPoolExecutor reader= new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread= new Thread(runnable, "Jar Export Archive Reader"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		reader.allowCoreThreadTimeOut(true);
+		return reader;
+	}
 	/**
 	 * Write the given entry describing the given content to the current archive. Extracted from
 	 * org.eclipse.jdt.ui.jarpackager.JarWriter3
@@ -64,7 +107,7 @@ public class JarPackagerUtilCore {
 	 *
 	 */
 	public static void addEntry(JarEntry entry, InputStream content, JarOutputStream jarOutputStream) throws IOException {
-		byte[] readBuffer= new byte[4096];
+		byte[] readBuffer= new byte[BUFFER_SIZE];
 		try {
 			jarOutputStream.putNextEntry(entry);
 			int count;
@@ -88,6 +131,11 @@ public class JarPackagerUtilCore {
 	/**
 	 * Write the contents of the given zipFile to the JarOutputStream. Extracted from
 	 * org.eclipse.jdt.internal.ui.jarpackagerfat.UnpackFatJarBuilder
+	 * <p>
+	 * The entries are written in the order of the source archive. Reading and inflating them is
+	 * done by a shared thread pool, up to {@value #READ_AHEAD} entries ahead of the entry that is
+	 * written, so that only compressing and writing is sequential.
+	 * </p>
 	 *
 	 * @param zipFile the zipFile to extract
 	 * @param areDirectoryEntriesIncluded the directory entries are included
@@ -103,19 +151,53 @@ public class JarPackagerUtilCore {
 	public static void writeArchive(ZipFile zipFile, boolean areDirectoryEntriesIncluded,
 			boolean isCompressed, JarOutputStream jarOutputStream,
 			Set<String> directories, MultiStatus status, IProgressMonitor progressMonitor) {
-		Enumeration<? extends ZipEntry> jarEntriesEnum= zipFile.entries();
-		File zipFile1= new File(zipFile.getName());
+		writeArchive(zipFile, areDirectoryEntriesIncluded, isCompressed, jarOutputStream, directories, status, true, progressMonitor);
+	}
+
+	/**
+	 * Write the contents of the given zipFile to the JarOutputStream, like
+	 * {@link #writeArchive(ZipFile, boolean, boolean, JarOutputStream, Set, MultiStatus, IProgressMonitor)}.
+	 * Without read-ahead, every entry is streamed from the source archive when it is written.
+	 *
+	 * @param zipFile the zipFile to extract
+	 * @param areDirectoryEntriesIncluded the directory entries are included
+	 * @param isCompressed the jar is compressed
+	 * @param jarOutputStream the destination JarOutputStream
+	 * @param directories the temporary set saves existing directories
+	 * @param status the <code>MultiStatus</code> saving the warnings during the process
+	 * @param readAhead <code>true</code> to read the entries ahead of the entry that is written
+	 * @param progressMonitor the progressMonitor
+	 */
+	public static void writeArchive(ZipFile zipFile, boolean areDirectoryEntriesIncluded,
+			boolean isCompressed, JarOutputStream jarOutputStream,
+			Set<String> directories, MultiStatus status, boolean readAhead, IProgressMonitor progressMonitor) {
+		List<? extends ZipEntry> entries= Collections.list(zipFile.entries());
+		java.nio.file.Path zipFilePath;
 		try {
-			String zipFileCanonical= zipFile1.getCanonicalPath();
+			zipFilePath= new File(zipFile.getName()).getCanonicalFile().toPath();
+		} catch (IOException e) {
+			addWarning("ZipFile error" + zipFile.getName(), null, status); //$NON-NLS-1$
+			e.printStackTrace();
+			return;
+		}
 
-			while (jarEntriesEnum.hasMoreElements()) {
-				ZipEntry zipEntry= jarEntriesEnum.nextElement();
+		Deque<Future<byte[]>> contents= new ArrayDeque<>(READ_AHEAD + 1);
+		try {
+			int submitted= 0;
+			for (int i= 0; i < entries.size(); i++) {
+				while (submitted < entries.size() && submitted <= i + (readAhead ? READ_AHEAD : 0)) {
+					ZipEntry zipEntry= entries.get(submitted++);
+					if (readAhead)
+						contents.add(fgReader.submit(() -> readEntry(zipFile, zipEntry)));
+					else
+						contents.add(CompletableFuture.completedFuture(null)); // streamed when it is written
+				}
+				Future<byte[]> content= contents.remove();
+				ZipEntry zipEntry= entries.get(i);
 				if (!zipEntry.isDirectory()) {
 					String entryName= zipEntry.getName();
-					File zipEntryFile= new File(zipFile1, entryName);
-					String zipEntryCanonical= zipEntryFile.getCanonicalPath();
-					if (zipEntryCanonical.startsWith(zipFileCanonical + File.separator)) {
-						addFile(entryName, zipEntry, zipFile, areDirectoryEntriesIncluded, isCompressed, jarOutputStream, directories, status);
+					if (isInArchive(zipFilePath, entryName)) {
+						addFile(entryName, zipEntry, zipFile, content, areDirectoryEntriesIncluded, isCompressed, jarOutputStream, directories, status);
 					} else {
 						addWarning("Invalid path" + entryName, null, status); //$NON-NLS-1$
 					}
@@ -125,9 +207,38 @@ public class JarPackagerUtilCore {
 					throw new OperationCanceledException();
 				}
 			}
-		} catch (IOException e) {
-			addWarning("ZipFile error" + zipFile.getName(), null, status); //$NON-NLS-1$
-			e.printStackTrace();
+		} finally {
+			// the pool is shared, only the reads of this archive are canceled
+			for (Future<byte[]> content : contents) {
+				content.cancel(false);
+			}
+		}
+	}
+
+	/*
+	 * Tells whether the given entry name denotes a location inside the archive, i.e. the name
+	 * does not lead out of it with '..' segments.
+	 */
+	private static boolean isInArchive(java.nio.file.Path zipFilePath, String entryName) {
+		int start= 0;
+		while (start < entryName.length() && entryName.charAt(start) == '/')
+			start++; // relative to the archive, like new File(archive, entryName)
+		try {
+			java.nio.file.Path entryPath= zipFilePath.resolve(entryName.substring(start)).normalize();
+			return entryPath.startsWith(zipFilePath) && !entryPath.equals(zipFilePath);
+		} catch (InvalidPathException e) {
+			return false;
+		}
+	}
+
+	/*
+	 * Reads the content of a file entry, or returns null if the entry should be streamed.
+	 */
+	private static byte[] readEntry(ZipFile zipFile, ZipEntry zipEntry) throws IOException {
+		if (zipEntry.isDirectory() || zipEntry.getSize() < 0 || zipEntry.getSize() > MAX_BUFFERED_SIZE)
+			return null;
+		try (InputStream stream= zipFile.getInputStream(zipEntry)) {
+			return stream.readAllBytes();
 		}
 	}
 
@@ -138,6 +249,7 @@ public class JarPackagerUtilCore {
 	 * @param destinationPath the destinationPath in the jar file
 	 * @param jarEntry the jar entry to write
 	 * @param zipFile the zipFile to extract
+	 * @param content the content of the entry that has been read ahead
 	 * @param areDirectoryEntriesIncluded the directory entries are included
 	 * @param isCompressed the jar is compressed
 	 * @param jarOutputStream the destination JarOutputStream
@@ -147,7 +259,7 @@ public class JarPackagerUtilCore {
 	 * @since 1.14
 	 *
 	 */
-	private static void addFile(String destinationPath, ZipEntry jarEntry, ZipFile zipFile,
+	private static void addFile(String destinationPath, ZipEntry jarEntry, ZipFile zipFile, Future<byte[]> content,
 			boolean areDirectoryEntriesIncluded, boolean isCompressed,
 			JarOutputStream jarOutputStream, Set<String> directories, MultiStatus status) {
 		// Handle META-INF/MANIFEST.MF
@@ -156,7 +268,7 @@ public class JarPackagerUtilCore {
 			return;
 		}
 		try {
-			addZipEntry(jarEntry, zipFile, destinationPath, areDirectoryEntriesIncluded, isCompressed, jarOutputStream, directories);
+			addZipEntry(jarEntry, getContent(jarEntry, zipFile, content), destinationPath, areDirectoryEntriesIncluded, isCompressed, jarOutputStream, directories);
 		} catch (IOException ex) {
 			if (ex instanceof ZipException && ex.getMessage() != null && ex.getMessage().startsWith("duplicate entry:")) {//$NON-NLS-1$
 				// ignore duplicates in META-INF (*.SF, *.RSA)
@@ -169,6 +281,21 @@ public class JarPackagerUtilCore {
 		}
 	}
 
+	private static InputStream getContent(ZipEntry zipEntry, ZipFile zipFile, Future<byte[]> content) throws IOException {
+		byte[] bytes;
+		try {
+			bytes= content.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException(e.getCause());
+		}
+		return bytes != null ? new ByteArrayInputStream(bytes) : zipFile.getInputStream(zipEntry);
+	}
+
 	/**
 	 * Write the entry to the destinationPath of the given JarOutputStream. Extracted from
 	 * org.eclipse.jdt.internal.ui.jarpackagerfat.JarWriter4
@@ -189,6 +316,12 @@ public class JarPackagerUtilCore {
 	public static void addZipEntry(ZipEntry zipEntry, ZipFile zipFile, String path,
 			boolean areDirectoryEntriesIncluded, boolean isCompressed,
 			JarOutputStream jarOutputStream, Set<String> directories) throws IOException {
+		addZipEntry(zipEntry, zipFile.getInputStream(zipEntry), path, areDirectoryEntriesIncluded, isCompressed, jarOutputStream, directories);
+	}
+
+	private static void addZipEntry(ZipEntry zipEntry, InputStream content, String path,
+			boolean areDirectoryEntriesIncluded, boolean isCompressed,
+			JarOutputStream jarOutputStream, Set<String> directories) throws IOException {
 		if (areDirectoryEntriesIncluded) {
 			addDirectories(path, jarOutputStream, directories);
 		}
@@ -208,7 +341,7 @@ public class JarPackagerUtilCore {
 		// Set modification time
 		newEntry.setTime(lastModified);
 
-		addEntry(newEntry, zipFile.getInputStream(zipEntry), jarOutputStream);
+		addEntry(newEntry, content, jarOutputStream);
 	}
 
 	/**
@@ -302,17 +435,19 @@ public class JarPackagerUtilCore {
 			addDirectories(path, jarOutputStream, directories);
 		}
 		JarEntry newEntry= new JarEntry(path.toString().replace(File.separatorChar, '/'));
+		InputStream content;
 
 		if (isCompressed) {
 			newEntry.setMethod(ZipEntry.DEFLATED);
 			// Entry is filled automatically.
+			content= new FileInputStream(file);
 		} else {
 			newEntry.setMethod(ZipEntry.STORED);
-			calculateCrcAndSize(newEntry, new FileInputStream(file), new byte[4096]);
+			content= readStoredContent(newEntry, file);
 		}
 
 		newEntry.setTime(file.lastModified());
-		addEntry(newEntry, new FileInputStream(file), jarOutputStream);
+		addEntry(newEntry, content, jarOutputStream);
 	}
 
 	/**
@@ -365,6 +500,31 @@ public class JarPackagerUtilCore {
 		entry.setCrc(crc.getValue());
 	}
 
+	/**
+	 * Calculates the crc and size of the given file and updates the entry. Small files are read
+	 * only once.
+	 *
+	 * @param entry the jar entry to update
+	 * @param file the file
+	 * @return a stream with the content of the file
+	 *
+	 * @throws IOException if an input/output error occurs
+	 *
+	 * @since 1.20
+	 */
+	public static InputStream readStoredContent(ZipEntry entry, File file) throws IOException {
+		if (file.length() > MAX_BUFFERED_SIZE) {
+			calculateCrcAndSize(entry, new FileInputStream(file), new byte[BUFFER_SIZE]);
+			return new FileInputStream(file);
+		}
+		byte[] bytes= Files.readAllBytes(file.toPath());
+		CRC32 crc= new CRC32();
+		crc.update(bytes);
+		entry.setSize(bytes.length);
+		entry.setCrc(crc.getValue());
+		return new ByteArrayInputStream(bytes);
+	}
+
 	/**
 	 * add a warning message into the MultiStatus.
 	 *
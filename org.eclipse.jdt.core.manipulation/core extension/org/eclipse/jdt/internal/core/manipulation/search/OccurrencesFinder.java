@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -167,7 +167,7 @@ public class OccurrencesFinder extends ASTVisitor implements IOccurrencesFinder
 		return true;
 	}
 
-	private static boolean isStaticImport(ASTNode node) {
+	static boolean isStaticImport(ASTNode node) {
 		if (!(node instanceof QualifiedName))
 			return false;
 
@@ -297,7 +297,7 @@ public class OccurrencesFinder extends ASTVisitor implements IOccurrencesFinder
 		return false;
 	}
 
-	private SimpleName getSimpleName(Expression expression) {
+	static SimpleName getSimpleName(Expression expression) {
 		if (expression instanceof SimpleName)
 			return ((SimpleName)expression);
 		else if (expression instanceof QualifiedName)
@@ -307,7 +307,7 @@ public class OccurrencesFinder extends ASTVisitor implements IOccurrencesFinder
 		return null;
 	}
 
-	private IBinding getBindingDeclaration(IBinding binding) {
+	static IBinding getBindingDeclaration(IBinding binding) {
 		switch (binding.getKind()) {
 			case IBinding.TYPE :
 				return ((ITypeBinding)binding).getTypeDeclaration();
@@ -0,0 +1,375 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.core.manipulation.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.NameQualifiedType;
+import org.eclipse.jdt.core.dom.ParameterizedType;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression.Operator;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SimpleType;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.Type;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+import org.eclipse.jdt.internal.core.manipulation.Messages;
+import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder.OccurrenceLocation;
+import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
+import org.eclipse.jdt.internal.corext.dom.Bindings;
+
+/**
+ * The occurrences of all bindings of an AST, as found by {@link OccurrencesFinder}.
+ * <p>
+ * The {@link OccurrencesFinder} walks the whole AST for every selected name. The index walks
+ * the AST once, on the first request, and records the read and write ranges of every binding
+ * under its key. Further requests for names in the same AST are answered without walking the
+ * AST again. The index has to be dropped when the AST is replaced, e.g. after a reconcile.
+ * </p>
+ * <p>
+ * The walk follows {@link OccurrencesFinder} for every binding at once: where the finder does
+ * not visit the children of a qualified name because the name already matched the target, the
+ * index still visits them, but ignores their occurrences of that target.
+ * </p>
+ */
+public final class OccurrencesIndex {
+
+	private static final Predicate<IBinding> NONE= binding -> false;
+
+	/**
+	 * The ranges of the occurrences of one binding declaration, as offset and length pairs.
+	 */
+	private static final class Occurrences {
+		final IBinding fBinding;
+		int[] fReads= new int[8];
+		int fReadCount= 0;
+		int[] fWrites= new int[0];
+		int fWriteCount= 0;
+
+		Occurrences(IBinding binding) {
+			fBinding= binding;
+		}
+
+		void add(Name node, boolean isWrite) {
+			if (isWrite) {
+				fWrites= add(fWrites, fWriteCount, node);
+				fWriteCount++;
+			} else {
+				fReads= add(fReads, fReadCount, node);
+				fReadCount++;
+			}
+		}
+
+		private static int[] add(int[] ranges, int count, Name node) {
+			if (2 * count + 2 > ranges.length)
+				ranges= Arrays.copyOf(ranges, Math.max(8, 2 * ranges.length));
+			ranges[2 * count]= node.getStartPosition();
+			ranges[2 * count + 1]= node.getLength();
+			return ranges;
+		}
+	}
+
+	/**
+	 * A static import of methods, e.g. <code>import static p.C.m;</code>, which matches all
+	 * static methods of that name.
+	 */
+	private static final class StaticImport implements Predicate<IBinding> {
+		final ITypeBinding fDeclaringClass;
+		final String fName;
+		final int fOffset;
+		final int fLength;
+
+		StaticImport(ITypeBinding declaringClass, Name node) {
+			fDeclaringClass= declaringClass;
+			fName= node.getFullyQualifiedName();
+			fOffset= node.getStartPosition();
+			fLength= node.getLength();
+		}
+
+		@Override
+		public boolean test(IBinding target) {
+			if (!(target instanceof IMethodBinding))
+				return false;
+			IMethodBinding method= (IMethodBinding) target;
+			return Modifier.isStatic(method.getModifiers())
+					&& method.getDeclaringClass().getTypeDeclaration() == fDeclaringClass
+					&& fName.equals(method.getName());
+		}
+	}
+
+	private final CompilationUnit fRoot;
+
+	/** Occurrences by binding key, <code>null</code> until the AST has been walked. Guarded by this */
+	private Map<String, List<Occurrences>> fOccurrences;
+	private List<StaticImport> fStaticImports;
+
+	private int fWalks= 0;
+
+	/**
+	 * @param root the AST to index, with bindings
+	 */
+	public OccurrencesIndex(CompilationUnit root) {
+		fRoot= root;
+	}
+
+	/**
+	 * @return the indexed AST
+	 */
+	public CompilationUnit getASTRoot() {
+		return fRoot;
+	}
+
+	/**
+	 * Returns the occurrences of the binding of the given name, like
+	 * {@link OccurrencesFinder#getOccurrences()} after initializing the finder with the name.
+	 *
+	 * @param selectedNode a name in the indexed AST
+	 * @return the occurrences, or <code>null</code> if the name has no binding or no occurrences
+	 */
+	public synchronized OccurrenceLocation[] getOccurrences(Name selectedNode) {
+		if (OccurrencesFinder.isStaticImport(selectedNode.getParent())) {
+			// all static methods of that name, not only the one the import resolves to
+			OccurrencesFinder finder= new OccurrencesFinder();
+			if (finder.initialize(fRoot, selectedNode) != null)
+				return null;
+			return finder.getOccurrences();
+		}
+
+		IBinding binding= selectedNode.resolveBinding();
+		if (binding == null)
+			return null;
+		IBinding target= OccurrencesFinder.getBindingDeclaration(binding);
+		if (fOccurrences == null)
+			walk();
+
+		String name= BasicElementLabels.getJavaElementName(target.getName());
+		String readDescription= Messages.format(SearchMessages.OccurrencesFinder_occurrence_description, name);
+		String writeDescription= Messages.format(SearchMessages.OccurrencesFinder_occurrence_write_description, name);
+		boolean isVariable= target instanceof IVariableBinding;
+
+		List<OccurrenceLocation> result= new ArrayList<>();
+		List<Occurrences> candidates= fOccurrences.get(getKey(target));
+		if (candidates != null) {
+			for (Occurrences occurrences : candidates) {
+				if (!Bindings.equals(occurrences.fBinding, target))
+					continue;
+				for (int i= 0; i < occurrences.fReadCount; i++) {
+					int flags= isVariable ? IOccurrencesFinder.F_READ_OCCURRENCE : 0;
+					result.add(new OccurrenceLocation(occurrences.fReads[2 * i], occurrences.fReads[2 * i + 1], flags, readDescription));
+				}
+				for (int i= 0; i < occurrences.fWriteCount; i++) {
+					int flags= isVariable ? IOccurrencesFinder.F_WRITE_OCCURRENCE : 0;
+					String description= isVariable ? writeDescription : readDescription;
+					result.add(new OccurrenceLocation(occurrences.fWrites[2 * i], occurrences.fWrites[2 * i + 1], flags, description));
+				}
+			}
+		}
+		for (StaticImport staticImport : fStaticImports) {
+			if (staticImport.test(target))
+				result.add(new OccurrenceLocation(staticImport.fOffset, staticImport.fLength, 0, readDescription));
+		}
+		if (result.isEmpty())
+			return null;
+		return result.toArray(new OccurrenceLocation[result.size()]);
+	}
+
+	/**
+	 * @return the number of times the AST has been walked, at most one
+	 */
+	public synchronized int getWalkCount() {
+		return fWalks;
+	}
+
+	private void walk() {
+		fOccurrences= new HashMap<>();
+		fStaticImports= new ArrayList<>();
+		fRoot.accept(new Collector());
+		fWalks++;
+	}
+
+	private static String getKey(IBinding binding) {
+		String key= binding.getKey();
+		return key != null ? key : ""; //$NON-NLS-1$
+	}
+
+	/**
+	 * Collects the occurrences. The visit methods correspond to the ones of
+	 * {@link OccurrencesFinder}.
+	 */
+	private final class Collector extends ASTVisitor {
+
+		/** Names that are written, with the declaration of their binding */
+		private final Map<Name, IBinding> fWriteUsages= new HashMap<>();
+		/**
+		 * For every enclosing qualified name, the targets for which {@link OccurrencesFinder}
+		 * would not visit its children
+		 */
+		private final Deque<Predicate<IBinding>> fIgnoredTargets= new ArrayDeque<>();
+
+		Collector() {
+			super(true);
+		}
+
+		@Override
+		public boolean visit(QualifiedName node) {
+			final IBinding binding= node.resolveBinding();
+			Predicate<IBinding> ignored;
+			if (binding instanceof IVariableBinding && ((IVariableBinding) binding).isField()) {
+				SimpleName name= node.getName();
+				ignored= addUsage(name, name.resolveBinding());
+			} else if (binding instanceof IMethodBinding && OccurrencesFinder.isStaticImport(node)) {
+				ignored= addPossibleStaticImport(node.getName(), (IMethodBinding) binding);
+			} else {
+				ignored= addUsage(node, binding);
+			}
+			fIgnoredTargets.push(ignored);
+			return true;
+		}
+
+		@Override
+		public void endVisit(QualifiedName node) {
+			fIgnoredTargets.pop();
+		}
+
+		@Override
+		public boolean visit(SimpleName node) {
+			addUsage(node, node.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(ClassInstanceCreation node) {
+			Type type= node.getType();
+			if (type instanceof ParameterizedType) {
+				type= ((ParameterizedType) type).getType();
+			}
+			if (type instanceof SimpleType) {
+				Name name= ((SimpleType) type).getName();
+				if (name instanceof QualifiedName)
+					name= ((QualifiedName) name).getName();
+				addUsage(name, node.resolveConstructorBinding());
+			} else if (type instanceof NameQualifiedType) {
+				Name name= ((NameQualifiedType) type).getName();
+				addUsage(name, node.resolveConstructorBinding());
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(Assignment node) {
+			SimpleName name= OccurrencesFinder.getSimpleName(node.getLeftHandSide());
+			if (name != null)
+				addWrite(name, name.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(SingleVariableDeclaration node) {
+			addWrite(node.getName(), node.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(VariableDeclarationFragment node) {
+			if (node.getParent() instanceof FieldDeclaration || node.getInitializer() != null)
+				addWrite(node.getName(), node.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(PrefixExpression node) {
+			PrefixExpression.Operator operator= node.getOperator();
+			if (operator == Operator.INCREMENT || operator == Operator.DECREMENT) {
+				SimpleName name= OccurrencesFinder.getSimpleName(node.getOperand());
+				if (name != null)
+					addWrite(name, name.resolveBinding());
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(PostfixExpression node) {
+			SimpleName name= OccurrencesFinder.getSimpleName(node.getOperand());
+			if (name != null)
+				addWrite(name, name.resolveBinding());
+			return true;
+		}
+
+		private void addWrite(Name node, IBinding binding) {
+			if (binding != null)
+				fWriteUsages.put(node, OccurrencesFinder.getBindingDeclaration(binding));
+		}
+
+		/*
+		 * Returns the targets for which the name has been added.
+		 */
+		private Predicate<IBinding> addUsage(Name node, IBinding binding) {
+			if (binding == null)
+				return NONE;
+			IBinding declaration= OccurrencesFinder.getBindingDeclaration(binding);
+			for (Predicate<IBinding> ignored : fIgnoredTargets) {
+				if (ignored.test(declaration))
+					return NONE;
+			}
+			IBinding written= fWriteUsages.get(node);
+			boolean isWrite= written != null && Bindings.equals(written, declaration);
+			if (isWrite && declaration instanceof IVariableBinding)
+				fWriteUsages.remove(node);
+
+			List<Occurrences> candidates= fOccurrences.computeIfAbsent(getKey(declaration), key -> new ArrayList<>(1));
+			Occurrences occurrences= null;
+			for (Occurrences candidate : candidates) {
+				if (Bindings.equals(candidate.fBinding, declaration)) {
+					occurrences= candidate;
+					break;
+				}
+			}
+			if (occurrences == null) {
+				occurrences= new Occurrences(declaration);
+				candidates.add(occurrences);
+			}
+			occurrences.add(node, isWrite);
+			return target -> Bindings.equals(target, declaration);
+		}
+
+		private Predicate<IBinding> addPossibleStaticImport(Name node, IMethodBinding binding) {
+			if (node == null || !Modifier.isStatic(binding.getModifiers()))
+				return NONE;
+			StaticImport staticImport= new StaticImport(binding.getDeclaringClass().getTypeDeclaration(), node);
+			fStaticImports.add(staticImport);
+			return staticImport;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019, 2021 IBM Corporation and others.
+ * Copyright (c) 2019, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -168,6 +168,15 @@ public class CallHierarchyCore {
         return callLocation;
     }
 
+    /**
+     * Returns the graph that answers caller queries in the workspace scope.
+     *
+     * @return the caller graph
+     */
+    public CallerGraph getCallerGraph() {
+        return CallerGraph.getInstance();
+    }
+
     public IJavaSearchScope getSearchScope() {
         if (fSearchScope == null) {
             fSearchScope= SearchEngine.createWorkspaceScope();
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.callhierarchy;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
+
+import org.eclipse.jdt.internal.core.manipulation.JavaManipulationPlugin;
+import org.eclipse.jdt.internal.corext.util.Messages;
+import org.eclipse.jdt.internal.corext.util.WorkQueue;
+
+/**
+ * Expands call hierarchies breadth-first to a given depth.
+ * <p>
+ * The members of one level (the frontier) are searched concurrently by a fixed number of
+ * workers that take the members from a queue. Every member is searched at most once per
+ * hierarchy: wrappers that share the method cache of their root and wrap the same member are
+ * answered from the result of one search. Recursive calls are not expanded.
+ * </p>
+ * <p>
+ * The expansion only fills the method caches of the hierarchies, so that clients that ask
+ * the expanded wrappers for their calls afterwards get the answers without searching.
+ * </p>
+ */
+public final class CallHierarchyExpander {
+
+	private final int fDepth;
+	private final int fMaxThreads;
+
+	private int fSearches= 0;
+	private int fMaxFrontier= 0;
+
+	/**
+	 * @param depth the number of levels to expand below the roots, at least 1
+	 */
+	public CallHierarchyExpander(int depth) {
+		this(depth, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param depth the number of levels to expand below the roots, at least 1
+	 * @param maxThreads the maximal number of concurrent searches
+	 */
+	public CallHierarchyExpander(int depth, int maxThreads) {
+		fDepth= Math.max(1, depth);
+		fMaxThreads= Math.max(1, maxThreads);
+	}
+
+	/**
+	 * Expands the given wrappers.
+	 *
+	 * @param roots the wrappers to expand
+	 * @param monitor the progress monitor, reports the size of every frontier
+	 * @throws OperationCanceledException if the monitor has been canceled
+	 */
+	public void expand(MethodWrapper[] roots, IProgressMonitor monitor) {
+		SubMonitor subMonitor= SubMonitor.convert(monitor, CallHierarchyMessages.CallHierarchyExpander_taskname, fDepth);
+		List<MethodWrapper> frontier= new ArrayList<>();
+		for (MethodWrapper root : roots) {
+			if (isExpandable(root))
+				frontier.add(root);
+		}
+		for (int level= 1; level <= fDepth && !frontier.isEmpty(); level++) {
+			fMaxFrontier= Math.max(fMaxFrontier, frontier.size());
+			searchFrontier(frontier, level, subMonitor.split(1));
+
+			List<MethodWrapper> next= new ArrayList<>();
+			for (MethodWrapper wrapper : frontier) {
+				for (MethodWrapper child : wrapper.getCalls(null)) {
+					if (isExpandable(child))
+						next.add(child);
+				}
+			}
+			frontier= next;
+		}
+	}
+
+	/**
+	 * @return the number of searches that have been performed
+	 */
+	public int getSearchCount() {
+		return fSearches;
+	}
+
+	/**
+	 * @return the size of the largest frontier
+	 */
+	public int getMaxFrontierSize() {
+		return fMaxFrontier;
+	}
+
+	/*
+	 * Searches the calls of every distinct member of the frontier whose calls are not yet known.
+	 */
+	private void searchFrontier(List<MethodWrapper> frontier, int level, IProgressMonitor monitor) {
+		Map<MethodWrapper, Map<String, MethodWrapper>> representatives= new IdentityHashMap<>();
+		List<MethodWrapper> toSearch= new ArrayList<>();
+		for (MethodWrapper wrapper : frontier) {
+			if (wrapper.hasCachedCalls())
+				continue;
+			Map<String, MethodWrapper> byMember= representatives.computeIfAbsent(getRoot(wrapper), k -> new LinkedHashMap<>());
+			if (byMember.putIfAbsent(wrapper.getMethodCall().getKey(), wrapper) == null)
+				toSearch.add(wrapper);
+		}
+
+		SubMonitor subMonitor= SubMonitor.convert(monitor, toSearch.size());
+		subMonitor.subTask(Messages.format(CallHierarchyMessages.CallHierarchyExpander_level, new Object[] {
+				Integer.valueOf(level), Integer.valueOf(fDepth), Integer.valueOf(toSearch.size()) }));
+		fSearches+= toSearch.size();
+
+		try {
+			WorkQueue.process("Call Hierarchy Expander", fMaxThreads, toSearch, //$NON-NLS-1$
+					MethodWrapper::getCalls, (wrapper, calls) -> {
+						// the wrapper has cached its calls
+					}, subMonitor);
+		} catch (CoreException e) {
+			// not thrown by the searches, which log their own failures
+			JavaManipulationPlugin.log(e);
+		}
+	}
+
+	private static boolean isExpandable(MethodWrapper wrapper) {
+		return !wrapper.isRecursive() && wrapper.canHaveChildren();
+	}
+
+	private static MethodWrapper getRoot(MethodWrapper wrapper) {
+		MethodWrapper root= wrapper;
+		while (root.getParent() != null)
+			root= root.getParent();
+		return root;
+	}
+}
@@ -0,0 +1,638 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.callhierarchy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
+import org.eclipse.core.resources.ISavedState;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.compiler.IScanner;
+import org.eclipse.jdt.core.compiler.ITerminalSymbols;
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.core.manipulation.JavaManipulation;
+
+import org.eclipse.jdt.internal.core.manipulation.JavaManipulationPlugin;
+
+/**
+ * Workspace-wide graph from members to the locations that reference them, as found by the
+ * caller searches of {@link CallerMethodWrapper} in the workspace scope.
+ * <p>
+ * Entries are recorded unfiltered; ignore filters and the test code filter are applied when
+ * the callers are answered, so that changing the filters does not invalidate the graph.
+ * </p>
+ * <p>
+ * The graph is kept consistent with Java element deltas: an entry is dropped when a
+ * compilation unit that contains one of its locations changes or disappears, or when a
+ * compilation unit that changes mentions the name of the referenced member. Classpath,
+ * root, package and binary changes drop the whole graph. A dropped entry is recomputed by
+ * a live search the next time it is asked for.
+ * </p>
+ * <p>
+ * The delta listener only drops entries by handle. Changed compilation units are queued and
+ * scanned for member names by a background job, so that reconciling does not read and scan
+ * the source on the listener thread. Queries scan the units that are still queued before
+ * they answer, so that they never see an entry that a pending scan would drop.
+ * </p>
+ * <p>
+ * The graph is written to the plug-in state location when the workspace is saved, and is
+ * only read back if the workspace can replay the resource changes since that save.
+ * </p>
+ */
+public final class CallerGraph {
+
+	private static final String FILE_NAME= "callergraph.dat"; //$NON-NLS-1$
+	private static final int FILE_VERSION= 1;
+
+	/** Maximum number of members whose callers are remembered */
+	private static final int MAX_ENTRIES= 2000;
+
+	/** Delay before changed compilation units are scanned, so that bursts of changes are batched */
+	private static final long SCAN_DELAY= 500;
+
+	/**
+	 * The callers of one member: a table of distinct caller handles and, for every reference,
+	 * the index of its caller followed by the start and end offset of the reference.
+	 */
+	private static final class Entry {
+		final String fName;
+		final String[] fCallers;
+		final int[] fLocations;
+		final Set<String> fTypeRoots;
+
+		Entry(String name, String[] callers, int[] locations) {
+			fName= name;
+			fCallers= callers;
+			fLocations= locations;
+			fTypeRoots= new HashSet<>();
+			for (String caller : callers) {
+				String typeRoot= getTypeRootHandle(JavaCore.create(caller));
+				if (typeRoot != null)
+					fTypeRoots.add(typeRoot);
+			}
+		}
+	}
+
+	private class CallerGraphDeltaListener implements IElementChangedListener {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			List<ICompilationUnit> changed= new ArrayList<>();
+			List<String> removed= new ArrayList<>();
+			boolean flush= collectChanges(event.getDelta(), changed, removed);
+			if (flush) {
+				flush();
+				return;
+			}
+			for (String handle : removed)
+				invalidate(handle, null);
+			for (ICompilationUnit cu : changed)
+				invalidate(cu.getHandleIdentifier(), cu);
+		}
+
+		private boolean collectChanges(IJavaElementDelta delta, List<ICompilationUnit> changed, List<String> removed) {
+			int flags= delta.getFlags();
+			int kind= delta.getKind();
+			boolean isChanged= kind == IJavaElementDelta.CHANGED;
+			IJavaElement element= delta.getElement();
+			switch (element.getElementType()) {
+				case IJavaElement.JAVA_MODEL:
+					break;
+				case IJavaElement.JAVA_PROJECT:
+					if (!isChanged || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+							| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0)
+						return true;
+					break;
+				case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+					if (!isChanged || (flags & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+							| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_REORDER)) != 0)
+						return true;
+					break;
+				case IJavaElement.PACKAGE_FRAGMENT:
+					if (!isChanged)
+						return true;
+					break;
+				case IJavaElement.COMPILATION_UNIT:
+					if (kind == IJavaElementDelta.REMOVED)
+						removed.add(element.getHandleIdentifier());
+					else if (!isChanged || (flags & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN
+							| IJavaElementDelta.F_FINE_GRAINED | IJavaElementDelta.F_PRIMARY_WORKING_COPY | IJavaElementDelta.F_PRIMARY_RESOURCE)) != 0)
+						changed.add((ICompilationUnit) element);
+					return false;
+				case IJavaElement.CLASS_FILE:
+					return true;
+				default:
+					// a member delta of a reconciled working copy
+					ICompilationUnit cu= (ICompilationUnit) element.getAncestor(IJavaElement.COMPILATION_UNIT);
+					if (cu == null)
+						return true;
+					changed.add(cu);
+					return false;
+			}
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				if (collectChanges(child, changed, removed))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	private class CallerGraphSaveParticipant implements ISaveParticipant, IResourceChangeListener {
+		@Override
+		public void saving(ISaveContext context) throws CoreException {
+			if (context.getKind() != ISaveContext.FULL_SAVE)
+				return;
+			context.needDelta();
+			save();
+		}
+
+		@Override
+		public void prepareToSave(ISaveContext context) {
+			// nothing to do
+		}
+
+		@Override
+		public void doneSaving(ISaveContext context) {
+			// nothing to do
+		}
+
+		@Override
+		public void rollback(ISaveContext context) {
+			// nothing to do
+		}
+
+		/*
+		 * Replays the resource changes since the last save.
+		 */
+		@Override
+		public void resourceChanged(IResourceChangeEvent event) {
+			IResourceDelta delta= event.getDelta();
+			if (delta == null)
+				return;
+			try {
+				delta.accept(d -> {
+					IResource resource= d.getResource();
+					switch (resource.getType()) {
+						case IResource.PROJECT:
+							if (d.getKind() != IResourceDelta.CHANGED || (d.getFlags() & IResourceDelta.OPEN) != 0) {
+								flush();
+								return false;
+							}
+							return true;
+						case IResource.FILE:
+							String extension= resource.getFileExtension();
+							if ("java".equals(extension)) { //$NON-NLS-1$
+								IJavaElement cu= JavaCore.create((IFile) resource);
+								if (cu instanceof ICompilationUnit) {
+									invalidate(cu.getHandleIdentifier(), d.getKind() != IResourceDelta.REMOVED ? (ICompilationUnit) cu : null);
+								}
+							} else if ("jar".equals(extension) || "zip".equals(extension) || "class".equals(extension) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+									|| ".classpath".equals(resource.getName())) { //$NON-NLS-1$
+								flush();
+							}
+							return false;
+						default:
+							return true;
+					}
+				});
+			} catch (CoreException e) {
+				JavaManipulationPlugin.log(e);
+				flush();
+			}
+		}
+	}
+
+	private static CallerGraph fgInstance;
+
+	public static synchronized CallerGraph getInstance() {
+		if (fgInstance == null)
+			fgInstance= new CallerGraph();
+		return fgInstance;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgInstance == null)
+			return;
+		fgInstance.doShutdown();
+		fgInstance= null;
+	}
+
+	/** Access-ordered, so that the least recently asked entries are evicted first */
+	private final LinkedHashMap<String, Entry> fEntries= new LinkedHashMap<>(64, 0.75f, true);
+	/** Map from member name to the keys of the entries for members with that name */
+	private final Map<String, Set<String>> fKeysByName= new HashMap<>();
+	/** Map from type root handle to the keys of the entries with references in that type root */
+	private final Map<String, Set<String>> fKeysByTypeRoot= new HashMap<>();
+
+	/** Changed compilation units whose source has yet to be scanned, by handle identifier */
+	private final Map<String, ICompilationUnit> fPendingScans= new LinkedHashMap<>();
+	/** Serializes the scans, so that a query waits for a scan that is in progress */
+	private final Object fScanLock= new Object();
+	private final Job fScanJob;
+
+	private final IElementChangedListener fDeltaListener;
+	private final CallerGraphSaveParticipant fSaveParticipant;
+
+	/** Incremented for every change that may invalidate an entry */
+	private long fModificationStamp= 0;
+	private boolean fDirty= false;
+
+	private int fHits= 0;
+	private int fMisses= 0;
+	private int fInvalidations= 0;
+
+	private CallerGraph() {
+		fScanJob= Job.create("Caller Graph Update", monitor -> { //$NON-NLS-1$
+			scanPending();
+			return Status.OK_STATUS;
+		});
+		fScanJob.setSystem(true);
+		fDeltaListener= new CallerGraphDeltaListener();
+		fSaveParticipant= new CallerGraphSaveParticipant();
+		JavaCore.addElementChangedListener(fDeltaListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		try {
+			ISavedState savedState= ResourcesPlugin.getWorkspace().addSaveParticipant(JavaManipulation.ID_PLUGIN, fSaveParticipant);
+			if (savedState != null && load()) {
+				savedState.processResourceChangeEvents(fSaveParticipant);
+			} else {
+				// without the changes since the last save, the stored graph cannot be trusted
+				getFile().delete();
+			}
+		} catch (CoreException e) {
+			JavaManipulationPlugin.log(e);
+			flush();
+		}
+	}
+
+	/**
+	 * Returns the stamp to pass to {@link #addCallers(IMember, int, long, List)} for the
+	 * results of a search that is about to start.
+	 *
+	 * @return the current modification stamp
+	 */
+	public synchronized long getModificationStamp() {
+		return fModificationStamp;
+	}
+
+	/**
+	 * Answers the remembered callers of a member.
+	 *
+	 * @param member the referenced member
+	 * @param limitTo the search limit used to find the references
+	 * @return a map from handle identifier to {@link MethodCall} with the filters applied, or
+	 *         <code>null</code> if the callers of the member are not known
+	 */
+	public Map<String, MethodCall> getCallers(IMember member, int limitTo) {
+		scanPending();
+		Entry entry;
+		synchronized (this) {
+			entry= fEntries.get(getKey(member, limitTo));
+			if (entry == null) {
+				fMisses++;
+				return null;
+			}
+			fHits++;
+		}
+		IMember[] callers= new IMember[entry.fCallers.length];
+		for (int i= 0; i < callers.length; i++) {
+			IJavaElement caller= JavaCore.create(entry.fCallers[i]);
+			if (!(caller instanceof IMember))
+				return null;
+			callers[i]= (IMember) caller;
+		}
+		CallSearchResultCollector collector= new CallSearchResultCollector();
+		int[] locations= entry.fLocations;
+		for (int i= 0; i < locations.length; i+= 3) {
+			IMember caller= callers[locations[i]];
+			collector.addMember(caller, caller, locations[i + 1], locations[i + 2]);
+		}
+		return collector.getCallers();
+	}
+
+	/**
+	 * Remembers the callers of a member.
+	 *
+	 * @param member the referenced member
+	 * @param limitTo the search limit used to find the references
+	 * @param stamp the modification stamp from before the search was started; the callers
+	 *            are not remembered if the workspace has changed since
+	 * @param locations the unfiltered references to the member
+	 */
+	public void addCallers(IMember member, int limitTo, long stamp, List<CallLocation> locations) {
+		Map<String, Integer> indices= new LinkedHashMap<>();
+		int[] offsets= new int[locations.size() * 3];
+		int i= 0;
+		for (CallLocation location : locations) {
+			String handle= location.getMember().getHandleIdentifier();
+			Integer index= indices.get(handle);
+			if (index == null) {
+				index= Integer.valueOf(indices.size());
+				indices.put(handle, index);
+			}
+			offsets[i++]= index.intValue();
+			offsets[i++]= location.getStart();
+			offsets[i++]= location.getEnd();
+		}
+		Entry entry= new Entry(getName(member), indices.keySet().toArray(new String[indices.size()]), offsets);
+		synchronized (this) {
+			if (stamp != fModificationStamp)
+				return;
+			put(getKey(member, limitTo), entry);
+			fDirty= true;
+		}
+	}
+
+	/**
+	 * Drops the whole graph.
+	 */
+	public synchronized void flush() {
+		fModificationStamp++;
+		fPendingScans.clear();
+		if (fEntries.isEmpty())
+			return;
+		fInvalidations+= fEntries.size();
+		fEntries.clear();
+		fKeysByName.clear();
+		fKeysByTypeRoot.clear();
+		fDirty= true;
+	}
+
+	/**
+	 * @return the number of caller queries that were answered from the graph
+	 */
+	public synchronized int getHitCount() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of caller queries that needed a live search
+	 */
+	public synchronized int getMissCount() {
+		return fMisses;
+	}
+
+	/**
+	 * @return the number of entries that have been dropped because of workspace changes
+	 */
+	public synchronized int getInvalidationCount() {
+		return fInvalidations;
+	}
+
+	/**
+	 * @return the number of members whose callers are known
+	 */
+	public synchronized int getEntryCount() {
+		return fEntries.size();
+	}
+
+	/*
+	 * Drops the entries with references in the given type root and, if the compilation unit is
+	 * given, queues it for the scan that drops the entries for members whose name occurs in its
+	 * source. Nothing is queued if there are no entries.
+	 */
+	private void invalidate(String typeRootHandle, ICompilationUnit cu) {
+		synchronized (this) {
+			fModificationStamp++;
+			if (fEntries.isEmpty())
+				return;
+			Set<String> keys= fKeysByTypeRoot.get(typeRootHandle);
+			if (keys != null) {
+				for (String key : new ArrayList<>(keys))
+					remove(key);
+			}
+			if (cu == null || fEntries.isEmpty())
+				return;
+			fPendingScans.put(typeRootHandle, cu);
+		}
+		fScanJob.schedule(SCAN_DELAY);
+	}
+
+	/*
+	 * Scans the queued compilation units and drops the entries for members whose name occurs
+	 * in their source.
+	 */
+	private void scanPending() {
+		synchronized (fScanLock) {
+			List<ICompilationUnit> cus;
+			synchronized (this) {
+				if (fPendingScans.isEmpty())
+					return;
+				cus= new ArrayList<>(fPendingScans.values());
+				fPendingScans.clear();
+			}
+			for (ICompilationUnit cu : cus) {
+				String source;
+				try {
+					source= cu.getSource();
+				} catch (JavaModelException e) {
+					// ignore, the entries with references into cu have already been dropped
+					continue;
+				}
+				if (source == null)
+					continue;
+				Set<String> names= collectIdentifiers(source);
+				synchronized (this) {
+					if (fEntries.isEmpty())
+						return;
+					for (Iterator<Map.Entry<String, Set<String>>> iter= fKeysByName.entrySet().iterator(); iter.hasNext();) {
+						Map.Entry<String, Set<String>> byName= iter.next();
+						String name= byName.getKey();
+						if (names != null ? names.contains(name) : source.contains(name)) {
+							for (String key : byName.getValue())
+								removeEntry(key, false);
+							iter.remove();
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private void put(String key, Entry entry) {
+		remove(key);
+		fEntries.put(key, entry);
+		fKeysByName.computeIfAbsent(entry.fName, k -> new HashSet<>()).add(key);
+		for (String typeRoot : entry.fTypeRoots)
+			fKeysByTypeRoot.computeIfAbsent(typeRoot, k -> new HashSet<>()).add(key);
+		if (fEntries.size() > MAX_ENTRIES)
+			removeEntry(fEntries.keySet().iterator().next(), true);
+	}
+
+	private void remove(String key) {
+		removeEntry(key, true);
+	}
+
+	private void removeEntry(String key, boolean updateNames) {
+		Entry entry= fEntries.remove(key);
+		if (entry == null)
+			return;
+		fInvalidations++;
+		fDirty= true;
+		if (updateNames)
+			removeKey(fKeysByName, entry.fName, key);
+		for (String typeRoot : entry.fTypeRoots)
+			removeKey(fKeysByTypeRoot, typeRoot, key);
+	}
+
+	private static void removeKey(Map<String, Set<String>> keysByName, String name, String key) {
+		Set<String> keys= keysByName.get(name);
+		if (keys != null) {
+			keys.remove(key);
+			if (keys.isEmpty())
+				keysByName.remove(name);
+		}
+	}
+
+	private static String getKey(IMember member, int limitTo) {
+		return member.getHandleIdentifier() + '#' + limitTo;
+	}
+
+	/*
+	 * The name that every reference to the member contains. References to constructors
+	 * contain the type name, and so does the element name of a constructor.
+	 */
+	private static String getName(IMember member) {
+		if (member.getElementType() == IJavaElement.INITIALIZER)
+			return member.getDeclaringType().getElementName();
+		return member.getElementName();
+	}
+
+	private static String getTypeRootHandle(IJavaElement element) {
+		if (!(element instanceof IMember))
+			return null;
+		ITypeRoot typeRoot= ((IMember) element).getTypeRoot();
+		return typeRoot != null ? typeRoot.getHandleIdentifier() : null;
+	}
+
+	/*
+	 * Returns the identifiers in the given source, or null if the source cannot be scanned.
+	 */
+	private static Set<String> collectIdentifiers(String source) {
+		IScanner scanner= ToolFactory.createScanner(false, false, false, false);
+		scanner.setSource(source.toCharArray());
+		Set<String> identifiers= new HashSet<>();
+		try {
+			int token;
+			while ((token= scanner.getNextToken()) != ITerminalSymbols.TokenNameEOF) {
+				if (token == ITerminalSymbols.TokenNameIdentifier)
+					identifiers.add(new String(scanner.getCurrentTokenSource()));
+			}
+		} catch (InvalidInputException e) {
+			return null;
+		}
+		return identifiers;
+	}
+
+	private File getFile() {
+		IPath stateLocation= JavaManipulationPlugin.getDefault().getStateLocation();
+		return stateLocation.append(FILE_NAME).toFile();
+	}
+
+	private boolean load() {
+		File file= getFile();
+		if (!file.exists())
+			return false;
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != FILE_VERSION)
+				return false;
+			int count= in.readInt();
+			synchronized (this) {
+				for (int e= 0; e < count; e++) {
+					String key= in.readUTF();
+					String name= in.readUTF();
+					String[] callers= new String[in.readInt()];
+					for (int i= 0; i < callers.length; i++)
+						callers[i]= in.readUTF();
+					int[] locations= new int[in.readInt()];
+					for (int i= 0; i < locations.length; i++)
+						locations[i]= in.readInt();
+					put(key, new Entry(name, callers, locations));
+				}
+				fDirty= false;
+			}
+			return true;
+		} catch (IOException e) {
+			JavaManipulationPlugin.log(e);
+			flush();
+			return false;
+		}
+	}
+
+	private synchronized void save() {
+		if (!fDirty)
+			return;
+		File file= getFile();
+		try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(FILE_VERSION);
+			out.writeInt(fEntries.size());
+			for (Map.Entry<String, Entry> mapEntry : fEntries.entrySet()) {
+				Entry entry= mapEntry.getValue();
+				out.writeUTF(mapEntry.getKey());
+				out.writeUTF(entry.fName);
+				out.writeInt(entry.fCallers.length);
+				for (String caller : entry.fCallers)
+					out.writeUTF(caller);
+				out.writeInt(entry.fLocations.length);
+				for (int location : entry.fLocations)
+					out.writeInt(location);
+			}
+			fDirty= false;
+		} catch (IOException e) {
+			JavaManipulationPlugin.log(e);
+			file.delete();
+		}
+	}
+
+	private void doShutdown() {
+		JavaCore.removeElementChangedListener(fDeltaListener);
+		fScanJob.cancel();
+		ResourcesPlugin.getWorkspace().removeSaveParticipant(JavaManipulation.ID_PLUGIN);
+	}
+}
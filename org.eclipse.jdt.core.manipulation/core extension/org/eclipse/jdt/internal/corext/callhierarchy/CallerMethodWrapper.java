@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -137,8 +137,8 @@ public class CallerMethodWrapper extends MethodWrapper {
 							SearchUtils.GENERICS_AGNOSTIC_MATCH_RULE);
 				}
 			}
+			int limitTo= IJavaSearchConstants.REFERENCES;
 			if (pattern == null) {
-				int limitTo= IJavaSearchConstants.REFERENCES;
 				if (member.getElementType() == IJavaElement.FIELD)
 					limitTo= getFieldSearchMode();
 				pattern= SearchPattern.createPattern(member, limitTo, SearchUtils.GENERICS_AGNOSTIC_MATCH_RULE);
@@ -147,13 +147,24 @@ public class CallerMethodWrapper extends MethodWrapper {
 				return new HashMap<>(0);
 			}
 
-			SearchEngine searchEngine= new SearchEngine();
-			MethodReferencesSearchRequestor searchRequestor= new MethodReferencesSearchRequestor();
 			IJavaSearchScope defaultSearchScope= getSearchScope();
 			boolean isWorkspaceScope= SearchEngine.createWorkspaceScope().equals(defaultSearchScope);
+			CallerGraph callerGraph= isWorkspaceScope ? CallHierarchyCore.getDefault().getCallerGraph() : null;
+			long stamp= 0;
+			if (callerGraph != null) {
+				Map<String, MethodCall> callers= callerGraph.getCallers(member, limitTo);
+				if (callers != null)
+					return callers;
+				stamp= callerGraph.getModificationStamp();
+			}
+
+			SearchEngine searchEngine= new SearchEngine();
+			MethodReferencesSearchRequestor searchRequestor= new MethodReferencesSearchRequestor(callerGraph != null);
 			IJavaSearchScope searchScope= isWorkspaceScope ? getAccurateSearchScope(defaultSearchScope, member) : defaultSearchScope;
 			searchEngine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, searchScope, searchRequestor,
 					monitor);
+			if (callerGraph != null)
+				callerGraph.addCallers(member, limitTo, stamp, searchRequestor.getLocations());
 			return searchRequestor.getCallers();
 
 		} catch (CoreException e) {
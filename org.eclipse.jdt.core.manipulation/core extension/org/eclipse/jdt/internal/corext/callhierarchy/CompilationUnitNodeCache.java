@@ -0,0 +1,292 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.callhierarchy;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.ISourceRange;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import org.eclipse.jdt.internal.core.manipulation.JavaManipulationPlugin;
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+
+/**
+ * The ASTs with bindings analyzed by {@link CalleeMethodWrapper}.
+ * <p>
+ * The first callee request for a compilation unit or class file parses it with a focal
+ * position in the requested method, so that the bodies of all other methods are skipped and
+ * no bindings are resolved for them. When callees of another member of the same type root
+ * are requested while its AST is still cached, the type root is parsed completely once and
+ * that AST answers all further requests.
+ * </p>
+ * <p>
+ * An AST is only reused while the source of its type root is unchanged. ASTs with bindings
+ * are expensive to keep, so only the most recently used ones are cached, and the cache is
+ * flushed when the call hierarchy view is closed. A Java element delta drops the ASTs of the
+ * compilation units it changes. Since bindings depend on other type roots, the whole cache is
+ * only flushed by deltas that may change the bindings of other units: classpath and root
+ * changes, added or removed packages, units, class files, types and members, changed super
+ * types or modifiers, and content changes that do not come with a fine-grained delta. Body
+ * changes of members keep the ASTs of other units. Clients must not visit a cached AST
+ * concurrently (see {@link #getCompilationUnitNode(IMember)}).
+ * </p>
+ */
+public final class CompilationUnitNodeCache {
+
+	private static final int MAX_ENTRIES= 3;
+
+	private static final class Entry {
+		final String fTypeRoot;
+		final String fSource;
+		/** Handle of the member whose body has been kept, or <code>null</code> if all bodies have been kept */
+		final String fFocalMember;
+		final CompilationUnit fNode;
+
+		Entry(String typeRoot, String source, String focalMember, CompilationUnit node) {
+			fTypeRoot= typeRoot;
+			fSource= source;
+			fFocalMember= focalMember;
+			fNode= node;
+		}
+
+		boolean covers(String member) {
+			return fFocalMember == null || fFocalMember.equals(member);
+		}
+	}
+
+	/** Most recently used entry first */
+	private static final LinkedList<Entry> fgEntries= new LinkedList<>();
+
+	/** Installed while there are entries */
+	private static final IElementChangedListener fgFlushListener= event -> {
+		Set<String> changed= new HashSet<>();
+		if (collectChanges(event.getDelta(), changed))
+			flush();
+		else if (!changed.isEmpty())
+			remove(changed);
+	};
+	private static boolean fgListening= false;
+
+	private static int fgParses= 0;
+	private static int fgFocalParses= 0;
+	private static int fgHits= 0;
+
+	private CompilationUnitNodeCache() {
+	}
+
+	/**
+	 * Returns an AST with bindings for the type root of the given member, in which at least
+	 * the declaration of the member is complete. The returned AST may be shared with other
+	 * threads; visitors that resolve bindings must synchronize on it.
+	 *
+	 * @param member the member to analyze
+	 * @return the AST, or <code>null</code> if the type root has no source
+	 */
+	static CompilationUnit getCompilationUnitNode(IMember member) {
+		ITypeRoot typeRoot= member.getTypeRoot();
+		String source;
+		try {
+			if (!typeRoot.exists() || typeRoot.getBuffer() == null)
+				return null;
+			source= typeRoot.getSource();
+		} catch (JavaModelException e) {
+			JavaManipulationPlugin.log(e);
+			return null;
+		}
+
+		String typeRootHandle= typeRoot.getHandleIdentifier();
+		String memberHandle= member.getHandleIdentifier();
+		boolean complete;
+		synchronized (fgEntries) {
+			Entry entry= find(typeRootHandle, source);
+			if (entry != null && entry.covers(memberHandle)) {
+				fgEntries.remove(entry);
+				fgEntries.addFirst(entry);
+				fgHits++;
+				return entry.fNode;
+			}
+			// a second member of the same type root: parse completely, so that all others are covered
+			complete= entry != null;
+		}
+
+		int focalPosition= complete ? -1 : getFocalPosition(member);
+		ASTParser parser= ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		parser.setSource(typeRoot);
+		parser.setResolveBindings(true);
+		if (focalPosition != -1)
+			parser.setFocalPosition(focalPosition);
+		CompilationUnit node= (CompilationUnit) parser.createAST(null);
+
+		synchronized (fgEntries) {
+			fgParses++;
+			if (focalPosition != -1)
+				fgFocalParses++;
+			for (Iterator<Entry> iter= fgEntries.iterator(); iter.hasNext();) {
+				if (iter.next().fTypeRoot.equals(typeRootHandle))
+					iter.remove();
+			}
+			fgEntries.addFirst(new Entry(typeRootHandle, source, focalPosition != -1 ? memberHandle : null, node));
+			while (fgEntries.size() > MAX_ENTRIES)
+				fgEntries.removeLast();
+			if (!fgListening) {
+				JavaCore.addElementChangedListener(fgFlushListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+				fgListening= true;
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Drops all cached ASTs.
+	 */
+	public static void flush() {
+		synchronized (fgEntries) {
+			fgEntries.clear();
+			if (fgListening) {
+				JavaCore.removeElementChangedListener(fgFlushListener);
+				fgListening= false;
+			}
+		}
+	}
+
+	private static void remove(Set<String> typeRoots) {
+		synchronized (fgEntries) {
+			for (Iterator<Entry> iter= fgEntries.iterator(); iter.hasNext();) {
+				if (typeRoots.contains(iter.next().fTypeRoot))
+					iter.remove();
+			}
+			if (fgEntries.isEmpty() && fgListening) {
+				JavaCore.removeElementChangedListener(fgFlushListener);
+				fgListening= false;
+			}
+		}
+	}
+
+	/*
+	 * Collects the handles of the changed compilation units and returns whether the delta may
+	 * change the bindings of other type roots.
+	 */
+	private static boolean collectChanges(IJavaElementDelta delta, Set<String> changed) {
+		int flags= delta.getFlags();
+		boolean isChanged= delta.getKind() == IJavaElementDelta.CHANGED;
+		IJavaElement element= delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				if (!isChanged || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+						| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0)
+					return true;
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (!isChanged || (flags & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+						| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_REORDER)) != 0)
+					return true;
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (!isChanged)
+					return true;
+				break;
+			case IJavaElement.CLASS_FILE:
+				return true;
+			case IJavaElement.COMPILATION_UNIT:
+				changed.add(element.getHandleIdentifier());
+				if (!isChanged)
+					return true;
+				if ((flags & IJavaElementDelta.F_CONTENT) != 0 && (flags & IJavaElementDelta.F_FINE_GRAINED) == 0)
+					return true;
+				break;
+			case IJavaElement.PACKAGE_DECLARATION:
+			case IJavaElement.IMPORT_CONTAINER:
+			case IJavaElement.IMPORT_DECLARATION:
+				// only affect the bindings of their own unit
+				return false;
+			default:
+				if (!isChanged || (flags & (IJavaElementDelta.F_SUPER_TYPES | IJavaElementDelta.F_MODIFIERS)) != 0)
+					return true;
+				break;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (collectChanges(child, changed))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return the number of parses, including focal ones
+	 */
+	public static int getParseCount() {
+		synchronized (fgEntries) {
+			return fgParses;
+		}
+	}
+
+	/**
+	 * @return the number of parses that skipped the bodies of other methods
+	 */
+	public static int getFocalParseCount() {
+		synchronized (fgEntries) {
+			return fgFocalParses;
+		}
+	}
+
+	/**
+	 * @return the number of requests answered with a cached AST
+	 */
+	public static int getHitCount() {
+		synchronized (fgEntries) {
+			return fgHits;
+		}
+	}
+
+	private static Entry find(String typeRoot, String source) {
+		for (Entry entry : fgEntries) {
+			if (entry.fTypeRoot.equals(typeRoot))
+				return Objects.equals(entry.fSource, source) ? entry : null;
+		}
+		return null;
+	}
+
+	/*
+	 * A position inside the declaration of the given method, or -1 if the whole type root
+	 * has to be parsed. The end of the source range is used, because the start may be in a
+	 * long Javadoc comment; for lambda methods, it is inside the enclosing method.
+	 */
+	private static int getFocalPosition(IMember member) {
+		if (member.getElementType() != IJavaElement.METHOD)
+			return -1;
+		try {
+			ISourceRange range= member.getSourceRange();
+			if (range == null || !ISourceRange.isAvailable(range) || range.getLength() == 0)
+				return -1;
+			return range.getOffset() + range.getLength() - 1;
+		} catch (JavaModelException e) {
+			return -1;
+		}
+	}
+}
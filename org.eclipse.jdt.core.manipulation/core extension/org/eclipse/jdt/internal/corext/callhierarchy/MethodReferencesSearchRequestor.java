@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.callhierarchy;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.jdt.core.IJavaElement;
@@ -24,15 +26,33 @@ import org.eclipse.jdt.core.search.SearchRequestor;
 class MethodReferencesSearchRequestor extends SearchRequestor {
     private CallSearchResultCollector fSearchResults;
     private boolean fRequireExactMatch = true;
+    private List<CallLocation> fLocations;
 
     MethodReferencesSearchRequestor() {
+        this(false);
+    }
+
+    /**
+     * @param recordLocations <code>true</code> to also record all references, regardless of the
+     *            call hierarchy filters
+     */
+    MethodReferencesSearchRequestor(boolean recordLocations) {
         fSearchResults = new CallSearchResultCollector();
+        if (recordLocations)
+            fLocations = new ArrayList<>();
     }
 
     public Map<String, MethodCall> getCallers() {
         return fSearchResults.getCallers();
     }
 
+    /**
+     * @return the unfiltered references, or <code>null</code> if references are not recorded
+     */
+    public List<CallLocation> getLocations() {
+        return fLocations;
+    }
+
     @Override
 	public void acceptSearchMatch(SearchMatch match) {
         if (fRequireExactMatch && (match.getAccuracy() != SearchMatch.A_ACCURATE)) {
@@ -51,6 +71,8 @@ class MethodReferencesSearchRequestor extends SearchRequestor {
                 case IJavaElement.FIELD:
                 case IJavaElement.INITIALIZER:
                     fSearchResults.addMember(member, member, match.getOffset(), match.getOffset()+match.getLength());
+                    if (fLocations != null)
+                        fLocations.add(new CallLocation(member, member, match.getOffset(), match.getOffset()+match.getLength(), CallLocation.UNKNOWN_LINE_NUMBER));
                     break;
             }
         }
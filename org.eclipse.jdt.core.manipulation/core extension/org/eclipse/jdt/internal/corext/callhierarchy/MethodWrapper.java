@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ package org.eclipse.jdt.internal.corext.callhierarchy;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -52,6 +53,8 @@ public abstract class MethodWrapper extends PlatformObject {
      * A cache of previously found methods. This cache should be searched
      * before adding a "new" method object reference to the list of elements.
      * This way previously found methods won't be searched again.
+     * The cache is shared by all wrappers of a hierarchy, which may be
+     * searched concurrently (see CallHierarchyExpander).
      */
     private Map<String, Map<String, MethodCall>> fMethodCache;
     private final MethodCall fMethodCall;
@@ -67,7 +70,7 @@ public abstract class MethodWrapper extends PlatformObject {
         Assert.isNotNull(methodCall);
 
         if (parent == null) {
-            setMethodCache(new HashMap<String, Map<String, MethodCall>>());
+            setMethodCache(new ConcurrentHashMap<String, Map<String, MethodCall>>());
             fLevel = 1;
         } else {
             setMethodCache(parent.getMethodCache());
@@ -167,11 +170,6 @@ public abstract class MethodWrapper extends PlatformObject {
 
     protected abstract String getTaskName();
 
-    private void addCallToCache(MethodCall methodCall) {
-        Map<String, MethodCall> cachedCalls = lookupMethod(this.getMethodCall());
-        cachedCalls.put(methodCall.getKey(), methodCall);
-    }
-
 	/**
 	 * Creates a method wrapper for the child of the receiver.
 	 *
@@ -183,12 +181,10 @@ public abstract class MethodWrapper extends PlatformObject {
     private void doFindChildren(IProgressMonitor progressMonitor) {
         Map<String, MethodCall> existingResults = lookupMethod(getMethodCall());
 
-        if (existingResults != null && !existingResults.isEmpty()) {
+        if (existingResults != null) {
             fElements = new HashMap<>();
             fElements.putAll(existingResults);
         } else {
-            initCalls();
-
             if (progressMonitor != null) {
                 progressMonitor.beginTask(getTaskName(), 100);
             }
@@ -206,6 +202,17 @@ public abstract class MethodWrapper extends PlatformObject {
         }
     }
 
+    /**
+     * Tells whether the calls of this wrapper are known, so that {@link #getCalls(IProgressMonitor)}
+     * answers without searching.
+     *
+     * @return <code>true</code> if the calls have already been searched for this wrapper or for
+     *         another wrapper of the same member in this hierarchy
+     */
+    public boolean hasCachedCalls() {
+        return fElements != null || lookupMethod(getMethodCall()) != null;
+    }
+
     /**
      * Determines if the method represents a recursion call (i.e. whether the
      * method call is already in the cache.)
@@ -247,12 +254,6 @@ public abstract class MethodWrapper extends PlatformObject {
         return fMethodCache;
     }
 
-    private void initCalls() {
-        this.fElements = new HashMap<>();
-
-        initCacheForMethod();
-    }
-
     /**
      * Looks up a previously created search result in the "global" cache.
      * @param methodCall the method call
@@ -265,23 +266,21 @@ public abstract class MethodWrapper extends PlatformObject {
     private void performSearch(IProgressMonitor progressMonitor) {
         fElements = findChildren(progressMonitor);
 
+        // only publish complete results, other wrappers may look them up concurrently
+        Map<String, MethodCall> cachedCalls = new HashMap<>();
         for (String string : fElements.keySet()) {
             checkCanceled(progressMonitor);
 
             MethodCall methodCall = getMethodCallFromMap(fElements, string);
-            addCallToCache(methodCall);
+            cachedCalls.put(methodCall.getKey(), methodCall);
         }
+        getMethodCache().put(getMethodCall().getKey(), cachedCalls);
     }
 
     private MethodCall getMethodCallFromMap(Map<String, MethodCall> elements, String key) {
         return elements.get(key);
     }
 
-    private void initCacheForMethod() {
-        Map<String, MethodCall> cachedCalls = new HashMap<>();
-        getMethodCache().put(this.getMethodCall().getKey(), cachedCalls);
-    }
-
     /**
      * Checks with the progress monitor to see whether the creation of the type hierarchy
      * should be canceled. Should be regularly called
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.generics;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.ConstraintVariable2;
+
+/**
+ * FIFO work-list of {@link ConstraintVariable2}s that holds every variable at most once.
+ * <p>
+ * Each variable is given a dense id when it is first offered. The queue itself is a ring
+ * buffer of ids, and a bit set records which ids are currently queued, so that re-adding
+ * a variable that is still waiting to be processed is a no-op.
+ * </p>
+ */
+class ConstraintVariableWorkList {
+
+	private final Map<ConstraintVariable2, Integer> fIds;
+	private final ArrayList<ConstraintVariable2> fVariables;
+	private final BitSet fQueued= new BitSet();
+
+	private int[] fQueue;
+	private int fHead= 0;
+	private int fSize= 0;
+
+	/**
+	 * @param variables the initial work-list; ids are assigned in array order
+	 */
+	public ConstraintVariableWorkList(ConstraintVariable2[] variables) {
+		fIds= new IdentityHashMap<>(variables.length * 2);
+		fVariables= new ArrayList<>(variables.length);
+		fQueue= new int[Math.max(16, variables.length)];
+		addAll(variables);
+	}
+
+	public boolean isEmpty() {
+		return fSize == 0;
+	}
+
+	public int size() {
+		return fSize;
+	}
+
+	public void addAll(ConstraintVariable2[] variables) {
+		for (ConstraintVariable2 variable : variables)
+			add(variable);
+	}
+
+	public void add(ConstraintVariable2 variable) {
+		int id= getId(variable);
+		if (fQueued.get(id))
+			return;
+		fQueued.set(id);
+		if (fSize == fQueue.length)
+			grow();
+		fQueue[(fHead + fSize) % fQueue.length]= id;
+		fSize++;
+	}
+
+	public ConstraintVariable2 removeFirst() {
+		int id= fQueue[fHead];
+		fHead= (fHead + 1) % fQueue.length;
+		fSize--;
+		fQueued.clear(id);
+		return fVariables.get(id);
+	}
+
+	private int getId(ConstraintVariable2 variable) {
+		Integer id= fIds.get(variable);
+		if (id != null)
+			return id.intValue();
+		int newId= fVariables.size();
+		fVariables.add(variable);
+		fIds.put(variable, Integer.valueOf(newId));
+		return newId;
+	}
+
+	private void grow() {
+		int[] queue= new int[fQueue.length * 2];
+		for (int i= 0; i < fSize; i++)
+			queue[i]= fQueue[(fHead + i) % fQueue.length];
+		fQueue= queue;
+		fHead= 0;
+	}
+}
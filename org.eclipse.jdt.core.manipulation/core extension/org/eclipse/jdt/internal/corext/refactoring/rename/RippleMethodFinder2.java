@@ -64,6 +64,11 @@ public class RippleMethodFinder2 {
 	private MultiMap<IType, IType> fRootReps;
 	private Map<IType, ITypeHierarchy> fRootHierarchies;
 	private UnionFind fUnionFind;
+	/**
+	 * Type hierarchies computed for a focus type (<code>hierarchy.getType().equals(key)</code>),
+	 * possibly shared with the caller so that later phases can reuse them.
+	 */
+	private final Map<IType, ITypeHierarchy> fTypeHierarchies;
 
 	private final boolean fExcludeBinaries;
 	private final ReferencesInBinaryContext fBinaryRefs;
@@ -139,13 +144,15 @@ public class RippleMethodFinder2 {
 		fExcludeBinaries= excludeBinaries;
 		fSearchOnlyInCompilationUnit= searchOnlyInCompilationUnit;
 		fBinaryRefs= null;
+		fTypeHierarchies= new HashMap<>();
 	}
 
-	private RippleMethodFinder2(IMethod method, ReferencesInBinaryContext binaryRefs) {
+	private RippleMethodFinder2(IMethod method, ReferencesInBinaryContext binaryRefs, Map<IType, ITypeHierarchy> typeHierarchies) {
 		fMethod= method;
 		fExcludeBinaries= true;
 		fDeclarationToMatch= new HashMap<>();
 		fBinaryRefs= binaryRefs;
+		fTypeHierarchies= typeHierarchies;
 	}
 
 	public static IMethod[] getRelatedMethods(IMethod method, boolean excludeBinaries, IProgressMonitor pm, WorkingCopyOwner owner) throws CoreException {
@@ -173,11 +180,29 @@ public class RippleMethodFinder2 {
 	}
 
 	public static IMethod[] getRelatedMethods(IMethod method, ReferencesInBinaryContext binaryRefs, IProgressMonitor pm, WorkingCopyOwner owner) throws CoreException {
+		return getRelatedMethods(method, binaryRefs, new HashMap<>(), pm, owner);
+	}
+
+	/**
+	 * Finds the ripple methods of the given method.
+	 *
+	 * @param method the method
+	 * @param binaryRefs the context to which binary ripple methods are added
+	 * @param typeHierarchies a cache of type hierarchies keyed by their focus type. Hierarchies in
+	 *            the cache are reused, and hierarchies computed while finding the ripple methods
+	 *            are added, so that the caller can reuse them for later checks. The hierarchies
+	 *            must have been created for the given working copy owner.
+	 * @param pm the progress monitor
+	 * @param owner the working copy owner, or <code>null</code>
+	 * @return the ripple methods
+	 * @throws CoreException if the search or creating a type hierarchy fails
+	 */
+	public static IMethod[] getRelatedMethods(IMethod method, ReferencesInBinaryContext binaryRefs, Map<IType, ITypeHierarchy> typeHierarchies, IProgressMonitor pm, WorkingCopyOwner owner) throws CoreException {
 		try {
 			if (! MethodChecks.isVirtual(method))
 				return new IMethod[]{ method };
 
-			return new RippleMethodFinder2(method, binaryRefs).getAllRippleMethods(pm, owner);
+			return new RippleMethodFinder2(method, binaryRefs, typeHierarchies).getAllRippleMethods(pm, owner);
 		} finally{
 			pm.done();
 		}
@@ -304,10 +329,9 @@ public class RippleMethodFinder2 {
 			for (IType alienType : alienTypes) {
 				checkCanceled(pm);
 				Collection<IMethod> alienMethods= fTypeToMethod.get(alienType);
+				IType[] alienSubtypes= hierarchy(pm, owner, alienType).getAllSubtypes(alienType);
 				for (IMethod alienMethod : alienMethods) {
-					ITypeHierarchy hierarchy= hierarchy(pm, owner, alienType);
-
-					for (IType subtype : hierarchy.getAllSubtypes(alienType)) {
+					for (IType subtype : alienSubtypes) {
 						if (relatedSubTypes.contains(subtype)) {
 							if (JavaModelUtil.isVisibleInHierarchy(alienMethod, subtype.getPackageFragment())) {
 								marriedAlienTypeReps.add(fUnionFind.find(alienType));
@@ -357,7 +381,10 @@ public class RippleMethodFinder2 {
 
 		for (IType methodTypeSubtype : methodTypeSubtypes) {
 			checkCanceled(pm);
-			ITypeHierarchy subtypeHierarchy= methodTypeSubtype.newTypeHierarchy(owner, pm);
+			// only the supertypes are of interest, don't pay for a search of all subtypes:
+			ITypeHierarchy subtypeHierarchy= fTypeHierarchies.get(methodTypeSubtype);
+			if (subtypeHierarchy == null)
+				subtypeHierarchy= methodTypeSubtype.newSupertypeHierarchy(owner, pm);
 			IType[] subtypeSuperTypes= subtypeHierarchy.getAllSupertypes(methodTypeSubtype);
 			for (IType subtypeSuperType : subtypeSuperTypes) {
 				checkCanceled(pm);
@@ -401,9 +428,14 @@ public class RippleMethodFinder2 {
 
 	private ITypeHierarchy hierarchy(IProgressMonitor pm, WorkingCopyOwner owner, IType type)
 			throws JavaModelException {
-		ITypeHierarchy hierarchy= getCachedHierarchy(type, owner, new SubProgressMonitor(pm, 1));
-		if (hierarchy == null)
+		ITypeHierarchy hierarchy= fTypeHierarchies.get(type);
+		if (hierarchy != null)
+			return hierarchy;
+		hierarchy= getCachedHierarchy(type, owner, new SubProgressMonitor(pm, 1));
+		if (hierarchy == null) {
 			hierarchy= type.newTypeHierarchy(owner, new SubProgressMonitor(pm, 1));
+			fTypeHierarchies.put(type, hierarchy);
+		}
 		return hierarchy;
 	}
 
@@ -423,7 +455,11 @@ public class RippleMethodFinder2 {
 			for (IType root : fRootReps.get(rep)) {
 				ITypeHierarchy hierarchy= fRootHierarchies.get(root);
 				if (hierarchy == null) {
-					hierarchy= root.newTypeHierarchy(owner, new SubProgressMonitor(monitor, 1));
+					hierarchy= fTypeHierarchies.get(root);
+					if (hierarchy == null) {
+						hierarchy= root.newTypeHierarchy(owner, new SubProgressMonitor(monitor, 1));
+						fTypeHierarchies.put(root, hierarchy);
+					}
 					fRootHierarchies.put(root, hierarchy);
 				}
 				if (hierarchy.contains(type))
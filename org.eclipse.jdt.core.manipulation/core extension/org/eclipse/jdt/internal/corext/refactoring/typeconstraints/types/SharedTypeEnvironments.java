@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Assert;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Project-scoped {@link TypeEnvironment}s that are shared between refactorings, so that
+ * the types of the JDK and of libraries are not re-created for every invocation.
+ * <p>
+ * Types remember their super types, so all shared environments are dropped as soon as a
+ * Java element delta may have changed the type structure: classpath changes, added or
+ * removed roots, packages, compilation units and class files, changed archives and class
+ * files, and types that have been added or removed or whose super types or modifiers have
+ * changed. Only deltas of saved changes are considered; reconciling a working copy does not
+ * drop the environments. Content changes of compilation units that do not come with a
+ * fine-grained delta are treated as structure changes. Clients that still hold a dropped
+ * environment can continue to use it; the next request answers a new environment.
+ * </p>
+ * <p>
+ * Shared environments neither remember subtypes nor remove capture types. Clients that
+ * need one of these options must create their own {@link TypeEnvironment}.
+ * </p>
+ */
+public final class SharedTypeEnvironments {
+
+	private class TypeEnvironmentDeltaListener implements IElementChangedListener {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			if (isEmpty())
+				return;
+			if (affectsTypes(event.getDelta()))
+				flush();
+		}
+
+		private boolean affectsTypes(IJavaElementDelta delta) {
+			int flags= delta.getFlags();
+			boolean isChanged= delta.getKind() == IJavaElementDelta.CHANGED;
+			switch (delta.getElement().getElementType()) {
+				case IJavaElement.JAVA_MODEL:
+					break;
+				case IJavaElement.JAVA_PROJECT:
+					if (!isChanged || (flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+							| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED)) != 0)
+						return true;
+					break;
+				case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+					if (!isChanged || (flags & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+							| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_REORDER)) != 0)
+						return true;
+					break;
+				case IJavaElement.PACKAGE_FRAGMENT:
+					if (!isChanged)
+						return true;
+					break;
+				case IJavaElement.CLASS_FILE:
+					return true;
+				case IJavaElement.COMPILATION_UNIT:
+					if (!isChanged)
+						return true;
+					if ((flags & IJavaElementDelta.F_CONTENT) != 0 && (flags & IJavaElementDelta.F_FINE_GRAINED) == 0)
+						return true;
+					break;
+				case IJavaElement.TYPE:
+					if (!isChanged || (flags & (IJavaElementDelta.F_SUPER_TYPES | IJavaElementDelta.F_MODIFIERS)) != 0)
+						return true;
+					break;
+				default:
+					// members, imports and package declarations do not change types
+					return false;
+			}
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				if (affectsTypes(child))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	private static SharedTypeEnvironments fgInstance;
+
+	public static synchronized SharedTypeEnvironments getInstance() {
+		if (fgInstance == null)
+			fgInstance= new SharedTypeEnvironments();
+		return fgInstance;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgInstance == null)
+			return;
+		fgInstance.doShutdown();
+		fgInstance= null;
+	}
+
+	private final Map<IJavaProject, TypeEnvironment> fEnvironments= new HashMap<>();
+	private final IElementChangedListener fDeltaListener;
+
+	private int fRequests= 0;
+	private int fReuses= 0;
+	private int fFlushes= 0;
+
+	private SharedTypeEnvironments() {
+		fDeltaListener= new TypeEnvironmentDeltaListener();
+		JavaCore.addElementChangedListener(fDeltaListener, ElementChangedEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Returns the shared type environment for the given project.
+	 *
+	 * @param project the project whose bindings are converted into types
+	 * @return the type environment
+	 */
+	public synchronized TypeEnvironment getEnvironment(IJavaProject project) {
+		Assert.isNotNull(project);
+		fRequests++;
+		TypeEnvironment result= fEnvironments.get(project);
+		if (result != null) {
+			fReuses++;
+			return result;
+		}
+		result= new TypeEnvironment();
+		fEnvironments.put(project, result);
+		return result;
+	}
+
+	/**
+	 * Drops all shared type environments.
+	 */
+	public synchronized void flush() {
+		if (fEnvironments.isEmpty())
+			return;
+		fEnvironments.clear();
+		fFlushes++;
+	}
+
+	/**
+	 * @return the number of environment requests
+	 */
+	public synchronized int getRequestCount() {
+		return fRequests;
+	}
+
+	/**
+	 * @return the number of environment requests that were answered with an existing environment
+	 */
+	public synchronized int getReuseCount() {
+		return fReuses;
+	}
+
+	/**
+	 * @return the number of times the shared environments have been dropped
+	 */
+	public synchronized int getFlushCount() {
+		return fFlushes;
+	}
+
+	/**
+	 * @return the number of types held by all shared environments
+	 */
+	public synchronized int getTypeCount() {
+		int result= 0;
+		for (TypeEnvironment environment : fEnvironments.values())
+			result+= environment.getTypeCount();
+		return result;
+	}
+
+	private synchronized boolean isEmpty() {
+		return fEnvironments.isEmpty();
+	}
+
+	private void doShutdown() {
+		JavaCore.removeElementChangedListener(fDeltaListener);
+		flush();
+	}
+}
@@ -74,6 +74,7 @@ public abstract class TType {
 	private String fBindingKey;
 	private int fModifiers;
 	private int fFlags;
+	private int fNumber= -1;
 
 	/**
 	 * Creates a new type with the given environment as an owner.
@@ -142,6 +143,20 @@ public abstract class TType {
 		return fEnvironment;
 	}
 
+	/**
+	 * Returns the number of this type in its environment. Equal types
+	 * have the same number, and numbers are assigned densely from
+	 * <code>0</code> in the order in which they are first requested.
+	 *
+	 * @return the type's number
+	 * @see TypeEnvironment#getType(int)
+	 */
+	public final int getNumber() {
+		if (fNumber == -1)
+			fNumber= fEnvironment.number(this);
+		return fNumber;
+	}
+
 	/**
 	 * Returns the key of the binding from which this type
 	 * got constructed.
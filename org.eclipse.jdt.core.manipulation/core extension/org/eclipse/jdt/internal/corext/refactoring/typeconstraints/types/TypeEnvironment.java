@@ -40,6 +40,11 @@ import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
  * A type environment comprises a set of {@link TType}s that stand for Java {@link ITypeBinding}s.
  * In contrast to type bindings, TTypes of the same type environment also work across project boundaries and
  * across compiler environments, i.e. a type environment can handle bindings from multiple {@link ASTParser} sessions.
+ * <p>
+ * Type environments are thread-safe. Types are created under the environment's lock, so other threads never
+ * see a type before it is fully initialized. Environments that are shared between refactorings are available
+ * from {@link SharedTypeEnvironments}.
+ * </p>
  *
  * @see TType
  */
@@ -104,7 +109,7 @@ public class TypeEnvironment {
 		"java.lang.Double",  //$NON-NLS-1$
 		"java.lang.Byte"};  //$NON-NLS-1$
 
-	private TType OBJECT_TYPE= null;
+	private volatile TType OBJECT_TYPE= null;
 
 	private List<Map<TType, ArrayType>>      fArrayTypes= new ArrayList<>();
 	private Map<IJavaElement, StandardType>  fStandardTypes= new HashMap<>();
@@ -117,14 +122,26 @@ public class TypeEnvironment {
 	private Map<TType, SuperWildcardType>    fSuperWildcardTypes= new HashMap<>();
 	private UnboundWildcardType fUnboundWildcardType= null;
 
+	/**
+	 * Numbered types, see {@link TType#getNumber()}. Map from TType to its number,
+	 * and list of TTypes indexed by number.
+	 */
+	private Map<TType, Integer> fTypeNumbers= new HashMap<>();
+	private List<TType> fNumberedTypes= new ArrayList<>();
+
 	private static final int MAX_ENTRIES= 1024;
-	private Map<TypeTuple, Boolean> fSubTypeCache= new LinkedHashMap<>(50, 0.75f, true) {
+	private Map<TypeTuple, Boolean> fSubTypeCache= Collections.synchronizedMap(new LinkedHashMap<TypeTuple, Boolean>(50, 0.75f, true) {
 		private static final long serialVersionUID= 1L;
 		@Override
 		protected boolean removeEldestEntry(Map.Entry<TypeTuple, Boolean> eldest) {
 			return size() > MAX_ENTRIES;
 		}
-	};
+	});
+
+	/** Number of type requests answered with an existing type */
+	private long fHits= 0;
+	/** Number of types created */
+	private long fMisses= 0;
 
 	/**
 	 * Map from TType to its known subtypes, or <code>null</code> iff subtype
@@ -186,7 +203,7 @@ public class TypeEnvironment {
 		return fSubTypeCache;
 	}
 
-	public TType create(ITypeBinding binding) {
+	public synchronized TType create(ITypeBinding binding) {
 		if (binding.isPrimitive()) {
 			return createPrimitiveType(binding);
 		} else if (binding.isArray()) {
@@ -241,7 +258,7 @@ public class TypeEnvironment {
 		return OBJECT_TYPE;
 	}
 
-	public void initializeJavaLangObject(IJavaProject project) {
+	public synchronized void initializeJavaLangObject(IJavaProject project) {
 		if (OBJECT_TYPE != null)
 			return;
 
@@ -249,7 +266,7 @@ public class TypeEnvironment {
 		Assert.isTrue(objectType.isJavaLangObject());
 	}
 
-	void initializeJavaLangObject(ITypeBinding object) {
+	synchronized void initializeJavaLangObject(ITypeBinding object) {
 		if (OBJECT_TYPE != null)
 			return;
 
@@ -266,7 +283,7 @@ public class TypeEnvironment {
 		return null;
 	}
 
-	StandardType createBoxed(PrimitiveType type, IJavaProject focus) {
+	synchronized StandardType createBoxed(PrimitiveType type, IJavaProject focus) {
 		String fullyQualifiedName= BOXED_PRIMITIVE_NAMES[type.getId()];
 		return createStandardType(fullyQualifiedName, focus);
 	}
@@ -275,8 +292,10 @@ public class TypeEnvironment {
 		try {
 			IType javaElementType= focus.findType(fullyQualifiedName);
 			StandardType result= fStandardTypes.get(javaElementType);
-			if (result != null)
+			if (result != null) {
+				fHits++;
 				return result;
+			}
 			ASTParser parser= ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
 			parser.setProject(focus);
 			IBinding[] bindings= parser.createBindings(new IJavaElement[] {javaElementType} , null);
@@ -287,10 +306,75 @@ public class TypeEnvironment {
 		return null;
 	}
 
+	synchronized int number(TType type) {
+		Integer number= fTypeNumbers.get(type);
+		if (number == null) {
+			number= Integer.valueOf(fNumberedTypes.size());
+			fNumberedTypes.add(type);
+			fTypeNumbers.put(type, number);
+		}
+		return number.intValue();
+	}
+
+	/**
+	 * Returns the type with the given number.
+	 *
+	 * @param id a number returned by {@link TType#getNumber()} for a type of this environment
+	 * @return the type
+	 */
+	public synchronized TType getType(int id) {
+		return fNumberedTypes.get(id);
+	}
+
 	Map<TType, ArrayList<TType>> getSubTypes() {
 		return fSubTypes;
 	}
 
+	/**
+	 * Returns the number of type requests that were answered with an existing type.
+	 *
+	 * @return the number of hits
+	 */
+	public synchronized long getHitCount() {
+		return fHits;
+	}
+
+	/**
+	 * Returns the number of type requests that created a new type.
+	 *
+	 * @return the number of misses
+	 */
+	public synchronized long getMissCount() {
+		return fMisses;
+	}
+
+	/**
+	 * Returns the number of types held by this environment, excluding the
+	 * predefined primitive, null and void types.
+	 *
+	 * @return the number of types
+	 */
+	public synchronized int getTypeCount() {
+		int result= fStandardTypes.size() + fGenericTypes.size() + fParameterizedTypes.size() + fRawTypes.size()
+				+ fTypeVariables.size() + fCaptureTypes.size() + fExtendsWildcardTypes.size() + fSuperWildcardTypes.size();
+		if (fUnboundWildcardType != null)
+			result++;
+		for (Map<TType, ArrayType> arrayTypes : fArrayTypes) {
+			if (arrayTypes != null)
+				result+= arrayTypes.size();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of cached subtype relations.
+	 *
+	 * @return the size of the subtype cache
+	 */
+	public int getSubTypeCacheSize() {
+		return fSubTypeCache.size();
+	}
+
 	private void cacheSubType(TType supertype, TType result) {
 		if (fSubTypes == null)
 			return;
@@ -330,15 +414,18 @@ public class TypeEnvironment {
 		TType elementType= create(binding.getElementType());
 		Map<TType, ArrayType> arrayTypes= getArrayTypesMap(index);
 		ArrayType result= arrayTypes.get(elementType);
-		if (result != null)
+		if (result != null) {
+			fHits++;
 			return result;
+		}
+		fMisses++;
 		result= new ArrayType(this);
 		arrayTypes.put(elementType, result);
 		result.initialize(binding, elementType);
 		return result;
 	}
 
-	public ArrayType createArrayType(TType elementType, int dimensions) {
+	public synchronized ArrayType createArrayType(TType elementType, int dimensions) {
 		Assert.isTrue(! elementType.isArrayType());
 		Assert.isTrue(! elementType.isAnonymous());
 		Assert.isTrue(dimensions > 0);
@@ -346,8 +433,11 @@ public class TypeEnvironment {
 		int index= dimensions - 1;
 		Map<TType, ArrayType> arrayTypes= getArrayTypesMap(index);
 		ArrayType result= arrayTypes.get(elementType);
-		if (result != null)
+		if (result != null) {
+			fHits++;
 			return result;
+		}
+		fMisses++;
 		result= new ArrayType(this, BindingKey.createArrayTypeBindingKey(elementType.getBindingKey(), dimensions));
 		arrayTypes.put(elementType, result);
 		result.initialize(elementType, dimensions);
@@ -370,8 +460,11 @@ public class TypeEnvironment {
 	private StandardType createStandardType(ITypeBinding binding) {
 		IJavaElement javaElement= binding.getJavaElement();
 		StandardType result= fStandardTypes.get(javaElement);
-		if (result != null)
+		if (result != null) {
+			fHits++;
 			return result;
+		}
+		fMisses++;
 		result= new StandardType(this);
 		fStandardTypes.put(javaElement, result);
 		result.initialize(binding, (IType)javaElement);
@@ -383,8 +476,11 @@ public class TypeEnvironment {
 	private GenericType createGenericType(ITypeBinding binding) {
 		IJavaElement javaElement= binding.getJavaElement();
 		GenericType result= fGenericTypes.get(javaElement);
-		if (result != null)
+		if (result != null) {
+			fHits++;
 			return result;
+		}
+		fMisses++;
 		result= new GenericType(this);
 		fGenericTypes.put(javaElement, result);
 		result.initialize(binding, (IType)javaElement);
@@ -398,8 +494,11 @@ public class TypeEnvironment {
 		String bindingKey= binding.getKey();
 		ProjectKeyPair pair= new ProjectKeyPair(javaProject, bindingKey);
 		ParameterizedType result= fParameterizedTypes.get(pair);
-		if (result != null)
+		if (result != null) {
+			fHits++;
 			return result;
+		}
+		fMisses++;
 		result= new ParameterizedType(this);
 		fParameterizedTypes.put(pair, result);
 		result.initialize(binding, (IType)binding.getJavaElement());
@@ -411,8 +510,11 @@ public class TypeEnvironment {
 	private RawType createRawType(ITypeBinding binding) {
 		IJavaElement javaElement= binding.getJavaElement();
 		RawType result= fRawTypes.get(javaElement);
-		if (result != null)
+		if (result != null) {
+			fHits++;
 			return result;
+		}
+		fMisses++;
 		result= new RawType(this);
 		fRawTypes.put(javaElement, result);
 		result.initialize(binding, (IType)javaElement);
@@ -423,8 +525,11 @@ public class TypeEnvironment {
 
 	private TType createUnboundWildcardType(ITypeBinding binding) {
 		if (fUnboundWildcardType == null) {
+			fMisses++;
 			fUnboundWildcardType= new UnboundWildcardType(this);
 			fUnboundWildcardType.initialize(binding);
+		} else {
+			fHits++;
 		}
 		return fUnboundWildcardType;
 	}
@@ -432,8 +537,11 @@ public class TypeEnvironment {
 	private TType createExtendsWildCardType(ITypeBinding binding) {
 		TType bound= create(binding.getBound());
 		ExtendsWildcardType result= fExtendsWildcardTypes.get(bound);
-		if (result != null)
+		if (result != null) {
+			fHits++;
 			return result;
+		}
+		fMisses++;
 		result= new ExtendsWildcardType(this);
 		fExtendsWildcardTypes.put(bound, result);
 		result.initialize(binding);
@@ -443,8 +551,11 @@ public class TypeEnvironment {
 	private TType createSuperWildCardType(ITypeBinding binding) {
 		TType bound= create(binding.getBound());
 		SuperWildcardType result= fSuperWildcardTypes.get(bound);
-		if (result != null)
+		if (result != null) {
+			fHits++;
 			return result;
+		}
+		fMisses++;
 		result= new SuperWildcardType(this);
 		fSuperWildcardTypes.put(bound, result);
 		result.initialize(binding);
@@ -454,8 +565,11 @@ public class TypeEnvironment {
 	private TypeVariable createTypeVariable(ITypeBinding binding) {
 		IJavaElement javaElement= binding.getJavaElement();
 		TypeVariable result= fTypeVariables.get(javaElement);
-		if (result != null)
+		if (result != null) {
+			fHits++;
 			return result;
+		}
+		fMisses++;
 		result= new TypeVariable(this);
 		fTypeVariables.put(javaElement, result);
 		result.initialize(binding, (ITypeParameter)javaElement);
@@ -467,8 +581,11 @@ public class TypeEnvironment {
 		String bindingKey= binding.getKey();
 		ProjectKeyPair pair= new ProjectKeyPair(javaProject, bindingKey);
 		CaptureType result= fCaptureTypes.get(pair);
-		if (result != null)
+		if (result != null) {
+			fHits++;
 			return result;
+		}
+		fMisses++;
 		result= new CaptureType(this);
 		fCaptureTypes.put(pair, result);
 		result.initialize(binding, javaProject);
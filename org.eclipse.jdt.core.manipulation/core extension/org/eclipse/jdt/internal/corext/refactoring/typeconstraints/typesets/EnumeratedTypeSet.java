@@ -14,8 +14,7 @@
 package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets;
 
 import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.NoSuchElementException;
 
 import org.eclipse.core.runtime.Assert;
 
@@ -39,9 +38,9 @@ public class EnumeratedTypeSet extends TypeSet {
 	}
 
 	/**
-	 * Set containing the TTypes in this EnumeratedTypeSet.
+	 * Set containing the numbers of the TTypes in this EnumeratedTypeSet.
 	 */
-	Set<TType> fMembers= new LinkedHashSet<>();
+	TypeIdSet fMembers= new TypeIdSet();
 
 	/**
 	 * Constructs a new EnumeratedTypeSet with the members of Set s in it.
@@ -53,7 +52,7 @@ public class EnumeratedTypeSet extends TypeSet {
 	public EnumeratedTypeSet(Iterator<TType> types, TypeSetEnvironment typeSetEnvironment) {
 		super(typeSetEnvironment);
 		while (types.hasNext()) {
-			fMembers.add(types.next());
+			fMembers.add(types.next().getNumber());
 		}
 		sCount++;
 	}
@@ -77,7 +76,7 @@ public class EnumeratedTypeSet extends TypeSet {
 	public EnumeratedTypeSet(TType t, TypeSetEnvironment typeSetEnvironment) {
 		super(typeSetEnvironment);
 		Assert.isNotNull(t);
-		fMembers.add(t);
+		fMembers.add(t.getNumber());
 		sCount++;
 	}
 
@@ -99,16 +98,16 @@ public class EnumeratedTypeSet extends TypeSet {
 		} else if (o instanceof SingletonTypeSet) {
 			SingletonTypeSet other= (SingletonTypeSet) o;
 
-			return (fMembers.size() == 1) && fMembers.contains(other.anyMember());
+			return (fMembers.size() == 1) && fMembers.contains(other.anyMember().getNumber());
 		} else if (o instanceof TypeSet) {
 			TypeSet other= (TypeSet) o;
 
 			for(Iterator<TType> otherIter= other.iterator(); otherIter.hasNext(); ) {
-				if (!fMembers.contains(otherIter.next()))
+				if (!fMembers.contains(otherIter.next().getNumber()))
 					return false;
 			}
-			for (TType tType : fMembers) {
-				if (!other.contains(tType))
+			for (Iterator<TType> iter= iterator(); iter.hasNext();) {
+				if (!other.contains(iter.next()))
 					return false;
 			}
 			return true;
@@ -152,8 +151,7 @@ public class EnumeratedTypeSet extends TypeSet {
 			// More than an optimization: the universe never contains array types, so
 			// if s2 has array types, the following will retain them, as it should.
 			EnumeratedTypeSet ets2= (EnumeratedTypeSet) s2;
-			fMembers= new LinkedHashSet<>();
-			fMembers.addAll(ets2.fMembers);
+			fMembers= new TypeIdSet(ets2.fMembers);
 		} else
 			retainAll(s2);
 	}
@@ -167,7 +165,7 @@ public class EnumeratedTypeSet extends TypeSet {
 		if (isUniverse())
 			return makeClone(); // subtypes(universe) = universe
 
-		if (fMembers.contains(getJavaLangObject()))
+		if (containsJavaLangObject())
 			return getTypeSetEnvironment().getUniverseTypeSet();
 
 		return getTypeSetEnvironment().createSubTypesSet(this);
@@ -211,7 +209,7 @@ public class EnumeratedTypeSet extends TypeSet {
 
 	public void clear() {
 		if (isUniverse())
-			fMembers= new LinkedHashSet<>();
+			fMembers= new TypeIdSet();
 		else
 			fMembers.clear();
 	}
@@ -222,30 +220,30 @@ public class EnumeratedTypeSet extends TypeSet {
 	}
 
 	public TType[] toArray() {
-		return fMembers.toArray(new TType[fMembers.size()]);
+		TType[] result= new TType[fMembers.size()];
+		int i= 0;
+		for (Iterator<TType> iter= iterator(); iter.hasNext();)
+			result[i++]= iter.next();
+		return result;
 	}
 
 	public boolean add(TType t) {
 		// Doesn't make sense to do here what other methods do (copy-and-modify)
 		Assert.isTrue(!isUniverse(), "Someone's trying to expand the universe!"); //$NON-NLS-1$
-		return fMembers.add(t);
+		return fMembers.add(t.getNumber());
 	}
 
 	@Override
 	public boolean contains(TType t) {
 		if (isUniverse())
 			return true;
-		return fMembers.contains(t);
+		return fMembers.contains(t.getNumber());
 	}
 
 	public boolean remove(TType t) {
 		if (isUniverse())
-			fMembers= cloneSet(fMembers);
-		return fMembers.remove(t);
-	}
-
-	private Set<TType> cloneSet(Set<TType> members) {
-		return new LinkedHashSet<>(members);
+			fMembers= new TypeIdSet(fMembers);
+		return fMembers.remove(t.getNumber());
 	}
 
 	public boolean addAll(TypeSet s) {
@@ -283,7 +281,7 @@ public class EnumeratedTypeSet extends TypeSet {
 
 	public boolean removeAll(EnumeratedTypeSet s) {
 		if (isUniverse())
-			fMembers= cloneSet(fMembers);
+			fMembers= new TypeIdSet(fMembers);
 		return fMembers.removeAll(s.fMembers);
 	}
 
@@ -293,7 +291,7 @@ public class EnumeratedTypeSet extends TypeSet {
 		EnumeratedTypeSet ets= (EnumeratedTypeSet) s;
 
 		if (isUniverse()) {
-			fMembers= cloneSet(ets.fMembers);
+			fMembers= new TypeIdSet(ets.fMembers);
 			return true;
 		} else
 			return fMembers.retainAll(ets.fMembers);
@@ -306,30 +304,31 @@ public class EnumeratedTypeSet extends TypeSet {
 
 	@Override
 	public TType anyMember() {
-		return fMembers.iterator().next();
+		return getType(fMembers.first());
 	}
 
 	@Override
 	public TypeSet upperBound() {
 		if (fMembers.size() == 1)
-			return new SingletonTypeSet(fMembers.iterator().next(), getTypeSetEnvironment());
-		if (fMembers.contains(getJavaLangObject()))
+			return new SingletonTypeSet(getType(fMembers.first()), getTypeSetEnvironment());
+		if (containsJavaLangObject())
 			return new SingletonTypeSet(getJavaLangObject(), getTypeSetEnvironment());
 
 		EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
 		// Add to result each element of fMembers that has no proper supertype in fMembers
 		result.fMembers.addAll(fMembers);
-		for (TType t : fMembers) {
+		for (Iterator<TType> iter= iterator(); iter.hasNext();) {
+			TType t= iter.next();
 			if (t.isArrayType()) {
 				ArrayType at= (ArrayType) t;
 				int numDims= at.getDimensions();
 				for(Iterator<TType> subIter=TTypes.getAllSubTypesIterator(at.getElementType()); subIter.hasNext(); ) {
-					result.fMembers.remove(TTypes.createArrayType(subIter.next(), numDims));
+					result.fMembers.remove(TTypes.createArrayType(subIter.next(), numDims).getNumber());
 				}
 			} else {
 				for (Iterator<TType> iterator= TTypes.getAllSubTypesIterator(t); iterator.hasNext();) {
-					result.fMembers.remove(iterator.next());
+					result.fMembers.remove(iterator.next().getNumber());
 				}
 			}
 		}
@@ -340,18 +339,19 @@ public class EnumeratedTypeSet extends TypeSet {
 	@Override
 	public TypeSet lowerBound() {
 		if (fMembers.size() == 1)
-			return new SingletonTypeSet(fMembers.iterator().next(), getTypeSetEnvironment());
+			return new SingletonTypeSet(getType(fMembers.first()), getTypeSetEnvironment());
 
 		EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
 		// Add to result each element of fMembers that has no proper subtype in fMembers
 		result.fMembers.addAll(fMembers);
 
-		for (TType t : fMembers) {
+		for (Iterator<TType> iter= iterator(); iter.hasNext();) {
+			TType t= iter.next();
 			// java.lang.Object is only in the lower bound if fMembers consists
 			// of only java.lang.Object, but that case is handled above.
 			if (t.equals(getJavaLangObject())) {
-				result.fMembers.remove(t);
+				result.fMembers.remove(t.getNumber());
 				continue;
 			}
 
@@ -359,11 +359,11 @@ public class EnumeratedTypeSet extends TypeSet {
 				ArrayType at= (ArrayType) t;
 				int numDims= at.getDimensions();
 				for(Iterator<TType> superIter=TTypes.getAllSuperTypesIterator(at.getElementType()); superIter.hasNext(); ) {
-					result.fMembers.remove(TTypes.createArrayType(superIter.next(), numDims));
+					result.fMembers.remove(TTypes.createArrayType(superIter.next(), numDims).getNumber());
 				}
 			} else {
 				for (Iterator<TType> iterator= TTypes.getAllSuperTypesIterator(t); iterator.hasNext();) {
-					result.fMembers.remove(iterator.next());
+					result.fMembers.remove(iterator.next().getNumber());
 				}
 			}
 		}
@@ -386,20 +386,51 @@ public class EnumeratedTypeSet extends TypeSet {
 	@Override
 	public TType uniqueLowerBound() {
 		if (fMembers.size() == 1)
-			return fMembers.iterator().next();
+			return getType(fMembers.first());
 		return null;
 	}
 
 	@Override
 	public TType uniqueUpperBound() {
 		if (fMembers.size() == 1)
-			return fMembers.iterator().next();
+			return getType(fMembers.first());
 		return null;
 	}
 
 	@Override
 	public Iterator<TType> iterator() {
-		return fMembers.iterator();
+		return new Iterator<TType>() {
+			private int fPosition= advance(0);
+
+			private int advance(int position) {
+				while (position < fMembers.length() && fMembers.get(position) == -1)
+					position++;
+				return position;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return fPosition < fMembers.length();
+			}
+
+			@Override
+			public TType next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				TType type= getType(fMembers.get(fPosition));
+				fPosition= advance(fPosition + 1);
+				return type;
+			}
+		};
+	}
+
+	private boolean containsJavaLangObject() {
+		TType javaLangObject= getJavaLangObject();
+		return javaLangObject != null && fMembers.contains(javaLangObject.getNumber());
+	}
+
+	private TType getType(int id) {
+		return getTypeSetEnvironment().getType(id);
 	}
 
 	/**
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets;
+
+import java.util.BitSet;
+
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TType;
+
+/**
+ * A set of type numbers (see {@link TType#getNumber()}) that iterates in insertion order.
+ * <p>
+ * Membership is kept in a bit set, so that the set algebra needed by the type constraint
+ * solver works on whole words. The insertion order is kept in an <code>int</code> array
+ * that may contain stale entries for removed numbers. Stale entries are skipped when
+ * iterating; a removed number that is added again takes its stale entry back. The array is
+ * compacted only when it is full and at least half of its entries are stale, and doubled
+ * otherwise, so that adding is amortized constant time.
+ * </p>
+ */
+final class TypeIdSet {
+
+	private final BitSet fBits;
+	/** Numbers that have an entry in {@link #fOrder}, including stale ones */
+	private final BitSet fListed;
+	private int[] fOrder;
+	/** Number of used entries in {@link #fOrder}, including stale ones */
+	private int fLength;
+	/** Number of members */
+	private int fSize;
+
+	public TypeIdSet() {
+		fBits= new BitSet();
+		fListed= new BitSet();
+		fOrder= new int[4];
+	}
+
+	public TypeIdSet(TypeIdSet other) {
+		fBits= (BitSet) other.fBits.clone();
+		fListed= (BitSet) other.fBits.clone();
+		fOrder= new int[Math.max(4, other.fSize)];
+		for (int i= 0; i < other.fLength; i++) {
+			int id= other.fOrder[i];
+			if (other.fBits.get(id))
+				fOrder[fLength++]= id;
+		}
+		fSize= fLength;
+	}
+
+	public int size() {
+		return fSize;
+	}
+
+	public boolean isEmpty() {
+		return fSize == 0;
+	}
+
+	public boolean contains(int id) {
+		return fBits.get(id);
+	}
+
+	public boolean add(int id) {
+		if (fBits.get(id))
+			return false;
+		if (!fListed.get(id)) {
+			if (fLength == fOrder.length) {
+				if (2 * (fLength - fSize) >= fLength) {
+					compact();
+				} else {
+					int[] order= new int[fOrder.length * 2];
+					System.arraycopy(fOrder, 0, order, 0, fLength);
+					fOrder= order;
+				}
+			}
+			fOrder[fLength++]= id;
+			fListed.set(id);
+		}
+		fBits.set(id);
+		fSize++;
+		return true;
+	}
+
+	public boolean remove(int id) {
+		if (!fBits.get(id))
+			return false;
+		fBits.clear(id);
+		fSize--;
+		return true;
+	}
+
+	public boolean addAll(TypeIdSet other) {
+		boolean changed= false;
+		for (int i= 0; i < other.fLength; i++) {
+			int id= other.fOrder[i];
+			if (other.fBits.get(id))
+				changed|= add(id);
+		}
+		return changed;
+	}
+
+	public boolean retainAll(TypeIdSet other) {
+		fBits.and(other.fBits);
+		return updateSize();
+	}
+
+	public boolean removeAll(TypeIdSet other) {
+		fBits.andNot(other.fBits);
+		return updateSize();
+	}
+
+	public boolean containsAll(TypeIdSet other) {
+		for (int id= other.fBits.nextSetBit(0); id >= 0; id= other.fBits.nextSetBit(id + 1)) {
+			if (!fBits.get(id))
+				return false;
+		}
+		return true;
+	}
+
+	public void clear() {
+		fBits.clear();
+		fListed.clear();
+		fLength= 0;
+		fSize= 0;
+	}
+
+	/**
+	 * @param position a position, <code>0 &lt;= position &lt; {@link #length()}</code>
+	 * @return the number at the given position, or <code>-1</code> if the number at that
+	 * position has been removed
+	 */
+	public int get(int position) {
+		int id= fOrder[position];
+		return fBits.get(id) ? id : -1;
+	}
+
+	/**
+	 * @return the number of positions to iterate over with {@link #get(int)}
+	 */
+	public int length() {
+		return fLength;
+	}
+
+	/**
+	 * @return the first member in insertion order
+	 */
+	public int first() {
+		for (int i= 0; i < fLength; i++) {
+			int id= fOrder[i];
+			if (fBits.get(id))
+				return id;
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof TypeIdSet))
+			return false;
+		return fBits.equals(((TypeIdSet) obj).fBits);
+	}
+
+	@Override
+	public int hashCode() {
+		return fBits.hashCode();
+	}
+
+	private boolean updateSize() {
+		int size= fBits.cardinality();
+		if (size == fSize)
+			return false;
+		fSize= size;
+		return true;
+	}
+
+	private void compact() {
+		int length= 0;
+		for (int i= 0; i < fLength; i++) {
+			int id= fOrder[i];
+			if (fBits.get(id))
+				fOrder[length++]= id;
+			else
+				fListed.clear(id);
+		}
+		fLength= length;
+	}
+}
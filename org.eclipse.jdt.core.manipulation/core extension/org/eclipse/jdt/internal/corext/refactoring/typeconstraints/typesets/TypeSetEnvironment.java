@@ -46,6 +46,14 @@ public class TypeSetEnvironment {
 		return fTypeEnvironment.getJavaLangObject();
 	}
 
+	/**
+	 * @param id a type number, see {@link TType#getNumber()}
+	 * @return the type with the given number
+	 */
+	TType getType(int id) {
+		return fTypeEnvironment.getType(id);
+	}
+
 	public TypeUniverseSet getUniverseTypeSet() {
 		return fUniverse;
 	}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
+
+/**
+ * Processes a list of items on a fixed number of workers.
+ * <p>
+ * The workers are system jobs of one {@link JobGroup}. Each worker takes the next unprocessed
+ * item from the shared queue until the queue is empty, so the number of jobs does not depend on
+ * the number of items. The results are handed to the caller on the calling thread and in the
+ * order of the items; while waiting for a result, the caller polls its progress monitor for
+ * cancellation. The workers are canceled and joined before {@link #process} returns.
+ * </p>
+ */
+public final class WorkQueue {
+
+	/**
+	 * Processes one item on a worker.
+	 *
+	 * @param <T> the type of the items
+	 * @param <R> the type of the results
+	 */
+	@FunctionalInterface
+	public interface Work<T, R> {
+		/**
+		 * @param item the item to process
+		 * @param monitor the monitor of the worker, canceled when the caller stops waiting
+		 * @return the result
+		 * @throws CoreException if the item cannot be processed
+		 */
+		R process(T item, IProgressMonitor monitor) throws CoreException;
+	}
+
+	/**
+	 * Consumes the result of one item on the calling thread.
+	 *
+	 * @param <T> the type of the items
+	 * @param <R> the type of the results
+	 */
+	@FunctionalInterface
+	public interface ResultHandler<T, R> {
+		/**
+		 * @param item the processed item
+		 * @param result the result of the item
+		 * @throws CoreException if the result cannot be consumed
+		 */
+		void handle(T item, R result) throws CoreException;
+	}
+
+	private static final long POLL_INTERVAL= 100;
+
+	private WorkQueue() {
+	}
+
+	/**
+	 * Processes the given items and consumes their results in order. If only one worker is
+	 * needed, the items are processed on the calling thread.
+	 *
+	 * @param <T> the type of the items
+	 * @param <R> the type of the results
+	 * @param name the name of the worker jobs
+	 * @param maxWorkers the maximal number of workers
+	 * @param items the items to process
+	 * @param work the work to perform for every item
+	 * @param handler the consumer of the results
+	 * @param monitor the progress monitor, ticked once per consumed result
+	 * @throws CoreException if an item cannot be processed or its result cannot be consumed
+	 * @throws OperationCanceledException if the monitor has been canceled
+	 */
+	public static <T, R> void process(String name, int maxWorkers, List<T> items, Work<T, R> work, ResultHandler<T, R> handler, IProgressMonitor monitor) throws CoreException {
+		SubMonitor subMonitor= SubMonitor.convert(monitor, items.size());
+		int workers= Math.min(items.size(), maxWorkers);
+		if (workers <= 1) {
+			for (T item : items) {
+				handler.handle(item, work.process(item, subMonitor.split(1)));
+			}
+			return;
+		}
+
+		List<CompletableFuture<R>> results= new ArrayList<>(items.size());
+		for (int i= 0; i < items.size(); i++) {
+			results.add(new CompletableFuture<>());
+		}
+		AtomicInteger next= new AtomicInteger();
+		JobGroup group= new JobGroup(name, workers, 0);
+		for (int i= 0; i < workers; i++) {
+			Job job= Job.create(name, jobMonitor -> {
+				for (int index= next.getAndIncrement(); index < items.size(); index= next.getAndIncrement()) {
+					CompletableFuture<R> result= results.get(index);
+					if (jobMonitor.isCanceled()) {
+						result.cancel(false);
+						continue;
+					}
+					try {
+						result.complete(work.process(items.get(index), jobMonitor));
+					} catch (OperationCanceledException e) {
+						result.cancel(false);
+					} catch (CoreException | RuntimeException | Error e) {
+						result.completeExceptionally(e);
+					}
+				}
+				return jobMonitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			});
+			job.setSystem(true);
+			job.setJobGroup(group);
+			job.schedule();
+		}
+
+		try {
+			for (int i= 0; i < items.size(); i++) {
+				handler.handle(items.get(i), waitFor(results.get(i), group, subMonitor));
+				subMonitor.worked(1);
+			}
+		} finally {
+			group.cancel();
+			try {
+				group.join(0, null);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static <R> R waitFor(CompletableFuture<R> result, JobGroup group, IProgressMonitor monitor) throws CoreException {
+		while (true) {
+			if (monitor.isCanceled())
+				throw new OperationCanceledException();
+			try {
+				return result.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// workers that were canceled before they started leave their items unprocessed
+				if (group.getActiveJobs().isEmpty() && !result.isDone())
+					throw new OperationCanceledException();
+			} catch (CancellationException e) {
+				throw new OperationCanceledException();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				Throwable cause= e.getCause();
+				if (cause instanceof CoreException)
+					throw (CoreException) cause;
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				if (cause instanceof Error)
+					throw (Error) cause;
+				throw new IllegalStateException(cause);
+			}
+		}
+	}
+}
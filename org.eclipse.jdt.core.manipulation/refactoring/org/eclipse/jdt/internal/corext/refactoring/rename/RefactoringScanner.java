@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,7 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.core.compiler.IScanner;
 import org.eclipse.jdt.core.compiler.ITerminalSymbols;
 import org.eclipse.jdt.core.compiler.InvalidInputException;
@@ -34,13 +35,17 @@ public class RefactoringScanner {
 	private static int MATCH_QUALIFIED= 1;
 	private static int MATCH_UNQUALIFIED= 2;
 
+	private static final char[] UNICODE_ESCAPE= { '\\', 'u' };
+
 	public static class TextMatch {
 
 		private int fStartPosition;
+		private int fLength;
 		private boolean fQualified;
 
-		private TextMatch(int startPosition, boolean qualified) {
+		private TextMatch(int startPosition, int length, boolean qualified) {
 			fStartPosition= startPosition;
+			fLength= length;
 			fQualified= qualified;
 		}
 
@@ -51,6 +56,14 @@ public class RefactoringScanner {
 			return fStartPosition;
 		}
 
+		/**
+		 * @return the length of the unqualified name in the source, which is longer than the
+		 *         name if the name is spelled with unicode escapes
+		 */
+		public int getLength() {
+			return fLength;
+		}
+
 		public boolean isQualified() {
 			return fQualified;
 		}
@@ -73,6 +86,8 @@ public class RefactoringScanner {
 	public void scan(ICompilationUnit cu)	throws JavaModelException {
 		char[] chars= cu.getBuffer().getCharacters();
 		fMatches= new HashSet<>();
+		if (chars == null || !mayContainName(chars))
+			return; // the name cannot occur in any token, don't pay for scanning
 		IJavaProject javaProject= cu.getJavaProject();
         if (javaProject != null) {
             String sourceLevel = javaProject.getOption(JavaCore.COMPILER_SOURCE, true);
@@ -110,6 +125,14 @@ public class RefactoringScanner {
 		fScanner= null;
 	}
 
+	/*
+	 * A source with unicode escapes is always scanned, since an escape may spell a character
+	 * of the name. See parseCurrentToken().
+	 */
+	private boolean mayContainName(char[] chars) {
+		return CharOperation.indexOf(UNICODE_ESCAPE, chars, true) != -1 || CharOperation.indexOf(fName.toCharArray(), chars, true) != -1;
+	}
+
 	private void doScan() {
 		try{
 			int token = fScanner.getNextToken();
@@ -146,19 +169,71 @@ public class RefactoringScanner {
 
 	private void parseCurrentToken() {
 		// only works for references without whitespace
-		String value = new String(fScanner.getRawTokenSource());
+		char[] raw= fScanner.getRawTokenSource();
 		int start= fScanner.getCurrentTokenStartPosition();
+		// offsets[i] is the offset in the raw token of the i-th character of the value
+		int[] offsets= null;
+		String value;
+		if (CharOperation.indexOf(UNICODE_ESCAPE, raw, true) == -1) {
+			value= new String(raw);
+		} else {
+			offsets= new int[raw.length + 1];
+			value= decodeUnicodeEscapes(raw, offsets);
+		}
 		int index= value.indexOf(fName);
 		while (index != -1) {
-			if (isWholeWord(value, index, index + fName.length())) {
+			int end= index + fName.length();
+			if (isWholeWord(value, index, end)) {
 				int ok= isQualifierOK(value, index);
-				if (ok > NO_MATCH)
-					addMatch(start + index, ok);
+				if (ok > NO_MATCH) {
+					if (offsets == null)
+						addMatch(start + index, fName.length(), ok);
+					else
+						addMatch(start + offsets[index], offsets[end] - offsets[index], ok);
+				}
 			}
 			index= value.indexOf(fName, index + 1);
 		}
 	}
 
+	/*
+	 * Replaces the unicode escapes in the given raw token by the characters they stand for, and
+	 * records the offset in the raw token of each character of the result, followed by the length
+	 * of the raw token.
+	 */
+	private static String decodeUnicodeEscapes(char[] raw, int[] offsets) {
+		StringBuilder value= new StringBuilder(raw.length);
+		int i= 0;
+		int backslashes= 0; // contiguous backslashes before i that are not part of an escape
+		while (i < raw.length) {
+			offsets[value.length()]= i;
+			char ch= raw[i];
+			if (ch == '\' && backslashes % 2 == 0 && i + 1 < raw.length && raw[i + 1] == 'u') {
+				int digits= i + 1;
+				while (digits < raw.length && raw[digits] == 'u')
+					digits++;
+				if (digits + 4 <= raw.length) {
+					int code= 0;
+					for (int k= digits; k < digits + 4 && code >= 0; k++) {
+						int digit= Character.digit(raw[k], 16);
+						code= digit < 0 ? -1 : code * 16 + digit;
+					}
+					if (code >= 0) {
+						value.append((char) code);
+						i= digits + 4;
+						backslashes= 0;
+						continue;
+					}
+				}
+			}
+			backslashes= ch == '\' ? backslashes + 1 : 0;
+			value.append(ch);
+			i++;
+		}
+		offsets[value.length()]= raw.length;
+		return value.toString();
+	}
+
 	private int isQualifierOK(String value, int nameStart) {
 		// only works for references without whitespace
 		int qualifierAfter= nameStart - 1;
@@ -220,8 +295,8 @@ public class RefactoringScanner {
 		return ".#".indexOf(c) != -1; //$NON-NLS-1$
 	}
 
-	private void addMatch(int matchStart, int matchCode) {
-		fMatches.add(new TextMatch(matchStart, matchCode == MATCH_QUALIFIED));
+	private void addMatch(int matchStart, int matchLength, int matchCode) {
+		fMatches.add(new TextMatch(matchStart, matchLength, matchCode == MATCH_QUALIFIED));
 	}
 
 	/**
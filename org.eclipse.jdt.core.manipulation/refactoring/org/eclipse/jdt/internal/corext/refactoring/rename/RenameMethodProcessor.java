@@ -15,9 +15,11 @@ package org.eclipse.jdt.internal.corext.refactoring.rename;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.Assert;
@@ -115,6 +117,8 @@ public abstract class RenameMethodProcessor extends JavaRenameProcessor implemen
 	private boolean fDelegateUpdating;
 	private boolean fDelegateDeprecation;
 	protected boolean fInitialized= false;
+	/** Type hierarchies keyed by focus type, shared between the ripple method search and the precondition checks */
+	private final Map<IType, ITypeHierarchy> fTypeHierarchies= new HashMap<>();
 
 	/**
 	 * Creates a new rename method processor.
@@ -248,7 +252,7 @@ public abstract class RenameMethodProcessor extends JavaRenameProcessor implemen
 
 	private void initializeMethodsToRename(IProgressMonitor pm, ReferencesInBinaryContext binaryRefs) throws CoreException {
 		if (fMethodsToRename == null) {
-			IMethod[] rippleMethods= RippleMethodFinder2.getRelatedMethods(getMethod(), binaryRefs, pm, null);
+			IMethod[] rippleMethods= RippleMethodFinder2.getRelatedMethods(getMethod(), binaryRefs, fTypeHierarchies, pm, null);
 			fMethodsToRename= new HashSet<>();
 			for (IMethod method : rippleMethods) {
 				if (!method.isLambdaMethod()) {
@@ -270,6 +274,41 @@ public abstract class RenameMethodProcessor extends JavaRenameProcessor implemen
 		fMethod= method;
 	}
 
+	/**
+	 * Returns the type hierarchy of the given type. Hierarchies already computed
+	 * by this processor (e.g. while searching for ripple methods) are reused.
+	 *
+	 * @param type the focus type of the hierarchy
+	 * @param pm the progress monitor
+	 * @return the type hierarchy
+	 * @throws JavaModelException if the hierarchy could not be computed
+	 */
+	protected final ITypeHierarchy getTypeHierarchy(IType type, IProgressMonitor pm) throws JavaModelException {
+		ITypeHierarchy hierarchy= fTypeHierarchies.get(type);
+		if (hierarchy == null) {
+			hierarchy= type.newTypeHierarchy(pm);
+			fTypeHierarchies.put(type, hierarchy);
+		}
+		return hierarchy;
+	}
+
+	/**
+	 * Adds a type hierarchy computed elsewhere to the hierarchies reused by this processor.
+	 *
+	 * @param hierarchy the type hierarchy, or <code>null</code>
+	 */
+	protected final void addTypeHierarchy(ITypeHierarchy hierarchy) {
+		if (hierarchy != null && hierarchy.getType() != null)
+			fTypeHierarchies.put(hierarchy.getType(), hierarchy);
+	}
+
+	/**
+	 * Releases the type hierarchies computed so far.
+	 */
+	protected final void clearTypeHierarchies() {
+		fTypeHierarchies.clear();
+	}
+
 	//---- IReferenceUpdating -----------------------------------
 
 	@Override
@@ -104,7 +104,7 @@ public class RenameNonVirtualMethodProcessor extends RenameMethodProcessor {
 			final IType declaring= method.getDeclaringType();
 			final String name= getNewElementName();
 			IMethod[] hierarchyMethods= hierarchyDeclaresMethodName(
-				new SubProgressMonitor(pm, 1), declaring.newTypeHierarchy(new SubProgressMonitor(pm, 1)), method, name);
+				new SubProgressMonitor(pm, 1), getTypeHierarchy(declaring, new SubProgressMonitor(pm, 1)), method, name);
 
 			for (IMethod hierarchyMethod : hierarchyMethods) {
 				RefactoringStatusContext context= JavaStatusContext.create(hierarchyMethod);
@@ -122,6 +122,7 @@ public class RenameNonVirtualMethodProcessor extends RenameMethodProcessor {
 			}
 			return result;
 		} finally{
+			clearTypeHierarchies();
 			pm.done();
 		}
 	}
@@ -49,7 +49,6 @@ public class RenameVirtualMethodProcessor extends RenameMethodProcessor {
 
 	private IMethod fOriginalMethod;
 	private boolean fActivationChecked;
-	private ITypeHierarchy fCachedHierarchy= null;
 
 	/**
 	 * Creates a new rename method processor.
@@ -87,15 +86,12 @@ public class RenameVirtualMethodProcessor extends RenameMethodProcessor {
 		super(topLevel, changeManager, categorySet);
 		fOriginalMethod= getMethod();
 		fActivationChecked= true; // is top level
-		fCachedHierarchy= hierarchy; // may be null
+		addTypeHierarchy(hierarchy); // may be null
 		setMethodsToRename(ripples);
 	}
 
 	private ITypeHierarchy getCachedHierarchy(IType declaring, IProgressMonitor monitor) throws JavaModelException {
-		if (fCachedHierarchy != null && declaring.equals(fCachedHierarchy.getType()))
-			return fCachedHierarchy;
-		fCachedHierarchy= declaring.newTypeHierarchy(new SubProgressMonitor(monitor, 1));
-		return fCachedHierarchy;
+		return getTypeHierarchy(declaring, new SubProgressMonitor(monitor, 1));
 	}
 
 	public IMethod getOriginalMethod() {
@@ -181,9 +177,9 @@ public class RenameVirtualMethodProcessor extends RenameMethodProcessor {
 					}
 				}
 			}
-			fCachedHierarchy= null;
 			return result;
 		} finally{
+			clearTypeHierarchies();
 			pm.done();
 		}
 	}
@@ -198,7 +194,7 @@ public class RenameVirtualMethodProcessor extends RenameMethodProcessor {
 			for (IType type : types) {
 				final IMethod found= Checks.findMethod(method, type);
 				final IType declaring= found.getDeclaringType();
-				result.addAll(Arrays.asList(hierarchyDeclaresMethodName(new SubProgressMonitor(pm, 1), declaring.newTypeHierarchy(new SubProgressMonitor(pm, 1)), found, newName)));
+				result.addAll(Arrays.asList(hierarchyDeclaresMethodName(new SubProgressMonitor(pm, 1), getTypeHierarchy(declaring, new SubProgressMonitor(pm, 1)), found, newName)));
 			}
 			return result.toArray(new IMethod[result.size()]);
 		} finally {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.core.runtime.Assert;
@@ -51,6 +52,7 @@ import org.eclipse.jdt.internal.corext.refactoring.changes.TextChangeCompatibili
 import org.eclipse.jdt.internal.corext.refactoring.rename.RefactoringScanner.TextMatch;
 import org.eclipse.jdt.internal.corext.refactoring.tagging.ITextUpdating;
 import org.eclipse.jdt.internal.corext.refactoring.util.TextChangeManager;
+import org.eclipse.jdt.internal.corext.util.WorkQueue;
 
 class TextMatchUpdater {
 
@@ -66,7 +68,8 @@ class TextMatchUpdater {
 	private final SearchResultGroup[] fReferences;
 	private final boolean fOnlyQualified;
 
-	private final RefactoringScanner fScanner;
+	private final String fCurrentName;
+	private final String fCurrentQualifier;
 	private final String fNewName;
 	private final int fCurrentNameLength;
 
@@ -80,8 +83,9 @@ class TextMatchUpdater {
 		fOnlyQualified= onlyQualified;
 
 		fNewName= newName;
+		fCurrentName= currentName;
+		fCurrentQualifier= currentQualifier;
 		fCurrentNameLength= currentName.length();
-		fScanner= new RefactoringScanner(currentName, currentQualifier);
 	}
 
 	static void perform(IProgressMonitor pm, IJavaSearchScope scope, String currentName, String currentQualifier, String newName, TextChangeManager manager, SearchResultGroup[] references, boolean onlyQualified) throws JavaModelException{
@@ -96,12 +100,20 @@ class TextMatchUpdater {
 		try{
 			IProject[] projectsInScope= getProjectsInScope();
 
-			pm.beginTask("", projectsInScope.length); //$NON-NLS-1$
-			for (IProject project : projectsInScope) {
-				if (pm.isCanceled())
-					throw new OperationCanceledException();
-				addTextMatches(project, new SubProgressMonitor(pm, 1));
+			pm.beginTask("", 10); //$NON-NLS-1$
+			List<ICompilationUnit> cus= new ArrayList<>();
+			IProgressMonitor collectMonitor= new SubProgressMonitor(pm, 1);
+			try {
+				collectMonitor.beginTask("", projectsInScope.length); //$NON-NLS-1$
+				for (IProject project : projectsInScope) {
+					if (pm.isCanceled())
+						throw new OperationCanceledException();
+					collectCompilationUnits(project, cus, new SubProgressMonitor(collectMonitor, 1));
+				}
+			} finally {
+				collectMonitor.done();
 			}
+			addTextMatches(cus, new SubProgressMonitor(pm, 9));
 		} finally{
 			pm.done();
 		}
@@ -120,7 +132,7 @@ class TextMatchUpdater {
 		return projectsInScope.toArray(new IProject[projectsInScope.size()]);
 	}
 
-	private void addTextMatches(IResource resource, IProgressMonitor pm) throws JavaModelException{
+	private void collectCompilationUnits(IResource resource, List<ICompilationUnit> cus, IProgressMonitor pm) throws JavaModelException{
 		try{
 			String task= RefactoringCoreMessages.TextMatchUpdater_searching + resource.getFullPath();
 			if (resource instanceof IFile){
@@ -132,7 +144,7 @@ class TextMatchUpdater {
 					return;
 				if (! fScope.encloses(element))
 					return;
-				addCuTextMatches((ICompilationUnit) element);
+				cus.add((ICompilationUnit) element);
 
 			} else if (resource instanceof IContainer){
 				IResource[] members= ((IContainer) resource).members();
@@ -141,7 +153,7 @@ class TextMatchUpdater {
 				for (IResource member : members) {
 					if (pm.isCanceled())
 						throw new OperationCanceledException();
-					addTextMatches(member, new SubProgressMonitor(pm, 1));
+					collectCompilationUnits(member, cus, new SubProgressMonitor(pm, 1));
 				}
 			}
 		} catch (JavaModelException e){
@@ -153,9 +165,35 @@ class TextMatchUpdater {
 		}
 	}
 
-	private void addCuTextMatches(ICompilationUnit cu) throws JavaModelException{
-		fScanner.scan(cu);
-		Set<TextMatch> matches= fScanner.getMatches(); //Set of TextMatch
+	/**
+	 * Scans the given compilation units concurrently and adds the text matches to the
+	 * change manager. The text changes are only modified from the calling thread, in the
+	 * order of the given compilation units.
+	 *
+	 * @param cus the compilation units to scan
+	 * @param pm the progress monitor, ticked once per scanned compilation unit
+	 * @throws JavaModelException if a compilation unit cannot be read
+	 */
+	private void addTextMatches(List<ICompilationUnit> cus, IProgressMonitor pm) throws JavaModelException {
+		try {
+			WorkQueue.process("Refactoring Text Match Scanner", Runtime.getRuntime().availableProcessors(), cus, //$NON-NLS-1$
+					(cu, monitor) -> scan(cu), this::addCuTextMatches, pm);
+		} catch (JavaModelException e) {
+			throw e;
+		} catch (CoreException e) {
+			throw new JavaModelException(e);
+		} finally {
+			pm.done();
+		}
+	}
+
+	private Set<TextMatch> scan(ICompilationUnit cu) throws JavaModelException {
+		RefactoringScanner scanner= new RefactoringScanner(fCurrentName, fCurrentQualifier);
+		scanner.scan(cu);
+		return scanner.getMatches();
+	}
+
+	private void addCuTextMatches(ICompilationUnit cu, Set<TextMatch> matches) {
 		if (matches.isEmpty())
 			return;
 
@@ -189,7 +227,7 @@ class TextMatchUpdater {
 			if (!match.isQualified() && fOnlyQualified)
 				continue;
 			int matchStart= match.getStartPosition();
-			ReplaceEdit edit= new ReplaceEdit(matchStart, fCurrentNameLength, fNewName);
+			ReplaceEdit edit= new ReplaceEdit(matchStart, match.getLength(), fNewName);
 			try {
 				TextChangeCompatibility.addTextEdit(fManager.get(cu), TEXT_EDIT_LABEL, edit, TEXTUAL_MATCHES);
 			} catch (MalformedTreeException e) {
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.text.tests.performance.DisplayHelper;
+import org.eclipse.jdt.text.tests.performance.EditorTestHelper;
+
+import org.eclipse.core.resources.IFile;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.projection.ProjectionAnnotation;
+import org.eclipse.jface.text.source.projection.ProjectionAnnotationModel;
+import org.eclipse.jface.text.source.projection.ProjectionViewer;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+
+import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+
+/**
+ * Tests that the folding structure follows edits once the editor has been reconciled.
+ */
+public class FoldingTest {
+
+	private static final String CU_CONTENTS= "package p;\n" +
+			"\n" +
+			"public class Folding {\n" +
+			"\t/**\n" +
+			"\t * Foo.\n" +
+			"\t */\n" +
+			"\tvoid foo() {\n" +
+			"\t}\n" +
+			"}\n";
+
+	private IJavaProject fProject;
+	private JavaEditor fEditor;
+	private IDocument fDocument;
+	private ProjectionAnnotationModel fModel;
+	private boolean fWasFoldingEnabled;
+
+	@Before
+	public void setUp() throws Exception {
+		fWasFoldingEnabled= EditorTestHelper.enableFolding(true);
+		fProject= JavaProjectHelper.createJavaProject("FoldingTest", "bin");
+		IPackageFragment pack= JavaProjectHelper.addSourceContainer(fProject, "src").createPackageFragment("p", true, null);
+		ICompilationUnit cu= pack.createCompilationUnit("Folding.java", CU_CONTENTS, true, null);
+
+		fEditor= (JavaEditor) EditorTestHelper.openInEditor((IFile) cu.getResource(), true);
+		assertNotNull(fEditor);
+		fDocument= EditorTestHelper.getDocument(fEditor);
+		fModel= ((ProjectionViewer) fEditor.getViewer()).getProjectionAnnotationModel();
+		assertNotNull(fModel);
+		waitForRegions("Foo", regions -> regions.contains("/**\n\t * Foo.\n\t */"));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		EditorTestHelper.closeAllEditors();
+		fEditor= null;
+		if (fProject != null) {
+			JavaProjectHelper.delete(fProject);
+			fProject= null;
+		}
+		EditorTestHelper.enableFolding(fWasFoldingEnabled);
+	}
+
+	@Test
+	public void addMemberWithComment() throws Exception {
+		fDocument.replace(CU_CONTENTS.indexOf("\t/**"), 0, "\t/**\n\t * Bar.\n\t */\n\tvoid bar() {\n\t}\n");
+		waitForRegions("Bar", regions -> regions.contains("/**\n\t * Bar.\n\t */"));
+
+		List<String> regions= getRegions();
+		assertTrue(regions.toString(), regions.contains("void bar() {\n\t}"));
+		assertTrue(regions.toString(), regions.contains("/**\n\t * Foo.\n\t */"));
+		assertTrue(regions.toString(), regions.contains("void foo() {\n\t}"));
+	}
+
+	@Test
+	public void removeComment() throws Exception {
+		int offset= CU_CONTENTS.indexOf("\t/**");
+		fDocument.replace(offset, CU_CONTENTS.indexOf("\tvoid") - offset, "");
+		waitForRegions("no comment", regions -> regions.stream().noneMatch(region -> region.startsWith("/**")));
+
+		List<String> regions= getRegions();
+		assertEquals(regions.toString(), 1, regions.stream().filter(region -> region.equals("void foo() {\n\t}")).count());
+		for (String region : regions)
+			assertFalse(regions.toString(), region.contains("Foo."));
+	}
+
+	/*
+	 * Waits until the editor has been reconciled and its folding regions meet the given condition.
+	 */
+	private void waitForRegions(String message, Predicate<List<String>> condition) {
+		EditorTestHelper.joinReconciler(EditorTestHelper.getSourceViewer(fEditor), 0, 10000, 100);
+		boolean found= new DisplayHelper() {
+			@Override
+			protected boolean condition() {
+				try {
+					return condition.test(getRegions());
+				} catch (BadLocationException e) {
+					return false;
+				}
+			}
+		}.waitForCondition(EditorTestHelper.getActiveDisplay(), 10000);
+		assertTrue(message, found);
+	}
+
+	/*
+	 * Returns the trimmed text of the folding regions.
+	 */
+	private List<String> getRegions() throws BadLocationException {
+		List<String> regions= new ArrayList<>();
+		Iterator<Annotation> iter= fModel.getAnnotationIterator();
+		while (iter.hasNext()) {
+			Annotation annotation= iter.next();
+			if (!(annotation instanceof ProjectionAnnotation))
+				continue;
+			Position position= fModel.getPosition(annotation);
+			if (position != null && !position.isDeleted())
+				regions.add(fDocument.get(position.getOffset(), position.getLength()).trim());
+		}
+		return regions;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2020 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -33,6 +33,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ResourcesPlugin;
 
+import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.source.SourceViewer;
 
@@ -40,6 +41,9 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 
+import org.eclipse.jdt.ui.text.IJavaPartitions;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.actions.IndentAction;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
 
@@ -114,9 +118,19 @@ public class IndentActionTest {
 		String afterFile= createFileName("Modified");
 		String expected= ResourceTestHelper.read(afterFile).toString();
 
+		boolean wholeDocument= fSourceViewer.getSelectedRange().y == fDocument.getLength();
+		IDocument copy= new Document(fDocument.get());
+
 		new IndentAction(new EmptyBundle(), "prefix", fEditor, false).run();
 
 		assertEquals(expected, fDocument.get());
+
+		if (wholeDocument) {
+			// indenting the whole document at once must give the same result
+			JavaPlugin.getDefault().getJavaTextTools().setupJavaDocumentPartitioner(copy, IJavaPartitions.JAVA_PARTITIONING);
+			IndentAction.indent(copy, indentTestSetup.getProject());
+			assertEquals(expected, copy.get());
+		}
 	}
 
 	private String createFileName(String qualifier) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -1235,4 +1235,39 @@ public class JavaHeuristicScannerTest {
 		String indent= fScanner.computeIndentation(offset).toString();
 		assertEquals("\t", indent);
 	}
+
+	@Test
+	public void testSharedBracketStructure() throws Exception {
+		StringBuilder buf= new StringBuilder();
+		buf.append("class C {\n");
+		buf.append("    int[] a= { (1), 2 };\n");
+		buf.append("    void m(String s) {\n");
+		buf.append("        if (s.equals(\"}\")) { // )\n");
+		buf.append("            m(s.substring(a[0]));\n");
+		buf.append("        }\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		fDocument.set(buf.toString());
+
+		JavaHeuristicScanner shared= JavaHeuristicScanner.createWithSharedStructure(fDocument);
+		assertSamePeers(shared);
+
+		// changes discard the structure after them
+		fDocument.replace(buf.indexOf("m(s"), 0, "{ ");
+		assertSamePeers(shared);
+		fDocument.replace(fDocument.get().indexOf("if"), 0, "/* ");
+		assertSamePeers(shared);
+		fDocument.replace(0, 0, "}");
+		assertSamePeers(shared);
+	}
+
+	private void assertSamePeers(JavaHeuristicScanner shared) throws Exception {
+		char[][] pairs= { { '{', '}' }, { '(', ')' }, { '[', ']' } };
+		for (int offset= fDocument.getLength() - 1; offset >= 0; offset--) {
+			for (char[] pair : pairs) {
+				int expected= fHeuristicScanner.findOpeningPeer(offset, pair[0], pair[1]);
+				assertEquals("offset " + offset, expected, shared.findOpeningPeer(offset, pair[0], pair[1]));
+			}
+		}
+	}
 }
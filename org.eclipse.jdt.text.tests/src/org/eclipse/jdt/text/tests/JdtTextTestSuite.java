@@ -71,6 +71,7 @@ import org.junit.runners.Suite;
 	IndentActionTest15.class,
 	TemplatesTestSuite.class,
 	JavaElementPrefixPatternMatcherTest.class,
+	FoldingTest.class,
 	CodeMiningTriggerTest.class,
 	ParameterNamesCodeMiningTest.class,
 })
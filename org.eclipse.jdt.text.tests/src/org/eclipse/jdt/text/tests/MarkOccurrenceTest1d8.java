@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2022 IBM Corporation and others.
+ * Copyright (c) 2011, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,10 +13,13 @@
  *******************************************************************************/
 package org.eclipse.jdt.text.tests;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.Before;
@@ -32,12 +35,18 @@ import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
 
 import org.eclipse.jdt.internal.core.manipulation.search.ExceptionOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder.OccurrenceLocation;
 import org.eclipse.jdt.internal.core.manipulation.search.MethodExitsFinder;
+import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesFinder;
+import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesIndex;
 
 import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.tests.core.rules.Java1d8ProjectTestSetup;
@@ -274,4 +283,72 @@ public class MarkOccurrenceTest1d8 {
 		OccurrenceLocation[] ranges= { find(s, "String", 1), find(s, "return null;", 1) };
 		checkSelection(s, offset, length, ranges);
 	}
+
+	@Test
+	public void testOccurrencesIndex() throws Exception {
+		String s= "" +
+				"package test1;\n" +
+				"import static java.lang.Math.max;\n" +
+				"import java.util.ArrayList;\n" +
+				"\n" +
+				"public class E {\n" +
+				"    static int count;\n" +
+				"    private int value = 1;\n" +
+				"    E(int value) {\n" +
+				"        this.value = value;\n" +
+				"        E.count++;\n" +
+				"    }\n" +
+				"    /**\n" +
+				"     * @see E#sum(int[])\n" +
+				"     */\n" +
+				"    int sum(int[] values) {\n" +
+				"        int result = max(0, 1);\n" +
+				"        for (int v : values) {\n" +
+				"            result += v;\n" +
+				"            value = result;\n" +
+				"        }\n" +
+				"        java.util.List<String> list = new java.util.ArrayList<>();\n" +
+				"        list.add(String.valueOf(new ArrayList<E>()));\n" +
+				"        new E(result).sum(values);\n" +
+				"        return result + Math.max(value, E.count);\n" +
+				"    }\n" +
+				"}\n";
+
+		CompilationUnit root= createCompilationUnit(s);
+		List<Name> names= new ArrayList<>();
+		root.accept(new ASTVisitor(true) {
+			@Override
+			public boolean visit(SimpleName node) {
+				names.add(node);
+				return true;
+			}
+
+			@Override
+			public boolean visit(QualifiedName node) {
+				names.add(node);
+				return true;
+			}
+		});
+
+		OccurrencesIndex index= new OccurrencesIndex(root);
+		for (Name name : names) {
+			OccurrencesFinder finder= new OccurrencesFinder();
+			OccurrenceLocation[] expected= finder.initialize(root, name) == null ? finder.getOccurrences() : null;
+			OccurrenceLocation[] actual= index.getOccurrences(name);
+			assertArrayEquals(name.toString(), toStrings(expected), toStrings(actual));
+		}
+		assertEquals(1, index.getWalkCount());
+	}
+
+	private static String[] toStrings(OccurrenceLocation[] locations) {
+		if (locations == null)
+			return null;
+		String[] result= new String[locations.length];
+		for (int i= 0; i < locations.length; i++) {
+			OccurrenceLocation location= locations[i];
+			result[i]= location.getOffset() + "/" + location.getLength() + "/" + location.getFlags() + "/" + location.getDescription();
+		}
+		Arrays.sort(result);
+		return result;
+	}
 }
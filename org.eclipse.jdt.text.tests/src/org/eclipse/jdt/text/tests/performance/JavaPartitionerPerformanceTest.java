@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.performance;
+
+import junit.framework.Test;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentPartitioner;
+
+import org.eclipse.jdt.core.IJavaProject;
+
+import org.eclipse.jdt.ui.text.IJavaPartitions;
+
+import org.eclipse.jdt.internal.ui.text.FastJavaPartitionScanner;
+import org.eclipse.jdt.internal.ui.text.FastJavaPartitioner;
+
+
+/**
+ * Measures the cost of repartitioning a large Java document after typical edits.
+ *
+ * @since 3.31
+ */
+public class JavaPartitionerPerformanceTest extends TextPerformanceTestCase2 {
+
+	private static final int METHODS= 2000;
+	private static final int EDITS= 100;
+
+	private static final String[] LEGAL_CONTENT_TYPES= new String[] {
+		IJavaPartitions.JAVA_DOC,
+		IJavaPartitions.JAVA_MULTI_LINE_COMMENT,
+		IJavaPartitions.JAVA_SINGLE_LINE_COMMENT,
+		IJavaPartitions.JAVA_STRING,
+		IJavaPartitions.JAVA_CHARACTER,
+		IJavaPartitions.JAVA_MULTI_LINE_STRING,
+		IDocument.DEFAULT_CONTENT_TYPE
+	};
+
+
+	public static Test suite() {
+		return new PerfTestSuite(JavaPartitionerPerformanceTest.class);
+	}
+
+
+	private IJavaProject fProject;
+	private IDocument fDocument;
+	/** The offset of an edit in the middle of a method body */
+	private int fEditOffset;
+
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject= JavaProjectHelper.createJavaProject(getClass().getName(), "bin");
+		JavaProjectHelper.set15CompilerOptions(fProject);
+
+		StringBuilder buffer= new StringBuilder("public class Large {\n");
+		for (int i= 0; i < METHODS; i++) {
+			if (i == METHODS / 2)
+				fEditOffset= buffer.length();
+			buffer.append("\t/**\n\t * Method ").append(i).append(".\n\t */\n");
+			buffer.append("\tpublic String method").append(i).append("(char c) {\n");
+			buffer.append("\t\t// returns a constant\n");
+			buffer.append("\t\tif (c == '\\n')\n\t\t\treturn \"line ").append(i).append("\";\n");
+			if (i % 10 == 0)
+				buffer.append("\t\treturn \"\"\"\n\t\t\ttext block ").append(i).append("\n\t\t\t\"\"\";\n");
+			else
+				buffer.append("\t\treturn /* value */ \"value ").append(i).append("\";\n");
+			buffer.append("\t}\n\n");
+		}
+		buffer.append("}\n");
+
+		fDocument= new Document(buffer.toString());
+		IDocumentPartitioner partitioner= new FastJavaPartitioner(new FastJavaPartitionScanner(fProject), LEGAL_CONTENT_TYPES);
+		partitioner.connect(fDocument);
+		fDocument.setDocumentPartitioner(IJavaPartitions.JAVA_PARTITIONING, partitioner);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fDocument= null;
+		if (fProject != null)
+			JavaProjectHelper.delete(fProject);
+		super.tearDown();
+	}
+
+	public void measureTypeCode(PerformanceMeter meter) throws BadLocationException {
+		measureTyping(meter, "\t\tint i= 0;\n");
+	}
+
+	public void measureTypeString(PerformanceMeter meter) throws BadLocationException {
+		measureTyping(meter, "\t\tString s= \"s\";\n");
+	}
+
+	public void measureTypeMultiLineComment(PerformanceMeter meter) throws BadLocationException {
+		measureTyping(meter, "/* comment */\n");
+	}
+
+	public void measureTypeTextBlock(PerformanceMeter meter) throws BadLocationException {
+		measureTyping(meter, "\"\"\"\ntext\n\"\"\";\n");
+	}
+
+	/*
+	 * Types the given text character by character and removes it again, so that the
+	 * intermediate states, e.g. an unterminated comment or text block, are partitioned as well.
+	 */
+	private void measureTyping(PerformanceMeter meter, String text) throws BadLocationException {
+		meter.start();
+		for (int edit= 0; edit < EDITS; edit++) {
+			for (int i= 0; i < text.length(); i++)
+				fDocument.replace(fEditOffset + i, 0, text.substring(i, i + 1));
+			for (int i= text.length() - 1; i >= 0; i--)
+				fDocument.replace(fEditOffset + i, 1, "");
+		}
+		meter.stop();
+	}
+}
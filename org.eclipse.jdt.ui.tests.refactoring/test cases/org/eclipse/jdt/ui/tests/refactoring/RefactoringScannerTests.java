@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,6 +20,8 @@ import java.util.Collections;
 
 import org.junit.Test;
 
+import org.eclipse.jdt.core.ICompilationUnit;
+
 import org.eclipse.jdt.internal.corext.refactoring.rename.RefactoringScanner;
 import org.eclipse.jdt.internal.corext.refactoring.rename.RefactoringScanner.TextMatch;
 
@@ -113,4 +115,29 @@ public class RefactoringScannerTests extends GenericRefactoringTest {
 				new Position(38, 20),
 		});
 	}
+
+	@Test
+	public void testCompilationUnitWithUnicodeEscapes() throws Exception {
+		String escapedName= "Test\\u0050attern";
+		String source= "package p;\n" +
+				"class Escapes {\n" +
+				"\tString s= \"" + escapedName + "\";\n" +
+				"\t// org.eclipse." + escapedName + " \\u0041\n" +
+				"}\n";
+		ICompilationUnit cu= rts.getPackageP().createCompilationUnit("Escapes.java", source, true, null);
+		try {
+			fScanner.scan(cu);
+
+			ArrayList<String> matches= new ArrayList<>();
+			for (TextMatch match : fScanner.getMatches()) {
+				matches.add(match.getStartPosition() + ":" + match.getLength() + ":" + match.isQualified());
+			}
+			Collections.sort(matches);
+			int first= source.indexOf(escapedName);
+			int second= source.indexOf(escapedName, first + 1);
+			assertEquals("results", "[" + first + ":16:false, " + second + ":16:true]", matches.toString());
+		} finally {
+			cu.delete(true, null);
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@ package org.eclipse.jdt.ui.tests.refactoring.typeconstraints;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -40,9 +41,11 @@ import org.eclipse.jdt.core.dom.FieldDeclaration;
 import org.eclipse.jdt.core.dom.IBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 
 import org.eclipse.jdt.internal.corext.dom.HierarchicalASTVisitor;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.SharedTypeEnvironments;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TType;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeEnvironment;
 
@@ -340,6 +343,62 @@ public class TypeEnvironmentTests extends AbstractJunit4CUTestCase {
 		testBindings(collector.getResult());
 	}
 
+	//---- shared environments -------------------------------------------------
+
+	@Test
+	public void testSharedEnvironment() throws Exception {
+		IPackageFragment pack= MyTestSetup.getGenericPackage();
+		IJavaProject project= pack.getJavaProject();
+		ICompilationUnit unit= pack.createCompilationUnit("Shared.java", "package generic;\nimport java.util.List;\npublic class Shared {\n\tList<String> fList;\n}\n", true, null);
+		try {
+			ASTParser parser= ASTParser.newParser(AST.getJLSLatest());
+			parser.setResolveBindings(true);
+			parser.setSource(unit);
+			CompilationUnit node= (CompilationUnit) parser.createAST(null);
+			ITypeBinding binding= ((TypeDeclaration) node.types().get(0)).getFields()[0].getType().resolveBinding();
+
+			SharedTypeEnvironments environments= SharedTypeEnvironments.getInstance();
+			TypeEnvironment environment= environments.getEnvironment(project);
+			assertSame("Not same environment", environment, environments.getEnvironment(project));
+
+			TType type= environment.create(binding);
+			long hits= environment.getHitCount();
+			long misses= environment.getMissCount();
+			assertTrue("No types", environment.getTypeCount() > 0);
+			assertSame("Not same type", type, environment.create(binding));
+			assertEquals("Not a hit", hits + 1, environment.getHitCount());
+			assertEquals("Not a hit", misses, environment.getMissCount());
+
+			pack.createCompilationUnit("Other.java", "package generic;\npublic class Other {\n}\n", true, null).delete(true, null);
+			assertNotSame("Environment not dropped", environment, environments.getEnvironment(project));
+		} finally {
+			unit.delete(true, null);
+		}
+	}
+
+	@Test
+	public void testSharedEnvironmentKeptOnReconcile() throws Exception {
+		IPackageFragment pack= MyTestSetup.getGenericPackage();
+		IJavaProject project= pack.getJavaProject();
+		ICompilationUnit unit= pack.createCompilationUnit("Kept.java", "package generic;\npublic class Kept {\n}\n", true, null);
+		ICompilationUnit copy= unit.getWorkingCopy(null);
+		try {
+			SharedTypeEnvironments environments= SharedTypeEnvironments.getInstance();
+			TypeEnvironment environment= environments.getEnvironment(project);
+
+			copy.getBuffer().setContents("package generic;\npublic class Kept {\n\tvoid foo() {\n\t}\n}\n");
+			copy.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			assertSame("Environment dropped on reconcile", environment, environments.getEnvironment(project));
+
+			copy.getBuffer().setContents("package generic;\npublic class Kept implements java.io.Serializable {\n\tvoid foo() {\n\t}\n}\n");
+			copy.commitWorkingCopy(true, null);
+			assertNotSame("Environment not dropped on super type change", environment, environments.getEnvironment(project));
+		} finally {
+			copy.discardWorkingCopy();
+			unit.delete(true, null);
+		}
+	}
+
 	public void _testAssignment() throws Exception {
 		ASTNode node= createAST(MyTestSetup.getGenericPackage());
 		TypeBindingCollector collector= new TypeBindingCollector();
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.performance.views;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExternalResource;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+
+import org.eclipse.jdt.internal.corext.refactoring.generics.InferTypeArgumentsRefactoring;
+
+import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCaseCommon;
+
+/**
+ * Measures constraint creation and solving of Infer Generic Type Arguments on
+ * generated code in which raw collections flow through long assignment chains.
+ */
+public class InferTypeArgumentsPerfTest extends JdtPerformanceTestCaseCommon {
+
+	/** Number of generated classes, each one links to its predecessor. */
+	private static final int CLASSES= 200;
+
+	/** Number of raw collection fields per class. */
+	private static final int FIELDS= 5;
+
+	private static class MyTestSetup extends ExternalResource {
+		public static final String SRC_CONTAINER= "src";
+
+		public static IJavaProject fJProject1;
+
+		@Override
+		public void before() throws Throwable {
+			fJProject1= JavaProjectHelper.createJavaProject("TestProject1", "bin");
+			assertNotNull("rt not found", JavaProjectHelper.addRTJar(fJProject1));
+			IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fJProject1, SRC_CONTAINER);
+			IPackageFragment pack= root.createPackageFragment("p", true, null);
+
+			for (int i= 0; i < CLASSES; i++) {
+				String name= "C" + i;
+				StringBuilder buf= new StringBuilder();
+				buf.append("package p;\n");
+				buf.append("import java.util.*;\n");
+				buf.append("public class ").append(name).append(" {\n");
+				for (int f= 0; f < FIELDS; f++) {
+					buf.append("\tList list").append(f).append("= new ArrayList();\n");
+					buf.append("\tMap map").append(f).append("= new HashMap();\n");
+				}
+				buf.append("\tvoid link(").append(i == 0 ? name : "C" + (i - 1)).append(" prev) {\n");
+				for (int f= 0; f < FIELDS; f++) {
+					buf.append("\t\tlist").append(f).append(".addAll(prev.list").append(f).append(");\n");
+					buf.append("\t\tmap").append(f).append(".putAll(prev.map").append(f).append(");\n");
+					if (i == 0) {
+						buf.append("\t\tlist").append(f).append(".add(\"").append(f).append("\");\n");
+						buf.append("\t\tmap").append(f).append(".put(\"").append(f).append("\", Integer.valueOf(").append(f).append("));\n");
+					}
+					buf.append("\t\tfor (Iterator it= list").append(f).append(".iterator(); it.hasNext();) {\n");
+					buf.append("\t\t\tObject o= it.next();\n");
+					buf.append("\t\t\tmap").append(f).append(".put(o, map").append(f).append(".get(o));\n");
+					buf.append("\t\t}\n");
+				}
+				buf.append("\t}\n");
+				buf.append("}\n");
+				pack.createCompilationUnit(name + ".java", buf.toString(), true, null);
+			}
+		}
+
+		@Override
+		public void after() {
+			try {
+				if (fJProject1 != null && fJProject1.exists())
+					JavaProjectHelper.delete(fJProject1);
+			} catch (CoreException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	@Rule
+	public MyTestSetup stup= new MyTestSetup();
+
+	@Test
+	public void testInferTypeArgumentsOnChains() throws Exception {
+		measure(Performance.getDefault().getNullPerformanceMeter(), 2);
+		measure(fPerformanceMeter, 10);
+
+		commitMeasurements();
+		Performance.getDefault().assertPerformance(fPerformanceMeter);
+	}
+
+	private void measure(PerformanceMeter performanceMeter, int runs) throws Exception {
+		for (int i= 0; i < runs; i++) {
+			joinBackgroudActivities();
+
+			InferTypeArgumentsRefactoring refactoring= new InferTypeArgumentsRefactoring(new IJavaElement[] { MyTestSetup.fJProject1 });
+			RefactoringStatus status= refactoring.checkInitialConditions(new NullProgressMonitor());
+			assertFalse(status.hasFatalError());
+
+			performanceMeter.start();
+			status= refactoring.checkFinalConditions(new NullProgressMonitor());
+			performanceMeter.stop();
+
+			assertFalse(status.hasFatalError());
+		}
+	}
+}
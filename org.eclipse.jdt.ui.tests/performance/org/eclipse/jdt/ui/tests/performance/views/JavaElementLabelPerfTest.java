@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.performance.views;
+
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExternalResource;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.jdt.testplugin.JavaTestPlugin;
+import org.eclipse.test.performance.Dimension;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IParent;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCaseCommon;
+
+import org.eclipse.jdt.internal.ui.viewsupport.AppearanceAwareLabelProvider;
+
+/**
+ * Measures the time and the memory it takes to get the labels and images of the elements of a
+ * source folder again and again, as a viewer does while it is scrolled.
+ */
+public class JavaElementLabelPerfTest extends JdtPerformanceTestCaseCommon {
+
+	private static final int SCROLLS= 20;
+
+	private static class MyTestSetup extends ExternalResource {
+		public static final String SRC_CONTAINER= "src";
+
+		public static IJavaProject fJProject1;
+		public static IPackageFragmentRoot fRoot;
+
+		@Override
+		public void before() throws Throwable {
+			fJProject1= JavaProjectHelper.createJavaProject("Testing", "bin");
+			assertNotNull("rt not found", JavaProjectHelper.addRTJar13(fJProject1));
+			File junitSrcArchive= JavaTestPlugin.getDefault().getFileInPlugin(JavaProjectHelper.JUNIT_SRC_381);
+			fRoot= JavaProjectHelper.addSourceContainerWithImport(fJProject1, SRC_CONTAINER, junitSrcArchive, JavaProjectHelper.JUNIT_SRC_ENCODING);
+		}
+		@Override
+		public void after() {
+			try {
+				if (fJProject1 != null && fJProject1.exists())
+					JavaProjectHelper.delete(fJProject1);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	@Rule
+	public MyTestSetup stup= new MyTestSetup();
+
+	@Test
+	public void testScrollLabels() throws Exception {
+		List<IJavaElement> elements= new ArrayList<>();
+		for (IJavaElement pack : MyTestSetup.fRoot.getChildren()) {
+			elements.add(pack);
+			for (ICompilationUnit cu : ((IPackageFragment) pack).getCompilationUnits())
+				collectElements(cu, elements);
+		}
+		AppearanceAwareLabelProvider provider= new AppearanceAwareLabelProvider();
+		try {
+			joinBackgroudActivities();
+			for (int i= 0; i < 10; i++) {
+				startMeasuring();
+				for (int scroll= 0; scroll < SCROLLS; scroll++) {
+					for (IJavaElement element : elements) {
+						provider.getStyledText(element);
+						provider.getImage(element);
+					}
+				}
+				stopMeasuring();
+			}
+			commitMeasurements();
+			assertPerformanceInRelativeBand(Dimension.ELAPSED_PROCESS, -100, +10);
+		} finally {
+			provider.dispose();
+		}
+	}
+
+	private static void collectElements(IJavaElement element, List<IJavaElement> elements) throws JavaModelException {
+		elements.add(element);
+		if (element instanceof IParent) {
+			for (IJavaElement child : ((IParent) element).getChildren())
+				collectElements(child, elements);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.performance.views;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExternalResource;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+
+import org.eclipse.jdt.internal.corext.refactoring.base.ReferencesInBinaryContext;
+import org.eclipse.jdt.internal.corext.refactoring.rename.RippleMethodFinder2;
+
+import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCaseCommon;
+
+/**
+ * Measures the ripple method computation for a widely implemented interface method
+ * in a synthetic deep hierarchy.
+ */
+public class RippleMethodFinderPerfTest extends JdtPerformanceTestCaseCommon {
+
+	/** Depth of each class chain implementing the interface. */
+	private static final int DEPTH= 40;
+
+	/** Number of class chains implementing the interface. */
+	private static final int CHAINS= 10;
+
+	private static class MyTestSetup extends ExternalResource {
+		public static final String SRC_CONTAINER= "src";
+
+		public static IJavaProject fJProject1;
+		public static IMethod fTarget;
+
+		@Override
+		public void before() throws Throwable {
+			fJProject1= JavaProjectHelper.createJavaProject("TestProject1", "bin");
+			assertNotNull("rt not found", JavaProjectHelper.addRTJar(fJProject1));
+			IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fJProject1, SRC_CONTAINER);
+			IPackageFragment pack= root.createPackageFragment("p", true, null);
+
+			pack.createCompilationUnit("I.java", "package p;\npublic interface I {\n\tvoid m();\n}\n", true, null);
+			// unrelated interfaces declaring the same method, implemented at the bottom of each chain ("married" types)
+			pack.createCompilationUnit("J.java", "package p;\npublic interface J {\n\tvoid m();\n}\n", true, null);
+			for (int chain= 0; chain < CHAINS; chain++) {
+				for (int level= 0; level < DEPTH; level++) {
+					String name= "C" + chain + "_" + level;
+					StringBuilder buf= new StringBuilder();
+					buf.append("package p;\npublic class ").append(name);
+					if (level == 0)
+						buf.append(" implements I");
+					else
+						buf.append(" extends C").append(chain).append('_').append(level - 1);
+					if (level == DEPTH - 1)
+						buf.append(level == 0 ? ", J" : " implements J");
+					buf.append(" {\n");
+					if (level % 4 == 0)
+						buf.append("\tpublic void m() {}\n");
+					buf.append("}\n");
+					pack.createCompilationUnit(name + ".java", buf.toString(), true, null);
+				}
+			}
+			fTarget= pack.getCompilationUnit("I.java").getType("I").getMethod("m", new String[0]);
+		}
+
+		@Override
+		public void after() {
+			try {
+				if (fJProject1 != null && fJProject1.exists())
+					JavaProjectHelper.delete(fJProject1);
+			} catch (CoreException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	@Rule
+	public MyTestSetup stup= new MyTestSetup();
+
+	@Test
+	public void testRippleMethodsInDeepHierarchy() throws Exception {
+		measure(Performance.getDefault().getNullPerformanceMeter(), 2, null);
+		measure(fPerformanceMeter, 10, null);
+
+		commitMeasurements();
+		Performance.getDefault().assertPerformance(fPerformanceMeter);
+	}
+
+	/*
+	 * Repeated lookups, e.g. by the checks of a rename refactoring, that reuse the hierarchies
+	 * cached by the first lookup.
+	 */
+	@Test
+	public void testRippleMethodsWithWarmHierarchyCache() throws Exception {
+		Map<IType, ITypeHierarchy> hierarchies= new HashMap<>();
+		measure(Performance.getDefault().getNullPerformanceMeter(), 1, hierarchies);
+		measure(fPerformanceMeter, 10, hierarchies);
+
+		commitMeasurements();
+		Performance.getDefault().assertPerformance(fPerformanceMeter);
+	}
+
+	/*
+	 * Measures the lookup with a new hierarchy cache per run if the given cache is null.
+	 */
+	private void measure(PerformanceMeter performanceMeter, int runs, Map<IType, ITypeHierarchy> hierarchies) throws Exception {
+		int expected= 1 + 1 + CHAINS * ((DEPTH + 3) / 4);
+		for (int i= 0; i < runs; i++) {
+			joinBackgroudActivities();
+
+			Map<IType, ITypeHierarchy> cache= hierarchies != null ? hierarchies : new HashMap<>();
+			performanceMeter.start();
+			IMethod[] rippleMethods= RippleMethodFinder2.getRelatedMethods(MyTestSetup.fTarget, new ReferencesInBinaryContext(""), cache, new NullProgressMonitor(), null);
+			performanceMeter.stop();
+
+			assertEquals(expected, rippleMethods.length);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,12 +18,15 @@ import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
+	InferTypeArgumentsPerfTest.class,
+	JavaElementLabelPerfTest.class,
 	PackageExplorerPerfTest.class,
 	PackageExplorerColdPerfTest.class,
 	PackageExplorerEmptyPerfTest.class,
 	PackageExplorerWarmPerfTest.class,
 	PackageExplorerWorkspacePerfTest.class,
 	PackageExplorerWorkspaceWarmPerfTest.class,
+	RippleMethodFinderPerfTest.class,
 	TypeHierarchyPerfTest.class
 })
 public class ViewPerformanceTestSuite {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2021 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,12 +30,16 @@ import org.junit.Test;
 
 import org.eclipse.core.runtime.NullProgressMonitor;
 
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IInitializer;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
 
 import org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchy;
+import org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchyExpander;
+import org.eclipse.jdt.internal.corext.callhierarchy.CallerGraph;
+import org.eclipse.jdt.internal.corext.callhierarchy.CompilationUnitNodeCache;
 import org.eclipse.jdt.internal.corext.callhierarchy.MethodWrapper;
 
 import org.eclipse.jdt.ui.tests.callhierarchy.CallHierarchyTestHelper;
@@ -113,6 +117,56 @@ public class CallHierarchyTest {
         helper.assertCalls(expectedMethods, cachedCalls);
     }
 
+	@Test
+	public void callersFromCallerGraph() throws Exception {
+        helper.createSimpleClasses();
+
+        IMethod method= helper.getMethod1();
+        CallerGraph callerGraph= CallerGraph.getInstance();
+        callerGraph.flush();
+
+        Collection<IMember> expectedMethods= new ArrayList<>();
+        expectedMethods.add(helper.getMethod2());
+        expectedMethods.add(helper.getMethod3());
+
+        helper.assertCalls(expectedMethods, getSingleCallerRoot(method).getCalls(new NullProgressMonitor()));
+
+        int hits= callerGraph.getHitCount();
+        helper.assertCalls(expectedMethods, getSingleCallerRoot(method).getCalls(new NullProgressMonitor()));
+        assertEquals(hits + 1, callerGraph.getHitCount());
+
+        ICompilationUnit cu= helper.getPackage2().createCompilationUnit("C.java",
+                "package pack2;\npublic class C {\npublic void method5(pack1.A a) { a.method1(); }\n}\n", true, null);
+        expectedMethods.add(cu.getType("C").getMethod("method5", new String[] { "Qpack1.A;" }));
+
+        int misses= callerGraph.getMissCount();
+        helper.assertCalls(expectedMethods, getSingleCallerRoot(method).getCalls(new NullProgressMonitor()));
+        assertEquals(misses + 1, callerGraph.getMissCount());
+    }
+
+	@Test
+	public void expandCallersToDepth() throws Exception {
+        helper.createSimpleClasses();
+
+        MethodWrapper wrapper= getSingleCallerRoot(helper.getMethod1());
+        CallHierarchyExpander expander= new CallHierarchyExpander(2, 2);
+        expander.expand(new MethodWrapper[] { wrapper }, new NullProgressMonitor());
+
+        // method1, then its callers method2 and method3
+        assertEquals(3, expander.getSearchCount());
+        assertEquals(2, expander.getMaxFrontierSize());
+
+        assertTrue(wrapper.hasCachedCalls());
+        MethodWrapper[] calls= wrapper.getCalls(new NullProgressMonitor());
+        for (MethodWrapper call : calls) {
+            assertTrue(call.hasCachedCalls());
+        }
+        MethodWrapper wrapper2= helper.findMethodWrapper(helper.getMethod3(), calls);
+        Collection<IMember> expectedSecondLevelMethods= new ArrayList<>();
+        expectedSecondLevelMethods.add(helper.getMethod4());
+        helper.assertCalls(expectedSecondLevelMethods, wrapper2.getCalls(new NullProgressMonitor()));
+    }
+
 	@Test
 	public void callees() throws Exception {
         helper.createSimpleClasses();
@@ -140,6 +194,51 @@ public class CallHierarchyTest {
         helper.assertCalls(expectedMethodsTo3, wrapper2.getCalls(new NullProgressMonitor()));
     }
 
+	@Test
+	public void calleesFromCachedAST() throws Exception {
+        helper.createSimpleClasses();
+        CompilationUnitNodeCache.flush();
+
+        IMethod method3= helper.getMethod3();
+        IMethod method4= helper.getMethod4();
+
+        helper.assertCalls(Arrays.asList(method3), getSingleCalleeRoot(method4).getCalls(new NullProgressMonitor()));
+        int parses= CompilationUnitNodeCache.getParseCount();
+        int focalParses= CompilationUnitNodeCache.getFocalParseCount();
+        int hits= CompilationUnitNodeCache.getHitCount();
+
+        // the same method again: answered by the cached AST
+        helper.assertCalls(Arrays.asList(method3), getSingleCalleeRoot(method4).getCalls(new NullProgressMonitor()));
+        assertEquals(parses, CompilationUnitNodeCache.getParseCount());
+        assertEquals(hits + 1, CompilationUnitNodeCache.getHitCount());
+
+        // another method of the same compilation unit: parsed completely once
+        helper.assertCalls(Arrays.asList(helper.getMethod1(), helper.getMethod2()), getSingleCalleeRoot(method3).getCalls(new NullProgressMonitor()));
+        assertEquals(parses + 1, CompilationUnitNodeCache.getParseCount());
+        assertEquals(focalParses, CompilationUnitNodeCache.getFocalParseCount());
+        helper.assertCalls(Arrays.asList(method3), getSingleCalleeRoot(method4).getCalls(new NullProgressMonitor()));
+        assertEquals(hits + 2, CompilationUnitNodeCache.getHitCount());
+
+        // an edit is seen
+        ICompilationUnit cu= method4.getCompilationUnit();
+        cu.getBuffer().setContents(cu.getSource().replace("method4() { method3(); }", "method4() { method2(); }"));
+        cu.save(null, true);
+        helper.assertCalls(Arrays.asList(helper.getMethod2()), getSingleCalleeRoot(method4).getCalls(new NullProgressMonitor()));
+        assertEquals(parses + 2, CompilationUnitNodeCache.getParseCount());
+
+        // a body change in another unit keeps the AST
+        ICompilationUnit other= helper.getMethod1().getCompilationUnit();
+        other.becomeWorkingCopy(null);
+        try {
+            other.getBuffer().setContents(other.getSource().replace("public void method1() {\n}", "public void method1() {\n  method2();\n}"));
+            other.reconcile(ICompilationUnit.NO_AST, false, null, null);
+            helper.assertCalls(Arrays.asList(helper.getMethod2()), getSingleCalleeRoot(method4).getCalls(new NullProgressMonitor()));
+            assertEquals(parses + 2, CompilationUnitNodeCache.getParseCount());
+        } finally {
+            other.discardWorkingCopy();
+        }
+    }
+
 	@Test
 	public void calleesNoResults() throws Exception {
         helper.createSimpleClasses();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020 IBM Corporation and others.
+ * Copyright (c) 2020, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,8 +13,13 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.tests.core;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,18 +32,27 @@ import org.junit.Test;
 import org.eclipse.jdt.testplugin.JavaProjectHelper;
 import org.eclipse.jdt.testplugin.JavaTestPlugin;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.core.resources.IFile;
+
 import org.eclipse.ui.IWorkbenchWindow;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 
 import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.typehierarchy.SubTypeHierarchyViewer.SubTypeHierarchyContentProvider;
+import org.eclipse.jdt.internal.ui.typehierarchy.TypeHierarchyLifeCycle;
 import org.eclipse.jdt.internal.ui.typehierarchy.TypeHierarchyViewPart;
 import org.eclipse.jdt.internal.ui.util.OpenTypeHierarchyUtil;
 
@@ -105,4 +119,74 @@ public class TypeHierarchyViewPartTest {
 		viewPart.setInputElements(javaElements2);
 		assertEquals("Wrong fourth history entry number ", 3, viewPart.getHistoryEntries().size());
     }
+
+	@Test
+	public void testHierarchyChangeWithoutRebuild() throws Exception {
+		IPackageFragmentRoot root= fJProject1.getPackageFragmentRoot(fJProject1.getProject().getFolder(SRC_CONTAINER));
+		IPackageFragment pack= root.createPackageFragment("p", true, null);
+		ICompilationUnit cuA= pack.createCompilationUnit("A.java", "package p;\npublic class A {\n}\n", true, null);
+		ICompilationUnit cuB= pack.createCompilationUnit("B.java", "package p;\npublic class B extends A {\n}\n", true, null);
+		IType typeA= cuA.getType("A");
+
+		TypeHierarchyLifeCycle lifeCycle= new TypeHierarchyLifeCycle(false);
+		List<IType[]> changes= new ArrayList<>();
+		lifeCycle.addChangedListener((typeHierarchy, changedTypes) -> changes.add(changedTypes));
+		lifeCycle.doHierarchyRefresh(new IJavaElement[] { typeA }, new NullProgressMonitor());
+		try {
+			// a new method does not change the structure of the hierarchy
+			IFile fileB= (IFile) cuB.getResource();
+			fileB.setContents(new ByteArrayInputStream("package p;\npublic class B extends A {\n void foo() {}\n}\n".getBytes()), true, false, null);
+			lifeCycle.typeHierarchyChanged(lifeCycle.getHierarchy());
+			Job.getJobManager().join(lifeCycle, null);
+			assertEquals(0, lifeCycle.getRebuildCount());
+			assertEquals(1, lifeCycle.getUpdateCount());
+			assertEquals(1, changes.size());
+			for (IType[] changedTypes : changes) {
+				assertArrayEquals(new IType[] { cuB.getType("B") }, changedTypes);
+			}
+
+			// B is no longer a subtype of A
+			changes.clear();
+			fileB.setContents(new ByteArrayInputStream("package p;\npublic class B {\n}\n".getBytes()), true, false, null);
+			Job.getJobManager().join(lifeCycle, null);
+			assertEquals(1, lifeCycle.getRebuildCount());
+			assertEquals(1, changes.size());
+			assertNull(changes.get(0));
+		} finally {
+			lifeCycle.freeHierarchy();
+		}
+	}
+
+	@Test
+	public void testContentProviderCachesAreCleared() throws Exception {
+		IPackageFragmentRoot root= fJProject1.getPackageFragmentRoot(fJProject1.getProject().getFolder(SRC_CONTAINER));
+		IPackageFragment pack= root.createPackageFragment("q", true, null);
+		IType typeA= pack.createCompilationUnit("A.java", "package q;\npublic class A {\n}\n", true, null).getType("A");
+		IType typeB= pack.createCompilationUnit("B.java", "package q;\npublic class B extends A {\n void foo() {}\n}\n", true, null).getType("B");
+		IType typeC= pack.createCompilationUnit("C.java", "package q;\npublic class C extends A {\n void bar() {}\n}\n", true, null).getType("C");
+
+		TypeHierarchyLifeCycle lifeCycle= new TypeHierarchyLifeCycle(false);
+		lifeCycle.doHierarchyRefresh(new IJavaElement[] { typeA }, new NullProgressMonitor());
+		SubTypeHierarchyContentProvider provider= new SubTypeHierarchyContentProvider(lifeCycle);
+		try {
+			// a new member filter
+			provider.setMemberFilter(new IMember[] { typeB.getMethod("foo", new String[0]) });
+			assertTrue(provider.hasChildren(typeB));
+			assertFalse(provider.hasChildren(typeC));
+			provider.setMemberFilter(new IMember[] { typeC.getMethod("bar", new String[0]) });
+			assertFalse(provider.hasChildren(typeB));
+			assertTrue(provider.hasChildren(typeC));
+
+			// a new subtype of B
+			provider.setMemberFilter(null);
+			assertFalse(provider.hasChildren(typeB));
+			pack.createCompilationUnit("D.java", "package q;\npublic class D extends B {\n}\n", true, null);
+			lifeCycle.typeHierarchyChanged(lifeCycle.getHierarchy());
+			Job.getJobManager().join(lifeCycle, null);
+			assertTrue(provider.hasChildren(typeB));
+		} finally {
+			provider.dispose();
+			lifeCycle.freeHierarchy();
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 package org.eclipse.jdt.ui.tests.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -32,7 +33,11 @@ import org.eclipse.jdt.testplugin.JavaProjectHelper;
 import org.eclipse.jdt.testplugin.JavaTestPlugin;
 import org.eclipse.jdt.testplugin.StringAsserts;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.jface.preference.IPreferenceStore;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -48,8 +53,11 @@ import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
 
+import org.eclipse.jdt.internal.corext.util.TypeFilter;
 import org.eclipse.jdt.internal.corext.util.TypeInfoFilter;
+import org.eclipse.jdt.internal.corext.util.TypeNameIndex;
 
+import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
 
 public class TypeInfoTest {
@@ -190,6 +198,82 @@ public class TypeInfoTest {
 	}
 
 
+	@Test
+	public void typeNameIndex() throws Exception {
+		IPackageFragmentRoot root1= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		IPackageFragment pack1= root1.createPackageFragment("com.oti", true, null);
+		ICompilationUnit cu1= pack1.getCompilationUnit("V.java");
+		cu1.createType("public class V {\n static class VInner {\n}\n}\n", null, true, null);
+		cu1.createType("class VSecondary {\n}\n", null, true, null);
+
+		TypeNameIndex index= TypeNameIndex.getInstance();
+		Job.getJobManager().join(TypeNameIndex.FAMILY, null);
+		assertTrue("index not ready", index.isReady());
+
+		ArrayList<TypeNameMatch> result= new ArrayList<>();
+		TypeInfoFilter filter= new TypeInfoFilter("V", SearchEngine.createWorkspaceScope(), IJavaSearchConstants.TYPE, null);
+		assertTrue(index.search(filter, new TypeNameMatchCollector(result), new NullProgressMonitor()));
+		findTypeRef(result, "com.oti.V");
+		findTypeRef(result, "com.oti.V.VInner");
+		findTypeRef(result, "com.oti.VSecondary");
+		findTypeRef(result, "java.util.Vector");
+		for (TypeNameMatch ref : result) {
+			assertResolve(ref);
+		}
+
+		// the index is updated by the update job, without a rebuild
+		cu1.createType("class WAdded {\n}\n", null, true, null);
+		assertTrue("index not ready", index.isReady());
+		Job.getJobManager().join(TypeNameIndex.FAMILY, null);
+		result.clear();
+		filter= new TypeInfoFilter("WAdd", SearchEngine.createWorkspaceScope(), IJavaSearchConstants.TYPE, null);
+		assertTrue(index.search(filter, new TypeNameMatchCollector(result), new NullProgressMonitor()));
+		assertEquals(1, result.size());
+		findTypeRef(result, "com.oti.WAdded");
+		assertResolve(result.get(0));
+
+		// a new root is searched while the index stays ready
+		IPackageFragmentRoot root2= JavaProjectHelper.addSourceContainer(fJProject1, "src2");
+		IPackageFragment pack2= root2.createPackageFragment("com.oti2", true, null);
+		pack2.getCompilationUnit("WNew.java").createType("public class WNew {\n}\n", null, true, null);
+		assertTrue("index not ready", index.isReady());
+		Job.getJobManager().join(TypeNameIndex.FAMILY, null);
+		result.clear();
+		filter= new TypeInfoFilter("W", SearchEngine.createWorkspaceScope(), IJavaSearchConstants.TYPE, null);
+		assertTrue(index.search(filter, new TypeNameMatchCollector(result), new NullProgressMonitor()));
+		findTypeRef(result, "com.oti.WAdded");
+		findTypeRef(result, "com.oti2.WNew");
+	}
+
+	@Test
+	public void typeFilter() throws Exception {
+		IPreferenceStore store= PreferenceConstants.getPreferenceStore();
+		String previous= store.getString(PreferenceConstants.TYPEFILTER_ENABLED);
+		try {
+			store.setValue(PreferenceConstants.TYPEFILTER_ENABLED, "java.awt.*;*.internal.*;com.oti.V?;com.oti.\\*");
+			assertTrue(TypeFilter.isFiltered("java.awt.List"));
+			assertTrue(TypeFilter.isFiltered("org.eclipse.jdt.internal.ui.JavaPlugin"));
+			assertTrue(TypeFilter.isFiltered("com.oti.VX"));
+			assertTrue(TypeFilter.isFiltered("com.oti.*"));
+			assertFalse(TypeFilter.isFiltered("java.util.List"));
+			assertFalse(TypeFilter.isFiltered("java.awtx.List"));
+			assertFalse(TypeFilter.isFiltered("com.oti.V"));
+			assertFalse(TypeFilter.isFiltered("com.oti.VXY"));
+			assertFalse(TypeFilter.isFiltered("com.oti.W"));
+
+			// a backslash that does not escape '*', '?' or '\\' is taken literally, as by StringMatcher
+			store.setValue(PreferenceConstants.TYPEFILTER_ENABLED, "com.oti.\\Y");
+			assertTrue(TypeFilter.isFiltered("com.oti.\\Y"));
+			assertFalse(TypeFilter.isFiltered("com.oti.Y"));
+
+			store.setValue(PreferenceConstants.TYPEFILTER_ENABLED, "");
+			assertFalse(TypeFilter.getDefault().hasFilters());
+			assertFalse(TypeFilter.isFiltered("java.awt.List"));
+		} finally {
+			store.setValue(PreferenceConstants.TYPEFILTER_ENABLED, previous);
+		}
+	}
+
 	@Test
 	public void bug44772() throws Exception {
 		File lib= JavaTestPlugin.getDefault().getFileInPlugin(JavaProjectHelper.MYLIB);
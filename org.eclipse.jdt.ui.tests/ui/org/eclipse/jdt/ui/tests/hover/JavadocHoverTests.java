@@ -17,8 +17,13 @@ package org.eclipse.jdt.ui.tests.hover;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -38,6 +43,9 @@ import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.IType;
@@ -50,6 +58,7 @@ import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
 
 import org.eclipse.jdt.internal.ui.text.java.hover.JavadocBrowserInformationControlInput;
 import org.eclipse.jdt.internal.ui.text.java.hover.JavadocHover;
+import org.eclipse.jdt.internal.ui.text.javadoc.JavadocHTMLCache;
 
 public class JavadocHoverTests extends CoreTests {
 
@@ -266,5 +275,80 @@ public class JavadocHoverTests extends CoreTests {
 		}
 	}
 
+	@Test
+	public void testHTMLCache() throws Exception {
+		IPackageFragmentRoot root= fJProject1.getPackageFragmentRoot(fJProject1.getProject().getFolder("src"));
+		IPackageFragment pack= root.createPackageFragment("p", true, null);
+		ICompilationUnit cu= pack.createCompilationUnit("Cached.java", getCachedSource("First version."), true, null);
+		IMethod method= cu.getType("Cached").getMethod("foo", new String[0]);
+
+		String html= JavadocHTMLCache.getHTMLContent(method, true);
+		assertTrue(html, html.contains("First version."));
+		assertSame(html, JavadocHTMLCache.getHTMLContent(method, true));
+
+		cu.becomeWorkingCopy(null);
+		try {
+			cu.getBuffer().setContents(getCachedSource("Second, edited version."));
+			cu.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			String edited= JavadocHTMLCache.getHTMLContent(method, true);
+			assertTrue(edited, edited.contains("Second, edited version."));
+			assertSame(edited, JavadocHTMLCache.getHTMLContent(method, true));
+		} finally {
+			cu.discardWorkingCopy();
+		}
+
+		String reverted= JavadocHTMLCache.getHTMLContent(method, true);
+		assertTrue(reverted, reverted.contains("First version."));
+
+		IFile file= (IFile) cu.getResource();
+		file.setContents(new ByteArrayInputStream(getCachedSource("Third, saved version.").getBytes(StandardCharsets.UTF_8)), true, false, null);
+		String saved= JavadocHTMLCache.getHTMLContent(method, true);
+		assertTrue(saved, saved.contains("Third, saved version."));
+		assertNotSame(html, saved);
+	}
+
+	@Test
+	public void testHTMLCacheDependencies() throws Exception {
+		IPackageFragmentRoot root= fJProject1.getPackageFragmentRoot(fJProject1.getProject().getFolder("src"));
+		IPackageFragment pack= root.createPackageFragment("p", true, null);
+		ICompilationUnit cu= pack.createCompilationUnit("Cached.java", getCachedSource("First version."), true, null);
+		ICompilationUnit subCu= pack.createCompilationUnit("Sub.java", "package p;\npublic class Sub extends Cached {\n  @Override\n  public void foo() {\n  }\n}\n", true, null);
+		ICompilationUnit otherCu= pack.createCompilationUnit("Other.java", "package p;\npublic class Other {\n}\n", true, null);
+		IMethod method= subCu.getType("Sub").getMethod("foo", new String[0]);
+
+		String inherited= JavadocHTMLCache.getHTMLContent(method, true);
+		assertTrue(inherited, inherited.contains("First version."));
+
+		otherCu.becomeWorkingCopy(null);
+		try {
+			otherCu.getBuffer().setContents("package p;\npublic class Other {\n  int bar;\n}\n");
+			otherCu.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			assertSame(inherited, JavadocHTMLCache.getHTMLContent(method, true));
+		} finally {
+			otherCu.discardWorkingCopy();
+		}
+
+		cu.becomeWorkingCopy(null);
+		try {
+			cu.getBuffer().setContents(getCachedSource("Second, edited version."));
+			cu.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			String edited= JavadocHTMLCache.getHTMLContent(method, true);
+			assertTrue(edited, edited.contains("Second, edited version."));
+		} finally {
+			cu.discardWorkingCopy();
+		}
+	}
+
+	private static String getCachedSource(String comment) {
+		return "package p;\n" +
+				"public class Cached {\n" +
+				"  /**\n" +
+				"   * " + comment + "\n" +
+				"   */\n" +
+				"  public void foo() {\n" +
+				"  }\n" +
+				"}\n";
+	}
+
 }
 
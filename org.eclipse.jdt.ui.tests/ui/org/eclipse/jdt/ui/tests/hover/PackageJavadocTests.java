@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2020 IBM Corporation and others.
+ * Copyright (c) 2013, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,11 +13,14 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.tests.hover;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import org.junit.After;
 import org.junit.Before;
@@ -51,6 +54,7 @@ import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
 
 import org.eclipse.jdt.internal.ui.text.java.hover.JavadocBrowserInformationControlInput;
 import org.eclipse.jdt.internal.ui.text.java.hover.JavadocHover;
+import org.eclipse.jdt.internal.ui.text.javadoc.AttachedJavadocCache;
 
 /**
  * Tests for fetching package Javadoc.
@@ -355,6 +359,68 @@ public class PackageJavadocTests extends CoreTests {
 				actualHtmlContent.contains(CorextMessages.JavaDocLocations_error_gettingAttachedJavadoc) || actualHtmlContent.contains(CorextMessages.JavaDocLocations_noAttachedSource));
 	}
 
+	@Test
+	public void testAttachedJavadocCache() throws Exception {
+		File docs= Files.createTempDirectory("javadoc").toFile();
+		try {
+			File page= new File(docs, "java/math/package-summary.html");
+			page.getParentFile().mkdirs();
+			writePackageSummary(page, "Cached documentation of java.math.");
+
+			IClasspathAttribute attribute= JavaCore.newClasspathAttribute(IClasspathAttribute.JAVADOC_LOCATION_ATTRIBUTE_NAME, docs.toURI().toURL().toExternalForm());
+			IPath rtstubs= new Path(JavaTestPlugin.getDefault().getFileInPlugin(new Path("/testresources/rtstubs15.jar")).getAbsolutePath());
+			IClasspathEntry[] rawClasspath= fJProject1.getRawClasspath();
+			rawClasspath[0]= JavaCore.newLibraryEntry(rtstubs, null, null, null, new IClasspathAttribute[] { attribute }, false);
+			fJProject1.setRawClasspath(rawClasspath, null);
+			IPackageFragment pack= fJProject1.findPackageFragmentRoot(rtstubs).getPackageFragment("java.math");
+
+			// fetched once, then answered from memory
+			int fetches= AttachedJavadocCache.getFetchCount();
+			String javadoc= AttachedJavadocCache.getAttachedJavadoc(pack);
+			assertNotNull(javadoc);
+			assertTrue(javadoc, javadoc.contains("Cached documentation of java.math."));
+			assertEquals(fetches + 1, AttachedJavadocCache.getFetchCount());
+			assertEquals(javadoc, AttachedJavadocCache.getAttachedJavadoc(pack));
+			assertEquals(fetches + 1, AttachedJavadocCache.getFetchCount());
+
+			// a build path change drops the fragments in memory, they are read from disk
+			JavaProjectHelper.addSourceContainer(fJProject1, "src");
+			assertEquals(javadoc, AttachedJavadocCache.getAttachedJavadoc(pack));
+			assertEquals(fetches + 1, AttachedJavadocCache.getFetchCount());
+
+			// a change of the Javadoc location is fetched again
+			writePackageSummary(page, "Changed documentation of java.math.");
+			docs.setLastModified(docs.lastModified() + 10000);
+			javadoc= AttachedJavadocCache.getAttachedJavadoc(pack);
+			assertNotNull(javadoc);
+			assertTrue(javadoc, javadoc.contains("Changed documentation of java.math."));
+			assertEquals(fetches + 2, AttachedJavadocCache.getFetchCount());
+		} finally {
+			new File(docs, "java/math/package-summary.html").delete();
+			new File(docs, "java/math").delete();
+			new File(docs, "java").delete();
+			docs.delete();
+		}
+	}
+
+	private static void writePackageSummary(File file, String description) throws Exception {
+		String html= "<!DOCTYPE HTML PUBLIC \"-//W3C//DTD HTML 4.01 Transitional//EN\" \"http://www.w3.org/TR/html4/loose.dtd\">\n"
+				+ "<html lang=\"en\">\n"
+				+ "<head><title>java.math</title></head>\n"
+				+ "<body>\n"
+				+ "<div class=\"contentContainer\">\n"
+				+ "<a name=\"package.description\">\n"
+				+ "<!--   -->\n"
+				+ "</a>\n"
+				+ "<h2 title=\"Package java.math Description\">Package java.math Description</h2>\n"
+				+ "<div class=\"block\">" + description + "</div>\n"
+				+ "</div>\n"
+				+ "<!-- ======= START OF BOTTOM NAVBAR ====== -->\n"
+				+ "</body>\n"
+				+ "</html>\n";
+		Files.write(file.toPath(), html.getBytes(StandardCharsets.UTF_8));
+	}
+
 	@Before
 	public void setUp() throws Exception {
 		fJProject1= pts.getProject();
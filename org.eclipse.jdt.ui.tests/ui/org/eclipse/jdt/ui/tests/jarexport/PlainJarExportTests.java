@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2020 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,19 +13,28 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.tests.jarexport;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 import org.junit.After;
 import org.junit.Before;
@@ -39,8 +48,11 @@ import org.eclipse.jdt.testplugin.JavaTestPlugin;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 
+import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.resources.ResourcesPlugin;
 
 import org.eclipse.ui.IWorkbenchWindow;
@@ -53,6 +65,7 @@ import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
 
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
+import org.eclipse.jdt.internal.jarpackager.JarPackagerUtilCore;
 
 import org.eclipse.jdt.ui.jarpackager.IJarExportRunnable;
 import org.eclipse.jdt.ui.jarpackager.JarPackageData;
@@ -160,6 +173,106 @@ public class PlainJarExportTests {
 		assertEquals(expected.toString(), entries.toString());
 	}
 
+	@Test
+	public void incrementalExport() throws Exception {
+		JarPackageData data= createJarPackageData();
+
+		data.setElements(new Object[] { fCU.getResource() });
+		data.setExportClassFiles(true);
+		data.setIncrementalExport(true);
+
+		ArrayList<String> entries;
+		try (ZipFile jar= createArchive(data)) {
+			entries= getSortedEntries(jar);
+		}
+		List<String> expected= Arrays.asList("META-INF/MANIFEST.MF\n", "org/eclipse/jdt/ui/test/Main$1.class\n", "org/eclipse/jdt/ui/test/Main$MainInner.class\n", "org/eclipse/jdt/ui/test/Main.class\n");
+		assertEquals(expected.toString(), entries.toString());
+
+		// nothing has changed: the JAR is kept
+		File jarFile= data.getAbsoluteJarLocation().toFile();
+		long length= jarFile.length();
+		long lastModified= jarFile.lastModified();
+		createArchive(data).close();
+		assertEquals(length, jarFile.length());
+		assertEquals(lastModified, jarFile.lastModified());
+
+		// a class is added and one is removed
+		String source= fCU.getSource();
+		fCU.getBuffer().setContents(source.replace("MainInner", "MainInner2"));
+		fCU.save(null, true);
+		fProject.getProject().build(IncrementalProjectBuilder.INCREMENTAL_BUILD, null);
+
+		try (ZipFile jar= createArchive(data)) {
+			entries= getSortedEntries(jar);
+			assertEquals(ZipEntry.DEFLATED, jar.getEntry("org/eclipse/jdt/ui/test/Main.class").getMethod());
+		}
+		expected= Arrays.asList("META-INF/MANIFEST.MF\n", "org/eclipse/jdt/ui/test/Main$1.class\n", "org/eclipse/jdt/ui/test/Main$MainInner2.class\n", "org/eclipse/jdt/ui/test/Main.class\n");
+		assertEquals(expected.toString(), entries.toString());
+	}
+
+	@Test
+	public void writeArchiveWithReadAhead() throws Exception {
+		File source= File.createTempFile("source", ".jar");
+		try {
+			Random random= new Random(42);
+			try (ZipOutputStream out= new ZipOutputStream(new FileOutputStream(source))) {
+				out.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+				out.write("Manifest-Version: 1.0\n".getBytes());
+				out.putNextEntry(new ZipEntry("p/"));
+				for (int i= 0; i < 100; i++) {
+					byte[] content= new byte[random.nextInt(20000)];
+					random.nextBytes(content);
+					out.putNextEntry(new ZipEntry("p/C" + i + ".class"));
+					out.write(content);
+				}
+				// larger than the entries that are read ahead into memory
+				byte[] content= new byte[3 * 1024 * 1024];
+				random.nextBytes(content);
+				out.putNextEntry(new ZipEntry("p/large.bin"));
+				out.write(content);
+				out.putNextEntry(new ZipEntry("p/empty.txt"));
+			}
+
+			for (boolean isCompressed : new boolean[] { true, false }) {
+				List<Object> expected= readEntries(writeArchive(source, isCompressed, false));
+				List<Object> actual= readEntries(writeArchive(source, isCompressed, true));
+				assertEquals(103 * 2, expected.size()); // "p/", the classes, large.bin and empty.txt
+				assertEquals(expected.size(), actual.size());
+				for (int i= 0; i < expected.size(); i+= 2) {
+					assertEquals(expected.get(i), actual.get(i));
+					assertArrayEquals((String) expected.get(i), (byte[]) expected.get(i + 1), (byte[]) actual.get(i + 1));
+				}
+			}
+		} finally {
+			source.delete();
+		}
+	}
+
+	private static byte[] writeArchive(File source, boolean isCompressed, boolean readAhead) throws Exception {
+		ByteArrayOutputStream bytes= new ByteArrayOutputStream();
+		MultiStatus status= new MultiStatus(JavaTestPlugin.getPluginId(), IStatus.OK, "", null);
+		try (ZipFile zipFile= new ZipFile(source); JarOutputStream out= new JarOutputStream(bytes)) {
+			JarPackagerUtilCore.writeArchive(zipFile, true, isCompressed, out, new HashSet<>(), status, readAhead, new NullProgressMonitor());
+		}
+		assertTrue(status.toString(), status.isOK());
+		return bytes.toByteArray();
+	}
+
+	/*
+	 * Returns the names and contents of the entries in their order.
+	 */
+	private static List<Object> readEntries(byte[] archive) throws Exception {
+		List<Object> entries= new ArrayList<>();
+		try (ZipInputStream in= new ZipInputStream(new ByteArrayInputStream(archive))) {
+			ZipEntry entry;
+			while ((entry= in.getNextEntry()) != null) {
+				entries.add(entry.getName());
+				entries.add(in.readAllBytes());
+			}
+		}
+		return entries;
+	}
+
 	private JarPackageData createJarPackageData() {
 		JarPackageData data= new JarPackageData();
 		data.setJarLocation(ResourcesPlugin.getWorkspace().getRoot().getLocation().append(getName() + ".jar"));
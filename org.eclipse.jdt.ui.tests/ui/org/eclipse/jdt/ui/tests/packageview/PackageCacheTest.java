@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2020 Simeon Andreev and others.
+ * Copyright (c) 2017, 2023 Simeon Andreev and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,7 @@ import static org.junit.Assert.assertEquals;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -164,6 +165,42 @@ public class PackageCacheTest {
 				expectedPackagesWithSingleChild, actualPackagesWithSingleChild);
 	}
 
+	@Test
+	public void testGetTopLevelPackages() throws Exception {
+		assertEquals("method returned wrong results",
+				Arrays.asList(package_a, package_f), packageCache.getTopLevelPackages());
+	}
+
+	@Test
+	public void testPackageAddedAndRemoved() throws Exception {
+		// build the cache before the packages change
+		packageCache.getDirectChildren(package_a);
+
+		IProgressMonitor monitor= new NullProgressMonitor();
+		IPackageFragment package_a_b_h= src.createPackageFragment("a.b.h", true, monitor);
+		IPackageFragment package_i= src.createPackageFragment("i", true, monitor);
+		packageCache.packageAdded(package_a_b_h);
+		packageCache.packageAdded(package_i);
+		package_a_b_c_d1.delete(true, monitor);
+		packageCache.packageRemoved(package_a_b_c_d1);
+
+		assertEquals("method returned wrong results",
+				Arrays.asList(package_a_b_c, package_a_b_e, package_a_b_h), packageCache.getDirectChildren(package_a_b));
+		assertEquals("method returned wrong results",
+				Arrays.asList(package_a_b_c_d2), packageCache.getDirectChildren(package_a_b_c));
+		assertEquals("method returned wrong results",
+				package_a_b_c_d2, packageCache.getSingleChild(package_a_b_c));
+		assertEquals("method returned wrong results",
+				Arrays.asList(package_a, package_f, package_i), packageCache.getTopLevelPackages());
+
+		PackageCache newPackageCache= new PackageCache(src);
+		for (IJavaElement element : src.getChildren()) {
+			IPackageFragment packageFragment= (IPackageFragment) element;
+			assertEquals("updated cache differs for " + packageFragment.getElementName(),
+					new HashSet<>(newPackageCache.getDirectChildren(packageFragment)), new HashSet<>(packageCache.getDirectChildren(packageFragment)));
+		}
+	}
+
 	private Map<IPackageFragment, IPackageFragment> actualSingleChildren() throws Exception {
 		List<IPackageFragment> allPackages= allPackages();
 		Map<IPackageFragment, IPackageFragment> actualSingleChildren= new LinkedHashMap<>();
@@ -14,12 +14,18 @@
 package org.eclipse.jdt.ui.tests.search;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Rule;
 import org.junit.Test;
 
+import org.eclipse.search.ui.text.Match;
+
 import org.eclipse.jdt.ui.tests.core.rules.JUnitSourceSetup;
 
+import org.eclipse.jdt.internal.ui.search.JavaSearchQuery;
+import org.eclipse.jdt.internal.ui.search.JavaSearchResult;
+
 /**
  */
 public class WorkspaceReferenceTest {
@@ -36,4 +42,31 @@ public class WorkspaceReferenceTest {
 	public void testFindOverridden() throws Exception {
 		assertEquals(6, SearchTestHelper.countMethodRefs("junit.framework.TestCase", "countTestCases", new String[0]));
 	}
+
+	@Test
+	public void testMatchesOfElements() throws Exception {
+		JavaSearchQuery query= SearchTestHelper.runMethodRefQuery("junit.framework.Test", "countTestCases", new String[0]);
+		JavaSearchResult result= (JavaSearchResult) query.getSearchResult();
+		int count= 0;
+		for (Object element : result.getElements()) {
+			Match[] matches= result.getMatches(element);
+			assertEquals(result.getMatchCount(element), matches.length);
+			for (int i= 0; i < matches.length; i++) {
+				assertEquals(element, matches[i].getElement());
+				if (i > 0)
+					assertTrue(matches[i - 1].getOffset() <= matches[i].getOffset());
+			}
+			count+= matches.length;
+		}
+		assertEquals(9, count);
+
+		Object element= result.getElements()[0];
+		Match match= result.getMatches(element)[0];
+		assertEquals(match, result.getMatches(element)[0]);
+		match.setOffset(match.getOffset() + 1);
+		assertEquals(match.getOffset(), result.getMatches(element)[0].getOffset());
+
+		result.removeMatch(result.getMatches(element)[0]);
+		assertEquals(8, result.getMatchCount());
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.util;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.StringTokenizer;
 
 import org.eclipse.jface.util.IPropertyChangeListener;
@@ -26,7 +28,6 @@ import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.ui.PreferenceConstants;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
-import org.eclipse.jdt.internal.ui.util.StringMatcher;
 
 /**
  *
@@ -73,41 +74,41 @@ public class TypeFilter implements IPropertyChangeListener {
 		}
 	}
 
-	private StringMatcher[] fStringMatchers;
+	/** All filter patterns, compiled into one automaton */
+	private TypeFilterAutomaton fAutomaton;
 
 	/**
 	 *
 	 */
 	public TypeFilter() {
-		fStringMatchers= null;
+		fAutomaton= null;
 		PreferenceConstants.getPreferenceStore().addPropertyChangeListener(this);
 	}
 
-	private synchronized StringMatcher[] getStringMatchers() {
-		if (fStringMatchers == null) {
+	private synchronized TypeFilterAutomaton getAutomaton() {
+		if (fAutomaton == null) {
 			String str= PreferenceConstants.getPreferenceStore().getString(PreferenceConstants.TYPEFILTER_ENABLED);
 			StringTokenizer tok= new StringTokenizer(str, ";"); //$NON-NLS-1$
-			int nTokens= tok.countTokens();
-
-			fStringMatchers= new StringMatcher[nTokens];
-			for (int i= 0; i < nTokens; i++) {
+			List<String> patterns= new ArrayList<>();
+			while (tok.hasMoreTokens()) {
 				String curr= tok.nextToken();
 				if (curr.length() > 0) {
-					fStringMatchers[i]= new StringMatcher(curr, false, false);
+					patterns.add(curr);
 				}
 			}
+			fAutomaton= new TypeFilterAutomaton(patterns);
 		}
-		return fStringMatchers;
+		return fAutomaton;
 	}
 
 	public void dispose() {
 		PreferenceConstants.getPreferenceStore().removePropertyChangeListener(this);
-		fStringMatchers= null;
+		fAutomaton= null;
 	}
 
 
 	public boolean hasFilters() {
-		return getStringMatchers().length > 0;
+		return getAutomaton().getPatternCount() > 0;
 	}
 
 	/**
@@ -115,18 +116,13 @@ public class TypeFilter implements IPropertyChangeListener {
 	 * @return <code>true</code> iff the given type is filtered out
 	 */
 	public boolean filter(String fullTypeName) {
-		for (StringMatcher curr : getStringMatchers()) {
-			if (curr.match(fullTypeName)) {
-				return true;
-			}
-		}
-		return false;
+		return getAutomaton().match(fullTypeName);
 	}
 
 	@Override
 	public synchronized void propertyChange(PropertyChangeEvent event) {
 		if (PreferenceConstants.TYPEFILTER_ENABLED.equals(event.getProperty())) {
-			fStringMatchers= null;
+			fAutomaton= null;
 		}
 	}
 
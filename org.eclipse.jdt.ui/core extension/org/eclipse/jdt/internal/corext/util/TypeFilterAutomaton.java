@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches a text against a set of patterns at once. The patterns have the syntax of
+ * {@link org.eclipse.jdt.internal.ui.util.StringMatcher}: '*' matches any string, '?' any
+ * character, and a backslash escapes '*', '?' and itself. Matching is case sensitive and
+ * considers the whole text.
+ * <p>
+ * The patterns are compiled into a nondeterministic automaton whose states are the positions
+ * in the patterns. When the automaton is created, it is turned into a deterministic automaton
+ * over the characters that occur in the patterns, so that a text is matched with one table
+ * lookup per character, independent of the number of patterns. If the deterministic automaton
+ * would have too many states, texts are matched by simulating the nondeterministic one.
+ * </p>
+ * <p>
+ * The automaton is not modified by matching, so that it can be used by several threads
+ * without synchronization.
+ * </p>
+ */
+final class TypeFilterAutomaton {
+
+	private static final int ANY_CHAR= -1;
+	private static final int ANY_STRING= -2;
+	/** A character that occurs in no pattern */
+	private static final int OTHER_CHAR= -3;
+
+	private static final int MAX_STATES= 1000;
+	private static final int ASCII= 128;
+
+	/** The tokens of every pattern: a character, {@link #ANY_CHAR} or {@link #ANY_STRING} */
+	private final int[][] fPatterns;
+	/** For every position, the pattern it belongs to */
+	private final int[] fPatternOfPosition;
+	/** For every pattern, its first position. The last position of a pattern is accepting. */
+	private final int[] fFirstPositions;
+	private final BitSet fStartPositions;
+
+	// the deterministic automaton, whose start state is 0
+
+	/** The class of every ASCII character. Class 0 stands for the characters that occur in no pattern. */
+	private final int[] fAsciiClasses= new int[ASCII];
+	/** The classes of the other characters that occur in a pattern */
+	private final Map<Character, Integer> fClasses= new HashMap<>();
+	/** For every state, the next states by character class, or <code>null</code> if there are too many states */
+	private final int[][] fTransitions;
+	private final boolean[] fAccepting;
+	/** The state that cannot reach an accepting state any more, or -1 */
+	private final int fDeadState;
+
+	/**
+	 * @param patterns the patterns, must not be empty strings
+	 */
+	TypeFilterAutomaton(List<String> patterns) {
+		fPatterns= new int[patterns.size()][];
+		fFirstPositions= new int[patterns.size()];
+		int positions= 0;
+		for (int i= 0; i < fPatterns.length; i++) {
+			fPatterns[i]= parse(patterns.get(i));
+			fFirstPositions[i]= positions;
+			positions+= fPatterns[i].length + 1;
+		}
+		fPatternOfPosition= new int[positions];
+		for (int i= 0; i < fPatterns.length; i++) {
+			for (int k= 0; k <= fPatterns[i].length; k++) {
+				fPatternOfPosition[fFirstPositions[i] + k]= i;
+			}
+		}
+		BitSet start= new BitSet(positions);
+		for (int first : fFirstPositions) {
+			start.set(first);
+		}
+		fStartPositions= closure(start);
+
+		List<Integer> classChars= new ArrayList<>();
+		classChars.add(Integer.valueOf(OTHER_CHAR));
+		for (int[] pattern : fPatterns) {
+			for (int token : pattern) {
+				if (token >= 0 && getClass((char) token) == 0) {
+					int charClass= classChars.size();
+					classChars.add(Integer.valueOf(token));
+					if (token < ASCII)
+						fAsciiClasses[token]= charClass;
+					else
+						fClasses.put(Character.valueOf((char) token), Integer.valueOf(charClass));
+				}
+			}
+		}
+
+		List<BitSet> states= new ArrayList<>();
+		Map<BitSet, Integer> stateIds= new HashMap<>();
+		List<int[]> transitions= new ArrayList<>();
+		states.add(fStartPositions);
+		stateIds.put(fStartPositions, Integer.valueOf(0));
+		for (int state= 0; state < states.size() && states.size() <= MAX_STATES; state++) {
+			int[] next= new int[classChars.size()];
+			for (int charClass= 0; charClass < next.length; charClass++) {
+				BitSet positions= step(states.get(state), classChars.get(charClass).intValue());
+				Integer id= stateIds.get(positions);
+				if (id == null) {
+					id= Integer.valueOf(states.size());
+					states.add(positions);
+					stateIds.put(positions, id);
+				}
+				next[charClass]= id.intValue();
+			}
+			transitions.add(next);
+		}
+
+		if (states.size() > MAX_STATES) {
+			fTransitions= null;
+			fAccepting= null;
+			fDeadState= -1;
+		} else {
+			fTransitions= transitions.toArray(new int[transitions.size()][]);
+			fAccepting= new boolean[states.size()];
+			for (int state= 0; state < fAccepting.length; state++) {
+				fAccepting[state]= isAccepting(states.get(state));
+			}
+			Integer dead= stateIds.get(new BitSet());
+			fDeadState= dead != null ? dead.intValue() : -1;
+		}
+	}
+
+	/**
+	 * @return the number of patterns
+	 */
+	int getPatternCount() {
+		return fPatterns.length;
+	}
+
+	/**
+	 * @param text the text
+	 * @return <code>true</code> iff one of the patterns matches the whole text
+	 */
+	boolean match(String text) {
+		if (fTransitions == null)
+			return simulate(text);
+		int state= 0;
+		for (int i= 0; i < text.length(); i++) {
+			state= fTransitions[state][getClass(text.charAt(i))];
+			if (state == fDeadState)
+				return false;
+		}
+		return fAccepting[state];
+	}
+
+	private boolean simulate(String text) {
+		BitSet positions= fStartPositions;
+		for (int i= 0; i < text.length(); i++) {
+			if (positions.isEmpty())
+				return false;
+			positions= step(positions, text.charAt(i));
+		}
+		return isAccepting(positions);
+	}
+
+	private int getClass(char ch) {
+		if (ch < ASCII)
+			return fAsciiClasses[ch];
+		Integer charClass= fClasses.get(Character.valueOf(ch));
+		return charClass != null ? charClass.intValue() : 0;
+	}
+
+	private boolean isAccepting(BitSet positions) {
+		for (int position= positions.nextSetBit(0); position >= 0; position= positions.nextSetBit(position + 1)) {
+			int pattern= fPatternOfPosition[position];
+			if (position - fFirstPositions[pattern] == fPatterns[pattern].length)
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * Returns the positions that follow the given positions on the given character, or on a
+	 * character that occurs in no pattern if it is OTHER_CHAR.
+	 */
+	private BitSet step(BitSet positions, int ch) {
+		BitSet next= new BitSet(fPatternOfPosition.length);
+		for (int position= positions.nextSetBit(0); position >= 0; position= positions.nextSetBit(position + 1)) {
+			int pattern= fPatternOfPosition[position];
+			int index= position - fFirstPositions[pattern];
+			if (index == fPatterns[pattern].length)
+				continue;
+			int token= fPatterns[pattern][index];
+			if (token == ANY_STRING)
+				next.set(position);
+			else if (token == ANY_CHAR || token == ch)
+				next.set(position + 1);
+		}
+		return closure(next);
+	}
+
+	/*
+	 * Adds the positions that follow a '*', which may match the empty string.
+	 */
+	private BitSet closure(BitSet positions) {
+		for (int position= positions.nextSetBit(0); position >= 0; position= positions.nextSetBit(position + 1)) {
+			int pattern= fPatternOfPosition[position];
+			int index= position - fFirstPositions[pattern];
+			if (index < fPatterns[pattern].length && fPatterns[pattern][index] == ANY_STRING)
+				positions.set(position + 1);
+		}
+		return positions;
+	}
+
+	private static int[] parse(String pattern) {
+		int[] tokens= new int[pattern.length()];
+		int length= 0;
+		for (int i= 0; i < pattern.length(); i++) {
+			char ch= pattern.charAt(i);
+			switch (ch) {
+				case '*':
+					if (length == 0 || tokens[length - 1] != ANY_STRING)
+						tokens[length++]= ANY_STRING;
+					break;
+				case '?':
+					tokens[length++]= ANY_CHAR;
+					break;
+				case '\\':
+					if (i + 1 < pattern.length()) {
+						char next= pattern.charAt(i + 1);
+						if (next == '*' || next == '?' || next == '\\') {
+							tokens[length++]= next;
+							i++;
+							break;
+						}
+					}
+					// not an escape sequence, the backslash is taken literally
+					tokens[length++]= ch;
+					break;
+				default:
+					tokens[length++]= ch;
+					break;
+			}
+		}
+		int[] result= new int[length];
+		System.arraycopy(tokens, 0, result, 0, length);
+		return result;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -272,16 +272,33 @@ public class TypeInfoFilter {
 	}
 
 	private boolean matchesName(TypeNameMatch type) {
+		return matchesSimpleTypeName(type.getSimpleTypeName());
+	}
+
+	/**
+	 * @param simpleTypeName the simple name of a type
+	 * @return <code>true</code> if the name pattern matches the given name
+	 */
+	public boolean matchesSimpleTypeName(String simpleTypeName) {
 		if (fText.length() == 0) {
 			return true; //empty pattern matches all names
 		}
-		return fNameMatcher.matches(type.getSimpleTypeName());
+		return fNameMatcher.matches(simpleTypeName);
 	}
 
 	private boolean matchesPackage(TypeNameMatch type) {
+		return matchesTypeContainerName(type.getTypeContainerName());
+	}
+
+	/**
+	 * @param typeContainerName the name of the package or enclosing type of a type
+	 * @return <code>true</code> if the package pattern matches the given name
+	 * @see TypeNameMatch#getTypeContainerName()
+	 */
+	public boolean matchesTypeContainerName(String typeContainerName) {
 		if (fPackageMatcher == null)
 			return true;
-		return fPackageMatcher.matches(type.getTypeContainerName());
+		return fPackageMatcher.matches(typeContainerName);
 	}
 
 	private boolean matchesScope(TypeNameMatch type) {
@@ -291,9 +308,17 @@ public class TypeInfoFilter {
 	}
 
 	private boolean matchesModifiers(TypeNameMatch type) {
+		return matchesModifiers(type.getModifiers());
+	}
+
+	/**
+	 * @param typeModifiers the modifiers of a type
+	 * @return <code>true</code> if a type with the given modifiers is of the element kind of this filter
+	 */
+	public boolean matchesModifiers(int typeModifiers) {
 		if (fElementKind == IJavaSearchConstants.TYPE)
 			return true;
-		int modifiers= type.getModifiers() & TYPE_MODIFIERS;
+		int modifiers= typeModifiers & TYPE_MODIFIERS;
 		switch (fElementKind) {
 			case IJavaSearchConstants.CLASS:
 				return modifiers == 0;
@@ -0,0 +1,962 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IAccessRule;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.WorkingCopyOwner;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
+
+import org.eclipse.jdt.internal.corext.CorextMessages;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * An in-memory index of the names of all types in the workspace scope. Once it has been built
+ * in the background, it answers the queries of the Open Type dialog without the search engine.
+ * <p>
+ * The index consists of one table per package fragment root. The type-qualified names of the
+ * types of a root are stored in one byte array (ASCII where possible, UTF-8 otherwise), and all
+ * other attributes of a type in primitive arrays, so that an entry costs a few dozen bytes.
+ * Package fragments and the names of compilation units that declare secondary types are shared
+ * between entries. Type handles and {@link TypeNameMatch}es are only created for the entries
+ * that match a query.
+ * </p>
+ * <p>
+ * Tables are never modified once they are part of the index: an update replaces them, so that
+ * {@link #search(TypeInfoFilter, TypeNameMatchRequestor, IProgressMonitor)} needs no lock while
+ * it goes through the tables. Changes of primary compilation units, saved or reconciled, are
+ * queued for the update job, which replaces the table of each affected root once per batch of
+ * changes, without searching and without holding the lock while it builds the new tables. The
+ * delta listener only queues the changes. Changes of build paths, package fragment roots,
+ * packages and class files schedule a search for the affected roots only; until it has
+ * finished, the previous tables of these roots answer the queries.
+ * </p>
+ * <p>
+ * Every update that has not been overtaken by another change saves a snapshot of the index in
+ * the state location, together with a fingerprint (time stamp and size) of every library. A
+ * snapshot that cannot be read is deleted. At startup, the tables of the snapshot are taken over
+ * for the libraries whose fingerprints are unchanged, and only the other roots are searched. If
+ * all libraries of the workspace are covered by the snapshot, the index is ready as soon as it
+ * has been read. The tables of source folders are taken over as they are, and corrected by the
+ * search that follows.
+ * </p>
+ * <p>
+ * The index is only maintained if {@link #PREF_ENABLED} is set. Otherwise clients use the
+ * search engine.
+ * </p>
+ */
+public class TypeNameIndex {
+
+	/** Family of the job that updates the index */
+	public static final String FAMILY= TypeNameIndex.class.getName();
+
+	/** Preference key (boolean) that enables the index */
+	public static final String PREF_ENABLED= "TypeNameIndex.enabled"; //$NON-NLS-1$
+
+	private static final int UPDATE_DELAY= 5000;
+	/** Delay of the update job while compilation units are pending, so that edits are batched */
+	private static final int UNIT_UPDATE_DELAY= 200;
+
+	/** Number of entries that are searched between two reports to the requestor */
+	private static final int CHUNK_SIZE= 5000;
+
+	private static final String SNAPSHOT_FILENAME= "TypeNameIndex.dat"; //$NON-NLS-1$
+	private static final int SNAPSHOT_VERSION= 2;
+
+	/** Fingerprint of source folders, whose tables are always taken from a snapshot */
+	private static final long SOURCE_FINGERPRINT= 0;
+	/** Fingerprint of libraries whose tables are never taken from a snapshot */
+	private static final long NO_FINGERPRINT= -1;
+
+	/*
+	 * The entries of one package fragment root. A table is filled while it is created, and not
+	 * modified after it has been added to the index.
+	 */
+	private static final class Table {
+		private static final int ACCESSIBILITY_MASK= 0x3;
+		private static final int BINARY= 1 << 2;
+		private static final int UTF8= 1 << 3;
+
+		final IPackageFragmentRoot fRoot;
+		final long fFingerprint;
+
+		byte[] fNames= new byte[1 << 8];
+		int fNamesSize= 0;
+
+		int[] fNameStarts= new int[16];
+		int[] fNameLengths= new int[16];
+		int[] fPackages= new int[16];
+		/** Index into fFileNameTable, or -1 if the name of the type root follows from the type name */
+		int[] fFileNames= new int[16];
+		int[] fModifiers= new int[16];
+		byte[] fFlags= new byte[16];
+		int fSize= 0;
+
+		final List<IPackageFragment> fPackageFragments= new ArrayList<>();
+		final List<String> fPackageNames= new ArrayList<>();
+		final Map<IPackageFragment, Integer> fPackageIndices= new HashMap<>();
+		final List<String> fFileNameTable= new ArrayList<>();
+		final Map<String, Integer> fFileNameIndices= new HashMap<>();
+		final Map<ICompilationUnit, int[]> fEntriesByCompilationUnit= new HashMap<>();
+
+		Table(IPackageFragmentRoot root, long fingerprint) {
+			fRoot= root;
+			fFingerprint= fingerprint;
+		}
+
+		void add(IType type, int modifiers, int accessibility) {
+			String qualifiedName= type.getTypeQualifiedName('.');
+			boolean binary= type.isBinary();
+			String fileName= type.getTypeRoot().getElementName();
+			int file= -1;
+			if (!fileName.equals(getDefaultFileName(qualifiedName, binary)))
+				file= getFileNameIndex(fileName);
+			int pack= getPackageIndex(type.getPackageFragment());
+
+			int flags= accessibility & ACCESSIBILITY_MASK;
+			if (binary)
+				flags|= BINARY;
+			byte[] name;
+			if (isAscii(qualifiedName)) {
+				name= qualifiedName.getBytes(StandardCharsets.ISO_8859_1);
+			} else {
+				name= qualifiedName.getBytes(StandardCharsets.UTF_8);
+				flags|= UTF8;
+			}
+			int entry= add(name, 0, name.length, pack, file, modifiers, flags);
+			if (!binary)
+				addToCompilationUnit(type.getCompilationUnit(), entry);
+		}
+
+		private int getFileNameIndex(String fileName) {
+			Integer index= fFileNameIndices.get(fileName);
+			if (index == null) {
+				index= fFileNameTable.size();
+				fFileNameTable.add(fileName);
+				fFileNameIndices.put(fileName, index);
+			}
+			return index;
+		}
+
+		private int getPackageIndex(IPackageFragment packageFragment) {
+			Integer index= fPackageIndices.get(packageFragment);
+			if (index == null) {
+				index= fPackageFragments.size();
+				fPackageFragments.add(packageFragment);
+				fPackageNames.add(packageFragment.getElementName());
+				fPackageIndices.put(packageFragment, index);
+			}
+			return index;
+		}
+
+		private void addToCompilationUnit(ICompilationUnit cu, int entry) {
+			int[] entries= fEntriesByCompilationUnit.get(cu);
+			if (entries == null) {
+				entries= new int[] { entry };
+			} else {
+				entries= Arrays.copyOf(entries, entries.length + 1);
+				entries[entries.length - 1]= entry;
+			}
+			fEntriesByCompilationUnit.put(cu, entries);
+		}
+
+		private int add(byte[] names, int start, int length, int pack, int file, int modifiers, int flags) {
+			if (fNamesSize + length > fNames.length)
+				fNames= Arrays.copyOf(fNames, Math.max(fNamesSize + length, fNames.length * 2));
+			if (fSize == fFlags.length) {
+				int capacity= fSize * 2;
+				fNameStarts= Arrays.copyOf(fNameStarts, capacity);
+				fNameLengths= Arrays.copyOf(fNameLengths, capacity);
+				fPackages= Arrays.copyOf(fPackages, capacity);
+				fFileNames= Arrays.copyOf(fFileNames, capacity);
+				fModifiers= Arrays.copyOf(fModifiers, capacity);
+				fFlags= Arrays.copyOf(fFlags, capacity);
+			}
+			System.arraycopy(names, start, fNames, fNamesSize, length);
+			fNameStarts[fSize]= fNamesSize;
+			fNameLengths[fSize]= length;
+			fNamesSize+= length;
+			fPackages[fSize]= pack;
+			fFileNames[fSize]= file;
+			fModifiers[fSize]= modifiers;
+			fFlags[fSize]= (byte) flags;
+			return fSize++;
+		}
+
+		/*
+		 * Returns a table in which the entries of the given compilation units of this root are
+		 * replaced by their current types.
+		 */
+		Table update(Collection<ICompilationUnit> cus) throws JavaModelException {
+			Map<ICompilationUnit, Integer> accessibilities= new HashMap<>();
+			boolean[] removed= new boolean[fSize];
+			for (ICompilationUnit cu : cus) {
+				int accessibility= IAccessRule.K_ACCESSIBLE;
+				int[] cuEntries= fEntriesByCompilationUnit.get(cu);
+				if (cuEntries != null) {
+					accessibility= fFlags[cuEntries[0]] & ACCESSIBILITY_MASK;
+					for (int entry : cuEntries) {
+						removed[entry]= true;
+					}
+				}
+				accessibilities.put(cu, accessibility);
+			}
+
+			Table table= new Table(fRoot, fFingerprint);
+			table.fPackageFragments.addAll(fPackageFragments);
+			table.fPackageNames.addAll(fPackageNames);
+			table.fPackageIndices.putAll(fPackageIndices);
+			table.fFileNameTable.addAll(fFileNameTable);
+			table.fFileNameIndices.putAll(fFileNameIndices);
+			int[] newEntries= new int[fSize];
+			for (int i= 0; i < fSize; i++) {
+				if (!removed[i])
+					newEntries[i]= table.add(fNames, fNameStarts[i], fNameLengths[i], fPackages[i], fFileNames[i], fModifiers[i], fFlags[i]);
+			}
+			for (Map.Entry<ICompilationUnit, int[]> entry : fEntriesByCompilationUnit.entrySet()) {
+				if (accessibilities.containsKey(entry.getKey()))
+					continue;
+				int[] entries= entry.getValue().clone();
+				for (int i= 0; i < entries.length; i++) {
+					entries[i]= newEntries[entries[i]];
+				}
+				table.fEntriesByCompilationUnit.put(entry.getKey(), entries);
+			}
+			for (Map.Entry<ICompilationUnit, Integer> entry : accessibilities.entrySet()) {
+				ICompilationUnit cu= entry.getKey();
+				if (!cu.exists())
+					continue;
+				for (IType type : cu.getAllTypes()) {
+					table.add(type, type.getFlags(), entry.getValue().intValue());
+				}
+			}
+			return table;
+		}
+
+		/*
+		 * Writes the entries together with the handle and the fingerprint of the root.
+		 */
+		void write(DataOutputStream out) throws IOException {
+			out.writeUTF(fRoot.getHandleIdentifier());
+			out.writeLong(fFingerprint);
+			out.writeInt(fPackageNames.size());
+			for (String packageName : fPackageNames) {
+				out.writeUTF(packageName);
+			}
+			out.writeInt(fFileNameTable.size());
+			for (String fileName : fFileNameTable) {
+				out.writeUTF(fileName);
+			}
+			out.writeInt(fSize);
+			for (int i= 0; i < fSize; i++) {
+				out.writeInt(fPackages[i]);
+				out.writeInt(fFileNames[i]);
+				out.writeInt(fModifiers[i]);
+				out.writeByte(fFlags[i]);
+				out.writeInt(fNameLengths[i]);
+				out.write(fNames, fNameStarts[i], fNameLengths[i]);
+			}
+		}
+
+		/*
+		 * Reads a table written by write(..). Returns null if the root is no longer on a build
+		 * path or its fingerprint has changed. Throws an IOException if a size or an index is out
+		 * of range.
+		 */
+		static Table read(DataInputStream in, Map<IPath, IPackageFragmentRoot> roots) throws IOException {
+			IJavaElement element= JavaCore.create(in.readUTF());
+			long fingerprint= in.readLong();
+			IPackageFragmentRoot root= null;
+			if (element instanceof IPackageFragmentRoot && fingerprint != NO_FINGERPRINT) {
+				root= roots.get(element.getPath());
+				try {
+					if (root != null && getFingerprint(root) != fingerprint)
+						root= null;
+				} catch (JavaModelException e) {
+					root= null;
+				}
+			}
+
+			Table table= new Table(root, fingerprint);
+			int packages= readSize(in);
+			for (int i= 0; i < packages; i++) {
+				String packageName= in.readUTF();
+				if (root != null)
+					table.getPackageIndex(root.getPackageFragment(packageName));
+			}
+			int fileNames= readSize(in);
+			for (int i= 0; i < fileNames; i++) {
+				table.getFileNameIndex(in.readUTF());
+			}
+			int entries= readSize(in);
+			for (int i= 0; i < entries; i++) {
+				int pack= readIndex(in, 0, packages);
+				int file= readIndex(in, -1, fileNames);
+				int modifiers= in.readInt();
+				int flags= in.readByte();
+				byte[] name= new byte[readSize(in)];
+				in.readFully(name);
+				if (root == null)
+					continue;
+				int entry= table.add(name, 0, name.length, pack, file, modifiers, flags);
+				if ((flags & BINARY) == 0) {
+					String fileName= file != -1 ? table.fFileNameTable.get(file) : getDefaultFileName(table.decode(entry, table.fNameStarts[entry], table.fNameStarts[entry] + name.length), false);
+					table.addToCompilationUnit(table.fPackageFragments.get(pack).getCompilationUnit(fileName), entry);
+				}
+			}
+			return root != null ? table : null;
+		}
+
+		/*
+		 * Reads a size, which cannot exceed the number of remaining bytes.
+		 */
+		static int readSize(DataInputStream in) throws IOException {
+			int size= in.readInt();
+			if (size < 0 || size > in.available())
+				throw new IOException("Invalid size in snapshot: " + size); //$NON-NLS-1$
+			return size;
+		}
+
+		private static int readIndex(DataInputStream in, int min, int limit) throws IOException {
+			int index= in.readInt();
+			if (index < min || index >= limit)
+				throw new IOException("Invalid index in snapshot: " + index); //$NON-NLS-1$
+			return index;
+		}
+
+		boolean matches(int entry, TypeInfoFilter filter, char firstChar, boolean hideForbidden, boolean hideDiscouraged) {
+			int flags= fFlags[entry];
+			switch (flags & ACCESSIBILITY_MASK) {
+				case IAccessRule.K_NON_ACCESSIBLE:
+					if (hideForbidden)
+						return false;
+					break;
+				case IAccessRule.K_DISCOURAGED:
+					if (hideDiscouraged)
+						return false;
+					break;
+				default:
+					break;
+			}
+			int simpleNameStart= getSimpleNameStart(entry);
+			if (firstChar != 0 && (flags & UTF8) == 0) {
+				if (simpleNameStart == fNameStarts[entry] + fNameLengths[entry])
+					return false;
+				char ch= (char) (fNames[simpleNameStart] & 0xff);
+				if (Character.toLowerCase(ch) != firstChar)
+					return false;
+			}
+			if (!filter.matchesModifiers(fModifiers[entry]))
+				return false;
+			if (!filter.matchesTypeContainerName(getTypeContainerName(entry, simpleNameStart)))
+				return false;
+			return filter.matchesSimpleTypeName(decode(entry, simpleNameStart, fNameStarts[entry] + fNameLengths[entry]));
+		}
+
+		IType createType(int entry) {
+			IPackageFragment packageFragment= fPackageFragments.get(fPackages[entry]);
+			String qualifiedName= decode(entry, fNameStarts[entry], fNameStarts[entry] + fNameLengths[entry]);
+			boolean binary= (fFlags[entry] & BINARY) != 0;
+			int file= fFileNames[entry];
+			String fileName= file != -1 ? fFileNameTable.get(file) : getDefaultFileName(qualifiedName, binary);
+			if (binary)
+				return packageFragment.getOrdinaryClassFile(fileName).getType();
+
+			int start= 0;
+			int end= qualifiedName.indexOf('.');
+			IType type= packageFragment.getCompilationUnit(fileName).getType(end == -1 ? qualifiedName : qualifiedName.substring(0, end));
+			while (end != -1) {
+				start= end + 1;
+				end= qualifiedName.indexOf('.', start);
+				type= type.getType(end == -1 ? qualifiedName.substring(start) : qualifiedName.substring(start, end));
+			}
+			return type;
+		}
+
+		private int getSimpleNameStart(int entry) {
+			int start= fNameStarts[entry];
+			for (int i= start + fNameLengths[entry] - 1; i >= start; i--) {
+				// '.' cannot be part of a multi-byte UTF-8 sequence
+				if (fNames[i] == '.')
+					return i + 1;
+			}
+			return start;
+		}
+
+		private String getTypeContainerName(int entry, int simpleNameStart) {
+			String packageName= fPackageNames.get(fPackages[entry]);
+			int start= fNameStarts[entry];
+			if (simpleNameStart == start)
+				return packageName;
+			String enclosingTypeName= decode(entry, start, simpleNameStart - 1);
+			return packageName.isEmpty() ? enclosingTypeName : packageName + '.' + enclosingTypeName;
+		}
+
+		private String decode(int entry, int start, int end) {
+			return new String(fNames, start, end - start, (fFlags[entry] & UTF8) != 0 ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+		}
+
+		private static String getDefaultFileName(String qualifiedName, boolean binary) {
+			if (binary)
+				return qualifiedName.replace('.', '$') + ".class"; //$NON-NLS-1$
+			int end= qualifiedName.indexOf('.');
+			return (end == -1 ? qualifiedName : qualifiedName.substring(0, end)) + ".java"; //$NON-NLS-1$
+		}
+
+		private static boolean isAscii(String name) {
+			for (int i= 0; i < name.length(); i++) {
+				if (name.charAt(i) >= 0x80)
+					return false;
+			}
+			return true;
+		}
+	}
+
+	private class DeltaListener implements IElementChangedListener {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			Set<ICompilationUnit> changed= new LinkedHashSet<>();
+			Set<IPath> changedRoots= new HashSet<>();
+			Set<IJavaProject> changedProjects= new HashSet<>();
+			processDelta(event.getDelta(), changed, changedRoots, changedProjects);
+			if (!changedRoots.isEmpty() || !changedProjects.isEmpty())
+				scheduleUpdate(changedRoots, changedProjects);
+			if (!changed.isEmpty())
+				scheduleUpdate(changed);
+		}
+
+		/*
+		 * Collects the compilation units whose types may have changed, the paths of the roots
+		 * that have to be searched again, and the projects whose roots have to be searched again.
+		 */
+		private void processDelta(IJavaElementDelta delta, Set<ICompilationUnit> changed, Set<IPath> changedRoots, Set<IJavaProject> changedProjects) {
+			IJavaElement element= delta.getElement();
+			int kind= delta.getKind();
+			int flags= delta.getFlags();
+			switch (element.getElementType()) {
+				case IJavaElement.JAVA_MODEL:
+					break;
+				case IJavaElement.JAVA_PROJECT:
+					if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED
+							| IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0) {
+						changedProjects.add((IJavaProject) element);
+						return;
+					}
+					break;
+				case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+					if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+							| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED)) != 0) {
+						changedRoots.add(element.getPath());
+						return;
+					}
+					break;
+				case IJavaElement.PACKAGE_FRAGMENT:
+					if (kind != IJavaElementDelta.CHANGED) {
+						changedRoots.add(element.getParent().getPath());
+						return;
+					}
+					break;
+				case IJavaElement.CLASS_FILE:
+					changedRoots.add(element.getParent().getParent().getPath());
+					return;
+				case IJavaElement.COMPILATION_UNIT:
+					ICompilationUnit cu= (ICompilationUnit) element;
+					if (!JavaModelUtil.isPrimary(cu))
+						return;
+					if (kind != IJavaElementDelta.CHANGED || (flags & IJavaElementDelta.F_PRIMARY_WORKING_COPY) != 0
+							|| isUnknownStructuralChange(flags) || hasTypeChange(delta)) {
+						changed.add(cu);
+					}
+					return;
+				default:
+					return;
+			}
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				processDelta(child, changed, changedRoots, changedProjects);
+			}
+		}
+
+		private boolean isUnknownStructuralChange(int flags) {
+			return (flags & IJavaElementDelta.F_CONTENT) != 0 && (flags & IJavaElementDelta.F_FINE_GRAINED) == 0;
+		}
+
+		private boolean hasTypeChange(IJavaElementDelta delta) {
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				if (child.getElement().getElementType() != IJavaElement.TYPE)
+					continue;
+				if (child.getKind() != IJavaElementDelta.CHANGED || (child.getFlags() & IJavaElementDelta.F_MODIFIERS) != 0 || hasTypeChange(child))
+					return true;
+			}
+			return false;
+		}
+	}
+
+	private class UpdateJob extends Job {
+		public UpdateJob() {
+			super(CorextMessages.TypeNameIndex_build);
+			setSystem(true);
+			setPriority(Job.DECORATE);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				if (isRootUpdatePending())
+					updateRoots(monitor);
+				updateUnits();
+			} catch (OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
+			} catch (JavaModelException e) {
+				JavaPlugin.log(e);
+			}
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return FAMILY.equals(family);
+		}
+	}
+
+	private static TypeNameIndex fgInstance;
+
+	/**
+	 * @return <code>true</code> if the index is enabled by {@link #PREF_ENABLED}
+	 */
+	public static boolean isEnabled() {
+		return JavaPlugin.getDefault().getPreferenceStore().getBoolean(PREF_ENABLED);
+	}
+
+	/**
+	 * Returns the index, and starts building it if this has not happened yet.
+	 *
+	 * @return the index, or <code>null</code> if it is not enabled
+	 */
+	public static synchronized TypeNameIndex getInstance() {
+		if (!isEnabled()) {
+			shutdown();
+			return null;
+		}
+		if (fgInstance == null)
+			fgInstance= new TypeNameIndex();
+		return fgInstance;
+	}
+
+	public static synchronized void shutdown() {
+		if (fgInstance == null)
+			return;
+		fgInstance.doShutdown();
+		fgInstance= null;
+	}
+
+	private final IElementChangedListener fDeltaListener;
+	private final UpdateJob fUpdateJob;
+
+	// all fields below are guarded by this
+
+	/** The tables by the paths of their roots, or <code>null</code> if the index is not built yet */
+	private Map<IPath, Table> fTables;
+	/** Paths of the roots that have to be searched again */
+	private Set<IPath> fPendingRoots= new HashSet<>();
+	/** Projects whose roots have to be searched again */
+	private Set<IJavaProject> fPendingProjects= new HashSet<>();
+	/** Incremented whenever an update of roots is scheduled */
+	private int fGeneration;
+	/** Whether roots have to be searched again, or the index has not been built yet */
+	private boolean fRootUpdatePending= true;
+	/** Primary compilation units whose entries have to be replaced by the update job */
+	private Set<ICompilationUnit> fPendingUnits= new LinkedHashSet<>();
+
+	private TypeNameIndex() {
+		fDeltaListener= new DeltaListener();
+		JavaCore.addElementChangedListener(fDeltaListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		fUpdateJob= new UpdateJob();
+		fUpdateJob.schedule();
+	}
+
+	/**
+	 * @return <code>true</code> if the index has been built. Roots whose update is pending are
+	 *         answered from their previous tables.
+	 */
+	public synchronized boolean isReady() {
+		return fTables != null;
+	}
+
+	/**
+	 * Reports the types of the workspace scope that may match the given filter. The simple
+	 * names, type container names and modifiers of the reported types match the filter;
+	 * the scope and the filter extension are left to the requestor. Forbidden and discouraged
+	 * types are not reported if code assist hides them.
+	 *
+	 * @param filter the filter
+	 * @param requestor the requestor, called in chunks while the index is searched
+	 * @param monitor the progress monitor, only used for cancellation
+	 * @return <code>true</code> if the index has answered the query, <code>false</code> if it
+	 *         is not ready and the search engine has to be used
+	 * @throws OperationCanceledException if the monitor has been canceled
+	 */
+	public boolean search(TypeInfoFilter filter, TypeNameMatchRequestor requestor, IProgressMonitor monitor) {
+		Map<IPath, Table> tables;
+		synchronized (this) {
+			tables= fTables;
+		}
+		if (tables == null)
+			return false;
+		char firstChar= 0;
+		String namePattern= filter.getNamePattern();
+		if (filter.getText().length() > 0 && namePattern.length() > 0) {
+			char ch= namePattern.charAt(0);
+			if (ch != '*' && ch != '?')
+				firstChar= Character.toLowerCase(ch);
+		}
+		boolean hideForbidden= JavaCore.ENABLED.equals(JavaCore.getOption(JavaCore.CODEASSIST_FORBIDDEN_REFERENCE_CHECK));
+		boolean hideDiscouraged= JavaCore.ENABLED.equals(JavaCore.getOption(JavaCore.CODEASSIST_DISCOURAGED_REFERENCE_CHECK));
+
+		// the tables are not modified, so they are searched without holding the lock
+		List<TypeNameMatch> matches= new ArrayList<>();
+		int searched= 0;
+		for (Table table : tables.values()) {
+			for (int entry= 0; entry < table.fSize; entry++) {
+				if (table.matches(entry, filter, firstChar, hideForbidden, hideDiscouraged))
+					matches.add(SearchEngine.createTypeNameMatch(table.createType(entry), table.fModifiers[entry]));
+				if (++searched == CHUNK_SIZE) {
+					report(matches, requestor, monitor);
+					searched= 0;
+				}
+			}
+		}
+		report(matches, requestor, monitor);
+		return true;
+	}
+
+	private static void report(List<TypeNameMatch> matches, TypeNameMatchRequestor requestor, IProgressMonitor monitor) {
+		for (TypeNameMatch match : matches) {
+			requestor.acceptTypeNameMatch(match);
+		}
+		matches.clear();
+		if (monitor.isCanceled())
+			throw new OperationCanceledException();
+	}
+
+	private synchronized void scheduleUpdate(Collection<IPath> roots, Collection<IJavaProject> projects) {
+		fPendingRoots.addAll(roots);
+		fPendingProjects.addAll(projects);
+		fRootUpdatePending= true;
+		fGeneration++;
+		// a running update is not canceled, it runs again once it has finished
+		fUpdateJob.schedule(fPendingUnits.isEmpty() ? UPDATE_DELAY : UNIT_UPDATE_DELAY);
+	}
+
+	private synchronized void scheduleUpdate(Set<ICompilationUnit> cus) {
+		fPendingUnits.addAll(cus);
+		fUpdateJob.schedule(UNIT_UPDATE_DELAY);
+	}
+
+	private synchronized boolean isRootUpdatePending() {
+		return fRootUpdatePending;
+	}
+
+	/*
+	 * Replaces the tables of the roots of the pending compilation units, one new table per
+	 * root. The new tables are built without holding the lock; only the update job replaces
+	 * tables, so the tables they are built from are still current when they are installed.
+	 * Roots without a table are searched by the next update.
+	 */
+	private void updateUnits() {
+		Map<IPath, Table> tables;
+		Set<ICompilationUnit> cus;
+		synchronized (this) {
+			if (fTables == null || fPendingUnits.isEmpty())
+				return;
+			tables= fTables;
+			cus= fPendingUnits;
+			fPendingUnits= new LinkedHashSet<>();
+		}
+		Map<IPath, List<ICompilationUnit>> cusByRoot= new LinkedHashMap<>();
+		for (ICompilationUnit cu : cus) {
+			cusByRoot.computeIfAbsent(cu.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT).getPath(), k -> new ArrayList<>()).add(cu);
+		}
+		Map<IPath, Table> updated= new HashMap<>();
+		Set<IPath> missingRoots= new HashSet<>();
+		for (Map.Entry<IPath, List<ICompilationUnit>> entry : cusByRoot.entrySet()) {
+			IPath path= entry.getKey();
+			Table table= tables.get(path);
+			if (table == null) {
+				missingRoots.add(path);
+				continue;
+			}
+			try {
+				updated.put(path, table.update(entry.getValue()));
+			} catch (JavaModelException e) {
+				missingRoots.add(path);
+			}
+		}
+		synchronized (this) {
+			Map<IPath, Table> newTables= new HashMap<>(fTables);
+			newTables.putAll(updated);
+			fTables= Collections.unmodifiableMap(newTables);
+		}
+		if (!missingRoots.isEmpty())
+			scheduleUpdate(missingRoots, Collections.emptySet());
+	}
+
+	/*
+	 * Searches the roots that are pending or have no table yet, and replaces their tables.
+	 */
+	private void updateRoots(IProgressMonitor monitor) throws JavaModelException {
+		int generation;
+		boolean upToDate;
+		Map<IPath, Table> tables;
+		Set<IPath> pendingRoots;
+		Set<IJavaProject> pendingProjects;
+		synchronized (this) {
+			generation= fGeneration;
+			tables= fTables;
+			pendingRoots= fPendingRoots;
+			pendingProjects= fPendingProjects;
+			fPendingRoots= new HashSet<>();
+			fPendingProjects= new HashSet<>();
+			fRootUpdatePending= false;
+		}
+		try {
+			Map<IPath, IPackageFragmentRoot> roots= getRoots();
+			Set<IPath> toSearch= new LinkedHashSet<>();
+			if (tables == null) {
+				tables= loadSnapshot(roots);
+				for (Map.Entry<IPath, IPackageFragmentRoot> entry : roots.entrySet()) {
+					if (!tables.containsKey(entry.getKey()) || getFingerprint(entry.getValue()) == SOURCE_FINGERPRINT)
+						toSearch.add(entry.getKey());
+				}
+			} else {
+				for (IPath path : roots.keySet()) {
+					if (!tables.containsKey(path) || pendingRoots.contains(path))
+						toSearch.add(path);
+				}
+				for (IJavaProject project : pendingProjects) {
+					if (!project.isOpen())
+						continue;
+					for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+						if (roots.containsKey(root.getPath()))
+							toSearch.add(root.getPath());
+					}
+				}
+			}
+			Map<IPath, Table> searched= search(roots, toSearch, monitor);
+
+			synchronized (this) {
+				Map<IPath, Table> newTables= new HashMap<>();
+				for (IPath path : roots.keySet()) {
+					Table table= searched.get(path);
+					if (table == null && fTables != null)
+						table= fTables.get(path);
+					if (table == null)
+						table= tables.get(path);
+					if (table != null)
+						newTables.put(path, table);
+				}
+				// compilation units that changed during the search are updated by updateUnits()
+				fTables= Collections.unmodifiableMap(newTables);
+				tables= fTables;
+				upToDate= generation == fGeneration;
+			}
+		} catch (OperationCanceledException | JavaModelException e) {
+			synchronized (this) {
+				fRootUpdatePending= true;
+				fPendingRoots.addAll(pendingRoots);
+				fPendingProjects.addAll(pendingProjects);
+			}
+			throw e;
+		}
+		// if another update has been scheduled meanwhile, that one saves the snapshot
+		if (upToDate)
+			saveSnapshot(tables.values());
+	}
+
+	/*
+	 * Returns new tables for the given roots, filled by the search engine.
+	 */
+	private static Map<IPath, Table> search(Map<IPath, IPackageFragmentRoot> roots, Set<IPath> toSearch, IProgressMonitor monitor) throws JavaModelException {
+		Map<IPath, Table> tables= new HashMap<>();
+		if (toSearch.isEmpty())
+			return tables;
+		IJavaElement[] elements= new IJavaElement[toSearch.size()];
+		int i= 0;
+		for (IPath path : toSearch) {
+			IPackageFragmentRoot root= roots.get(path);
+			tables.put(path, new Table(root, getFingerprint(root)));
+			elements[i++]= root;
+		}
+		IJavaSearchScope scope= toSearch.size() == roots.size() ? SearchEngine.createWorkspaceScope() : SearchEngine.createJavaSearchScope(elements);
+		new SearchEngine((WorkingCopyOwner) null).searchAllTypeNames(
+				null,
+				SearchPattern.R_EXACT_MATCH,
+				null,
+				SearchPattern.R_PREFIX_MATCH,
+				IJavaSearchConstants.TYPE,
+				scope,
+				new TypeNameMatchRequestor() {
+					@Override
+					public void acceptTypeNameMatch(TypeNameMatch match) {
+						Table table= tables.get(match.getPackageFragmentRoot().getPath());
+						if (table != null)
+							table.add(match.getType(), match.getModifiers(), match.getAccessibility());
+					}
+				},
+				IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH,
+				monitor);
+		return tables;
+	}
+
+	/*
+	 * Returns the tables of the snapshot of the previous session whose roots are unchanged. If
+	 * they cover all libraries of the workspace, the index is made ready with them.
+	 */
+	private Map<IPath, Table> loadSnapshot(Map<IPath, IPackageFragmentRoot> roots) throws JavaModelException {
+		Map<IPath, Table> tables= new HashMap<>();
+		File file= getSnapshotFile();
+		if (!file.isFile())
+			return tables;
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != SNAPSHOT_VERSION)
+				return tables;
+			int count= Table.readSize(in);
+			for (int i= 0; i < count; i++) {
+				Table table= Table.read(in, roots);
+				if (table != null)
+					tables.put(table.fRoot.getPath(), table);
+			}
+		} catch (IOException | RuntimeException e) {
+			// a corrupt snapshot is not read again
+			JavaPlugin.log(e);
+			file.delete();
+			return new HashMap<>();
+		}
+		for (Map.Entry<IPath, IPackageFragmentRoot> entry : roots.entrySet()) {
+			if (!tables.containsKey(entry.getKey()) && getFingerprint(entry.getValue()) != SOURCE_FINGERPRINT)
+				return tables; // a library has been added or changed
+		}
+		synchronized (this) {
+			if (fTables == null)
+				fTables= Collections.unmodifiableMap(new HashMap<>(tables));
+		}
+		return tables;
+	}
+
+	private static void saveSnapshot(Collection<Table> tables) {
+		File file= getSnapshotFile();
+		File tempFile= new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		try {
+			try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				out.writeInt(SNAPSHOT_VERSION);
+				out.writeInt(tables.size());
+				for (Table table : tables) {
+					table.write(out);
+				}
+			}
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+		}
+	}
+
+	private static File getSnapshotFile() {
+		return JavaPlugin.getDefault().getStateLocation().append(SNAPSHOT_FILENAME).toFile();
+	}
+
+	/*
+	 * Returns the package fragment roots of all Java projects by their paths.
+	 */
+	private static Map<IPath, IPackageFragmentRoot> getRoots() throws JavaModelException {
+		Map<IPath, IPackageFragmentRoot> roots= new LinkedHashMap<>();
+		for (IJavaProject project : JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects()) {
+			try {
+				for (IPackageFragmentRoot root : project.getPackageFragmentRoots()) {
+					roots.putIfAbsent(root.getPath(), root);
+				}
+			} catch (JavaModelException e) {
+				// the project is not indexed
+			}
+		}
+		return roots;
+	}
+
+	private static long getFingerprint(IPackageFragmentRoot root) throws JavaModelException {
+		if (root.getKind() == IPackageFragmentRoot.K_SOURCE)
+			return SOURCE_FINGERPRINT;
+		if (!root.isArchive())
+			return NO_FINGERPRINT; // class files in folders can change without a change of the folder
+		IResource resource= root.getResource();
+		IPath location= resource != null ? resource.getLocation() : root.getPath();
+		if (location == null)
+			return NO_FINGERPRINT;
+		File file= location.toFile();
+		if (!file.isFile())
+			return NO_FINGERPRINT;
+		return file.lastModified() * 31 + file.length();
+	}
+
+	private void doShutdown() {
+		JavaCore.removeElementChangedListener(fDeltaListener);
+		fUpdateJob.cancel();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -27,6 +27,8 @@ import org.eclipse.ui.editors.text.EditorsUI;
 
 import org.eclipse.jdt.ui.PreferenceConstants;
 
+import org.eclipse.jdt.internal.corext.util.TypeNameIndex;
+
 public class JavaUIPreferenceInitializer extends AbstractPreferenceInitializer {
 
 	@Override
@@ -36,6 +38,7 @@ public class JavaUIPreferenceInitializer extends AbstractPreferenceInitializer {
 		EditorsUI.useAnnotationsPreferencePage(store);
 		EditorsUI.useQuickDiffPreferencePage(store);
 		PreferenceConstants.initializeDefaultValues(store);
+		store.setDefault(TypeNameIndex.PREF_ENABLED, true);
 	}
 
 	public static void setThemeBasedPreferences(IPreferenceStore store, boolean fireEvent) {
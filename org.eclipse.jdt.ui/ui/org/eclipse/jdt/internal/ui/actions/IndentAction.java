@@ -166,7 +166,7 @@ public class IndentAction extends TextEditorAction {
 					target.beginCompoundChange();
 
 				try {
-					JavaHeuristicScanner scanner= new JavaHeuristicScanner(document);
+					JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(document);
 					JavaIndenter indenter= new JavaIndenter(document, scanner, getJavaProject());
 					final boolean multiLine= nLines > 1;
 					boolean hasChanged= false;
@@ -279,7 +279,7 @@ public class IndentAction extends TextEditorAction {
 		int offset= 0;
 		int length= document.getLength();
 
-		JavaHeuristicScanner scanner= new JavaHeuristicScanner(document);
+		JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(document);
 		JavaIndenter indenter= new JavaIndenter(document, scanner, project);
 
 		ArrayList<ReplaceEdit> edits= new ArrayList<>();
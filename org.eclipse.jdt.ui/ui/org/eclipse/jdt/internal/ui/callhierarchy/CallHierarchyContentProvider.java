@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ import java.lang.reflect.InvocationTargetException;
 import org.eclipse.swt.widgets.Display;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 
 import org.eclipse.jface.operation.IRunnableContext;
 import org.eclipse.jface.operation.IRunnableWithProgress;
@@ -157,6 +158,10 @@ public class CallHierarchyContentProvider implements ITreeContentProvider {
 
 					}
 				}
+				if (methodWrapper.hasCachedCalls()) {
+					// e.g. expanded by the ExpandToDepthAction, no need to defer
+					return methodWrapper.getCalls(new NullProgressMonitor());
+				}
 				if (fManager != null) {
 					Object[] children= fManager.getChildren(new DeferredMethodWrapper(this, methodWrapper));
 					if (children != null)
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -162,6 +162,13 @@ public final class CallHierarchyMessages extends NLS {
 	public static String ExpandWithConstructorsAction_expandWithConstructors_text;
 	public static String ExpandWithConstructorsAction_expandWithConstructors_description;
 	public static String ExpandWithConstructorsAction_expandWithConstructors_tooltip;
+	public static String ExpandToDepthAction_text;
+	public static String ExpandToDepthAction_tooltip;
+	public static String ExpandToDepthAction_description;
+	public static String ExpandToDepthAction_dialog_title;
+	public static String ExpandToDepthAction_dialog_message;
+	public static String ExpandToDepthAction_dialog_invalid;
+	public static String ExpandToDepthAction_job_name;
 	public static String ExpandWithConstructorsDialog_title;
 	public static String PinCallHierarchyViewAction_label;
 	public static String PinCallHierarchyViewAction_tooltip;
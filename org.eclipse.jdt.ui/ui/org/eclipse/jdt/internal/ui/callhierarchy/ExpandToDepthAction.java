@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.callhierarchy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.dialogs.IDialogSettings;
+import org.eclipse.jface.dialogs.InputDialog;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.jface.window.Window;
+
+import org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchyExpander;
+import org.eclipse.jdt.internal.corext.callhierarchy.MethodWrapper;
+import org.eclipse.jdt.internal.corext.util.Messages;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Expands the selected call hierarchy nodes breadth-first to a given depth. The calls of
+ * every level are searched concurrently in a background job before the tree is expanded.
+ *
+ * @since 3.31
+ */
+class ExpandToDepthAction extends Action {
+
+	private static final String DIALOGSTORE_EXPAND_DEPTH= "CallHierarchyViewPart.expand_depth"; //$NON-NLS-1$
+	private static final int DEFAULT_EXPAND_DEPTH= 3;
+
+	/**
+	 * The call hierarchy view part.
+	 */
+	private final CallHierarchyViewPart fPart;
+
+	/**
+	 * The call hierarchy viewer.
+	 */
+	private final CallHierarchyViewer fCallHierarchyViewer;
+
+	/**
+	 * Creates the action to expand the selected nodes to a given depth.
+	 *
+	 * @param part the call hierarchy view part
+	 * @param viewer the call hierarchy viewer
+	 */
+	public ExpandToDepthAction(CallHierarchyViewPart part, CallHierarchyViewer viewer) {
+		fPart= part;
+		fCallHierarchyViewer= viewer;
+		setText(CallHierarchyMessages.ExpandToDepthAction_text);
+		setToolTipText(CallHierarchyMessages.ExpandToDepthAction_tooltip);
+		setDescription(CallHierarchyMessages.ExpandToDepthAction_description);
+	}
+
+	@Override
+	public void run() {
+		MethodWrapper[] wrappers= getSelectedWrappers();
+		if (wrappers.length == 0)
+			return;
+
+		int maxDepth= CallHierarchyUI.getDefault().getMaxCallDepth() - wrappers[0].getLevel();
+		if (maxDepth < 1)
+			return;
+		IDialogSettings settings= JavaPlugin.getDefault().getDialogSettings();
+		int depth= DEFAULT_EXPAND_DEPTH;
+		try {
+			depth= settings.getInt(DIALOGSTORE_EXPAND_DEPTH);
+		} catch (NumberFormatException e) {
+			// not yet stored
+		}
+		String message= Messages.format(CallHierarchyMessages.ExpandToDepthAction_dialog_message, Integer.valueOf(maxDepth));
+		InputDialog dialog= new InputDialog(fPart.getSite().getShell(), CallHierarchyMessages.ExpandToDepthAction_dialog_title, message,
+				String.valueOf(Math.min(depth, maxDepth)), newText -> {
+					try {
+						int value= Integer.parseInt(newText.trim());
+						if (value >= 1 && value <= maxDepth)
+							return null;
+					} catch (NumberFormatException e) {
+						// invalid
+					}
+					return Messages.format(CallHierarchyMessages.ExpandToDepthAction_dialog_invalid, Integer.valueOf(maxDepth));
+				});
+		if (dialog.open() != Window.OK)
+			return;
+		depth= Integer.parseInt(dialog.getValue().trim());
+		settings.put(DIALOGSTORE_EXPAND_DEPTH, depth);
+
+		expand(wrappers, depth);
+	}
+
+	private void expand(MethodWrapper[] wrappers, int depth) {
+		Job job= new Job(CallHierarchyMessages.ExpandToDepthAction_job_name) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					new CallHierarchyExpander(depth).expand(wrappers, monitor);
+				} catch (OperationCanceledException e) {
+					return Status.CANCEL_STATUS;
+				}
+				Display.getDefault().asyncExec(() -> {
+					if (fCallHierarchyViewer.getControl().isDisposed())
+						return;
+					for (MethodWrapper wrapper : wrappers) {
+						fCallHierarchyViewer.expandToLevel(wrapper, depth);
+					}
+				});
+				return Status.OK_STATUS;
+			}
+		};
+		job.setUser(true);
+		job.schedule();
+	}
+
+	private MethodWrapper[] getSelectedWrappers() {
+		ISelection selection= fPart.getSelection();
+		if (!(selection instanceof IStructuredSelection))
+			return new MethodWrapper[0];
+		List<MethodWrapper> wrappers= new ArrayList<>();
+		for (Object element : (IStructuredSelection) selection) {
+			if (element instanceof MethodWrapper)
+				wrappers.add((MethodWrapper) element);
+		}
+		return wrappers.toArray(new MethodWrapper[wrappers.size()]);
+	}
+
+	/**
+	 * Checks whether this action can be added for the selected elements in the call hierarchy.
+	 *
+	 * @return <code>true</code> if the action can be added, <code>false</code> otherwise
+	 */
+	public boolean canActionBeAdded() {
+		MethodWrapper[] wrappers= getSelectedWrappers();
+		if (wrappers.length == 0)
+			return false;
+		int level= wrappers[0].getLevel();
+		for (MethodWrapper wrapper : wrappers) {
+			if (wrapper.getLevel() != level || wrapper.isRecursive() || !wrapper.canHaveChildren())
+				return false;
+		}
+		return level < CallHierarchyUI.getDefault().getMaxCallDepth();
+	}
+}
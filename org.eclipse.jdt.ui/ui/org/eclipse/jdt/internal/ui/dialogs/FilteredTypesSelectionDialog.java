@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -96,6 +96,7 @@ import org.eclipse.jdt.internal.corext.util.Strings;
 import org.eclipse.jdt.internal.corext.util.TypeFilter;
 import org.eclipse.jdt.internal.corext.util.TypeInfoFilter;
 import org.eclipse.jdt.internal.corext.util.TypeInfoRequestorAdapter;
+import org.eclipse.jdt.internal.corext.util.TypeNameIndex;
 
 import org.eclipse.jdt.launching.IVMInstall;
 import org.eclipse.jdt.launching.IVMInstallType;
@@ -470,9 +471,18 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 	protected void fillContentProvider(AbstractContentProvider provider, ItemsFilter itemsFilter, IProgressMonitor progressMonitor) throws CoreException {
 		TypeItemsFilter typeSearchFilter= (TypeItemsFilter) itemsFilter;
 		TypeSearchRequestor requestor= new TypeSearchRequestor(provider, typeSearchFilter);
+		progressMonitor.setTaskName(JavaUIMessages.FilteredTypesSelectionDialog_searchJob_taskName);
+
+		/*
+		 * The type name index reports its matches in chunks while it is searched. It only
+		 * checks names and modifiers, so the filter stays enabled to check scope and extension.
+		 */
+		TypeNameIndex index= TypeNameIndex.getInstance();
+		if (index != null && index.search(typeSearchFilter.fTypeInfoFilter, requestor, progressMonitor))
+			return;
+
 		SearchEngine engine= new SearchEngine((WorkingCopyOwner) null);
 		String packPattern= typeSearchFilter.getPackagePattern();
-		progressMonitor.setTaskName(JavaUIMessages.FilteredTypesSelectionDialog_searchJob_taskName);
 
 		/*
 		 * Setting the filter into match everything mode avoids filtering twice
@@ -546,12 +556,18 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 	private static class ConsistencyRunnable implements IRunnableWithProgress {
 		@Override
 		public void run(IProgressMonitor monitor) throws InvocationTargetException, InterruptedException {
+			OpenTypeHistory history= OpenTypeHistory.getInstance();
+			if (isTypeNameIndexReady()) {
+				// Queries are answered by the type name index, no need to wait for the search indexes.
+				history.checkConsistency(monitor);
+				fgFirstTime= false;
+				return;
+			}
 			if (fgFirstTime) {
 				// Join the initialize after load job.
 				IJobManager manager= Job.getJobManager();
 				manager.join(JavaUI.ID_PLUGIN, monitor);
 			}
-			OpenTypeHistory history= OpenTypeHistory.getInstance();
 			if (fgFirstTime || history.isEmpty()) {
 				if (history.needConsistencyCheck()) {
 					SubMonitor subMonitor= SubMonitor.convert(monitor,JavaUIMessages.TypeSelectionDialog_progress_consistency, 10 );
@@ -567,6 +583,8 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 		}
 		public static boolean needsExecution() {
 			OpenTypeHistory history= OpenTypeHistory.getInstance();
+			if (isTypeNameIndexReady())
+				return history.needConsistencyCheck();
 			return fgFirstTime || history.isEmpty() || history.needConsistencyCheck();
 		}
 		private void refreshSearchIndices(IProgressMonitor monitor) throws InvocationTargetException {
@@ -586,6 +604,10 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 				throw new InvocationTargetException(e);
 			}
 		}
+		private static boolean isTypeNameIndexReady() {
+			TypeNameIndex index= TypeNameIndex.getInstance();
+			return index != null && index.isReady();
+		}
 	}
 
 	/*
@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.jarpackager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.jdt.ui.jarpackager.IJarDescriptionWriter;
+import org.eclipse.jdt.ui.jarpackager.JarPackageData;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * The workspace files from which the entries of an exported JAR have been written. The index
+ * of the previous export tells which entries an incremental export has to rewrite (see
+ * {@link JarPackageData#isIncrementalExport()}).
+ * <p>
+ * Indexes are kept in the state location of the plug-in, one per JAR location. An index is
+ * only valid for the JAR it has been saved with, which is identified by its length and time
+ * stamp, and for the export settings it has been recorded with.
+ * </p>
+ */
+final class JarExportIndex {
+
+	private static final String INDEX_FOLDER= "jarExportIndex"; //$NON-NLS-1$
+	private static final int VERSION= 1;
+
+	/**
+	 * The state of a workspace file when it has been exported.
+	 */
+	static final class Source {
+		final IFile fFile;
+		final long fModificationStamp;
+		final long fTimeStamp;
+
+		Source(IFile file) {
+			this(file, file.getModificationStamp(), file.getLocalTimeStamp());
+		}
+
+		private Source(IFile file, long modificationStamp, long timeStamp) {
+			fFile= file;
+			fModificationStamp= modificationStamp;
+			fTimeStamp= timeStamp;
+		}
+
+		boolean isUnchanged(Source other) {
+			return fFile.equals(other.fFile) && fModificationStamp == other.fModificationStamp && fTimeStamp == other.fTimeStamp
+					&& fModificationStamp != IResource.NULL_STAMP && fTimeStamp != IResource.NULL_STAMP;
+		}
+	}
+
+	private final byte[] fSettings;
+	/** Entry name to source, in the order in which the entries have been written */
+	private final Map<String, Source> fEntries= new LinkedHashMap<>();
+
+	/**
+	 * @param settings the fingerprint of the export settings
+	 * @see #getSettingsFingerprint(JarPackageData)
+	 */
+	JarExportIndex(byte[] settings) {
+		fSettings= settings;
+	}
+
+	/**
+	 * Records an entry.
+	 *
+	 * @param name the name of the entry
+	 * @param file the file whose content the entry has
+	 * @return <code>true</code> if the entry has been added, <code>false</code> if an entry
+	 *         with this name has already been recorded
+	 */
+	boolean add(String name, IFile file) {
+		if (fEntries.containsKey(name))
+			return false;
+		fEntries.put(name, new Source(file));
+		return true;
+	}
+
+	Map<String, Source> getEntries() {
+		return fEntries;
+	}
+
+	/**
+	 * @param previous the index of the previous export
+	 * @return the names of the entries that are new or whose source has changed since the
+	 *         previous export, in the order of this index
+	 */
+	List<String> getChangedEntries(JarExportIndex previous) {
+		List<String> changed= new ArrayList<>();
+		for (Map.Entry<String, Source> entry : fEntries.entrySet()) {
+			Source previousSource= previous.fEntries.get(entry.getKey());
+			if (previousSource == null || !entry.getValue().isUnchanged(previousSource))
+				changed.add(entry.getKey());
+		}
+		return changed;
+	}
+
+	/**
+	 * @param previous the index of the previous export
+	 * @return the names of the entries of the previous export that are no longer exported
+	 */
+	List<String> getRemovedEntries(JarExportIndex previous) {
+		List<String> removed= new ArrayList<>();
+		for (String name : previous.fEntries.keySet()) {
+			if (!fEntries.containsKey(name))
+				removed.add(name);
+		}
+		return removed;
+	}
+
+	/**
+	 * @return the names of all directories that contain an entry of this index, with a
+	 *         trailing '/'
+	 */
+	Set<String> getDirectories() {
+		Set<String> directories= new HashSet<>();
+		for (String name : fEntries.keySet()) {
+			int lastSlash= name.lastIndexOf('/');
+			while (lastSlash > 0 && directories.add(name.substring(0, lastSlash + 1)))
+				lastSlash= name.lastIndexOf('/', lastSlash - 1);
+		}
+		return directories;
+	}
+
+	/**
+	 * Returns the fingerprint of everything that determines the content of the JAR apart from
+	 * the exported files: the JAR description and, if it is not generated, the manifest.
+	 *
+	 * @param jarPackage the JAR package
+	 * @return the fingerprint
+	 * @throws CoreException if the JAR description cannot be written
+	 */
+	static byte[] getSettingsFingerprint(JarPackageData jarPackage) throws CoreException {
+		ByteArrayOutputStream output= new ByteArrayOutputStream();
+		IJarDescriptionWriter writer= jarPackage.createJarDescriptionWriter(output, "UTF-8"); //$NON-NLS-1$
+		try {
+			writer.write(jarPackage);
+		} finally {
+			writer.close();
+		}
+		if (jarPackage.usesManifest() && !jarPackage.isManifestGenerated()) {
+			IFile manifestFile= jarPackage.getManifestFile();
+			if (manifestFile != null) {
+				Source manifest= new Source(manifestFile);
+				output.writeBytes(("\n" + manifest.fModificationStamp + '/' + manifest.fTimeStamp).getBytes()); //$NON-NLS-1$
+			}
+		}
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(output.toByteArray()); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			return output.toByteArray();
+		}
+	}
+
+	/**
+	 * Reads the index that has been saved with the JAR at the given location.
+	 *
+	 * @param jarLocation the absolute location of the JAR
+	 * @param settings the fingerprint of the current export settings
+	 * @return the index, or <code>null</code> if there is no index for the JAR in its current
+	 *         state and with the given settings
+	 */
+	static JarExportIndex read(IPath jarLocation, byte[] settings) {
+		File jarFile= jarLocation.toFile();
+		File file= getIndexFile(jarLocation);
+		if (!jarFile.isFile() || !file.isFile())
+			return null;
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != VERSION || !in.readUTF().equals(jarLocation.toOSString()))
+				return null;
+			if (in.readLong() != jarFile.length() || in.readLong() != jarFile.lastModified())
+				return null; // the JAR has been written by someone else
+			byte[] previousSettings= new byte[in.readInt()];
+			in.readFully(previousSettings);
+			if (!Arrays.equals(previousSettings, settings))
+				return null;
+			JarExportIndex index= new JarExportIndex(settings);
+			int count= in.readInt();
+			for (int i= 0; i < count; i++) {
+				String name= in.readUTF();
+				IFile source= JavaPlugin.getWorkspace().getRoot().getFile(Path.fromPortableString(in.readUTF()));
+				index.fEntries.put(name, new Source(source, in.readLong(), in.readLong()));
+			}
+			return index;
+		} catch (IOException | IllegalArgumentException e) {
+			JavaPlugin.log(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Saves this index for the JAR at the given location in its current state.
+	 *
+	 * @param jarLocation the absolute location of the JAR
+	 */
+	void save(IPath jarLocation) {
+		File jarFile= jarLocation.toFile();
+		File file= getIndexFile(jarLocation);
+		File tempFile= new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		try {
+			file.getParentFile().mkdirs();
+			try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				out.writeInt(VERSION);
+				out.writeUTF(jarLocation.toOSString());
+				out.writeLong(jarFile.length());
+				out.writeLong(jarFile.lastModified());
+				out.writeInt(fSettings.length);
+				out.write(fSettings);
+				out.writeInt(fEntries.size());
+				for (Map.Entry<String, Source> entry : fEntries.entrySet()) {
+					Source source= entry.getValue();
+					out.writeUTF(entry.getKey());
+					out.writeUTF(source.fFile.getFullPath().toPortableString());
+					out.writeLong(source.fModificationStamp);
+					out.writeLong(source.fTimeStamp);
+				}
+			}
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+		}
+	}
+
+	/**
+	 * Deletes the index of the JAR at the given location, so that its next export is complete.
+	 *
+	 * @param jarLocation the absolute location of the JAR
+	 */
+	static void delete(IPath jarLocation) {
+		getIndexFile(jarLocation).delete();
+	}
+
+	private static File getIndexFile(IPath jarLocation) {
+		String name= Integer.toHexString(jarLocation.toOSString().hashCode()) + ".index"; //$NON-NLS-1$
+		return JavaPlugin.getDefault().getStateLocation().append(INDEX_FOLDER).append(name).toFile();
+	}
+}
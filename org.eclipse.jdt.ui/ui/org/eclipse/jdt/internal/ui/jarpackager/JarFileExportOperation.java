@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -44,6 +51,7 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
@@ -86,6 +94,7 @@ import org.eclipse.jdt.ui.jarpackager.IJarBuilder;
 import org.eclipse.jdt.ui.jarpackager.IJarBuilderExtension;
 import org.eclipse.jdt.ui.jarpackager.IJarDescriptionWriter;
 import org.eclipse.jdt.ui.jarpackager.IJarExportRunnable;
+import org.eclipse.jdt.ui.jarpackager.IManifestProvider;
 import org.eclipse.jdt.ui.jarpackager.JarPackageData;
 import org.eclipse.jdt.ui.refactoring.IRefactoringSaveModes;
 import org.eclipse.jdt.ui.refactoring.RefactoringSaveHelper;
@@ -112,6 +121,64 @@ public class JarFileExportOperation extends WorkspaceModifyOperation implements
 		}
 	}
 
+	/**
+	 * Records the files that are written to the JAR in the index for the next incremental
+	 * export. Without a delegate, nothing is written, so that the entries of the JAR can be
+	 * compared with the previous export.
+	 */
+	private static class RecordingJarBuilder implements IJarBuilder {
+
+		private final IJarBuilder fDelegate;
+		private final JarExportIndex fIndex;
+
+		RecordingJarBuilder(IJarBuilder delegate, JarExportIndex index) {
+			fDelegate= delegate;
+			fIndex= index;
+		}
+
+		@Override
+		public String getId() {
+			return PlainJarBuilder.BUILDER_ID;
+		}
+
+		@Override
+		public IManifestProvider getManifestProvider() {
+			return fDelegate != null ? fDelegate.getManifestProvider() : new ManifestProvider();
+		}
+
+		@Override
+		public void open(JarPackageData jarPackage, Shell shell, MultiStatus status) throws CoreException {
+			if (fDelegate != null)
+				fDelegate.open(jarPackage, shell, status);
+		}
+
+		@Override
+		public void writeFile(IFile resource, IPath destinationPath) throws CoreException {
+			String name= destinationPath.toString().replace(File.separatorChar, '/');
+			if (fDelegate != null) {
+				fDelegate.writeFile(resource, destinationPath);
+				fIndex.add(name, resource);
+			} else if (!fIndex.add(name, resource)) {
+				// report the duplicate like the JAR writer
+				ZipException ex= new ZipException("duplicate entry: " + name); //$NON-NLS-1$
+				String message= Messages.format(JarPackagerMessages.JarWriter_writeProblemWithMessage, new Object[] {BasicElementLabels.getPathLabel(resource.getFullPath(), false), ex.getLocalizedMessage()});
+				throw JarPackagerUtil.createCoreException(message, ex);
+			}
+		}
+
+		@Override
+		public void writeArchive(ZipFile archive, IProgressMonitor monitor) {
+			if (fDelegate != null)
+				fDelegate.writeArchive(archive, monitor);
+		}
+
+		@Override
+		public void close() throws CoreException {
+			if (fDelegate != null)
+				fDelegate.close();
+		}
+	}
+
 	private IJarBuilder fJarBuilder;
 	private JarPackageData fJarPackage;
 	private JarPackageData[] fJarPackages;
@@ -1002,6 +1069,9 @@ public class JarFileExportOperation extends WorkspaceModifyOperation implements
 	}
 
 	private void singleRun(IProgressMonitor progressMonitor) throws InvocationTargetException, InterruptedException {
+		fJarBuilder= null;
+		JarExportIndex index= null;
+		boolean exported= false;
 		try {
 			if (!preconditionsOK())
 				throw new InvocationTargetException(null, JarPackagerMessages.JarFileExportOperation_jarCreationFailedSeeDetails);
@@ -1017,10 +1087,26 @@ public class JarFileExportOperation extends WorkspaceModifyOperation implements
 			} else
 				progressMonitor.beginTask("", totalWork); //$NON-NLS-1$
 
-			fJarBuilder = fJarPackage.getJarBuilder();
-			fJarBuilder.open(fJarPackage, fParentShell, fStatus);
-
-			exportSelectedElements(progressMonitor);
+			boolean updated= false;
+			if (canExportIncrementally()) {
+				byte[] settings= JarExportIndex.getSettingsFingerprint(fJarPackage);
+				JarExportIndex previous= JarExportIndex.read(fJarPackage.getAbsoluteJarLocation(), settings);
+				JarExportIndex.delete(fJarPackage.getAbsoluteJarLocation());
+				if (previous != null) {
+					index= new JarExportIndex(settings);
+					updated= updateJar(previous, index, progressMonitor);
+				}
+				if (!updated)
+					index= new JarExportIndex(settings);
+			}
+			if (!updated) {
+				fJarBuilder= fJarPackage.getJarBuilder();
+				if (index != null)
+					fJarBuilder= new RecordingJarBuilder(fJarBuilder, index);
+				fJarBuilder.open(fJarPackage, fParentShell, fStatus);
+				exportSelectedElements(progressMonitor);
+			}
+			exported= true;
 			if (getStatus().getSeverity() != IStatus.ERROR) {
 				progressMonitor.subTask(JarPackagerMessages.JarFileExportOperation_savingFiles);
 				saveFiles();
@@ -1031,6 +1117,8 @@ public class JarFileExportOperation extends WorkspaceModifyOperation implements
 			try {
 				if (fJarBuilder != null)
 					fJarBuilder.close();
+				if (index != null && exported)
+					index.save(fJarPackage.getAbsoluteJarLocation());
 			} catch (CoreException ex) {
 				addToStatus(ex);
 			}
@@ -1038,6 +1126,107 @@ public class JarFileExportOperation extends WorkspaceModifyOperation implements
 		}
 	}
 
+	private boolean canExportIncrementally() {
+		return fJarPackage.isIncrementalExport()
+				&& PlainJarBuilder.BUILDER_ID.equals(fJarPackage.getJarBuilder().getId())
+				&& !fJarPackage.isRefactoringAware()
+				&& fJarPackage.getComment() == null;
+	}
+
+	/**
+	 * Updates the entries of the existing JAR whose sources have changed since the previous
+	 * export. The selected elements are exported without writing the JAR first, so that
+	 * the same entries are found and the same problems are reported as by a complete export.
+	 *
+	 * @param previous the index of the previous export
+	 * @param index the index to record the entries in
+	 * @param progressMonitor the progress monitor
+	 * @return <code>true</code> if the JAR is up to date, <code>false</code> if it has to be
+	 *         exported completely
+	 * @throws CoreException if the JAR cannot be updated
+	 * @throws InterruptedException thrown when cancelled
+	 */
+	private boolean updateJar(JarExportIndex previous, JarExportIndex index, IProgressMonitor progressMonitor) throws CoreException, InterruptedException {
+		MessageMultiStatus status= fStatus;
+		MessageMultiStatus exportStatus= new MessageMultiStatus(JavaPlugin.getPluginId(), IStatus.OK, "", null); //$NON-NLS-1$
+		fStatus= exportStatus;
+		fJarBuilder= new RecordingJarBuilder(null, index);
+		try {
+			exportSelectedElements(progressMonitor);
+		} finally {
+			fJarBuilder= null;
+			fStatus= status;
+		}
+
+		List<String> changed= index.getChangedEntries(previous);
+		List<String> removed= index.getRemovedEntries(previous);
+		if (!changed.isEmpty() || !removed.isEmpty()) {
+			if (!fJarPackage.areDirectoryEntriesIncluded()) {
+				// the JAR only has the directories that contain one of its entries
+				Set<String> directories= previous.getDirectories();
+				for (String name : changed) {
+					int lastSlash= name.lastIndexOf('/');
+					if (lastSlash > 0 && !directories.contains(name.substring(0, lastSlash + 1)))
+						return false;
+				}
+			}
+			IPath jarLocation= fJarPackage.getAbsoluteJarLocation();
+			if (!fJarPackage.allowOverwrite() && !JarPackagerUtil.askForOverwritePermission(fParentShell, jarLocation, true))
+				throw new OperationCanceledException("Cannot update JAR with path: " + jarLocation); //$NON-NLS-1$
+			updateEntries(index, changed, removed);
+			JarPackagerUtil.refreshContainingFolder(jarLocation);
+		}
+		fStatus.addAll(exportStatus);
+		return true;
+	}
+
+	/*
+	 * Rewrites the changed entries and deletes the removed ones. The file system of the JAR
+	 * copies all other entries without inflating them when it is closed.
+	 */
+	private void updateEntries(JarExportIndex index, List<String> changed, List<String> removed) throws CoreException {
+		IPath jarLocation= fJarPackage.getAbsoluteJarLocation();
+		Map<String, Object> env= new HashMap<>();
+		if (!fJarPackage.isCompressed())
+			env.put("compressionMethod", "STORED"); //$NON-NLS-1$ //$NON-NLS-2$
+		try (FileSystem jar= FileSystems.newFileSystem(jarLocation.toFile().toPath(), env)) {
+			for (String name : changed) {
+				JarExportIndex.Source source= index.getEntries().get(name);
+				Path entry= jar.getPath(name);
+				if (fJarPackage.areDirectoryEntriesIncluded() && entry.getParent() != null)
+					Files.createDirectories(entry.getParent());
+				try (InputStream contents= source.fFile.getContents(false)) {
+					Files.copy(contents, entry, StandardCopyOption.REPLACE_EXISTING);
+				}
+				long lastModified= source.fTimeStamp != IResource.NULL_STAMP ? source.fTimeStamp : System.currentTimeMillis();
+				Files.setLastModifiedTime(entry, FileTime.fromMillis(lastModified));
+			}
+			Set<String> directories= index.getDirectories();
+			for (String name : removed) {
+				Files.deleteIfExists(jar.getPath(name));
+				if (!fJarPackage.areDirectoryEntriesIncluded())
+					continue;
+				for (int lastSlash= name.lastIndexOf('/'); lastSlash > 0; lastSlash= name.lastIndexOf('/', lastSlash - 1)) {
+					String directory= name.substring(0, lastSlash + 1);
+					if (directories.contains(directory))
+						break;
+					try {
+						Files.deleteIfExists(jar.getPath(directory));
+					} catch (DirectoryNotEmptyException e) {
+						break;
+					}
+				}
+			}
+		} catch (IOException ex) {
+			String message= null;
+			if (ex.getLocalizedMessage() != null)
+				message= Messages.format(JarPackagerMessages.JarWriter_writeProblemWithMessage, new Object[] {BasicElementLabels.getPathLabel(jarLocation, true), ex.getLocalizedMessage()});
+			else
+				message= Messages.format(JarPackagerMessages.JarWriter_writeProblem, BasicElementLabels.getPathLabel(jarLocation, true));
+			throw JarPackagerUtil.createCoreException(message, ex);
+		}
+	}
+
 	private boolean preconditionsOK() {
 		if (!fJarPackage.areGeneratedFilesExported() && !fJarPackage.areJavaFilesExported()) {
 			addError(JarPackagerMessages.JarFileExportOperation_noExportTypeChosen, null);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -40,6 +40,7 @@ import org.eclipse.core.runtime.Status;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
 
@@ -260,6 +261,34 @@ public final class JarPackagerUtil {
 		JarPackagerUtilCore.calculateCrcAndSize(entry, stream, buffer);
 	}
 
+	/**
+	 * Refreshes the workspace folder that contains the JAR at the given location, so that
+	 * the new or updated JAR becomes visible in the workspace.
+	 *
+	 * @param jarLocation the absolute location of the JAR
+	 */
+	public static void refreshContainingFolder(IPath jarLocation) {
+		IPath jarPath= jarLocation;
+		for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
+			// The Jar is always put into the local file system. So it can only be
+			// part of a project if the project is local as well. So using getLocation
+			// is currently save here.
+			IPath projectLocation= project.getLocation();
+			if (projectLocation != null && projectLocation.isPrefixOf(jarPath)) {
+				try {
+					jarPath= jarPath.removeFirstSegments(projectLocation.segmentCount());
+					jarPath= jarPath.removeLastSegments(1);
+					IResource containingFolder= project.findMember(jarPath);
+					if (containingFolder != null && containingFolder.isAccessible())
+						containingFolder.refreshLocal(IResource.DEPTH_ONE, null);
+				} catch (CoreException ex) {
+					// don't refresh the folder but log the problem
+					JavaPlugin.log(ex);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Opens the archive file at the given location.<br>
 	 * <em>Note: It is the caller's responsibility to close the returned
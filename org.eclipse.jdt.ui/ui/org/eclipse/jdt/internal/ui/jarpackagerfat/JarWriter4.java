@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2020 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -111,15 +111,17 @@ public class JarWriter4 extends JarWriter3 {
 
 		JarEntry newEntry= new JarEntry(path.toString().replace(File.separatorChar, '/'));
 
-		if (fJarPackage.isCompressed())
+		InputStream content;
+		if (fJarPackage.isCompressed()) {
 			newEntry.setMethod(ZipEntry.DEFLATED);
 			// Entry is filled automatically.
-		else {
+			content= new FileInputStream(file);
+		} else {
 			newEntry.setMethod(ZipEntry.STORED);
-			JarPackagerUtil.calculateCrcAndSize(newEntry, new FileInputStream(file), new byte[4096]);
+			content= JarPackagerUtilCore.readStoredContent(newEntry, file);
 		}
 
 		newEntry.setTime(file.lastModified());
-		addEntry(newEntry, new FileInputStream(file));
+		addEntry(newEntry, content);
 	}
 }
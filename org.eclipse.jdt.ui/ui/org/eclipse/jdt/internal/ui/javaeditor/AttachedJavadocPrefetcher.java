@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.javaeditor;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.SimpleName;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.text.java.IJavaReconcilingListener;
+import org.eclipse.jdt.internal.ui.text.javadoc.AttachedJavadocCache;
+
+/**
+ * Fetches the attached Javadoc of the library types and members that are referenced in the
+ * editor in the background, so that hovers over them find it in the {@link AttachedJavadocCache}.
+ * <p>
+ * Only installed and active if {@link AttachedJavadocCache#PREF_PREFETCH} is set. Fetching starts
+ * when the editor has not been reconciled for {@value #IDLE_DELAY} ms, and stops as soon as it
+ * is reconciled again.
+ * </p>
+ */
+final class AttachedJavadocPrefetcher implements IJavaReconcilingListener {
+
+	private static final int MAX_ELEMENTS= 200;
+	private static final int IDLE_DELAY= 2000;
+
+	static boolean isEnabled() {
+		return JavaPlugin.getDefault().getPreferenceStore().getBoolean(AttachedJavadocCache.PREF_PREFETCH);
+	}
+
+	@Override
+	public void aboutToBeReconciled() {
+		// the user is editing
+		AttachedJavadocCache.cancelPrefetch();
+	}
+
+	@Override
+	public void reconciled(CompilationUnit ast, boolean forced, IProgressMonitor progressMonitor) {
+		if (ast == null || progressMonitor.isCanceled() || !isEnabled())
+			return;
+
+		Set<IJavaElement> elements= new LinkedHashSet<>();
+		Set<IBinding> visited= new HashSet<>();
+		ast.accept(new ASTVisitor() {
+			@Override
+			public boolean visit(SimpleName node) {
+				IBinding binding= node.resolveBinding();
+				if (elements.size() >= MAX_ELEMENTS || binding == null || !visited.add(binding))
+					return false;
+				IJavaElement element= getLibraryElement(binding);
+				if (element != null) {
+					IMember declaringType= ((IMember) element).getDeclaringType();
+					if (declaringType != null)
+						elements.add(declaringType);
+					elements.add(element);
+				}
+				return false;
+			}
+		});
+
+		if (!progressMonitor.isCanceled())
+			AttachedJavadocCache.prefetch(elements, IDLE_DELAY);
+	}
+
+	/*
+	 * The binary member of the given binding, or null.
+	 */
+	private static IJavaElement getLibraryElement(IBinding binding) {
+		if (binding instanceof ITypeBinding) {
+			ITypeBinding type= (ITypeBinding) binding;
+			if (type.isPrimitive() || type.isTypeVariable() || type.isCapture() || type.isWildcardType())
+				return null;
+			binding= type.getTypeDeclaration();
+		} else if (binding instanceof IMethodBinding) {
+			binding= ((IMethodBinding) binding).getMethodDeclaration();
+		} else if (binding instanceof IVariableBinding) {
+			IVariableBinding variable= (IVariableBinding) binding;
+			if (!variable.isField())
+				return null;
+			binding= variable.getVariableDeclaration();
+		} else {
+			return null;
+		}
+		IJavaElement element= binding.getJavaElement();
+		if (element instanceof IMember && ((IMember) element).isBinary())
+			return element;
+		return null;
+	}
+}
@@ -1024,6 +1024,9 @@ public class CompilationUnitEditor extends JavaEditor implements IJavaReconcilin
 
 	private CorrectionCommandInstaller fCorrectionCommands;
 
+	/** Fetches the attached Javadoc of the referenced library elements */
+	private AttachedJavadocPrefetcher fJavadocPrefetcher;
+
 	/**
 	 * Reconciling listeners.
 	 * @since 3.0
@@ -1514,6 +1517,11 @@ public class CompilationUnitEditor extends JavaEditor implements IJavaReconcilin
 			fCorrectionCommands= null;
 		}
 
+		if (fJavadocPrefetcher != null) {
+			removeReconcileListener(fJavadocPrefetcher);
+			fJavadocPrefetcher= null;
+		}
+
 		super.dispose();
 	}
 
@@ -1540,6 +1548,11 @@ public class CompilationUnitEditor extends JavaEditor implements IJavaReconcilin
 
 		if (isMarkingOccurrences())
 			installOccurrencesFinder(false);
+
+		if (AttachedJavadocPrefetcher.isEnabled()) {
+			fJavadocPrefetcher= new AttachedJavadocPrefetcher();
+			addReconcileListener(fJavadocPrefetcher);
+		}
 	}
 
 	private static char getEscapeCharacter(char character) {
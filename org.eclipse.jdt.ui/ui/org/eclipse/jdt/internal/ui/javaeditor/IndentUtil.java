@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2022 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -92,7 +92,7 @@ public final class IndentUtil {
 
 		result= reuseOrCreateToken(result, numberOfLines);
 
-		JavaHeuristicScanner scanner= new JavaHeuristicScanner(document);
+		JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(document);
 		JavaIndenter indenter= new JavaIndenter(document, scanner, project);
 		boolean changed= false;
 		int tabSize= CodeFormatterUtil.getTabWidth(project);
@@ -135,7 +135,7 @@ public final class IndentUtil {
 		result= reuseOrCreateToken(result, numberOfLines);
 		result.hasChanged= false;
 
-		JavaHeuristicScanner scanner= new JavaHeuristicScanner(document);
+		JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(document);
 		JavaIndenter indenter= new JavaIndenter(document, scanner, project);
 
 		String current= getCurrentIndent(document, lines.getStartLine());
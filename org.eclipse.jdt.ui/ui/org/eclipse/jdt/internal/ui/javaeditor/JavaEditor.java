@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -56,6 +56,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.PerformanceStats;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.jobs.Job;
@@ -197,7 +198,7 @@ import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder.OccurrenceLocation;
 import org.eclipse.jdt.internal.core.manipulation.search.ImplementOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.MethodExitsFinder;
-import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesFinder;
+import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesIndex;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
 import org.eclipse.jdt.ui.IContextMenuConstants;
@@ -1666,6 +1667,12 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 	 * @since 3.1
 	 */
 	private IRegion fMarkOccurrenceTargetRegion;
+	/**
+	 * The occurrences of the names in the AST used for the last occurrence marking. Reused
+	 * until a new AST, e.g. from a reconcile, arrives.
+	 * @since 3.31
+	 */
+	private volatile OccurrencesIndex fOccurrencesIndex;
 
 	/**
 	 * The internal shell activation listener for updating occurrences.
@@ -1751,6 +1758,13 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 	 */
 	private static final long ERROR_MESSAGE_TIMEOUT= 1000;
 
+	/**
+	 * Performance event for finding the occurrences of a selection and updating their annotations.
+	 *
+	 * @since 3.31
+	 */
+	private static final String PERF_MARK_OCCURRENCES= "org.eclipse.jdt.ui/perf/editor/markOccurrences"; //$NON-NLS-1$
+
 	/**
 	 * Previous location history for goto matching bracket action.
 	 *
@@ -3303,6 +3317,16 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 			fMarkOccurrenceModificationStamp= currentModificationStamp;
 		}
 
+		PerformanceStats stats= PerformanceStats.getStats(PERF_MARK_OCCURRENCES, this);
+		stats.startRun();
+		try {
+			computeOccurrenceAnnotations(selection, astRoot, document, hasChanged);
+		} finally {
+			stats.endRun();
+		}
+	}
+
+	private void computeOccurrenceAnnotations(ITextSelection selection, CompilationUnit astRoot, IDocument document, boolean hasChanged) {
 		OccurrenceLocation[] locations= null;
 
 		ASTNode selectedNode= NodeFinder.perform(astRoot, selection.getOffset(), selection.getLength());
@@ -3337,10 +3361,12 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 		if (locations == null && selectedNode instanceof Name) {
 			IBinding binding= ((Name)selectedNode).resolveBinding();
 			if (binding != null && markOccurrencesOfType(binding)) {
-				OccurrencesFinder finder= new OccurrencesFinder();
-				if (finder.initialize(astRoot, selectedNode) == null) {
-					locations= finder.getOccurrences();
+				OccurrencesIndex index= fOccurrencesIndex;
+				if (index == null || index.getASTRoot() != astRoot) {
+					index= new OccurrencesIndex(astRoot);
+					fOccurrencesIndex= index;
 				}
+				locations= index.getOccurrences((Name)selectedNode);
 			}
 		}
 
@@ -3390,6 +3416,7 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 			fOccurrencesFinderJob.cancel();
 			fOccurrencesFinderJob= null;
 		}
+		fOccurrencesIndex= null;
 
 		if (fOccurrencesFinderJobCanceler != null) {
 			fOccurrencesFinderJobCanceler.uninstall();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 Simeon Andreev and others.
+ * Copyright (c) 2017, 2023 Simeon Andreev and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaModelException;
@@ -37,10 +38,12 @@ import org.eclipse.jdt.core.JavaModelException;
  * <p>
  * A single query runs in constant time. Preparing for queries runs in time linear to the number of
  * packages in the package root. The first query on this object will run the preparation step.
+ * Afterwards, added and removed packages can be reported with {@link #packageAdded(IPackageFragment)}
+ * and {@link #packageRemoved(IPackageFragment)}, which update the cache in constant time.
  * </p>
  *
  * <p>
- * Not thread safe.
+ * Thread safe. The returned lists are not changed by later updates.
  * </p>
  *
  * @see #getDirectChildren(IPackageFragment)
@@ -49,7 +52,7 @@ public class PackageCache {
 
 	/**
 	 * Caches the children of a package in a package root. The cache for a package root is built on the
-	 * first query.
+	 * first query and kept up to date with the added and removed packages of the root.
 	 */
 	static class PerRootCache {
 
@@ -70,6 +73,60 @@ public class PackageCache {
 			return packagesOfRoot.getDirectChildren(packageFragment);
 		}
 
+		List<IPackageFragment> getTopLevelPackages(IPackageFragmentRoot root) throws JavaModelException {
+			return getPackageCache(root).getTopLevelPackages();
+		}
+
+		/**
+		 * Updates the cache of the root of the given package, if it has been built.
+		 *
+		 * @param packageFragment the package that has been added
+		 */
+		void packageAdded(IPackageFragment packageFragment) {
+			PackageCache packageCache= getExistingPackageCache((IPackageFragmentRoot) packageFragment.getParent());
+			if (packageCache != null)
+				packageCache.packageAdded(packageFragment);
+		}
+
+		/**
+		 * Updates the cache of the root of the given package, if it has been built.
+		 *
+		 * @param packageFragment the package that has been removed
+		 */
+		void packageRemoved(IPackageFragment packageFragment) {
+			PackageCache packageCache= getExistingPackageCache((IPackageFragmentRoot) packageFragment.getParent());
+			if (packageCache != null)
+				packageCache.packageRemoved(packageFragment);
+		}
+
+		/**
+		 * Drops the cache of the given root, which will be built again on the next query.
+		 *
+		 * @param root the package root
+		 */
+		void clear(IPackageFragmentRoot root) {
+			synchronized (packageCaches) {
+				packageCaches.remove(root);
+			}
+		}
+
+		/**
+		 * Drops the caches of all roots of the given project.
+		 *
+		 * @param project the project
+		 */
+		void clear(IJavaProject project) {
+			synchronized (packageCaches) {
+				packageCaches.keySet().removeIf(root -> project.equals(root.getJavaProject()));
+			}
+		}
+
+		private PackageCache getExistingPackageCache(IPackageFragmentRoot root) {
+			synchronized (packageCaches) {
+				return packageCaches.get(root);
+			}
+		}
+
 		private PackageCache getPackageCache(IPackageFragment packageFragment) {
 			IPackageFragmentRoot packageRoot= (IPackageFragmentRoot) packageFragment.getParent();
 			PackageCache packageCache= getPackageCache(packageRoot);
@@ -107,6 +164,12 @@ public class PackageCache {
 	 */
 	private final Map<String, List<IPackageFragment>> packagesCache;
 
+	/**
+	 * The packages without a parent package, i.e. the children of the package root in the
+	 * hierarchical representation. The default package is not included.
+	 */
+	private final List<IPackageFragment> topLevelPackages;
+
 	private boolean initialized;
 
 	/**
@@ -115,6 +178,7 @@ public class PackageCache {
 	public PackageCache(IPackageFragmentRoot packageRoot) {
 		this.packageRoot= packageRoot;
 		packagesCache= new HashMap<>();
+		topLevelPackages= new ArrayList<>();
 		initialized= false;
 	}
 
@@ -141,8 +205,9 @@ public class PackageCache {
 	 *
 	 * @see #getDirectChildren(IPackageFragment)
 	 */
-	public IPackageFragment getSingleChild(IPackageFragment packageFragment) throws JavaModelException {
-		List<IPackageFragment> children= getDirectChildren(packageFragment);
+	public synchronized IPackageFragment getSingleChild(IPackageFragment packageFragment) throws JavaModelException {
+		initialize();
+		List<IPackageFragment> children= packagesCache.getOrDefault(packageFragment.getElementName(), Collections.emptyList());
 		boolean hasSingleChild= children.size() == 1;
 		if (hasSingleChild) {
 			IPackageFragment singleChild= children.get(0);
@@ -187,14 +252,73 @@ public class PackageCache {
 	 * @param packageFragment The direct children of this fragment will be retrieved.
 	 * @throws JavaModelException If accessing the packages in the package root fails.
 	 */
-	public List<IPackageFragment> getDirectChildren(IPackageFragment packageFragment) throws JavaModelException {
+	public synchronized List<IPackageFragment> getDirectChildren(IPackageFragment packageFragment) throws JavaModelException {
 		initialize();
 		String packageName= packageFragment.getElementName();
 		List<IPackageFragment> childrenOfPackage= packagesCache.get(packageName);
 		if (childrenOfPackage == null) {
 			return Collections.EMPTY_LIST;
 		}
-		return Collections.unmodifiableList(childrenOfPackage);
+		return Collections.unmodifiableList(new ArrayList<>(childrenOfPackage));
+	}
+
+	/**
+	 * @return The packages of the package root that have no parent package, not including the
+	 *         default package. Never {@code null}.
+	 *
+	 * @throws JavaModelException If accessing the packages in the package root fails.
+	 */
+	public synchronized List<IPackageFragment> getTopLevelPackages() throws JavaModelException {
+		initialize();
+		return Collections.unmodifiableList(new ArrayList<>(topLevelPackages));
+	}
+
+	/**
+	 * Adds a package to the cache. Does nothing if the cache has not been built yet, since it
+	 * will contain the package when it is built.
+	 *
+	 * @param packageFragment A package that has been added to the package root.
+	 */
+	public synchronized void packageAdded(IPackageFragment packageFragment) {
+		if (initialized) {
+			List<IPackageFragment> siblings= getSiblings(packageFragment, true);
+			if (siblings != null && !siblings.contains(packageFragment)) {
+				siblings.add(packageFragment);
+			}
+		}
+	}
+
+	/**
+	 * Removes a package from the cache. Does nothing if the cache has not been built yet.
+	 *
+	 * @param packageFragment A package that has been removed from the package root.
+	 */
+	public synchronized void packageRemoved(IPackageFragment packageFragment) {
+		if (initialized) {
+			List<IPackageFragment> siblings= getSiblings(packageFragment, false);
+			if (siblings != null) {
+				siblings.remove(packageFragment);
+			}
+		}
+	}
+
+	/**
+	 * @return The list that contains the given package and its siblings, or {@code null} for the
+	 *         default package or if there is no list and none should be created.
+	 */
+	private List<IPackageFragment> getSiblings(IPackageFragment packageFragment, boolean create) {
+		String packageName= packageFragment.getElementName();
+		int index= packageName.lastIndexOf('.');
+		if (index == -1) {
+			return packageName.isEmpty() ? null : topLevelPackages;
+		}
+		String parentName= packageName.substring(0, index);
+		List<IPackageFragment> siblings= packagesCache.get(parentName);
+		if (siblings == null && create) {
+			siblings= new ArrayList<>();
+			packagesCache.put(parentName, siblings);
+		}
+		return siblings;
 	}
 
 	private void initialize() throws JavaModelException {
@@ -211,24 +335,14 @@ public class PackageCache {
 	 */
 	private void collectChildrenOfPackages() throws JavaModelException {
 		packagesCache.clear();
+		topLevelPackages.clear();
 
 		IJavaElement[] allPackages= packageRoot.getChildren();
 
 		for (IJavaElement child : allPackages) {
 			IPackageFragment currentPackage= (IPackageFragment) child;
-
-			String packageName= currentPackage.getElementName();
-
-			int index= packageName.lastIndexOf('.');
-			boolean hasParentPackage= index != -1;
-			if (hasParentPackage) {
-				String parentName= packageName.substring(0, index);
-
-				List<IPackageFragment> siblingsOfCurrentPackage= packagesCache.get(parentName);
-				if (siblingsOfCurrentPackage == null) {
-					siblingsOfCurrentPackage= new ArrayList<>();
-					packagesCache.put(parentName, siblingsOfCurrentPackage);
-				}
+			List<IPackageFragment> siblingsOfCurrentPackage= getSiblings(currentPackage, true);
+			if (siblingsOfCurrentPackage != null) {
 				siblingsOfCurrentPackage.add(currentPackage);
 			}
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -94,10 +94,18 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 	private UIJob fUpdateJob;
 
 	/**
-	 * We use a cache to know whether a package has a single child for the hierarchical representation.
-	 * This avoids looping over all packages for each call to
-	 * {@link #getHierarchicalPackageParent(IPackageFragment)}. The cache is cleared on any Java model
-	 * change, as we aim to improve operations which go over all packages on by one.
+	 * The maximum number of packages added to a root at once that are added to the viewer one by
+	 * one in the hierarchical layout. More packages refresh the parent of the root.
+	 */
+	private static final int MAX_PACKAGES_ADDED_INDIVIDUALLY= 10;
+
+	/**
+	 * We use a cache of the child packages of each package for the hierarchical representation.
+	 * This avoids looping over all packages of a root to find the children of a package or to
+	 * know whether a package has a single child, e.g. in
+	 * {@link #getHierarchicalPackageParent(IPackageFragment)}. The cache is updated with the added
+	 * and removed packages of each delta, and the cache of a root is only dropped when the root
+	 * itself changes.
 	 */
 	private final PackageCache.PerRootCache packageCache;
 
@@ -129,7 +137,7 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 	public void elementChanged(final ElementChangedEvent event) {
 		final ArrayList<Runnable> runnables= new ArrayList<>();
 		try {
-			clearPackageCache();
+			updatePackageCache(event.getDelta());
 
 			// 58952 delete project does not update Package Explorer [package explorer]
 			// if the input to the viewer is deleted then refresh to avoid the display of stale elements
@@ -239,6 +247,47 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 		packageCache.clear();
 	}
 
+	/**
+	 * Updates the package cache with the added and removed packages of the given delta. Drops the
+	 * caches of the roots that are changed in other ways.
+	 *
+	 * @param delta the delta
+	 */
+	private void updatePackageCache(IJavaElementDelta delta) {
+		IJavaElement element= delta.getElement();
+		int kind= delta.getKind();
+		int flags= delta.getFlags();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+			case IJavaElement.JAVA_PROJECT:
+				if (kind != IJavaElementDelta.CHANGED || (flags & ~(IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_CONTENT)) != 0) {
+					if (element instanceof IJavaProject)
+						packageCache.clear((IJavaProject) element);
+					else
+						clearPackageCache();
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				// F_CONTENT without children, e.g. of a class folder, may hide added or removed packages
+				if (kind != IJavaElementDelta.CHANGED || (flags & ~IJavaElementDelta.F_CHILDREN) != 0) {
+					packageCache.clear((IPackageFragmentRoot) element);
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (kind == IJavaElementDelta.ADDED)
+					packageCache.packageAdded((IPackageFragment) element);
+				else if (kind == IJavaElementDelta.REMOVED)
+					packageCache.packageRemoved((IPackageFragment) element);
+				return;
+			default:
+				return;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren())
+			updatePackageCache(child);
+	}
+
 	@Override
 	protected Object[] getPackageFragmentRootContent(IPackageFragmentRoot root) throws JavaModelException {
 		if (fIsFlatLayout) {
@@ -416,21 +465,19 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 	 */
 	private void getHierarchicalPackageRootChildren(IPackageFragmentRoot parent, Collection<Object> result) throws JavaModelException {
 		boolean is9OrHigher= JavaModelUtil.is9OrHigher(parent.getJavaProject());
-		for (IJavaElement child : parent.getChildren()) {
-			IPackageFragment curr= (IPackageFragment) child;
-			String name= curr.getElementName();
-			if (!name.isEmpty() && name.indexOf('.') == -1) {
-				if (fFoldPackages) {
-					curr= getFolded(curr);
-				}
-				result.add(curr);
-			} else if (curr.isDefaultPackage()) {
-				if (isRelevantPackage(curr, is9OrHigher))
-					result.add(curr);
-				IJavaElement emptyModuleInfo= emptyModuleInfo(curr, is9OrHigher);
-				if (emptyModuleInfo != null)
-					result.add(emptyModuleInfo);
+		for (IPackageFragment curr : packageCache.getTopLevelPackages(parent)) {
+			if (fFoldPackages) {
+				curr= getFolded(curr);
 			}
+			result.add(curr);
+		}
+		IPackageFragment defaultPackage= parent.getPackageFragment(""); //$NON-NLS-1$
+		if (defaultPackage.exists()) {
+			if (isRelevantPackage(defaultPackage, is9OrHigher))
+				result.add(defaultPackage);
+			IJavaElement emptyModuleInfo= emptyModuleInfo(defaultPackage, is9OrHigher);
+			if (emptyModuleInfo != null)
+				result.add(emptyModuleInfo);
 		}
 
 		if (is9OrHigher) {
@@ -785,6 +832,12 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 		}
 
 		if (count > 1) {
+			if (!fIsFlatLayout && element instanceof IPackageFragmentRoot && resourceDeltas == null && count <= MAX_PACKAGES_ADDED_INDIVIDUALLY
+					&& areAllPackagesAdded(affectedChildren)) {
+				// e.g. a new package and its new parent packages, each of them only refreshes its hierarchical parent
+				processAffectedChildren(affectedChildren, runnables);
+				return;
+			}
 			// more than one child changed, refresh from here downwards
 			if (element instanceof IPackageFragment) {
 				// a package fragment might become non empty refresh from the parent
@@ -818,6 +871,14 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 		}
 	}
 
+	private static boolean areAllPackagesAdded(IJavaElementDelta[] affectedChildren) {
+		for (IJavaElementDelta child : affectedChildren) {
+			if (child.getKind() != IJavaElementDelta.ADDED || child.getElement().getElementType() != IJavaElement.PACKAGE_FRAGMENT)
+				return false;
+		}
+		return true;
+	}
+
 	protected void processAffectedChildren(IJavaElementDelta[] affectedChildren, Collection<Runnable> runnables) throws JavaModelException {
 		for (IJavaElementDelta child : affectedChildren) {
 			processDelta(child, runnables);
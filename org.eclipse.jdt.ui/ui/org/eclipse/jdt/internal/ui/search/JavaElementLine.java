@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,12 +13,19 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.search;
 
-import org.eclipse.core.runtime.CoreException;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.formatter.IndentManipulation;
 
 import org.eclipse.jdt.internal.corext.util.Messages;
@@ -27,14 +34,70 @@ import org.eclipse.jdt.ui.JavaUI;
 
 import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 
+/**
+ * A line of a compilation unit or class file. The contents of a line are only computed when
+ * they are requested, e.g. when the line is rendered. The contents of all lines of a
+ * {@link Group} are computed together, so that the source of the type root is read only once.
+ * <p>
+ * The line number and start offset are recorded when the search runs. If the source has been
+ * edited since, the recorded offset may no longer start the recorded line; the contents are
+ * then taken from the line with the recorded number in the current source.
+ * </p>
+ */
 public class JavaElementLine {
 
+	/**
+	 * The lines of one type root whose contents have not been computed yet.
+	 */
+	static final class Group {
+		private final ITypeRoot fElement;
+		private List<JavaElementLine> fPending= new ArrayList<>();
+
+		/**
+		 * @param element either an ICompilationUnit or an IClassFile
+		 */
+		Group(ITypeRoot element) {
+			fElement= element;
+		}
+
+		synchronized void add(JavaElementLine line) {
+			fPending.add(line);
+		}
+
+		/*
+		 * Computes the contents of all pending lines from one read of the buffer. The source is
+		 * not kept; the buffers themselves are cached by the Java model.
+		 */
+		synchronized void computeContents() {
+			if (fPending.isEmpty())
+				return;
+			String source= null;
+			try {
+				IBuffer buffer= fElement.getBuffer();
+				if (buffer != null) {
+					source= buffer.getContents();
+				} else {
+					JavaPlugin.log(new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, Messages.format(SearchMessages.JavaElementLine_error_nobuffer, BasicElementLabels.getFileName(fElement))));
+				}
+			} catch (JavaModelException e) {
+				JavaPlugin.log(e);
+			}
+			IDocument document= source != null ? new Document(source) : null;
+			for (JavaElementLine line : fPending) {
+				line.computeContents(source, document);
+			}
+			fPending= new ArrayList<>();
+		}
+	}
 
 	private final ITypeRoot fElement;
-	private final String fLineContents;
+	private final Group fGroup;
 	private final int fLineNumber;
-	private final int fLineStartOffset;
+	private int fLineStartOffset;
+	private String fLineContents;
 
 	private int fFlags;
 
@@ -42,40 +105,64 @@ public class JavaElementLine {
 	 * @param element either an ICompilationUnit or an IClassFile
 	 * @param lineNumber the line number, starting at 0
 	 * @param lineStartOffset the start offset of the line
-	 * @throws CoreException thrown when accessing of the buffer failed
 	 */
-	public JavaElementLine(ITypeRoot element, int lineNumber, int lineStartOffset) throws CoreException {
-		fElement= element;
+	public JavaElementLine(ITypeRoot element, int lineNumber, int lineStartOffset) {
+		this(new Group(element), lineNumber, lineStartOffset);
+	}
+
+	/**
+	 * @param group the group of the lines of the same type root
+	 * @param lineNumber the line number, starting at 0
+	 * @param lineStartOffset the start offset of the line
+	 */
+	JavaElementLine(Group group, int lineNumber, int lineStartOffset) {
+		fElement= group.fElement;
+		fGroup= group;
 		fFlags= 0;
+		fLineNumber= lineNumber;
+		fLineStartOffset= lineStartOffset;
+		group.add(this);
+	}
 
-		IBuffer buffer= element.getBuffer();
-		if (buffer == null) {
-			throw new CoreException(new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, Messages.format( SearchMessages.JavaElementLine_error_nobuffer, BasicElementLabels.getFileName(element))));
+	/*
+	 * Called by the group with the source of the type root and a document on it, or null if
+	 * the source is not available.
+	 */
+	private void computeContents(String source, IDocument document) {
+		if (source == null) {
+			fLineContents= ""; //$NON-NLS-1$
+			return;
 		}
-
-		int length= buffer.getLength();
-		int i= lineStartOffset;
-
-		char ch= buffer.getChar(i);
-		while (lineStartOffset < length && IndentManipulation.isIndentChar(ch)) {
-			ch= buffer.getChar(++i);
+		try {
+			int lineOffset= document.getLineOffset(fLineNumber);
+			if (lineOffset != fLineStartOffset) {
+				// the source has been edited since the search
+				fLineStartOffset= lineOffset;
+			}
+		} catch (BadLocationException e) {
+			fLineContents= ""; //$NON-NLS-1$
+			return;
+		}
+		int length= source.length();
+		int i= fLineStartOffset;
+		while (i < length && IndentManipulation.isIndentChar(source.charAt(i))) {
+			i++;
 		}
 		fLineStartOffset= i;
 
 		StringBuilder buf= new StringBuilder();
-
-		while (i < length && !IndentManipulation.isLineDelimiterChar(ch)) {
+		while (i < length) {
+			char ch= source.charAt(i);
+			if (IndentManipulation.isLineDelimiterChar(ch))
+				break;
 			if (Character.isISOControl(ch)) {
 				buf.append(' ');
 			} else {
 				buf.append(ch);
 			}
 			i++;
-			if (i < length)
-				ch= buffer.getChar(i);
 		}
 		fLineContents= buf.toString();
-		fLineNumber= lineNumber;
 	}
 
 	public void setFlags(int flags) {
@@ -100,10 +187,21 @@ public class JavaElementLine {
 	}
 
 	public String getLineContents() {
-		return fLineContents;
+		fGroup.computeContents();
+		synchronized (fGroup) {
+			return fLineContents;
+		}
 	}
 
+	/**
+	 * Returns the offset of the first character of the line that is not indentation.
+	 *
+	 * @return the start offset of the line contents
+	 */
 	public int getLineStartOffset() {
-		return fLineStartOffset;
+		fGroup.computeContents();
+		synchronized (fGroup) {
+			return fLineStartOffset;
+		}
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,11 @@ import org.eclipse.search.ui.text.Match;
 
 /**
  * A search match with additional java-specific info.
+ * <p>
+ * The matches of a {@link JavaSearchResult} are kept in a {@link JavaElementMatchStore} and
+ * only created on demand. Such matches are equal if they represent the same row of the store,
+ * and changes of their position and filter state are written back to the store.
+ * </p>
  */
 public class JavaElementMatch extends Match {
 	private final int fAccuracy;
@@ -26,6 +31,9 @@ public class JavaElementMatch extends Match {
 	private final boolean fIsJavadoc;
 	private final boolean fIsSuperInvocation;
 
+	private JavaElementMatchStore fStore;
+	private int fRow;
+
 	JavaElementMatch(Object element, int matchRule, int offset, int length, int accuracy, boolean isReadAccess, boolean isWriteAccess, boolean isJavadoc, boolean isSuperInvocation) {
 		super(element, offset, length);
 		fAccuracy= accuracy;
@@ -59,4 +67,51 @@ public class JavaElementMatch extends Match {
 	public int getMatchRule() {
 		return fMatchRule;
 	}
+
+	JavaElementMatchStore getStore() {
+		return fStore;
+	}
+
+	int getRow() {
+		return fRow;
+	}
+
+	void setStore(JavaElementMatchStore store, int row) {
+		fStore= store;
+		fRow= row;
+	}
+
+	@Override
+	public void setOffset(int offset) {
+		super.setOffset(offset);
+		if (fStore != null)
+			fStore.update(this);
+	}
+
+	@Override
+	public void setLength(int length) {
+		super.setLength(length);
+		if (fStore != null)
+			fStore.update(this);
+	}
+
+	@Override
+	public void setFiltered(boolean value) {
+		super.setFiltered(value);
+		if (fStore != null)
+			fStore.update(this);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (fStore == null || !(obj instanceof JavaElementMatch))
+			return super.equals(obj);
+		JavaElementMatch other= (JavaElementMatch) obj;
+		return fStore == other.fStore && fRow == other.fRow;
+	}
+
+	@Override
+	public int hashCode() {
+		return fStore == null ? super.hashCode() : fRow;
+	}
 }
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.eclipse.search.ui.text.Match;
+
+/**
+ * Column-oriented storage of the {@link JavaElementMatch}es of a search result.
+ * <p>
+ * References searches for frequently used elements report millions of matches. Instead of
+ * keeping an object per match, the offsets, lengths, match rules and flags of the matches of
+ * every element are kept in primitive arrays. Match objects are only created when the matches
+ * of an element are requested, e.g. for the elements that the viewer renders.
+ * </p>
+ * <p>
+ * Every match gets a row number that is unique in the store. Created matches know their row,
+ * so that they can write changes of their position and filter state back (see
+ * {@link #update(JavaElementMatch)}).
+ * </p>
+ */
+final class JavaElementMatchStore {
+
+	private static final int ACCURACY_MASK= 0x3;
+	private static final int READ_ACCESS= 1 << 2;
+	private static final int WRITE_ACCESS= 1 << 3;
+	private static final int JAVADOC= 1 << 4;
+	private static final int SUPER_INVOCATION= 1 << 5;
+	private static final int FILTERED= 1 << 6;
+
+	private static final Match[] NO_MATCHES= new Match[0];
+
+	private static final Comparator<Match> OFFSET_COMPARATOR= (m1, m2) -> {
+		int result= Integer.compare(m1.getOffset(), m2.getOffset());
+		return result != 0 ? result : Integer.compare(m1.getLength(), m2.getLength());
+	};
+
+	/**
+	 * The matches of one element, in the order in which they have been added. Row numbers are
+	 * increasing, so that a row can be found by binary search.
+	 */
+	private static final class Rows {
+		int[] fRows= new int[4];
+		int[] fOffsets= new int[4];
+		int[] fLengths= new int[4];
+		int[] fMatchRules= new int[4];
+		int[] fFlags= new int[4];
+		int fSize= 0;
+
+		void add(int row, int offset, int length, int matchRule, int flags) {
+			if (fSize == fRows.length) {
+				int capacity= fSize + (fSize >> 1);
+				fRows= Arrays.copyOf(fRows, capacity);
+				fOffsets= Arrays.copyOf(fOffsets, capacity);
+				fLengths= Arrays.copyOf(fLengths, capacity);
+				fMatchRules= Arrays.copyOf(fMatchRules, capacity);
+				fFlags= Arrays.copyOf(fFlags, capacity);
+			}
+			fRows[fSize]= row;
+			fOffsets[fSize]= offset;
+			fLengths[fSize]= length;
+			fMatchRules[fSize]= matchRule;
+			fFlags[fSize]= flags;
+			fSize++;
+		}
+
+		void remove(int index) {
+			int moved= fSize - index - 1;
+			System.arraycopy(fRows, index + 1, fRows, index, moved);
+			System.arraycopy(fOffsets, index + 1, fOffsets, index, moved);
+			System.arraycopy(fLengths, index + 1, fLengths, index, moved);
+			System.arraycopy(fMatchRules, index + 1, fMatchRules, index, moved);
+			System.arraycopy(fFlags, index + 1, fFlags, index, moved);
+			fSize--;
+		}
+
+		int indexOf(int row) {
+			return Arrays.binarySearch(fRows, 0, fSize, row);
+		}
+	}
+
+	private final Map<Object, Rows> fElementsToRows= new HashMap<>();
+	private int fNextRow= 0;
+	private int fMatchCount= 0;
+
+	/**
+	 * Adds a match to the store. The given match represents the new row afterwards, unless it
+	 * already represents a row of a store. In that case, a new match is returned for the row.
+	 *
+	 * @param match the match to add
+	 * @return the match that represents the new row
+	 */
+	synchronized JavaElementMatch add(JavaElementMatch match) {
+		Object element= match.getElement();
+		Rows rows= fElementsToRows.get(element);
+		if (rows == null) {
+			rows= new Rows();
+			fElementsToRows.put(element, rows);
+		}
+		int row= fNextRow++;
+		rows.add(row, match.getOffset(), match.getLength(), match.getMatchRule(), getFlags(match));
+		fMatchCount++;
+		if (match.getStore() != null) {
+			match= createMatch(element, rows, rows.fSize - 1);
+		}
+		match.setStore(this, row);
+		return match;
+	}
+
+	/**
+	 * Removes the row represented by the given match.
+	 *
+	 * @param match a match created by this store
+	 * @return <code>true</code> if the row has been removed, <code>false</code> if it was not
+	 *         in the store
+	 */
+	synchronized boolean remove(JavaElementMatch match) {
+		if (match.getStore() != this)
+			return false;
+		Object element= match.getElement();
+		Rows rows= fElementsToRows.get(element);
+		if (rows == null)
+			return false;
+		int index= rows.indexOf(match.getRow());
+		if (index < 0)
+			return false;
+		rows.remove(index);
+		if (rows.fSize == 0)
+			fElementsToRows.remove(element);
+		fMatchCount--;
+		return true;
+	}
+
+	/**
+	 * Writes the position and the filter state of the given match back to its row.
+	 *
+	 * @param match a match created by this store
+	 */
+	synchronized void update(JavaElementMatch match) {
+		Rows rows= fElementsToRows.get(match.getElement());
+		if (rows == null)
+			return;
+		int index= rows.indexOf(match.getRow());
+		if (index < 0)
+			return;
+		rows.fOffsets[index]= match.getOffset();
+		rows.fLengths[index]= match.getLength();
+		rows.fFlags[index]= getFlags(match);
+	}
+
+	/**
+	 * Evaluates the filter state of all rows.
+	 *
+	 * @param isFiltered tells whether a match is filtered
+	 * @return the matches whose filter state has changed
+	 */
+	synchronized Match[] updateFilterState(Predicate<Match> isFiltered) {
+		List<Match> changed= new ArrayList<>();
+		for (Map.Entry<Object, Rows> entry : fElementsToRows.entrySet()) {
+			Rows rows= entry.getValue();
+			for (int i= 0; i < rows.fSize; i++) {
+				JavaElementMatch match= createMatch(entry.getKey(), rows, i);
+				boolean filtered= isFiltered.test(match);
+				if (filtered != match.isFiltered()) {
+					if (filtered)
+						rows.fFlags[i]|= FILTERED;
+					else
+						rows.fFlags[i]&= ~FILTERED;
+					match.setFiltered(filtered);
+					match.setStore(this, rows.fRows[i]);
+					changed.add(match);
+				}
+			}
+		}
+		return changed.toArray(new Match[changed.size()]);
+	}
+
+	/**
+	 * Creates the matches of the given element, sorted by offset.
+	 *
+	 * @param element the element
+	 * @return the matches of the element
+	 */
+	synchronized Match[] getMatches(Object element) {
+		Rows rows= fElementsToRows.get(element);
+		if (rows == null)
+			return NO_MATCHES;
+		Match[] matches= new Match[rows.fSize];
+		for (int i= 0; i < rows.fSize; i++) {
+			JavaElementMatch match= createMatch(element, rows, i);
+			match.setStore(this, rows.fRows[i]);
+			matches[i]= match;
+		}
+		Arrays.sort(matches, OFFSET_COMPARATOR);
+		return matches;
+	}
+
+	synchronized int getMatchCount() {
+		return fMatchCount;
+	}
+
+	synchronized int getMatchCount(Object element) {
+		Rows rows= fElementsToRows.get(element);
+		return rows != null ? rows.fSize : 0;
+	}
+
+	synchronized Object[] getElements() {
+		return fElementsToRows.keySet().toArray();
+	}
+
+	synchronized boolean isEmpty() {
+		return fMatchCount == 0;
+	}
+
+	synchronized void clear() {
+		fElementsToRows.clear();
+		fMatchCount= 0;
+	}
+
+	/*
+	 * Creates a match that does not yet represent its row.
+	 */
+	private static JavaElementMatch createMatch(Object element, Rows rows, int index) {
+		int flags= rows.fFlags[index];
+		JavaElementMatch match= new JavaElementMatch(element, rows.fMatchRules[index], rows.fOffsets[index], rows.fLengths[index], flags & ACCURACY_MASK,
+				(flags & READ_ACCESS) != 0, (flags & WRITE_ACCESS) != 0, (flags & JAVADOC) != 0, (flags & SUPER_INVOCATION) != 0);
+		match.setFiltered((flags & FILTERED) != 0);
+		return match;
+	}
+
+	private static int getFlags(JavaElementMatch match) {
+		int flags= match.getAccuracy() & ACCURACY_MASK;
+		if (match.isReadAccess())
+			flags|= READ_ACCESS;
+		if (match.isWriteAccess())
+			flags|= WRITE_ACCESS;
+		if (match.isJavadoc())
+			flags|= JAVADOC;
+		if (match.isSuperInvocation())
+			flags|= SUPER_INVOCATION;
+		if (match.isFiltered())
+			flags|= FILTERED;
+		return flags;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,8 +13,13 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.search;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -22,7 +27,10 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.resource.ImageDescriptor;
 
 import org.eclipse.search.ui.ISearchQuery;
+import org.eclipse.search.ui.ISearchResult;
+import org.eclipse.search.ui.text.FilterUpdateEvent;
 import org.eclipse.search.ui.text.Match;
+import org.eclipse.search.ui.text.MatchEvent;
 import org.eclipse.search.ui.text.MatchFilter;
 
 import org.eclipse.jdt.internal.corext.util.Messages;
@@ -31,10 +39,29 @@ import org.eclipse.jdt.ui.search.IMatchPresentation;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 
+/**
+ * The result of a {@link JavaSearchQuery}.
+ * <p>
+ * The {@link JavaElementMatch}es reported by the search engine are kept in a compact
+ * {@link JavaElementMatchStore} and only created when they are requested. All other matches,
+ * e.g. those of query participants, are kept by the superclass.
+ * </p>
+ */
 public class JavaSearchResult extends AbstractJavaSearchResult {
 
+	private static final class JavaElementMatchEvent extends MatchEvent {
+		private static final long serialVersionUID= 1L;
+
+		JavaElementMatchEvent(ISearchResult searchResult, int kind, Match[] matches) {
+			super(searchResult);
+			setKind(kind);
+			setMatches(matches);
+		}
+	}
+
 	private final JavaSearchQuery fQuery;
 	private final Map<Object, IMatchPresentation> fElementsToParticipants;
+	private final JavaElementMatchStore fMatchStore= new JavaElementMatchStore();
 
 	public JavaSearchResult(JavaSearchQuery query) {
 		fQuery= query;
@@ -63,6 +90,9 @@ public class JavaSearchResult extends AbstractJavaSearchResult {
 	public void setActiveMatchFilters(MatchFilter[] filters) {
 		super.setActiveMatchFilters(filters);
 		JavaMatchFilter.setLastUsedFilters(filters);
+		Match[] changed= fMatchStore.updateFilterState(this::isFiltered);
+		if (changed.length > 0)
+			fireChange(new FilterUpdateEvent(this, changed, filters));
 	}
 
 	@Override
@@ -91,20 +121,128 @@ public class JavaSearchResult extends AbstractJavaSearchResult {
 		return true;
 	}
 
+	@Override
+	public void addMatch(Match match) {
+		if (match instanceof JavaElementMatch) {
+			addJavaElementMatches(new Match[] { match });
+		} else {
+			super.addMatch(match);
+		}
+	}
+
+	@Override
+	public void addMatches(Match[] matches) {
+		List<Match> javaElementMatches= new ArrayList<>();
+		List<Match> others= new ArrayList<>();
+		for (Match match : matches) {
+			if (match instanceof JavaElementMatch)
+				javaElementMatches.add(match);
+			else
+				others.add(match);
+		}
+		if (!others.isEmpty())
+			super.addMatches(others.toArray(new Match[others.size()]));
+		if (!javaElementMatches.isEmpty())
+			addJavaElementMatches(javaElementMatches.toArray(new Match[javaElementMatches.size()]));
+	}
+
+	private void addJavaElementMatches(Match[] matches) {
+		for (int i= 0; i < matches.length; i++) {
+			JavaElementMatch match= (JavaElementMatch) matches[i];
+			if (match.getStore() == null)
+				match.setFiltered(isFiltered(match));
+			matches[i]= fMatchStore.add(match);
+		}
+		fireChange(new JavaElementMatchEvent(this, MatchEvent.ADDED, matches));
+	}
+
+	private boolean isFiltered(Match match) {
+		MatchFilter[] filters= getActiveMatchFilters();
+		if (filters != null) {
+			for (MatchFilter filter : filters) {
+				if (filter.filters(match))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Match[] getMatches(Object element) {
+		Match[] matches= fMatchStore.getMatches(element);
+		if (matches.length == 0)
+			return super.getMatches(element);
+		Match[] others= super.getMatches(element);
+		if (others.length == 0)
+			return matches;
+		Match[] all= new Match[matches.length + others.length];
+		System.arraycopy(matches, 0, all, 0, matches.length);
+		System.arraycopy(others, 0, all, matches.length, others.length);
+		return all;
+	}
+
+	@Override
+	public int getMatchCount() {
+		return fMatchStore.getMatchCount() + super.getMatchCount();
+	}
+
+	@Override
+	public int getMatchCount(Object element) {
+		return fMatchStore.getMatchCount(element) + super.getMatchCount(element);
+	}
+
+	@Override
+	public Object[] getElements() {
+		Object[] elements= fMatchStore.getElements();
+		if (elements.length == 0)
+			return super.getElements();
+		Object[] others= super.getElements();
+		if (others.length == 0)
+			return elements;
+		Set<Object> all= new LinkedHashSet<>();
+		all.addAll(Arrays.asList(elements));
+		all.addAll(Arrays.asList(others));
+		return all.toArray();
+	}
+
 	@Override
 	public void removeAll() {
 		synchronized(this) {
 			fElementsToParticipants.clear();
 		}
+		fMatchStore.clear();
 		super.removeAll();
 	}
 
 	@Override
 	public void removeMatch(Match match) {
+		if (match instanceof JavaElementMatch) {
+			if (fMatchStore.remove((JavaElementMatch) match))
+				fireChange(new JavaElementMatchEvent(this, MatchEvent.REMOVED, new Match[] { match }));
+			return;
+		}
 		synchronized(this) {
 			if (getMatchCount(match.getElement()) == 1)
 				fElementsToParticipants.remove(match.getElement());
 		}
 		super.removeMatch(match);
 	}
+
+	@Override
+	public void removeMatches(Match[] matches) {
+		List<Match> removed= new ArrayList<>();
+		List<Match> others= new ArrayList<>();
+		for (Match match : matches) {
+			if (match instanceof JavaElementMatch) {
+				if (fMatchStore.remove((JavaElementMatch) match))
+					removed.add(match);
+			} else {
+				others.add(match);
+			}
+		}
+		if (!others.isEmpty())
+			super.removeMatches(others.toArray(new Match[others.size()]));
+		if (!removed.isEmpty())
+			fireChange(new JavaElementMatchEvent(this, MatchEvent.REMOVED, removed.toArray(new Match[removed.size()])));
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,7 +17,6 @@ package org.eclipse.jdt.internal.ui.search;
 import java.util.ArrayList;
 import java.util.HashMap;
 
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -76,10 +75,11 @@ public class OccurrencesSearchQuery implements ISearchQuery {
 			if (occurrences != null) {
 				HashMap<Integer, JavaElementLine> lineMap= new HashMap<>();
 				CompilationUnit astRoot= fFinder.getASTRoot();
+				JavaElementLine.Group lineGroup= new JavaElementLine.Group(astRoot.getTypeRoot());
 				ArrayList<OccurrenceMatch> resultingMatches= new ArrayList<>();
 
 				for (OccurrenceLocation loc : occurrences) {
-					JavaElementLine lineKey= getLineElement(astRoot, loc, lineMap);
+					JavaElementLine lineKey= getLineElement(astRoot, loc, lineGroup, lineMap);
 					if (lineKey != null) {
 						OccurrenceMatch match= new OccurrenceMatch(lineKey, loc.getOffset(), loc.getLength(), loc.getFlags());
 						resultingMatches.add(match);
@@ -101,24 +101,19 @@ public class OccurrencesSearchQuery implements ISearchQuery {
 		return Status.OK_STATUS;
 	}
 
-	private JavaElementLine getLineElement(CompilationUnit astRoot, OccurrenceLocation location, HashMap<Integer, JavaElementLine> lineToGroup) {
+	private JavaElementLine getLineElement(CompilationUnit astRoot, OccurrenceLocation location, JavaElementLine.Group group, HashMap<Integer, JavaElementLine> lineToGroup) {
 		int lineNumber= astRoot.getLineNumber(location.getOffset());
 		if (lineNumber <= 0) {
 			return null;
 		}
-		JavaElementLine lineElement= null;
-		try {
-			Integer key= lineNumber;
-			lineElement= lineToGroup.get(key);
-			if (lineElement == null) {
-				int lineStartOffset= astRoot.getPosition(lineNumber, 0);
-				if (lineStartOffset >= 0) {
-					lineElement= new JavaElementLine(astRoot.getTypeRoot(), lineNumber - 1, lineStartOffset);
-					lineToGroup.put(key, lineElement);
-				}
+		Integer key= lineNumber;
+		JavaElementLine lineElement= lineToGroup.get(key);
+		if (lineElement == null) {
+			int lineStartOffset= astRoot.getPosition(lineNumber, 0);
+			if (lineStartOffset >= 0) {
+				lineElement= new JavaElementLine(group, lineNumber - 1, lineStartOffset);
+				lineToGroup.put(key, lineElement);
 			}
-		} catch (CoreException e) {
-			//nothing
 		}
 		return lineElement;
 	}
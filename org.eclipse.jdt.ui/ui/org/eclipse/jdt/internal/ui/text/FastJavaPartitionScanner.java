@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -91,6 +91,11 @@ public class FastJavaPartitionScanner implements IPartitionTokenScanner, IJavaPa
 
 	private IJavaProject fJavaProject;
 
+	/** Whether text blocks are recognized in the current range, see {@link #isTextBlockSupported()} */
+	private boolean fTextBlockSupported;
+	/** <code>true</code> if the current range has been set by {@link #setPartialRange(IDocument, int, int, String, int)} */
+	private boolean fPartialRange;
+
 	private final IToken[] fTokens= new IToken[] {
 		new Token(null),
 		new Token(JAVA_SINGLE_LINE_COMMENT),
@@ -459,33 +464,36 @@ public class FastJavaPartitionScanner implements IPartitionTokenScanner, IJavaPa
 	 					break;
 		 			} else {
 		 				boolean considerEndQuotes= true;
-		 				try {
-		 					IDocumentPartitioner docPartitioner= fCurrentDocument.getDocumentPartitioner();
-		 					if (fCurrentDocument instanceof IDocumentExtension3) {
-		 						docPartitioner= ((IDocumentExtension3)fCurrentDocument).getDocumentPartitioner(IJavaPartitions.JAVA_PARTITIONING);
-		 					}
-		 					if (docPartitioner instanceof FastJavaPartitioner) {
-		 						FastJavaPartitioner fjPartitioner= (FastJavaPartitioner) docPartitioner;
-		 						if (!fjPartitioner.hasTextBlockSupportedValueChanged()) {
-				 					ITypedRegion originalPartition= TextUtilities.getPartition(fCurrentDocument, IJavaPartitions.JAVA_PARTITIONING, fTokenOffset, false);
-									ITypedRegion startingPartition= TextUtilities.getPartition(fCurrentDocument, IJavaPartitions.JAVA_PARTITIONING, fTokenOffset+ fTokenLength+2, false);
-									fjPartitioner.resetPositionCache();
-									if (!originalPartition.equals(startingPartition)) {
-										String startingType= startingPartition.getType();
-										if (IJavaPartitions.JAVA_MULTI_LINE_STRING.equals(startingType)) {
-											considerEndQuotes= false;
+		 				// only an incremental scan can run into a text block of the previous partitioning
+		 				if (fPartialRange) {
+		 					try {
+			 					IDocumentPartitioner docPartitioner= fCurrentDocument.getDocumentPartitioner();
+			 					if (fCurrentDocument instanceof IDocumentExtension3) {
+			 						docPartitioner= ((IDocumentExtension3)fCurrentDocument).getDocumentPartitioner(IJavaPartitions.JAVA_PARTITIONING);
+			 					}
+			 					if (docPartitioner instanceof FastJavaPartitioner) {
+			 						FastJavaPartitioner fjPartitioner= (FastJavaPartitioner) docPartitioner;
+			 						if (!fjPartitioner.hasTextBlockSupportedValueChanged()) {
+					 					ITypedRegion originalPartition= TextUtilities.getPartition(fCurrentDocument, IJavaPartitions.JAVA_PARTITIONING, fTokenOffset, false);
+										ITypedRegion startingPartition= TextUtilities.getPartition(fCurrentDocument, IJavaPartitions.JAVA_PARTITIONING, fTokenOffset+ fTokenLength+2, false);
+										fjPartitioner.resetPositionCache();
+										if (!originalPartition.equals(startingPartition)) {
+											String startingType= startingPartition.getType();
+											if (IJavaPartitions.JAVA_MULTI_LINE_STRING.equals(startingType)) {
+												considerEndQuotes= false;
+											}
 										}
+			 						}
+			 					}
+			 					if (!considerEndQuotes) {
+			 						for (int i=0; i< 3; i++) {
+										fScanner.unread();
 									}
-		 						}
-		 					}
-		 					if (!considerEndQuotes) {
-		 						for (int i=0; i< 3; i++) {
-									fScanner.unread();
-								}
-		 					}
-						} catch (BadLocationException e) {
-							//do nothing
-						}
+			 					}
+							} catch (BadLocationException e) {
+								//do nothing
+							}
+		 				}
 		 				if (considerEndQuotes) {
 		 					fTokenLength= fTokenLength + 2;
 		 				} else {
@@ -543,7 +551,7 @@ public class FastJavaPartitionScanner implements IPartitionTokenScanner, IJavaPa
 	}
 
 	private boolean scanForTextBlockBeginning() {
-		if (!isTextBlockSupported()) {
+		if (!fTextBlockSupported) {
 			return false;
 		}
 		int count= 0;
@@ -722,6 +730,8 @@ public class FastJavaPartitionScanner implements IPartitionTokenScanner, IJavaPa
 		fTokenLength= 0;
 		fPrefixLength= offset - partitionOffset;
 		fLast= NONE;
+		fTextBlockSupported= isTextBlockSupported();
+		fPartialRange= true;
 
 		if (offset == partitionOffset) {
 			// restart at beginning of partition
@@ -749,6 +759,8 @@ public class FastJavaPartitionScanner implements IPartitionTokenScanner, IJavaPa
 		fPrefixLength= 0;
 		fLast= NONE;
 		fState= JAVA;
+		fTextBlockSupported= isTextBlockSupported();
+		fPartialRange= false;
 
 		// emulate JavaPartitionScanner
 		if (fEmulate) {
@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.jface.text.TextUtilities;
+
+import org.eclipse.jdt.ui.text.IJavaPartitions;
+
+/**
+ * The opening peers of the closing braces, brackets and parentheses in the Java partitions of a
+ * document, computed in a single forward scan that keeps a stack of the open peers of each kind.
+ * <p>
+ * A {@link JavaHeuristicScanner} that has the structure of its document (see
+ * {@link JavaHeuristicScanner#setBracketStructure(JavaBracketStructure)}) skips the scopes that
+ * have been scanned in constant time, instead of scanning them backward again. This makes
+ * indenting a whole document line by line linear in its size.
+ * </p>
+ * <p>
+ * There is one structure per document (see {@link #getStructure(IDocument)}), which is shared
+ * by all scanners and extended on demand. A change of the document discards the part of the
+ * structure after the changed offset. The stacks of open peers are saved at regular intervals,
+ * so that scanning can be resumed close to the change.
+ * </p>
+ *
+ * @since 3.31
+ */
+public final class JavaBracketStructure implements IDocumentListener {
+
+	/** Returned by {@link #getOpeningPeer(int)} for positions that are not closing peers. */
+	static final int UNKNOWN= Integer.MIN_VALUE;
+
+	private static final int BRACE= 0;
+	private static final int BRACKET= 1;
+	private static final int PAREN= 2;
+	private static final int KINDS= 3;
+
+	/** The number of peers between saved stacks */
+	private static final int CHECKPOINT_INTERVAL= 256;
+
+	/** The structures of the documents, which reference them through their listeners */
+	private static final Map<IDocument, WeakReference<JavaBracketStructure>> fgStructures= new WeakHashMap<>();
+
+	private final IDocument fDocument;
+
+	/** The end of the scanned range */
+	private int fScanned= 0;
+	private ITypedRegion fCachedPartition;
+
+	/** The peers in ascending order */
+	private int[] fPositions= new int[64];
+	/** The kind of each peer, negative for closing peers */
+	private byte[] fKinds= new byte[64];
+	/** The opening peer of each closing peer, or NOT_FOUND */
+	private int[] fOpenings= new int[64];
+	private int fCount= 0;
+
+	/** The unmatched opening peers of each kind at the end of the scanned range, innermost last */
+	private int[][] fOpen= new int[KINDS][16];
+	private final int[] fOpenCount= new int[KINDS];
+	/** <code>false</code> if the stacks have to be restored after a change of the document */
+	private boolean fStacksValid= true;
+	/** The stacks before every {@link #CHECKPOINT_INTERVAL}th peer */
+	private final List<int[][]> fCheckpoints= new ArrayList<>();
+
+	private JavaBracketStructure(IDocument document) {
+		fDocument= document;
+	}
+
+	/**
+	 * Returns the bracket structure of the Java partitions of the given document. The structure
+	 * is created and connected to the document on first use.
+	 *
+	 * @param document the document, which must have a Java partitioning
+	 * @return the structure of the document
+	 */
+	public static JavaBracketStructure getStructure(IDocument document) {
+		synchronized (fgStructures) {
+			WeakReference<JavaBracketStructure> reference= fgStructures.get(document);
+			JavaBracketStructure structure= reference != null ? reference.get() : null;
+			if (structure == null) {
+				structure= new JavaBracketStructure(document);
+				document.addDocumentListener(structure);
+				fgStructures.put(document, new WeakReference<>(structure));
+			}
+			return structure;
+		}
+	}
+
+	@Override
+	public synchronized void documentAboutToBeChanged(DocumentEvent event) {
+		// the change may only affect the partition of the character before it, e.g. by completing '/*'
+		int offset= Math.max(event.getOffset() - 1, 0);
+		if (offset >= fScanned)
+			return;
+		fScanned= offset;
+		int count= lowerBound(offset);
+		if (count < fCount) {
+			fCount= count;
+			fStacksValid= false;
+			int checkpoints= count / CHECKPOINT_INTERVAL + 1;
+			while (fCheckpoints.size() > checkpoints)
+				fCheckpoints.remove(fCheckpoints.size() - 1);
+		}
+	}
+
+	@Override
+	public void documentChanged(DocumentEvent event) {
+		// the structure has been cut before the change
+	}
+
+	/**
+	 * Returns the position of the opening peer of the closing peer at the given position, and
+	 * scans the document up to it if necessary.
+	 *
+	 * @param closing the position of a closing peer
+	 * @return the position of its opening peer, {@link JavaHeuristicScanner#NOT_FOUND} if it has
+	 *         none, or {@link #UNKNOWN} if the position is not a closing peer in the Java
+	 *         partition
+	 */
+	synchronized int getOpeningPeer(int closing) {
+		try {
+			if (closing >= fScanned)
+				scanTo(closing + 1);
+		} catch (BadLocationException e) {
+			return UNKNOWN;
+		}
+		int index= Arrays.binarySearch(fPositions, 0, fCount, closing);
+		if (index < 0 || fKinds[index] >= 0)
+			return UNKNOWN;
+		return fOpenings[index];
+	}
+
+	/*
+	 * Extends the scanned range up to the given position.
+	 */
+	private void scanTo(int end) throws BadLocationException {
+		restoreStacks();
+		fCachedPartition= null; // the document may have changed after the scanned range
+		for (int pos= fScanned; pos < end; pos++) {
+			char ch= fDocument.getChar(pos);
+			int kind;
+			boolean opening;
+			switch (ch) {
+				case '{':
+				case '}':
+					kind= BRACE;
+					opening= ch == '{';
+					break;
+				case '[':
+				case ']':
+					kind= BRACKET;
+					opening= ch == '[';
+					break;
+				case '(':
+				case ')':
+					kind= PAREN;
+					opening= ch == '(';
+					break;
+				default:
+					continue;
+			}
+			if (!isDefaultPartition(pos))
+				continue;
+			if (fCount % CHECKPOINT_INTERVAL == 0 && fCheckpoints.size() == fCount / CHECKPOINT_INTERVAL)
+				fCheckpoints.add(copyStacks());
+			if (opening) {
+				push(kind, pos);
+				add(pos, kind, JavaHeuristicScanner.NOT_FOUND);
+			} else {
+				add(pos, -1 - kind, pop(kind));
+			}
+		}
+		fScanned= Math.max(fScanned, end);
+	}
+
+	/*
+	 * Restores the stacks at the end of the scanned range from the last checkpoint before it.
+	 */
+	private void restoreStacks() {
+		if (fStacksValid)
+			return;
+		int checkpoint= fCount / CHECKPOINT_INTERVAL;
+		int[][] stacks= fCheckpoints.get(checkpoint);
+		for (int kind= 0; kind < KINDS; kind++) {
+			fOpen[kind]= Arrays.copyOf(stacks[kind], Math.max(stacks[kind].length, 16));
+			fOpenCount[kind]= stacks[kind].length;
+		}
+		for (int i= checkpoint * CHECKPOINT_INTERVAL; i < fCount; i++) {
+			int kind= fKinds[i];
+			if (kind >= 0)
+				push(kind, fPositions[i]);
+			else
+				pop(-1 - kind);
+		}
+		fStacksValid= true;
+	}
+
+	private int[][] copyStacks() {
+		int[][] stacks= new int[KINDS][];
+		for (int kind= 0; kind < KINDS; kind++)
+			stacks[kind]= Arrays.copyOf(fOpen[kind], fOpenCount[kind]);
+		return stacks;
+	}
+
+	private void push(int kind, int position) {
+		int count= fOpenCount[kind];
+		if (count == fOpen[kind].length)
+			fOpen[kind]= Arrays.copyOf(fOpen[kind], count * 2);
+		fOpen[kind][count]= position;
+		fOpenCount[kind]= count + 1;
+	}
+
+	private int pop(int kind) {
+		int count= fOpenCount[kind];
+		if (count == 0)
+			return JavaHeuristicScanner.NOT_FOUND;
+		fOpenCount[kind]= count - 1;
+		return fOpen[kind][count - 1];
+	}
+
+	private void add(int position, int kind, int opening) {
+		if (fCount == fPositions.length) {
+			fPositions= Arrays.copyOf(fPositions, fCount * 2);
+			fKinds= Arrays.copyOf(fKinds, fCount * 2);
+			fOpenings= Arrays.copyOf(fOpenings, fCount * 2);
+		}
+		fPositions[fCount]= position;
+		fKinds[fCount]= (byte) kind;
+		fOpenings[fCount]= opening;
+		fCount++;
+	}
+
+	/*
+	 * The index of the first peer at or after the given position.
+	 */
+	private int lowerBound(int position) {
+		int index= Arrays.binarySearch(fPositions, 0, fCount, position);
+		return index < 0 ? -index - 1 : index;
+	}
+
+	private boolean isDefaultPartition(int position) throws BadLocationException {
+		ITypedRegion partition= fCachedPartition;
+		if (partition == null || position < partition.getOffset() || position >= partition.getOffset() + partition.getLength()) {
+			partition= TextUtilities.getPartition(fDocument, IJavaPartitions.JAVA_PARTITIONING, position, false);
+			fCachedPartition= partition;
+		}
+		return IDocument.DEFAULT_CONTENT_TYPE.equals(partition.getType());
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -264,6 +264,11 @@ public final class JavaHeuristicScanner implements Symbols {
 	 * @since 3.2
 	 */
 	private ITypedRegion fCachedPartition= new TypedRegion(-1, 0, "__no_partition_at_all"); //$NON-NLS-1$
+	/**
+	 * The known matches of closing peers, or <code>null</code>.
+	 * @since 3.31
+	 */
+	private JavaBracketStructure fBracketStructure;
 
 	/* preset stop conditions */
 	private final StopCondition fNonWSDefaultPart= new NonWhitespaceDefaultPartition();
@@ -295,6 +300,45 @@ public final class JavaHeuristicScanner implements Symbols {
 		this(document, IJavaPartitions.JAVA_PARTITIONING, IDocument.DEFAULT_CONTENT_TYPE);
 	}
 
+	/**
+	 * Creates a scanner for the Java partitions of a document that is being edited. The scanner
+	 * uses the {@link JavaBracketStructure#getStructure(IDocument) bracket structure} of the
+	 * document, which is shared with the other scanners created this way and kept up to date
+	 * while the document changes.
+	 *
+	 * @param document the document to scan
+	 * @return the scanner
+	 * @since 3.31
+	 */
+	public static JavaHeuristicScanner createWithSharedStructure(IDocument document) {
+		JavaHeuristicScanner scanner= new JavaHeuristicScanner(document);
+		scanner.setBracketStructure(JavaBracketStructure.getStructure(document));
+		return scanner;
+	}
+
+	/**
+	 * Sets the bracket structure of the scanned document, which allows to skip the scopes that
+	 * it has already scanned when searching {@link #findOpeningPeer(int, int, char, char) opening
+	 * peers}. Clients must make sure that the structure is valid for the document in its current
+	 * state.
+	 *
+	 * @param structure the structure, or <code>null</code> to always scan
+	 * @since 3.31
+	 */
+	public void setBracketStructure(JavaBracketStructure structure) {
+		fBracketStructure= structure;
+	}
+
+	/**
+	 * Returns whether a bracket structure has been set.
+	 *
+	 * @return <code>true</code> if scopes can be skipped without scanning them
+	 * @since 3.31
+	 */
+	public boolean hasBracketStructure() {
+		return fBracketStructure != null;
+	}
+
 	/**
 	 * Returns the most recent internal scan position.
 	 *
@@ -610,10 +654,19 @@ public final class JavaHeuristicScanner implements Symbols {
 				if (start == NOT_FOUND)
 					return NOT_FOUND;
 
-				if (fDocument.getChar(start) == closingPeer)
+				if (fDocument.getChar(start) == closingPeer) {
+					int opening= fBracketStructure != null ? fBracketStructure.getOpeningPeer(start) : JavaBracketStructure.UNKNOWN;
+					if (opening != JavaBracketStructure.UNKNOWN) {
+						// the scope of the closing peer does not change the depth
+						if (opening == NOT_FOUND || opening <= bound)
+							return NOT_FOUND;
+						start= opening;
+						continue;
+					}
 					depth++;
-				else
+				} else {
 					depth--;
+				}
 
 				if (depth == 0)
 					return start;
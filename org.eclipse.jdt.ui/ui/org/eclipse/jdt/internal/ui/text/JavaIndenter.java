@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -2160,6 +2160,9 @@ public final class JavaIndenter {
 	 */
 	private boolean skipScope(int openToken, int closeToken) {
 
+		if (fScanner.hasBracketStructure() && skipKnownScope(openToken))
+			return true;
+
 		int depth= 1;
 
 		while (true) {
@@ -2176,4 +2179,45 @@ public final class JavaIndenter {
 			}
 		}
 	}
+
+	/**
+	 * Like {@link #skipScope(int, int)}, but lets the scanner find the opening peer, which
+	 * skips the scopes known from its bracket structure without scanning them. Leaves the state
+	 * unchanged if no opening peer is found.
+	 *
+	 * @param openToken the opening peer token
+	 * @return <code>true</code> if a matching token was found, <code>false</code>
+	 *         otherwise
+	 * @since 3.31
+	 */
+	private boolean skipKnownScope(int openToken) {
+		char openingPeer, closingPeer;
+		switch (openToken) {
+			case Symbols.TokenLBRACE:
+				openingPeer= '{';
+				closingPeer= '}';
+				break;
+			case Symbols.TokenLBRACKET:
+				openingPeer= '[';
+				closingPeer= ']';
+				break;
+			case Symbols.TokenLPAREN:
+				openingPeer= '(';
+				closingPeer= ')';
+				break;
+			default:
+				return false;
+		}
+
+		int start= fPosition;
+		int opening= fScanner.findOpeningPeer(start - 1, openingPeer, closingPeer);
+		if (opening == JavaHeuristicScanner.NOT_FOUND)
+			return false;
+
+		nextToken(opening + 1);
+		// the previous token is the first one after the opening peer, as if it had been scanned
+		int next= fScanner.findNonWhitespaceForward(opening + 1, start);
+		fPreviousPos= next == JavaHeuristicScanner.NOT_FOUND ? start : next;
+		return true;
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ package org.eclipse.jdt.internal.ui.text;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.TextUtilities;
 import org.eclipse.jface.text.source.DefaultCharacterPairMatcher;
 
@@ -35,9 +36,23 @@ public final class JavaPairMatcher extends DefaultCharacterPairMatcher implement
 	 */
 	private boolean fHighlightAngularBrackets= false;
 
+	/**
+	 * The characters that are matched.
+	 * @since 3.31
+	 */
+	private final char[] fPairs;
+
+	/**
+	 * The anchor of the last match that has been found in the bracket structure of the
+	 * document, or <code>-1</code> if the last match has been computed by the superclass.
+	 * @since 3.31
+	 */
+	private int fStructureAnchor= -1;
+
 
 	public JavaPairMatcher(char[] pairs) {
 		super(pairs, IJavaPartitions.JAVA_PARTITIONING, true);
+		fPairs= pairs.clone();
 	}
 
 	/* @see ICharacterPairMatcher#match(IDocument, int) */
@@ -72,6 +87,18 @@ public final class JavaPairMatcher extends DefaultCharacterPairMatcher implement
 			return null;
 		if (prevChar == '<' && isLessThanOperator(document, offset - 1))
 			return null;
+		fStructureAnchor= -1;
+		if (offset > 0 && (prevChar == ')' || prevChar == ']' || prevChar == '}') && isPairCharacter(prevChar) && !isPairCharacter(currChar)) {
+			// only the closing peer before the caret can match, look it up in the bracket structure
+			String contentType= TextUtilities.getContentType(document, IJavaPartitions.JAVA_PARTITIONING, offset - 1, false);
+			if (IDocument.DEFAULT_CONTENT_TYPE.equals(contentType)) {
+				int peer= JavaBracketStructure.getStructure(document).getOpeningPeer(offset - 1);
+				if (peer != JavaBracketStructure.UNKNOWN) {
+					fStructureAnchor= RIGHT;
+					return peer == JavaHeuristicScanner.NOT_FOUND ? null : new Region(peer, offset - peer);
+				}
+			}
+		}
 		final IRegion region= super.match(document, offset);
 		if (region == null) return region;
 		if (currChar == '>') {
@@ -81,6 +108,22 @@ public final class JavaPairMatcher extends DefaultCharacterPairMatcher implement
 		return region;
 	}
 
+	/*
+	 * @see org.eclipse.jface.text.source.DefaultCharacterPairMatcher#getAnchor()
+	 */
+	@Override
+	public int getAnchor() {
+		return fStructureAnchor != -1 ? fStructureAnchor : super.getAnchor();
+	}
+
+	private boolean isPairCharacter(char ch) {
+		for (char pair : fPairs) {
+			if (pair == ch)
+				return true;
+		}
+		return false;
+	}
+
 	/**
 	 * Returns <code>true</code> if the character at the specified offset is a less-than sign, rather than
 	 * the opening angle bracket of a type parameter list.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -217,7 +217,7 @@ public class JavaAutoIndentStrategy extends DefaultIndentLineAutoEditStrategy {
 			int start= d.getLineOffset(line);
 			int whiteend= findEndOfWhiteSpace(d, start, c.offset);
 
-			JavaHeuristicScanner scanner= new JavaHeuristicScanner(d);
+			JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(d);
 			JavaIndenter indenter= new JavaIndenter(d, scanner, fProject);
 
 			// shift only when line does not contain any text up to the closing bracket
@@ -246,7 +246,7 @@ public class JavaAutoIndentStrategy extends DefaultIndentLineAutoEditStrategy {
 		if (c.offset < 1 || d.getLength() == 0)
 			return;
 
-		JavaHeuristicScanner scanner= new JavaHeuristicScanner(d);
+		JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(d);
 
 		int p= (c.offset == d.getLength() ? c.offset - 1 : c.offset);
 
@@ -285,7 +285,7 @@ public class JavaAutoIndentStrategy extends DefaultIndentLineAutoEditStrategy {
 	}
 
 	private void smartIndentAfterNewLine(IDocument d, DocumentCommand c) {
-		JavaHeuristicScanner scanner= new JavaHeuristicScanner(d);
+		JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(d);
 		JavaIndenter indenter= new JavaIndenter(d, scanner, fProject);
 		StringBuffer indent= indenter.computeIndentation(c.offset);
 		if (indent == null)
@@ -388,7 +388,7 @@ public class JavaAutoIndentStrategy extends DefaultIndentLineAutoEditStrategy {
 		// return true if it looks like a method declaration
 		// or an expression for an if, while, for, catch statement
 
-		JavaHeuristicScanner scanner= new JavaHeuristicScanner(document);
+		JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(document);
 		int pos= offset;
 		int length= max;
 		int scanTo= scanner.scanForward(pos, length, '}');
@@ -659,7 +659,7 @@ public class JavaAutoIndentStrategy extends DefaultIndentLineAutoEditStrategy {
 		String newText= command.text;
 
 		try {
-			JavaHeuristicScanner scanner= new JavaHeuristicScanner(document);
+			JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(document);
 			JavaIndenter indenter= new JavaIndenter(document, scanner, fProject);
 			int offset= newOffset;
 
@@ -999,7 +999,7 @@ public class JavaAutoIndentStrategy extends DefaultIndentLineAutoEditStrategy {
     	int firstPeer= command.offset;
 
     	JavaHeuristicScanner pScanner= new JavaHeuristicScanner(pasted);
-    	JavaHeuristicScanner dScanner= new JavaHeuristicScanner(document);
+    	JavaHeuristicScanner dScanner= JavaHeuristicScanner.createWithSharedStructure(document);
 
     	// add scope relevant after context to peer search
     	int afterToken= dScanner.nextToken(command.offset + command.length, JavaHeuristicScanner.UNBOUND);
@@ -1144,7 +1144,7 @@ public class JavaAutoIndentStrategy extends DefaultIndentLineAutoEditStrategy {
 		try {
 			String content= d.get(c.offset - 3, 3);
 			if ("els".equals(content)) { //$NON-NLS-1$
-				JavaHeuristicScanner scanner= new JavaHeuristicScanner(d);
+				JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(d);
 				int p= c.offset - 3;
 
 				// current line
@@ -1182,7 +1182,7 @@ public class JavaAutoIndentStrategy extends DefaultIndentLineAutoEditStrategy {
 			}
 
 			if ("cas".equals(content)) { //$NON-NLS-1$
-				JavaHeuristicScanner scanner= new JavaHeuristicScanner(d);
+				JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(d);
 				int p= c.offset - 3;
 
 				// current line
@@ -1318,7 +1318,7 @@ public class JavaAutoIndentStrategy extends DefaultIndentLineAutoEditStrategy {
 
 	private static CompilationUnitInfo getCompilationUnitForMethod(IDocument document, int offset) {
 		try {
-			JavaHeuristicScanner scanner= new JavaHeuristicScanner(document);
+			JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(document);
 
 			IRegion sourceRange= scanner.findSurroundingBlock(offset);
 			if (sourceRange == null)
@@ -1361,7 +1361,7 @@ public class JavaAutoIndentStrategy extends DefaultIndentLineAutoEditStrategy {
 		int begin= offset;
 		int end= offset - 1;
 
-		JavaHeuristicScanner scanner= new JavaHeuristicScanner(document);
+		JavaHeuristicScanner scanner= JavaHeuristicScanner.createWithSharedStructure(document);
 
 		while (true) {
 			begin= scanner.findOpeningPeer(begin - 1, '{', '}');
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,7 +22,7 @@ import org.eclipse.jdt.core.JavaModelException;
 
 import org.eclipse.jdt.internal.corext.javadoc.JavaDocLocations;
 
-import org.eclipse.jdt.internal.ui.text.javadoc.JavadocContentAccess2;
+import org.eclipse.jdt.internal.ui.text.javadoc.JavadocHTMLCache;
 
 
 public class ProposalInfo {
@@ -90,7 +90,7 @@ public class ProposalInfo {
 	 * @throws CoreException if fetching the Javadoc for the given element failed connected
 	 */
 	private String extractJavadoc(IJavaElement element) throws CoreException {
-		return JavadocContentAccess2.getHTMLContent(element, true);
+		return JavadocHTMLCache.getHTMLContent(element, true);
 	}
 
 }
@@ -0,0 +1,400 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.javadoc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.jdt.internal.corext.javadoc.JavaDocLocations;
+import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Caches the Javadoc fragments that are extracted from Javadoc attachments of libraries.
+ * <p>
+ * {@link IJavaElement#getAttachedJavadoc(IProgressMonitor)} reads the Javadoc page of the
+ * declaring type from an archive or a URL, which may block hovers for a long time. Fragments
+ * are kept in memory and in the state location of the plug-in, so that they survive
+ * restarts. Both are bounded in size; the least recently used fragments are dropped first.
+ * </p>
+ * <p>
+ * A fragment is cached under the handle of its element, the Javadoc location of the library,
+ * the time stamp of the location if it is a local folder or archive, and the time stamp of the
+ * library, so that it is fetched again when the attachment or the library changes. Since these
+ * keys become unreachable when a build path changes, the fragments in memory are dropped then;
+ * the files on disk are trimmed as they age.
+ * </p>
+ * <p>
+ * If {@link #PREF_PREFETCH} is set, the Javadoc of the elements referenced in an editor is
+ * fetched in the background before it is requested (see {@link #prefetch(Collection, long)}).
+ * </p>
+ */
+public final class AttachedJavadocCache {
+
+	/**
+	 * Preference key (boolean) that enables fetching the attached Javadoc of the elements
+	 * referenced in an editor before it is requested. Off by default.
+	 */
+	public static final String PREF_PREFETCH= "AttachedJavadocCache.prefetch"; //$NON-NLS-1$
+
+	private static final int MAX_MEMORY_SIZE= 4 * 1024 * 1024; // characters
+	private static final long MAX_DISK_SIZE= 32 * 1024 * 1024; // bytes
+	private static final int WRITES_BETWEEN_TRIMS= 100;
+
+	private static final String CACHE_FOLDER= "attachedJavadoc"; //$NON-NLS-1$
+	private static final String FILE_EXTENSION= ".javadoc"; //$NON-NLS-1$
+	private static final int VERSION= 1;
+
+	/** Cached in memory for elements without attached Javadoc */
+	private static final String NO_JAVADOC= new String();
+
+	/** Key to fragment, least recently used first, guarded by itself */
+	private static final LinkedHashMap<String, String> fgFragments= new LinkedHashMap<>(64, 0.75f, true);
+	private static int fgMemorySize= 0;
+	private static int fgWritesSinceTrim= 0;
+	private static int fgFetchCount= 0;
+	private static boolean fgListening= false;
+
+	private static final IElementChangedListener fgClasspathListener= event -> {
+		if (isClasspathChange(event.getDelta()))
+			flushMemory();
+	};
+
+	private static final PrefetchJob fgPrefetchJob= new PrefetchJob();
+
+	private static final class PrefetchJob extends Job {
+
+		private List<IJavaElement> fElements= new ArrayList<>();
+
+		PrefetchJob() {
+			super(JavaDocMessages.AttachedJavadocCache_prefetch_job);
+			setSystem(true);
+			setPriority(DECORATE);
+		}
+
+		synchronized void setElements(Collection<? extends IJavaElement> elements) {
+			fElements= new ArrayList<>(elements);
+		}
+
+		private synchronized IJavaElement next() {
+			return fElements.isEmpty() ? null : fElements.remove(0);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			for (IJavaElement element= next(); element != null; element= next()) {
+				if (monitor.isCanceled())
+					return Status.CANCEL_STATUS;
+				try {
+					if (element.exists() && element.getOpenable().getBuffer() == null && isLocal(JavaDocLocations.getJavadocBaseLocation(element)))
+						getAttachedJavadoc(element);
+				} catch (JavaModelException e) {
+					// the hover reports problems with the attachment
+				}
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
+	private AttachedJavadocCache() {
+	}
+
+	/**
+	 * Returns the Javadoc of the given element from the Javadoc attachment of its library, like
+	 * {@link IJavaElement#getAttachedJavadoc(IProgressMonitor)}, but answers from the cache if
+	 * possible.
+	 *
+	 * @param element the element
+	 * @return the extracted Javadoc fragment, or <code>null</code> if there is none
+	 * @throws JavaModelException if the attached Javadoc cannot be accessed
+	 */
+	public static String getAttachedJavadoc(IJavaElement element) throws JavaModelException {
+		String key= getKey(element);
+		if (key == null)
+			return element.getAttachedJavadoc(null);
+
+		String fragment;
+		synchronized (fgFragments) {
+			if (!fgListening) {
+				JavaCore.addElementChangedListener(fgClasspathListener, ElementChangedEvent.POST_CHANGE);
+				fgListening= true;
+			}
+			fragment= fgFragments.get(key);
+		}
+		if (fragment == null) {
+			fragment= read(key);
+			if (fragment == null) {
+				synchronized (fgFragments) {
+					fgFetchCount++;
+				}
+				fragment= element.getAttachedJavadoc(null);
+				if (fragment != null)
+					write(key, fragment);
+				else
+					fragment= NO_JAVADOC;
+			}
+			put(key, fragment);
+		}
+		return fragment == NO_JAVADOC ? null : fragment;
+	}
+
+	/**
+	 * Fetches the attached Javadoc of the given elements in the background, after the given
+	 * delay. Replaces the elements of an earlier request that have not been fetched yet. Only
+	 * Javadoc in local folders and archives is fetched.
+	 *
+	 * @param elements the elements, most important first
+	 * @param delay the delay in milliseconds
+	 */
+	public static void prefetch(Collection<? extends IJavaElement> elements, long delay) {
+		fgPrefetchJob.cancel();
+		fgPrefetchJob.setElements(elements);
+		if (!elements.isEmpty())
+			fgPrefetchJob.schedule(delay);
+	}
+
+	/**
+	 * Stops fetching Javadoc in the background.
+	 */
+	public static void cancelPrefetch() {
+		fgPrefetchJob.cancel();
+	}
+
+	/**
+	 * @return the number of times attached Javadoc has been fetched because it was neither in
+	 *         memory nor on disk
+	 */
+	public static int getFetchCount() {
+		synchronized (fgFragments) {
+			return fgFetchCount;
+		}
+	}
+
+	/**
+	 * Stops fetching Javadoc in the background and stops listening to build path changes.
+	 */
+	public static void shutdown() {
+		fgPrefetchJob.cancel();
+		synchronized (fgFragments) {
+			if (fgListening) {
+				JavaCore.removeElementChangedListener(fgClasspathListener);
+				fgListening= false;
+			}
+		}
+		flushMemory();
+	}
+
+	private static void flushMemory() {
+		synchronized (fgFragments) {
+			fgFragments.clear();
+			fgMemorySize= 0;
+		}
+	}
+
+	private static boolean isClasspathChange(IJavaElementDelta delta) {
+		int flags= delta.getFlags();
+		if ((flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+				| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0)
+			return true;
+		int type= delta.getElement().getElementType();
+		if (type != IJavaElement.JAVA_MODEL && type != IJavaElement.JAVA_PROJECT)
+			return false;
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (isClasspathChange(child))
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * The key of the attached Javadoc of the given element, or null if its library has no
+	 * Javadoc location.
+	 */
+	private static String getKey(IJavaElement element) throws JavaModelException {
+		URL location= JavaDocLocations.getJavadocBaseLocation(element);
+		IPackageFragmentRoot root= JavaModelUtil.getPackageFragmentRoot(element);
+		if (location == null || root == null)
+			return null;
+		long timeStamp;
+		IResource resource= root.getResource();
+		if (resource != null) {
+			timeStamp= resource.getLocalTimeStamp();
+		} else {
+			File file= root.getPath().toFile();
+			timeStamp= file.lastModified();
+		}
+		return element.getHandleIdentifier() + '\n' + location.toExternalForm() + '\n' + getTimeStamp(location) + '\n' + timeStamp;
+	}
+
+	/*
+	 * The time stamp of the given local Javadoc folder or archive, or 0 for other locations.
+	 */
+	private static long getTimeStamp(URL location) {
+		File file= getLocalFile(location);
+		return file != null ? file.lastModified() : 0;
+	}
+
+	private static boolean isLocal(URL location) {
+		return getLocalFile(location) != null;
+	}
+
+	/*
+	 * The folder of a "file:" location, or the archive of a "jar:file:" location, or null.
+	 */
+	private static File getLocalFile(URL location) {
+		if (location == null)
+			return null;
+		if ("jar".equals(location.getProtocol())) { //$NON-NLS-1$
+			String path= location.getPath();
+			int separator= path.indexOf("!/"); //$NON-NLS-1$
+			if (separator == -1)
+				return null;
+			try {
+				location= new URL(path.substring(0, separator));
+			} catch (MalformedURLException e) {
+				return null;
+			}
+		}
+		if (!"file".equals(location.getProtocol())) //$NON-NLS-1$
+			return null;
+		try {
+			return new File(location.toURI());
+		} catch (URISyntaxException e) {
+			return new File(location.getPath()); // not encoded, e.g. with spaces
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static void put(String key, String fragment) {
+		synchronized (fgFragments) {
+			String previous= fgFragments.put(key, fragment);
+			if (previous != null)
+				fgMemorySize-= previous.length();
+			fgMemorySize+= fragment.length();
+			for (Iterator<String> iter= fgFragments.values().iterator(); fgMemorySize > MAX_MEMORY_SIZE && iter.hasNext();) {
+				fgMemorySize-= iter.next().length();
+				iter.remove();
+			}
+		}
+	}
+
+	private static String read(String key) {
+		File file= getFile(key);
+		if (!file.isFile())
+			return null;
+		try (DataInputStream in= new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != VERSION || !in.readUTF().equals(key))
+				return null;
+			byte[] bytes= new byte[in.readInt()];
+			in.readFully(bytes);
+			file.setLastModified(System.currentTimeMillis());
+			return new String(bytes, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			file.delete();
+			return null;
+		}
+	}
+
+	private static void write(String key, String fragment) {
+		File file= getFile(key);
+		File tempFile= new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		try {
+			file.getParentFile().mkdirs();
+			try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				byte[] bytes= fragment.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(VERSION);
+				out.writeUTF(key);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+			return;
+		}
+		synchronized (fgFragments) {
+			if (++fgWritesSinceTrim < WRITES_BETWEEN_TRIMS)
+				return;
+			fgWritesSinceTrim= 0;
+		}
+		trim();
+	}
+
+	/*
+	 * Deletes the least recently used files until the cache fits on disk.
+	 */
+	private static void trim() {
+		File[] files= getCacheFolder().listFiles();
+		if (files == null)
+			return;
+		long size= 0;
+		for (File file : files)
+			size+= file.length();
+		if (size <= MAX_DISK_SIZE)
+			return;
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (File file : files) {
+			if (size <= MAX_DISK_SIZE * 3 / 4)
+				break;
+			size-= file.length();
+			file.delete();
+		}
+	}
+
+	private static File getFile(String key) {
+		return new File(getCacheFolder(), Integer.toHexString(key.hashCode()) + FILE_EXTENSION);
+	}
+
+	private static File getCacheFolder() {
+		IPath location= JavaPlugin.getDefault().getStateLocation().append(CACHE_FOLDER);
+		return location.toFile();
+	}
+}
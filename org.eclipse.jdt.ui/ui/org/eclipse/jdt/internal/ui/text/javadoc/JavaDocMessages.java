@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -47,6 +47,7 @@ final class JavaDocMessages extends NLS {
 	public static String JavadocContentAccess2_setproperty_message;
 	public static String JavadocContentAccess2_returns_pre;
 	public static String JavadocContentAccess2_returns_post;
+	public static String AttachedJavadocCache_prefetch_job;
 
 	static {
 		NLS.initializeMessages(BUNDLE_NAME, JavaDocMessages.class);
@@ -522,7 +522,7 @@ public class JavadocContentAccess2 {
 		if (sourceJavadoc == null || sourceJavadoc.length() == 0 || "{@inheritDoc}".equals(sourceJavadoc.trim())) { //$NON-NLS-1$
 			if (useAttachedJavadoc) {
 				if (element.getOpenable().getBuffer() == null) { // only if no source available
-					return element.getAttachedJavadoc(null);
+					return AttachedJavadocCache.getAttachedJavadoc(element);
 				}
 				IMember member= null;
 				if (element instanceof ILocalVariable) {
@@ -826,7 +826,7 @@ public class JavadocContentAccess2 {
 					return InheritDocVisitor.CONTINUE;
 
 				if (overridden.getOpenable().getBuffer() == null) { // only if no source available
-					String attachedJavadoc= overridden.getAttachedJavadoc(null);
+					String attachedJavadoc= AttachedJavadocCache.getAttachedJavadoc(overridden);
 					if (attachedJavadoc != null) {
 						// BaseURL for the original method can be wrong for attached Javadoc from overridden
 						// (e.g. when overridden is from rt.jar).
@@ -2265,7 +2265,7 @@ public class JavadocContentAccess2 {
 
 		//3==> Handle the case when the documentation is coming from the attached Javadoc
 		if ((root.isArchive() || root.isExternal())) {
-			return packageFragment.getAttachedJavadoc(null);
+			return AttachedJavadocCache.getAttachedJavadoc(packageFragment);
 
 		}
 
@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.javadoc;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.graphics.RGB;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.PerformanceStats;
+
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.jface.resources.ColorRegistry;
+import org.eclipse.jface.resources.JFaceResources;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+
+/**
+ * Caches the HTML that {@link JavadocContentAccess2#getHTMLContent(IJavaElement, boolean)}
+ * renders, for the Javadoc hover, the Javadoc view and the additional info of content assist.
+ * <p>
+ * Rendering resolves inherited comments in the super type hierarchy and may read attached
+ * Javadoc, which is too slow to repeat every time the same element is hovered. The HTML is
+ * cached under the handle of the element, the rendering settings, the Javadoc font and colors
+ * of the hover style, and the modification stamp and working copy state of its compilation unit
+ * or class file. Every entry also records the compilation units and class files it was rendered
+ * from, i.e. the one of the element and, for methods that inherit comments, the ones of the
+ * super types. When the Java model changes or a working copy is reconciled, only the entries
+ * that depend on a changed compilation unit, class file, package, root or project are dropped.
+ * Only the most recently used entries are kept.
+ * </p>
+ */
+public final class JavadocHTMLCache {
+
+	private static final String PERF_RENDER_HTML= "org.eclipse.jdt.ui/perf/javadoc/renderHTML"; //$NON-NLS-1$
+
+	private static final int MAX_ENTRIES= 100;
+	private static final int MAX_SIZE= 1024 * 1024; // characters
+
+	/** Cached for elements without Javadoc */
+	private static final String NO_CONTENT= new String();
+
+	private static final class Entry {
+		final String fContent;
+		/** Handles of the compilation units and class files the content was rendered from */
+		final String[] fDependencies;
+
+		Entry(String content, String[] dependencies) {
+			fContent= content;
+			fDependencies= dependencies;
+		}
+	}
+
+	/** Key to entry, least recently used first, guarded by itself */
+	private static final LinkedHashMap<String, Entry> fgContents= new LinkedHashMap<>(16, 0.75f, true);
+	private static int fgSize= 0;
+	private static boolean fgListening= false;
+
+	private static final IElementChangedListener fgChangeListener= event -> {
+		List<String> changed= new ArrayList<>();
+		collectChanges(event.getDelta(), changed);
+		if (!changed.isEmpty())
+			remove(changed);
+	};
+
+	private JavadocHTMLCache() {
+	}
+
+	/**
+	 * Returns the Javadoc of the given element rendered as HTML, like
+	 * {@link JavadocContentAccess2#getHTMLContent(IJavaElement, boolean)}, but answers from the
+	 * cache if the element has been rendered before.
+	 *
+	 * @param element the element to get the Javadoc of
+	 * @param useAttachedJavadoc if <code>true</code> Javadoc will be extracted from attached
+	 *            Javadoc if there's no source
+	 * @return the Javadoc comment content in HTML or <code>null</code> if the element does not
+	 *         have a Javadoc comment or if no source is available
+	 * @throws CoreException is thrown when the element's Javadoc cannot be accessed
+	 */
+	public static String getHTMLContent(IJavaElement element, boolean useAttachedJavadoc) throws CoreException {
+		String key= getKey(element, useAttachedJavadoc);
+		synchronized (fgContents) {
+			if (!fgListening) {
+				JavaCore.addElementChangedListener(fgChangeListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+				fgListening= true;
+			}
+			Entry entry= fgContents.get(key);
+			if (entry != null)
+				return entry.fContent == NO_CONTENT ? null : entry.fContent;
+		}
+
+		String content;
+		PerformanceStats stats= PerformanceStats.getStats(PERF_RENDER_HTML, JavadocHTMLCache.class);
+		stats.startRun();
+		try {
+			content= JavadocContentAccess2.getHTMLContent(element, useAttachedJavadoc);
+		} finally {
+			stats.endRun();
+		}
+		put(key, new Entry(content != null ? content : NO_CONTENT, getDependencies(element)));
+		return content;
+	}
+
+	/**
+	 * Drops all cached HTML.
+	 */
+	public static void flush() {
+		synchronized (fgContents) {
+			fgContents.clear();
+			fgSize= 0;
+		}
+	}
+
+	/**
+	 * Stops listening to changes of the Java model and drops all cached HTML.
+	 */
+	public static void shutdown() {
+		synchronized (fgContents) {
+			if (fgListening) {
+				JavaCore.removeElementChangedListener(fgChangeListener);
+				fgListening= false;
+			}
+		}
+		flush();
+	}
+
+	private static String getKey(IJavaElement element, boolean useAttachedJavadoc) throws JavaModelException {
+		StringBuilder key= new StringBuilder(element.getHandleIdentifier());
+		key.append('\n').append(useAttachedJavadoc);
+		ICompilationUnit cu= (ICompilationUnit) element.getAncestor(IJavaElement.COMPILATION_UNIT);
+		ITypeRoot typeRoot= cu != null ? cu : (ITypeRoot) element.getAncestor(IJavaElement.CLASS_FILE);
+		if (typeRoot != null) {
+			IResource resource= typeRoot.getResource();
+			key.append('\n').append(resource != null ? resource.getModificationStamp() : IResource.NULL_STAMP);
+		}
+		if (cu != null && cu.isWorkingCopy()) {
+			// edits since the last reconcile are not seen, like in the Java model
+			key.append('\n').append(cu.hasUnsavedChanges());
+		}
+		appendStyle(key);
+		return key.toString();
+	}
+
+	/*
+	 * Appends the Javadoc font and colors that the hover and the view build their style sheet
+	 * and page prolog from.
+	 */
+	private static void appendStyle(StringBuilder key) {
+		FontData[] fontData= JFaceResources.getFontRegistry().getFontData(PreferenceConstants.APPEARANCE_JAVADOC_FONT);
+		key.append('\n').append(fontData.length > 0 ? fontData[0] : null);
+		ColorRegistry registry= JFaceResources.getColorRegistry();
+		RGB foreground= registry.getRGB("org.eclipse.jdt.ui.Javadoc.foregroundColor"); //$NON-NLS-1$
+		RGB background= registry.getRGB("org.eclipse.jdt.ui.Javadoc.backgroundColor"); //$NON-NLS-1$
+		key.append('\n').append(foreground).append('\n').append(background);
+	}
+
+	private static String[] getDependencies(IJavaElement element) throws JavaModelException {
+		Set<String> dependencies= new LinkedHashSet<>();
+		ITypeRoot typeRoot= (ITypeRoot) element.getAncestor(IJavaElement.COMPILATION_UNIT);
+		if (typeRoot == null)
+			typeRoot= (ITypeRoot) element.getAncestor(IJavaElement.CLASS_FILE);
+		if (typeRoot != null)
+			dependencies.add(typeRoot.getHandleIdentifier());
+		if (element instanceof IMethod) {
+			// the hierarchy is only in the cache if rendering had to look for inherited comments
+			IType type= ((IMethod) element).getDeclaringType();
+			if (SuperTypeHierarchyCache.hasInCache(type)) {
+				for (IType superType : SuperTypeHierarchyCache.getTypeHierarchy(type).getAllSupertypes(type)) {
+					ITypeRoot superTypeRoot= superType.getTypeRoot();
+					if (superTypeRoot != null)
+						dependencies.add(superTypeRoot.getHandleIdentifier());
+				}
+			}
+		}
+		return dependencies.toArray(new String[dependencies.size()]);
+	}
+
+	/*
+	 * Collects the handles of the changed compilation units and class files, and of the changed
+	 * packages, roots and projects whose compilation units and class files are all affected.
+	 */
+	private static void collectChanges(IJavaElementDelta delta, List<String> changed) {
+		IJavaElement element= delta.getElement();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED
+						|| (delta.getFlags() & (IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0) {
+					changed.add(element.getHandleIdentifier());
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED
+						|| (delta.getFlags() & (IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_SOURCEATTACHED | IJavaElementDelta.F_SOURCEDETACHED
+								| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_REORDER)) != 0) {
+					changed.add(element.getHandleIdentifier());
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (delta.getKind() != IJavaElementDelta.CHANGED) {
+					changed.add(element.getHandleIdentifier());
+					return;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+			case IJavaElement.CLASS_FILE:
+				changed.add(element.getHandleIdentifier());
+				return;
+			default:
+				return;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			collectChanges(child, changed);
+		}
+	}
+
+	private static void remove(List<String> changed) {
+		synchronized (fgContents) {
+			for (Iterator<Entry> iter= fgContents.values().iterator(); iter.hasNext();) {
+				Entry entry= iter.next();
+				if (dependsOn(entry, changed)) {
+					fgSize-= entry.fContent.length();
+					iter.remove();
+				}
+			}
+		}
+	}
+
+	private static boolean dependsOn(Entry entry, List<String> changed) {
+		for (String dependency : entry.fDependencies) {
+			for (String handle : changed) {
+				// the handles of children start with the handle of their parent
+				if (dependency.startsWith(handle))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	private static void put(String key, Entry entry) {
+		synchronized (fgContents) {
+			Entry previous= fgContents.put(key, entry);
+			if (previous != null)
+				fgSize-= previous.fContent.length();
+			fgSize+= entry.fContent.length();
+			for (Iterator<Entry> iter= fgContents.values().iterator(); (fgSize > MAX_SIZE || fgContents.size() > MAX_ENTRIES) && iter.hasNext();) {
+				fgSize-= iter.next().fContent.length();
+				iter.remove();
+			}
+		}
+	}
+}
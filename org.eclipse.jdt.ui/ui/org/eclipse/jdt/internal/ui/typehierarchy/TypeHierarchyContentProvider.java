@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,7 +14,9 @@
 package org.eclipse.jdt.internal.ui.typehierarchy;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.Assert;
 
@@ -53,6 +55,14 @@ public abstract class TypeHierarchyContentProvider implements ITreeContentProvid
 	private MethodOverrideTester fMethodOverrideTester;
 	private ITypeHierarchyLifeCycleListener fTypeHierarchyLifeCycleListener;
 
+	/**
+	 * Cached results of {@link #hasTypeChildren(IType)} and {@link #hasMemberFilterChildren(IType)}.
+	 * With a member or working set filter, every type has to look at its whole subtree, which
+	 * is quadratic in the size of the hierarchy without the caches. Cleared when a filter, the
+	 * input or the hierarchy changes. Guarded by fHasTypeChildren.
+	 */
+	private final Map<IType, Boolean> fHasTypeChildren= new HashMap<>();
+	private final Map<IType, Boolean> fHasMemberFilterChildren= new HashMap<>();
 
 	public TypeHierarchyContentProvider(TypeHierarchyLifeCycle lifecycle) {
 		fTypeHierarchy= lifecycle;
@@ -67,6 +77,7 @@ public abstract class TypeHierarchyContentProvider implements ITreeContentProvid
 						fMethodOverrideTester= null;
 					}
 				}
+				flushCaches();
 			}
 		};
 		lifecycle.addChangedListener(fTypeHierarchyLifeCycleListener);
@@ -81,6 +92,14 @@ public abstract class TypeHierarchyContentProvider implements ITreeContentProvid
 	 */
 	public final void setMemberFilter(IMember[] memberFilter) {
 		fMemberFilter= memberFilter;
+		flushCaches();
+	}
+
+	private void flushCaches() {
+		synchronized (fHasTypeChildren) {
+			fHasTypeChildren.clear();
+			fHasMemberFilterChildren.clear();
+		}
 	}
 
 	private boolean initializeMethodOverrideTester(IMethod filterMethod, IType typeToFindIn) {
@@ -153,6 +172,7 @@ public abstract class TypeHierarchyContentProvider implements ITreeContentProvid
 	 */
 	public void setWorkingSetFilter(ViewerFilter filter) {
 		fWorkingSetFilter= filter;
+		flushCaches();
 	}
 
 
@@ -316,29 +336,54 @@ public abstract class TypeHierarchyContentProvider implements ITreeContentProvid
 	}
 
 	private boolean hasMemberFilterChildren(IType type) throws JavaModelException {
+		Boolean cached;
+		synchronized (fHasTypeChildren) {
+			cached= fHasMemberFilterChildren.get(type);
+		}
+		if (cached != null)
+			return cached.booleanValue();
+
+		boolean result= false;
 		for (IMember member : fMemberFilter) {
 			if (type.equals(member.getDeclaringType())) {
-				return true;
+				result= true;
+				break;
 			} else if (member instanceof IMethod) {
 				if (hasCompatibleMethod((IMethod) member, type)) {
-					return true;
+					result= true;
+					break;
 				}
 			}
 		}
-		return false;
+		synchronized (fHasTypeChildren) {
+			fHasMemberFilterChildren.put(type, Boolean.valueOf(result));
+		}
+		return result;
 	}
 
 	private boolean hasTypeChildren(IType type) throws JavaModelException {
+		Boolean cached;
+		synchronized (fHasTypeChildren) {
+			cached= fHasTypeChildren.get(type);
+		}
+		if (cached != null)
+			return cached.booleanValue();
+
+		boolean result= false;
 		ArrayList<IType> types= new ArrayList<>();
 		getTypesInHierarchy(type, types);
 		int len= types.size();
 		for (int i= 0; i < len; i++) {
 			IType curr= types.get(i);
 			if (isInTree(curr)) {
-				return true;
+				result= true;
+				break;
 			}
 		}
-		return false;
+		synchronized (fHasTypeChildren) {
+			fHasTypeChildren.put(type, Boolean.valueOf(result));
+		}
+		return result;
 	}
 
 	/*
@@ -348,6 +393,7 @@ public abstract class TypeHierarchyContentProvider implements ITreeContentProvid
 	public void inputChanged(Viewer part, Object oldInput, Object newInput) {
 		Assert.isTrue(part instanceof TreeViewer);
 		fViewer= (TreeViewer)part;
+		flushCaches();
 	}
 
 	/*
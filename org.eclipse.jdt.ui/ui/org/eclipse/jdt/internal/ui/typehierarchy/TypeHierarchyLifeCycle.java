@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,7 +16,13 @@ package org.eclipse.jdt.internal.ui.typehierarchy;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.swt.widgets.Display;
 
@@ -38,6 +44,7 @@ import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IOrdinaryClassFile;
+import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.IRegion;
 import org.eclipse.jdt.core.IType;
@@ -53,9 +60,31 @@ import org.eclipse.jdt.internal.ui.JavaPlugin;
 
 /**
  * Manages a type hierarchy, to keep it refreshed, and to allow it to be shared.
+ * <p>
+ * Computing the hierarchy of a type with many subtypes takes long, so changes that the type
+ * hierarchy reports are not passed on to the listeners right away. After a short delay, in
+ * which further changes are collected, the changed compilation units, class files and packages
+ * are compared with the hierarchy. If the supertypes and flags of their types are unchanged,
+ * no type has been removed from the hierarchy, and no type has become a subtype of the focus
+ * type, the listeners are only told to update the changed types. Otherwise, they are told that
+ * the hierarchy has to be rebuilt. Once a change has been handled without rebuilding, the type
+ * hierarchy no longer reports changes, so from then on the life cycle checks every structural
+ * change itself.
+ * </p>
  */
 public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IElementChangedListener {
 
+	/**
+	 * Delay before a change of the hierarchy is handled.
+	 */
+	private static final int HIERARCHY_CHANGE_DELAY= 500;
+
+	/**
+	 * Maximum number of changed elements that are compared with the hierarchy. For more
+	 * changes, the hierarchy is rebuilt.
+	 */
+	private static final int MAX_COMPARED_ELEMENTS= 100;
+
 	private boolean fHierarchyRefreshNeeded;
 	private ITypeHierarchy fHierarchy;
 	private IJavaElement[] fInputElements;
@@ -84,6 +113,36 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 	 */
 	private boolean fRefreshJobCanceledExplicitly= true;
 
+	/**
+	 * The job that handles the changes of the hierarchy after a delay.
+	 */
+	private final Job fHierarchyChangedJob;
+
+	/**
+	 * The compilation units, class files and packages that have changed since the hierarchy has
+	 * been computed or compared. Guarded by itself, like all fields below.
+	 */
+	private final Set<IJavaElement> fChangedElements= new LinkedHashSet<>();
+
+	/**
+	 * Indicates whether a change requires a rebuild, regardless of the changed elements.
+	 */
+	private boolean fStructureChanged;
+
+	/**
+	 * Indicates whether the type hierarchy has reported a change that has not been handled yet.
+	 */
+	private boolean fHierarchyChangePending;
+
+	/**
+	 * Indicates whether a reported change has been handled without rebuilding. The type hierarchy
+	 * does not report further changes then.
+	 */
+	private boolean fChangesCompared;
+
+	private int fRebuildCount;
+	private int fUpdateCount;
+
 	/**
 	 * Creates the type hierarchy life cycle.
 	 *
@@ -101,6 +160,19 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 		fInputElements= null;
 		fIsSuperTypesOnly= isSuperTypesOnly;
 		fChangeListeners= new ArrayList<>(2);
+		fHierarchyChangedJob= new Job(TypeHierarchyMessages.TypeHierarchyLifeCycle_hierarchyChanged) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				handleHierarchyChange(monitor);
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			}
+
+			@Override
+			public boolean belongsTo(Object family) {
+				return family == TypeHierarchyLifeCycle.this;
+			}
+		};
+		fHierarchyChangedJob.setSystem(true);
 	}
 
 	public ITypeHierarchy getHierarchy() {
@@ -124,6 +196,8 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 			fHierarchy= null;
 			fInputElements= null;
 		}
+		fHierarchyChangedJob.cancel();
+		resetChanges();
 		synchronized (this) {
 			if (fRefreshHierarchyJob != null) {
 				fRefreshHierarchyJob.cancel();
@@ -321,6 +395,8 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 			fHierarchy.removeTypeHierarchyChangedListener(this);
 			JavaCore.removeElementChangedListener(this);
 		}
+		fHierarchyChangedJob.cancel();
+		resetChanges();
 		if (hierachyCreationNeeded) {
 			fHierarchy= createTypeHierarchy(elements, pm);
 			if (pm != null && pm.isCanceled()) {
@@ -337,13 +413,47 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 		fHierarchyRefreshNeeded= false;
 	}
 
+	/**
+	 * Marks the hierarchy as outdated, so that it is refreshed by the next call of
+	 * {@link #ensureRefreshedTypeHierarchy(IJavaElement[], IRunnableContext)}.
+	 */
+	public void setHierarchyRefreshNeeded() {
+		fHierarchyRefreshNeeded= true;
+	}
+
+	/**
+	 * Returns the number of hierarchy changes that have required a rebuild of the hierarchy.
+	 *
+	 * @return the number of rebuilds
+	 */
+	public int getRebuildCount() {
+		synchronized (fChangedElements) {
+			return fRebuildCount;
+		}
+	}
+
+	/**
+	 * Returns the number of hierarchy changes that have been handled by updating the changed
+	 * types, without rebuilding the hierarchy.
+	 *
+	 * @return the number of updates
+	 */
+	public int getUpdateCount() {
+		synchronized (fChangedElements) {
+			return fUpdateCount;
+		}
+	}
+
 	/*
 	 * @see ITypeHierarchyChangedListener#typeHierarchyChanged
 	 */
 	@Override
 	public void typeHierarchyChanged(ITypeHierarchy typeHierarchy) {
-	 	fHierarchyRefreshNeeded= true;
- 		fireChange(null);
+		fHierarchyRefreshNeeded= true;
+		synchronized (fChangedElements) {
+			fHierarchyChangePending= true;
+		}
+		fHierarchyChangedJob.schedule(HIERARCHY_CHANGE_DELAY);
 	}
 
 	/*
@@ -355,6 +465,21 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 			return;
 		}
 
+		// the type hierarchy has already seen this event, see doHierarchyRefresh(..)
+		boolean compare;
+		synchronized (fChangedElements) {
+			boolean changed= recordChanges(event.getDelta());
+			compare= changed && fChangesCompared;
+			if (event.getType() == ElementChangedEvent.POST_CHANGE && !fHierarchyChangePending && !fChangesCompared) {
+				// the type hierarchy has found that the changes do not affect it
+				fChangedElements.clear();
+				fStructureChanged= false;
+			}
+		}
+		if (compare) {
+			fHierarchyChangedJob.schedule(HIERARCHY_CHANGE_DELAY);
+		}
+
 		if (fHierarchyRefreshNeeded) {
 			return;
 		} else {
@@ -366,6 +491,248 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 		}
 	}
 
+	private void resetChanges() {
+		synchronized (fChangedElements) {
+			fChangedElements.clear();
+			fStructureChanged= false;
+			fHierarchyChangePending= false;
+			fChangesCompared= false;
+		}
+	}
+
+	/*
+	 * Records the elements of the given delta that may change the structure of the hierarchy.
+	 * Returns whether there are such elements.
+	 */
+	private boolean recordChanges(IJavaElementDelta delta) {
+		IJavaElement element= delta.getElement();
+		int kind= delta.getKind();
+		int flags= delta.getFlags();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				return recordChildrenChanges(delta);
+			case IJavaElement.JAVA_PROJECT:
+				if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED
+						| IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0) {
+					fStructureChanged= true;
+					return true;
+				}
+				return recordChildrenChanges(delta);
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+						| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED)) != 0) {
+					fStructureChanged= true;
+					return true;
+				}
+				return recordChildrenChanges(delta);
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (kind == IJavaElementDelta.CHANGED)
+					return recordChildrenChanges(delta);
+				return recordChange(element);
+			case IJavaElement.COMPILATION_UNIT:
+				if (!JavaModelUtil.isPrimary((ICompilationUnit) element))
+					return false;
+				if (kind == IJavaElementDelta.CHANGED && (flags & IJavaElementDelta.F_PRIMARY_WORKING_COPY) == 0) {
+					if ((flags & IJavaElementDelta.F_CONTENT) == 0)
+						return false;
+					if ((flags & IJavaElementDelta.F_FINE_GRAINED) != 0 && !hasTypeStructureChange(delta))
+						return false;
+				}
+				return recordChange(element);
+			case IJavaElement.CLASS_FILE:
+				return recordChange(element);
+			default:
+				return false;
+		}
+	}
+
+	private boolean recordChildrenChanges(IJavaElementDelta delta) {
+		boolean changed= false;
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			changed|= recordChanges(child);
+		}
+		return changed;
+	}
+
+	private boolean recordChange(IJavaElement element) {
+		fChangedElements.add(element);
+		if (fChangedElements.size() > MAX_COMPARED_ELEMENTS)
+			fStructureChanged= true;
+		return true;
+	}
+
+	private boolean hasTypeStructureChange(IJavaElementDelta delta) {
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (child.getElement().getElementType() != IJavaElement.TYPE)
+				continue;
+			if (child.getKind() != IJavaElementDelta.CHANGED
+					|| (child.getFlags() & (IJavaElementDelta.F_SUPER_TYPES | IJavaElementDelta.F_MODIFIERS)) != 0
+					|| hasTypeStructureChange(child))
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * Compares the changed elements with the hierarchy and tells the listeners whether the
+	 * hierarchy has to be rebuilt or whether the changed types have to be updated.
+	 */
+	private void handleHierarchyChange(IProgressMonitor monitor) {
+		List<IJavaElement> changedElements;
+		boolean structureChanged;
+		boolean reported;
+		synchronized (fChangedElements) {
+			reported= fHierarchyChangePending;
+			if (!reported && !fChangesCompared)
+				return;
+			changedElements= new ArrayList<>(fChangedElements);
+			structureChanged= fStructureChanged;
+			fChangedElements.clear();
+			fStructureChanged= false;
+			fHierarchyChangePending= false;
+		}
+		ITypeHierarchy hierarchy= fHierarchy;
+		if (hierarchy == null)
+			return;
+
+		IType[] changedTypes= null;
+		if (!structureChanged) {
+			try {
+				changedTypes= getChangedTypes(hierarchy, changedElements, monitor);
+			} catch (JavaModelException e) {
+				// rebuild
+			}
+		}
+		if (monitor.isCanceled())
+			return;
+
+		if (changedTypes == null) {
+			synchronized (fChangedElements) {
+				fRebuildCount++;
+			}
+			fHierarchyRefreshNeeded= true;
+			fireChange(null);
+		} else if (reported) {
+			synchronized (fChangedElements) {
+				fUpdateCount++;
+				fChangesCompared= true;
+			}
+			fHierarchyRefreshNeeded= false;
+			if (changedTypes.length > 0)
+				fireChange(changedTypes);
+		}
+	}
+
+	/*
+	 * Returns the types of the hierarchy that are declared in the given elements, or null if the
+	 * elements may have changed the structure of the hierarchy.
+	 */
+	private IType[] getChangedTypes(ITypeHierarchy hierarchy, List<IJavaElement> changedElements, IProgressMonitor monitor) throws JavaModelException {
+		IType focus= hierarchy.getType();
+		if (focus == null)
+			return null; // the hierarchy of a region includes every type of the region
+
+		// the types that a new subtype can extend
+		Set<IType> subtypeParents= new HashSet<>();
+		if (!fIsSuperTypesOnly) {
+			subtypeParents.add(focus);
+			subtypeParents.addAll(Arrays.asList(hierarchy.getAllSubtypes(focus)));
+		}
+		Set<String> subtypeParentNames= new HashSet<>();
+		for (IType type : subtypeParents) {
+			subtypeParentNames.add(type.getElementName());
+		}
+		Map<IJavaElement, List<IType>> typesByParent= new HashMap<>();
+		for (IType type : hierarchy.getAllTypes()) {
+			typesByParent.computeIfAbsent(type.getTypeRoot(), k -> new ArrayList<>()).add(type);
+			typesByParent.computeIfAbsent(type.getPackageFragment(), k -> new ArrayList<>()).add(type);
+		}
+
+		List<IType> changedTypes= new ArrayList<>();
+		for (IJavaElement element : changedElements) {
+			if (monitor.isCanceled())
+				return null;
+			List<IType> oldTypes= typesByParent.getOrDefault(element, List.of());
+			if (!element.exists()) {
+				if (!oldTypes.isEmpty())
+					return null; // types of the hierarchy have been removed
+				continue;
+			}
+			List<IType> types= new ArrayList<>();
+			switch (element.getElementType()) {
+				case IJavaElement.PACKAGE_FRAGMENT:
+					// an added package
+					IPackageFragment pack= (IPackageFragment) element;
+					for (ICompilationUnit cu : pack.getCompilationUnits()) {
+						types.addAll(Arrays.asList(cu.getAllTypes()));
+					}
+					for (IOrdinaryClassFile classFile : pack.getOrdinaryClassFiles()) {
+						types.add(classFile.getType());
+					}
+					break;
+				case IJavaElement.COMPILATION_UNIT:
+					types.addAll(Arrays.asList(((ICompilationUnit) element).getAllTypes()));
+					break;
+				case IJavaElement.CLASS_FILE:
+					types.add(((IOrdinaryClassFile) element).getType());
+					break;
+				default:
+					return null;
+			}
+			if (!types.containsAll(oldTypes))
+				return null; // types of the hierarchy have been removed
+			for (IType type : types) {
+				if (hierarchy.contains(type)) {
+					if (!hasSameSupertypes(hierarchy, type, monitor))
+						return null;
+					changedTypes.add(type);
+				} else if (mayBeSubtype(type, subtypeParents, subtypeParentNames, monitor)) {
+					return null;
+				}
+			}
+		}
+		return changedTypes.toArray(new IType[changedTypes.size()]);
+	}
+
+	private boolean hasSameSupertypes(ITypeHierarchy hierarchy, IType type, IProgressMonitor monitor) throws JavaModelException {
+		if (hierarchy.getCachedFlags(type) != type.getFlags())
+			return false;
+		ITypeHierarchy supertypeHierarchy= type.newSupertypeHierarchy(monitor);
+		return Objects.equals(hierarchy.getSuperclass(type), supertypeHierarchy.getSuperclass(type))
+				&& new HashSet<>(Arrays.asList(hierarchy.getSuperInterfaces(type))).equals(new HashSet<>(Arrays.asList(supertypeHierarchy.getSuperInterfaces(type))));
+	}
+
+	/*
+	 * Tells whether a type that is not in the hierarchy has become a subtype of the focus type.
+	 * The declared supertype names are checked first, so that supertypes are only resolved for
+	 * candidates.
+	 */
+	private boolean mayBeSubtype(IType type, Set<IType> subtypeParents, Set<String> subtypeParentNames, IProgressMonitor monitor) throws JavaModelException {
+		boolean candidate= false;
+		String superclassName= type.getSuperclassName();
+		if (superclassName != null)
+			candidate= subtypeParentNames.contains(getSimpleName(superclassName));
+		for (String superInterfaceName : type.getSuperInterfaceNames()) {
+			candidate|= subtypeParentNames.contains(getSimpleName(superInterfaceName));
+		}
+		if (!candidate)
+			return false;
+		ITypeHierarchy supertypeHierarchy= type.newSupertypeHierarchy(monitor);
+		for (IType supertype : supertypeHierarchy.getSupertypes(type)) {
+			if (subtypeParents.contains(supertype))
+				return true;
+		}
+		return false;
+	}
+
+	private static String getSimpleName(String typeName) {
+		int end= typeName.indexOf('<');
+		if (end == -1)
+			end= typeName.length();
+		int start= Math.max(typeName.lastIndexOf('.', end - 1), typeName.lastIndexOf('$', end - 1)) + 1;
+		return typeName.substring(start, end);
+	}
+
 	/*
 	 * Assume that the hierarchy is intact (no refresh needed)
 	 */
@@ -776,7 +776,7 @@ public class TypeHierarchyViewPart extends ViewPart implements ITypeHierarchyVie
 					if (event.keyCode == SWT.F5) {
 						ITypeHierarchy hierarchy= fHierarchyLifeCycle.getHierarchy();
 						if (hierarchy != null) {
-							fHierarchyLifeCycle.typeHierarchyChanged(hierarchy);
+							fHierarchyLifeCycle.setHierarchyRefreshNeeded();
 							doTypeHierarchyChangedOnViewers(null);
 						}
 						updateHierarchyViewer(false);
@@ -1622,9 +1622,9 @@ public class TypeHierarchyViewPart extends ViewPart implements ITypeHierarchyVie
 		int position= bar != null ? bar.getSelection() : 0;
 		memento.putInteger(TAG_VERTICAL_SCROLL, position);
 
-		IJavaElement selection= (IJavaElement)((IStructuredSelection) getCurrentViewer().getSelection()).getFirstElement();
-		if (selection != null) {
-			memento.putString(TAG_SELECTION, selection.getHandleIdentifier());
+		Object selection= ((IStructuredSelection) getCurrentViewer().getSelection()).getFirstElement();
+		if (selection instanceof IJavaElement) {
+			memento.putString(TAG_SELECTION, ((IJavaElement) selection).getHandleIdentifier());
 		}
 
 		fWorkingSetActionGroup.saveState(memento);
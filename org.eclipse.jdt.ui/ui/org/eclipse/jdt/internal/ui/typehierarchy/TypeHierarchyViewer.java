@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -40,6 +40,12 @@ import org.eclipse.jdt.internal.ui.viewsupport.ProblemTreeViewer;
 
 public abstract class TypeHierarchyViewer extends ProblemTreeViewer {
 
+	/**
+	 * Number of children that are shown at once. Types with more subtypes show an expandable
+	 * node for the rest, so that tree items and labels are only created for shown types.
+	 */
+	private static final int CHILDREN_INCREMENT= 1000;
+
 	private HierarchyLabelProvider fLabelProvider;
 
 
@@ -50,6 +56,7 @@ public abstract class TypeHierarchyViewer extends ProblemTreeViewer {
 
 		setLabelProvider(new DecoratingJavaLabelProvider(fLabelProvider, true));
 		setUseHashlookup(true);
+		setDisplayIncrementally(CHILDREN_INCREMENT);
 
 		setContentProvider(contentProvider);
 		setComparator(new HierarchyViewerSorter(lifeCycle));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -75,6 +75,11 @@ public class JavaElementImageProvider {
 	public final static int LIGHT_TYPE_ICONS= 0x4;
 
 
+	/**
+	 * Added to the flags of cached images if test code containers are decorated.
+	 */
+	private final static long DECORATE_TEST_CODE_CONTAINER_ICONS= 0x100000000L;
+
 	public static final Point SMALL_SIZE= new Point(16, 16);
 	public static final Point BIG_SIZE= new Point(22, 16);
 
@@ -105,6 +110,11 @@ public class JavaElementImageProvider {
 	 * @return return the image or <code>null</code>
 	 */
 	public Image getImageLabel(Object element, int flags) {
+		if (element instanceof IJavaElement) {
+			// the setting of this provider is part of the key
+			long key= fDecorateTestCodeContainerIcons ? flags | DECORATE_TEST_CODE_CONTAINER_ICONS : flags;
+			return JavaElementLabelCache.getImage((IJavaElement) element, key, () -> getImageLabel(computeDescriptor(element, flags)));
+		}
 		return getImageLabel(computeDescriptor(element, flags));
 	}
 
@@ -0,0 +1,295 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.viewsupport;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.eclipse.swt.graphics.Image;
+
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.viewers.StyledString;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.ui.JavaElementLabels;
+import org.eclipse.jdt.ui.PreferenceConstants;
+
+/**
+ * Caches the labels and the undecorated images of Java elements for the viewers, which ask for
+ * them whenever an item is revealed or refreshed.
+ * <p>
+ * Entries are cached under the element handle, the kind of the entry and the rendering flags.
+ * Only the most recently used entries are kept. The entries are also indexed by the openable
+ * that contains their element, e.g. its compilation unit, so that a Java element delta removes
+ * the entries of the changed elements without visiting all other entries. All entries are
+ * dropped when the appearance preferences change. Problem markers are not part of the cached
+ * images; they are added by the label decorators.
+ * </p>
+ */
+public final class JavaElementLabelCache {
+
+	private static final int MAX_ENTRIES= 100000;
+
+	private static final int TEXT= 0;
+	private static final int STYLED_TEXT= 1;
+	private static final int IMAGE= 2;
+
+	private static final class Key {
+		final IJavaElement fElement;
+		final int fKind;
+		final long fFlags;
+
+		Key(IJavaElement element, int kind, long flags) {
+			fElement= element;
+			fKind= kind;
+			fFlags= flags;
+		}
+
+		@Override
+		public int hashCode() {
+			return fElement.hashCode() * 31 + fKind * 17 + Long.hashCode(fFlags);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other= (Key) obj;
+			return fKind == other.fKind && fFlags == other.fFlags && fElement.equals(other.fElement);
+		}
+	}
+
+	/** Key to label or image, least recently used first, guarded by itself */
+	private static final LinkedHashMap<Key, Object> fgEntries= new LinkedHashMap<Key, Object>(1024, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+			if (size() <= MAX_ENTRIES)
+				return false;
+			unindex(eldest.getKey());
+			return true;
+		}
+	};
+	/** Openable to the keys of the entries of the elements it contains, guarded by fgEntries */
+	private static final Map<IJavaElement, Set<Key>> fgKeysByOpenable= new HashMap<>();
+	/**
+	 * Incremented on every invalidation, so that entries computed before it are not added,
+	 * guarded by fgEntries
+	 */
+	private static int fgGeneration= 0;
+	private static volatile boolean fgListening= false;
+
+	private static final IElementChangedListener fgDeltaListener= event -> invalidate(event.getDelta());
+	private static final IPropertyChangeListener fgPreferenceListener= event -> flush();
+
+	private JavaElementLabelCache() {
+	}
+
+	/**
+	 * Returns the label of the given element, like
+	 * {@link JavaElementLabels#getElementLabel(IJavaElement, long)}.
+	 *
+	 * @param element the element
+	 * @param flags the rendering flags
+	 * @return the label of the element
+	 */
+	public static String getTextLabel(IJavaElement element, long flags) {
+		return get(new Key(element, TEXT, flags), () -> JavaElementLabels.getElementLabel(element, flags));
+	}
+
+	/**
+	 * Returns the styled label of the given element, like
+	 * {@link JavaElementLabels#getStyledElementLabel(IJavaElement, long)}.
+	 *
+	 * @param element the element
+	 * @param flags the rendering flags
+	 * @return a new styled string, which may be modified by the caller
+	 */
+	public static StyledString getStyledTextLabel(IJavaElement element, long flags) {
+		StyledString label= get(new Key(element, STYLED_TEXT, flags), () -> JavaElementLabels.getStyledElementLabel(element, flags));
+		return new StyledString().append(label);
+	}
+
+	/**
+	 * Returns the image of the given element.
+	 *
+	 * @param element the element
+	 * @param flags the flags that determine the image, including any settings of the image provider
+	 * @param provider computes the image if it is not cached
+	 * @return the image, or <code>null</code> if the element has none
+	 */
+	static Image getImage(IJavaElement element, long flags, Supplier<Image> provider) {
+		return get(new Key(element, IMAGE, flags), provider);
+	}
+
+	/**
+	 * Drops all cached labels and images.
+	 */
+	public static void flush() {
+		synchronized (fgEntries) {
+			fgGeneration++;
+			fgEntries.clear();
+			fgKeysByOpenable.clear();
+		}
+	}
+
+	/**
+	 * Stops listening to changes of Java elements and preferences and drops all cached labels and
+	 * images.
+	 */
+	public static void shutdown() {
+		synchronized (JavaElementLabelCache.class) {
+			if (fgListening) {
+				JavaCore.removeElementChangedListener(fgDeltaListener);
+				PreferenceConstants.getPreferenceStore().removePropertyChangeListener(fgPreferenceListener);
+				fgListening= false;
+			}
+		}
+		flush();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T get(Key key, Supplier<T> provider) {
+		int generation;
+		synchronized (fgEntries) {
+			Object entry= fgEntries.get(key);
+			if (entry != null)
+				return (T) entry;
+			generation= fgGeneration;
+		}
+
+		install();
+		T value= provider.get();
+		if (value != null) {
+			synchronized (fgEntries) {
+				// a value computed before an invalidation may describe an outdated element
+				if (fgGeneration == generation && fgEntries.put(key, value) == null)
+					fgKeysByOpenable.computeIfAbsent(getOpenable(key.fElement), openable -> new HashSet<>()).add(key);
+			}
+		}
+		return value;
+	}
+
+	private static void install() {
+		if (fgListening)
+			return;
+		synchronized (JavaElementLabelCache.class) {
+			if (!fgListening) {
+				JavaCore.addElementChangedListener(fgDeltaListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+				PreferenceConstants.getPreferenceStore().addPropertyChangeListener(fgPreferenceListener);
+				fgListening= true;
+			}
+		}
+	}
+
+	private static void invalidate(IJavaElementDelta delta) {
+		Set<IJavaElement> subtrees= new HashSet<>();
+		Set<IJavaElement> elements= new HashSet<>();
+		collectChanges(delta, subtrees, elements);
+		if (subtrees.isEmpty() && elements.isEmpty())
+			return;
+		synchronized (fgEntries) {
+			fgGeneration++;
+			for (IJavaElement element : elements)
+				removeEntries(getOpenable(element), key -> key.fElement.equals(element));
+			for (IJavaElement subtree : subtrees) {
+				IJavaElement openable= getOpenable(subtree);
+				if (isTypeRoot(openable)) {
+					removeEntries(openable, key -> isInSubtree(key.fElement, subtree));
+				} else {
+					// a package, root or project: the openables below it are searched
+					for (Iterator<Map.Entry<IJavaElement, Set<Key>>> iter= fgKeysByOpenable.entrySet().iterator(); iter.hasNext();) {
+						Map.Entry<IJavaElement, Set<Key>> entry= iter.next();
+						if (isInSubtree(entry.getKey(), subtree)) {
+							for (Key key : entry.getValue())
+								fgEntries.remove(key);
+							iter.remove();
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * Removes the entries of the given openable whose keys match the given condition.
+	 */
+	private static void removeEntries(IJavaElement openable, Predicate<Key> condition) {
+		Set<Key> keys= fgKeysByOpenable.get(openable);
+		if (keys == null)
+			return;
+		for (Iterator<Key> iter= keys.iterator(); iter.hasNext();) {
+			Key key= iter.next();
+			if (condition.test(key)) {
+				fgEntries.remove(key);
+				iter.remove();
+			}
+		}
+		if (keys.isEmpty())
+			fgKeysByOpenable.remove(openable);
+	}
+
+	private static void unindex(Key key) {
+		IJavaElement openable= getOpenable(key.fElement);
+		Set<Key> keys= fgKeysByOpenable.get(openable);
+		if (keys != null && keys.remove(key) && keys.isEmpty())
+			fgKeysByOpenable.remove(openable);
+	}
+
+	private static IJavaElement getOpenable(IJavaElement element) {
+		return (IJavaElement) element.getOpenable();
+	}
+
+	private static boolean isTypeRoot(IJavaElement element) {
+		int type= element.getElementType();
+		return type == IJavaElement.COMPILATION_UNIT || type == IJavaElement.CLASS_FILE;
+	}
+
+	/*
+	 * Collects the elements whose entries are affected by the given delta: the changed elements
+	 * with all their descendants, and the parents whose children have changed, e.g. the icon of
+	 * a package that is no longer empty.
+	 */
+	private static void collectChanges(IJavaElementDelta delta, Set<IJavaElement> subtrees, Set<IJavaElement> elements) {
+		int flags= delta.getFlags();
+		if (delta.getKind() == IJavaElementDelta.CHANGED
+				&& ((flags & IJavaElementDelta.F_FINE_GRAINED) != 0 || (flags & ~(IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_AST_AFFECTED)) == 0)) {
+			elements.add(delta.getElement());
+			for (IJavaElementDelta child : delta.getAffectedChildren())
+				collectChanges(child, subtrees, elements);
+		} else {
+			subtrees.add(delta.getElement());
+		}
+	}
+
+	private static boolean isInSubtree(IJavaElement element, IJavaElement subtree) {
+		for (IJavaElement ancestor= element; ancestor != null; ancestor= ancestor.getParent()) {
+			if (subtree.equals(ancestor))
+				return true;
+		}
+		return false;
+	}
+}
@@ -33,6 +33,8 @@ import org.eclipse.jface.viewers.LabelProviderChangedEvent;
 import org.eclipse.jface.viewers.StyledCellLabelProvider;
 import org.eclipse.jface.viewers.StyledString;
 
+import org.eclipse.jdt.core.IJavaElement;
+
 import org.eclipse.jdt.ui.JavaElementLabels;
 
 public class JavaUILabelProvider implements ILabelProvider, IColorProvider, IStyledLabelProvider {
@@ -164,7 +166,11 @@ public class JavaUILabelProvider implements ILabelProvider, IColorProvider, ISty
 
 	@Override
 	public String getText(Object element) {
-		String result= JavaElementLabels.getTextLabel(element, evaluateTextFlags(element));
+		String result;
+		if (element instanceof IJavaElement)
+			result= JavaElementLabelCache.getTextLabel((IJavaElement) element, evaluateTextFlags(element));
+		else
+			result= JavaElementLabels.getTextLabel(element, evaluateTextFlags(element));
 		if (result.length() == 0 && (element instanceof IStorage)) {
 			result= fStorageLabelProvider.getText(element);
 		}
@@ -173,7 +179,11 @@ public class JavaUILabelProvider implements ILabelProvider, IColorProvider, ISty
 
 	@Override
 	public StyledString getStyledText(Object element) {
-		StyledString string= JavaElementLabels.getStyledTextLabel(element, (evaluateTextFlags(element) | JavaElementLabels.COLORIZE));
+		StyledString string;
+		if (element instanceof IJavaElement)
+			string= JavaElementLabelCache.getStyledTextLabel((IJavaElement) element, evaluateTextFlags(element) | JavaElementLabels.COLORIZE);
+		else
+			string= JavaElementLabels.getStyledTextLabel(element, (evaluateTextFlags(element) | JavaElementLabels.COLORIZE));
 		if (string.length() == 0 && (element instanceof IStorage)) {
 			string= new StyledString(fStorageLabelProvider.getText(element));
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2010 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -134,6 +134,9 @@ public class JarPackageData {
 	// Add directory entries to the jar
 	private boolean fIncludeDirectoryEntries;
 
+	// Update the entries of the previously exported jar that have changed
+	private boolean fIncrementalExport;
+
 	// Projects for which to store refactoring information
 	private IProject[] fRefactoringProjects= {};
 
@@ -1057,6 +1060,31 @@ public class JarPackageData {
 		fIncludeDirectoryEntries = includeDirectoryEntries;
 	}
 
+	/**
+	 * Tells whether the JAR is exported incrementally. An incremental export only rewrites
+	 * the entries whose sources have changed since the JAR has been exported with the same
+	 * settings, and keeps all other entries of the existing JAR.
+	 *
+	 * @return	<code>true</code> if the JAR is exported incrementally
+	 *
+	 * @since 3.31
+	 */
+	public boolean isIncrementalExport() {
+		return fIncrementalExport;
+	}
+
+	/**
+	 * Sets the option to export the JAR incrementally.
+	 *
+	 * @param incrementalExport <code>true</code> to only update the changed entries
+	 *  of a previously exported JAR, <code>false</code> to always create the JAR from scratch
+	 *
+	 * @since 3.31
+	 */
+	public void setIncrementalExport(boolean incrementalExport) {
+		fIncrementalExport= incrementalExport;
+	}
+
 	/**
 	 * Returns the projects for which refactoring information should be stored.
 	 * <p>
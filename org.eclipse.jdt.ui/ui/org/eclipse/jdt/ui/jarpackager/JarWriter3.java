@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -51,9 +51,7 @@ import org.eclipse.core.runtime.Path;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.ResourcesPlugin;
 
 import org.eclipse.ltk.core.refactoring.RefactoringCore;
 import org.eclipse.ltk.core.refactoring.RefactoringDescriptor;
@@ -63,7 +61,6 @@ import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
 import org.eclipse.jdt.internal.corext.util.Messages;
 import org.eclipse.jdt.internal.jarpackager.JarPackagerUtilCore;
 
-import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.jarpackager.JarPackagerMessages;
 import org.eclipse.jdt.internal.ui.jarpackager.JarPackagerUtil;
 
@@ -79,6 +76,11 @@ import org.eclipse.jdt.internal.ui.jarpackager.JarPackagerUtil;
  */
 public class JarWriter3 {
 
+	/**
+	 * Size of the buffer between the archive and the file. The deflater writes in small chunks.
+	 */
+	private static final int OUTPUT_BUFFER_SIZE= 64 * 1024;
+
 	private Set<String> fDirectories= new HashSet<>();
 
 	private JarOutputStream fJarOutputStream;
@@ -129,9 +131,9 @@ public class JarWriter3 {
 		try {
 			if (fJarPackage.usesManifest() && fJarPackage.areGeneratedFilesExported()) {
 				Manifest manifest= fJarPackage.getManifestProvider().create(fJarPackage);
-				fJarOutputStream= new JarOutputStream(new BufferedOutputStream(new FileOutputStream(fJarPackage.getAbsoluteJarLocation().toFile())), manifest);
+				fJarOutputStream= new JarOutputStream(new BufferedOutputStream(new FileOutputStream(fJarPackage.getAbsoluteJarLocation().toFile()), OUTPUT_BUFFER_SIZE), manifest);
 			} else
-				fJarOutputStream= new JarOutputStream(new BufferedOutputStream(new FileOutputStream(fJarPackage.getAbsoluteJarLocation().toFile())));
+				fJarOutputStream= new JarOutputStream(new BufferedOutputStream(new FileOutputStream(fJarPackage.getAbsoluteJarLocation().toFile()), OUTPUT_BUFFER_SIZE));
 			String comment= jarPackage.getComment();
 			if (comment != null)
 				fJarOutputStream.setComment(comment);
@@ -380,25 +382,7 @@ public class JarWriter3 {
 	}
 
 	private void registerInWorkspaceIfNeeded() {
-		IPath jarPath= fJarPackage.getAbsoluteJarLocation();
-		for (IProject project : ResourcesPlugin.getWorkspace().getRoot().getProjects()) {
-			// The Jar is always put into the local file system. So it can only be
-			// part of a project if the project is local as well. So using getLocation
-			// is currently save here.
-			IPath projectLocation= project.getLocation();
-			if (projectLocation != null && projectLocation.isPrefixOf(jarPath)) {
-				try {
-					jarPath= jarPath.removeFirstSegments(projectLocation.segmentCount());
-					jarPath= jarPath.removeLastSegments(1);
-					IResource containingFolder= project.findMember(jarPath);
-					if (containingFolder != null && containingFolder.isAccessible())
-						containingFolder.refreshLocal(IResource.DEPTH_ONE, null);
-				} catch (CoreException ex) {
-					// don't refresh the folder but log the problem
-					JavaPlugin.log(ex);
-				}
-			}
-		}
+		JarPackagerUtil.refreshContainingFolder(fJarPackage.getAbsoluteJarLocation());
 	}
 
 	/**
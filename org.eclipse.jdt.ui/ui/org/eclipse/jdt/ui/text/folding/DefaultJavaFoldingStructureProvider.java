@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2011 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -55,6 +55,7 @@ import org.eclipse.jdt.core.IImportDeclaration;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IOpenable;
 import org.eclipse.jdt.core.IParent;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ISourceReference;
@@ -67,6 +68,7 @@ import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.compiler.IScanner;
 import org.eclipse.jdt.core.compiler.ITerminalSymbols;
 import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.core.dom.Comment;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
 import org.eclipse.jdt.ui.PreferenceConstants;
@@ -104,14 +106,94 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		private boolean fHasHeaderComment;
 		private LinkedHashMap<JavaProjectionAnnotation, Position> fMap= new LinkedHashMap<>();
 		private IScanner fScanner;
-
-		private FoldingStructureComputationContext(IDocument document, ProjectionAnnotationModel model, boolean allowCollapsing, IScanner scanner) {
+		private CompilationUnit fAST;
+		private char[] fSource;
+		/* the comments of the reconciled AST, sorted by offset */
+		private int[] fCommentStarts;
+		private int[] fCommentEnds;
+		private boolean[] fIsLineComment;
+
+		private FoldingStructureComputationContext(IDocument document, ProjectionAnnotationModel model, boolean allowCollapsing, IScanner scanner, CompilationUnit ast) {
 			Assert.isNotNull(document);
 			Assert.isNotNull(model);
 			fDocument= document;
 			fModel= model;
 			fAllowCollapsing= allowCollapsing;
 			fScanner= scanner;
+			fAST= ast;
+		}
+
+		/**
+		 * Sets the source of the input element.
+		 *
+		 * @param source the source of the input element
+		 * @param consistent <code>true</code> if the source has not changed since the input
+		 *            element has been reconciled with the AST of this context
+		 */
+		private void setSource(char[] source, boolean consistent) {
+			fSource= source;
+			getScanner().setSource(source);
+			if (fAST == null || !consistent || fAST.getStartPosition() + fAST.getLength() != source.length)
+				return; // the AST does not match the source of the model
+
+			List<Comment> comments= fAST.getCommentList();
+			if (comments == null)
+				return;
+			int count= comments.size();
+			int[] starts= new int[count];
+			int[] ends= new int[count];
+			boolean[] isLineComment= new boolean[count];
+			for (int i= 0; i < count; i++) {
+				Comment comment= comments.get(i);
+				starts[i]= comment.getStartPosition();
+				ends[i]= comment.getStartPosition() + comment.getLength();
+				isLineComment[i]= comment.isLineComment();
+				if (!isComment(starts[i], ends[i], isLineComment[i]))
+					return; // the source has been edited after all
+			}
+			fCommentStarts= starts;
+			fCommentEnds= ends;
+			fIsLineComment= isLineComment;
+		}
+
+		private boolean isComment(int start, int end, boolean isLineComment) {
+			if (start < 0 || end > fSource.length || end - start < 2)
+				return false;
+			if (fSource[start] != '/' || fSource[start + 1] != (isLineComment ? '/' : '*'))
+				return false;
+			return isLineComment || end - start >= 4 && fSource[end - 2] == '*' && fSource[end - 1] == '/';
+		}
+
+		/**
+		 * Adds the regions of the comments at the beginning of the given range, taking them
+		 * from the comment list of the reconciled AST instead of scanning the source.
+		 *
+		 * @param start the start of the range
+		 * @param end the end of the range
+		 * @param regions the list to add the comment regions to
+		 * @return the offset of the first token after the comments, or <code>-1</code> if
+		 *         there is no reconciled AST
+		 */
+		private int addLeadingComments(int start, int end, List<IRegion> regions) {
+			if (fCommentStarts == null)
+				return -1;
+			int i= Arrays.binarySearch(fCommentStarts, start);
+			if (i < 0)
+				i= -i - 1;
+			int offset= skipWhitespace(start, end);
+			while (i < fCommentStarts.length && fCommentStarts[i] == offset && fCommentEnds[i] <= end) {
+				if (!fIsLineComment[i])
+					regions.add(new Region(fCommentStarts[i], fCommentEnds[i] - fCommentStarts[i]));
+				offset= skipWhitespace(fCommentEnds[i], end);
+				i++;
+			}
+			return offset;
+		}
+
+		private int skipWhitespace(int offset, int end) {
+			while (offset < end && Character.isWhitespace(fSource[offset]))
+				offset++;
+			return offset;
 		}
 
 		private void setFirstType(IType type) {
@@ -360,12 +442,13 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 			IJavaElementDelta delta= findElement(fInput, e.getDelta());
 			if (delta != null && (delta.getFlags() & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN)) != 0) {
 
-				if (shouldIgnoreDelta(e.getDelta().getCompilationUnitAST(), delta))
+				CompilationUnit ast= e.getDelta().getCompilationUnitAST();
+				if (shouldIgnoreDelta(ast, delta))
 					return;
 
 				fUpdatingCount++;
 				try {
-					update(createContext(false));
+					update(createContext(false, ast));
 				} finally {
 					fUpdatingCount--;
 				}
@@ -852,10 +935,14 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		if (fInput == null)
 			return null;
 
-		return createContext(true);
+		return createContext(true, null);
 	}
 
-	private FoldingStructureComputationContext createContext(boolean allowCollapse) {
+	/*
+	 * The AST is the one the Java model has been reconciled with, if any; its comments are used
+	 * instead of scanning the members.
+	 */
+	private FoldingStructureComputationContext createContext(boolean allowCollapse, CompilationUnit ast) {
 		if (!isInstalled())
 			return null;
 		ProjectionAnnotationModel model= getModel();
@@ -869,7 +956,10 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		if (fUpdatingCount == 1)
 			scanner= fSharedScanner; // reuse scanner
 
-		return new FoldingStructureComputationContext(doc, model, allowCollapse, scanner);
+		if (ast != null && !fInput.equals(ast.getTypeRoot()))
+			ast= null;
+
+		return new FoldingStructureComputationContext(doc, model, allowCollapse, scanner, ast);
 	}
 
 	private IJavaElement getInputElement() {
@@ -965,7 +1055,8 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		Annotation[] changedArray= updates.toArray(new Annotation[updates.size()]);
 		ctx.getModel().modifyAnnotations(deletedArray, additions, changedArray);
 
-		ctx.fScanner.setSource(null);
+		if (ctx.fScanner != null)
+			ctx.fScanner.setSource(null);
 	}
 
 	private void computeFoldingStructure(FoldingStructureComputationContext ctx) {
@@ -977,7 +1068,9 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 			if (source == null)
 				return;
 
-			ctx.getScanner().setSource(source.toCharArray());
+			// checked after reading the source, so that edits made meanwhile are noticed
+			boolean consistent= fInput instanceof IOpenable && ((IOpenable) fInput).isConsistent();
+			ctx.setSource(source.toCharArray(), consistent);
 			computeFoldingStructure(parent.getChildren(), ctx);
 		} catch (JavaModelException x) {
 		}
@@ -1111,8 +1204,7 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 				if (!SourceRange.isAvailable(range))
 					return new IRegion[0];
 
-				String contents= reference.getSource();
-				if (contents == null)
+				if (ctx.fSource == null)
 					return new IRegion[0];
 
 				List<IRegion> regions= new ArrayList<>();
@@ -1126,27 +1218,29 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 				}
 
 				final int shift= range.getOffset();
-				IScanner scanner= ctx.getScanner();
-				scanner.resetTo(shift, shift + range.getLength());
-
-				int start= shift;
-				while (true) {
-
-					int token= scanner.getNextToken();
-					start= scanner.getCurrentTokenStartPosition();
-
-					switch (token) {
-						case ITerminalSymbols.TokenNameCOMMENT_JAVADOC:
-						case ITerminalSymbols.TokenNameCOMMENT_BLOCK: {
-							int end= scanner.getCurrentTokenEndPosition() + 1;
-							regions.add(new Region(start, end - start));
-							continue;
+				int start= ctx.addLeadingComments(shift, shift + range.getLength(), regions);
+				if (start == -1) {
+					IScanner scanner= ctx.getScanner();
+					scanner.resetTo(shift, shift + range.getLength());
+
+					while (true) {
+
+						int token= scanner.getNextToken();
+						start= scanner.getCurrentTokenStartPosition();
+
+						switch (token) {
+							case ITerminalSymbols.TokenNameCOMMENT_JAVADOC:
+							case ITerminalSymbols.TokenNameCOMMENT_BLOCK: {
+								int end= scanner.getCurrentTokenEndPosition() + 1;
+								regions.add(new Region(start, end - start));
+								continue;
+							}
+							case ITerminalSymbols.TokenNameCOMMENT_LINE:
+								continue;
 						}
-						case ITerminalSymbols.TokenNameCOMMENT_LINE:
-							continue;
-					}
 
-					break;
+						break;
+					}
 				}
 
 				regions.add(new Region(start, shift + range.getLength() - start));
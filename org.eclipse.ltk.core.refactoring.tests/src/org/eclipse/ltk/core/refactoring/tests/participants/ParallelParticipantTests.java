@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.participants;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
+import org.eclipse.ltk.core.refactoring.NullChange;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.participants.CheckConditionsContext;
+import org.eclipse.ltk.core.refactoring.participants.RefactoringParticipant;
+import org.eclipse.ltk.core.refactoring.participants.RenameArguments;
+import org.eclipse.ltk.core.refactoring.participants.RenameParticipant;
+import org.eclipse.ltk.core.refactoring.participants.RenameProcessor;
+import org.eclipse.ltk.core.refactoring.participants.RenameRefactoring;
+import org.eclipse.ltk.core.refactoring.participants.SharableParticipants;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringPreferenceConstants;
+
+public class ParallelParticipantTests {
+
+	private static class DelayedParticipant extends RenameParticipant {
+		private final String fName;
+		private final long fDelay;
+		private final RefactoringStatus fStatus;
+		private volatile boolean fChecked;
+		private volatile boolean fRunning;
+
+		public DelayedParticipant(String name, long delay, RefactoringStatus status) {
+			fName= name;
+			fDelay= delay;
+			fStatus= status;
+		}
+		@Override
+		protected boolean initialize(Object element) {
+			return true;
+		}
+		@Override
+		public String getName() {
+			return fName;
+		}
+		@Override
+		public RefactoringStatus checkConditions(IProgressMonitor pm, CheckConditionsContext context) throws OperationCanceledException {
+			fRunning= true;
+			try {
+				long end= System.currentTimeMillis() + fDelay;
+				while (System.currentTimeMillis() < end) {
+					if (pm.isCanceled())
+						throw new OperationCanceledException();
+					try {
+						Thread.sleep(10);
+					} catch (InterruptedException e) {
+						throw new OperationCanceledException();
+					}
+				}
+				fChecked= true;
+				return fStatus;
+			} finally {
+				fRunning= false;
+			}
+		}
+		@Override
+		public Change createChange(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+			return new NullChange(fName);
+		}
+	}
+
+	private static class FailingCheckParticipant extends DelayedParticipant {
+		public FailingCheckParticipant() {
+			super("failing", 0, null);
+		}
+		@Override
+		public RefactoringStatus checkConditions(IProgressMonitor pm, CheckConditionsContext context) throws OperationCanceledException {
+			throw new IllegalStateException("expected failure");
+		}
+	}
+
+	private static class NeverReturningParticipant extends DelayedParticipant {
+		private final CountDownLatch fRelease= new CountDownLatch(1);
+		public NeverReturningParticipant() {
+			super("never returning", 0, null);
+		}
+		@Override
+		public RefactoringStatus checkConditions(IProgressMonitor pm, CheckConditionsContext context) throws OperationCanceledException {
+			// ignores the monitor and interrupts
+			while (true) {
+				try {
+					fRelease.await();
+					return new RefactoringStatus();
+				} catch (InterruptedException e) {
+					// keep waiting
+				}
+			}
+		}
+	}
+
+	private static class TestProcessor extends RenameProcessor {
+		private final Object fElement= Boolean.TRUE;
+		private final RefactoringParticipant[] fParticipants;
+
+		public TestProcessor(RefactoringParticipant[] participants) {
+			fParticipants= participants;
+		}
+		@Override
+		public Object[] getElements() {
+			return new Object[] { fElement };
+		}
+		@Override
+		public String getIdentifier() {
+			return "org.eclipse.ltk.core.refactoring.tests.ParallelTestProcessor";
+		}
+		@Override
+		public String getProcessorName() {
+			return "processor";
+		}
+		@Override
+		public boolean isApplicable() throws CoreException {
+			return true;
+		}
+		@Override
+		public RefactoringStatus checkInitialConditions(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+			return new RefactoringStatus();
+		}
+		@Override
+		public RefactoringStatus checkFinalConditions(IProgressMonitor pm, CheckConditionsContext context) throws CoreException, OperationCanceledException {
+			return new RefactoringStatus();
+		}
+		@Override
+		public Change createChange(IProgressMonitor pm) throws CoreException, OperationCanceledException {
+			return new NullChange("processor");
+		}
+		@Override
+		public RefactoringParticipant[] loadParticipants(RefactoringStatus status, SharableParticipants sharedParticipants) throws CoreException {
+			for (RefactoringParticipant participant : fParticipants) {
+				participant.initialize(this, fElement, new RenameArguments("", false));
+			}
+			return fParticipants;
+		}
+	}
+
+	private IEclipsePreferences fPreferences;
+
+	@Before
+	public void setUp() {
+		fPreferences= InstanceScope.INSTANCE.getNode(RefactoringCorePlugin.getPluginId());
+		fPreferences.putBoolean(RefactoringPreferenceConstants.PREFERENCE_PARALLEL_PARTICIPANTS, true);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		fPreferences.remove(RefactoringPreferenceConstants.PREFERENCE_PARALLEL_PARTICIPANTS);
+		fPreferences.remove(RefactoringPreferenceConstants.PREFERENCE_PARTICIPANT_TIMEOUT);
+	}
+
+	@Test
+	public void testDeterministicOrder() throws Exception {
+		DelayedParticipant[] participants= new DelayedParticipant[] {
+				new DelayedParticipant("slow", 300, RefactoringStatus.createWarningStatus("first")),
+				new DelayedParticipant("medium", 100, RefactoringStatus.createInfoStatus("second")),
+				new DelayedParticipant("fast", 0, RefactoringStatus.createWarningStatus("third"))
+		};
+		RenameRefactoring refactoring= new RenameRefactoring(new TestProcessor(participants));
+		refactoring.checkInitialConditions(new NullProgressMonitor());
+		RefactoringStatus status= refactoring.checkFinalConditions(new NullProgressMonitor());
+
+		assertEquals(3, status.getEntries().length);
+		assertEquals("first", status.getEntries()[0].getMessage());
+		assertEquals("second", status.getEntries()[1].getMessage());
+		assertEquals("third", status.getEntries()[2].getMessage());
+
+		Change[] children= ((CompositeChange) refactoring.createChange(new NullProgressMonitor())).getChildren();
+		assertEquals(4, children.length);
+		assertEquals("processor", children[0].getName());
+		assertEquals("slow", children[1].getName());
+		assertEquals("medium", children[2].getName());
+		assertEquals("fast", children[3].getName());
+	}
+
+	@Test
+	public void testFailingParticipant() throws Exception {
+		DelayedParticipant working= new DelayedParticipant("working", 50, new RefactoringStatus());
+		RenameRefactoring refactoring= new RenameRefactoring(new TestProcessor(new RefactoringParticipant[] { new FailingCheckParticipant(), working }));
+		refactoring.checkInitialConditions(new NullProgressMonitor());
+		RefactoringStatus status= refactoring.checkFinalConditions(new NullProgressMonitor());
+
+		assertTrue(status.hasError());
+		assertTrue(working.fChecked);
+
+		Change[] children= ((CompositeChange) refactoring.createChange(new NullProgressMonitor())).getChildren();
+		assertEquals(2, children.length);
+		assertEquals("working", children[1].getName());
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		fPreferences.putLong(RefactoringPreferenceConstants.PREFERENCE_PARTICIPANT_TIMEOUT, 200);
+
+		DelayedParticipant hanging= new DelayedParticipant("hanging", 60000, new RefactoringStatus());
+		DelayedParticipant working= new DelayedParticipant("working", 0, new RefactoringStatus());
+		RenameRefactoring refactoring= new RenameRefactoring(new TestProcessor(new RefactoringParticipant[] { hanging, working }));
+		refactoring.checkInitialConditions(new NullProgressMonitor());
+		long start= System.currentTimeMillis();
+		RefactoringStatus status= refactoring.checkFinalConditions(new NullProgressMonitor());
+
+		assertTrue(System.currentTimeMillis() - start < 30000);
+		assertTrue(status.hasError());
+		assertFalse(status.hasFatalError());
+		assertFalse(hanging.fChecked);
+		assertFalse("timed out participant still running", hanging.fRunning);
+
+		Change[] children= ((CompositeChange) refactoring.createChange(new NullProgressMonitor())).getChildren();
+		assertEquals(2, children.length);
+		assertEquals("working", children[1].getName());
+	}
+
+	@Test
+	public void testNeverReturningParticipant() throws Exception {
+		fPreferences.putLong(RefactoringPreferenceConstants.PREFERENCE_PARTICIPANT_TIMEOUT, 200);
+
+		NeverReturningParticipant hanging= new NeverReturningParticipant();
+		DelayedParticipant working= new DelayedParticipant("working", 0, new RefactoringStatus());
+		try {
+			RenameRefactoring refactoring= new RenameRefactoring(new TestProcessor(new RefactoringParticipant[] { hanging, working }));
+			refactoring.checkInitialConditions(new NullProgressMonitor());
+			long start= System.currentTimeMillis();
+			RefactoringStatus status= refactoring.checkFinalConditions(new NullProgressMonitor());
+
+			assertTrue("blocked by the participant", System.currentTimeMillis() - start < 10000);
+			assertTrue(status.hasError());
+			assertFalse(status.hasFatalError());
+
+			for (Change child : ((CompositeChange) refactoring.createChange(new NullProgressMonitor())).getChildren())
+				assertNotEquals("never returning", child.getName());
+		} finally {
+			hanging.fRelease.countDown();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -29,6 +30,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.PerformanceStats;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
@@ -42,10 +44,12 @@ import org.eclipse.ltk.core.refactoring.Refactoring;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.ltk.core.refactoring.TextChange;
 import org.eclipse.ltk.core.refactoring.TextFileChange;
+import org.eclipse.ltk.internal.core.refactoring.ConcurrentTasks;
 import org.eclipse.ltk.internal.core.refactoring.Messages;
 import org.eclipse.ltk.internal.core.refactoring.ParticipantDescriptor;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringPreferenceConstants;
 
 /**
  * An base implementation for refactorings that are split into
@@ -245,33 +249,11 @@ public class ProcessorBasedRefactoring extends Refactoring {
 		}
 		IProgressMonitor sm= new SubProgressMonitor(pm, 2);
 
-		sm.beginTask("", fParticipants.size()); //$NON-NLS-1$
-		for (Iterator<RefactoringParticipant> iter= fParticipants.iterator(); iter.hasNext() && !result.hasFatalError(); ) {
-
-			RefactoringParticipant participant= iter.next();
-
-			final PerformanceStats stats= PerformanceStats.getStats(PERF_CHECK_CONDITIONS, getName() + ", " + participant.getName()); //$NON-NLS-1$
-			stats.startRun();
-
-			try {
-				result.merge(participant.checkConditions(new SubProgressMonitor(sm, 1), context));
-			} catch (OperationCanceledException e) {
-				throw e;
-			} catch (RuntimeException e) {
-				// remove the participant so that it will be ignored during change execution.
-				RefactoringCorePlugin.log(e);
-				result.merge(RefactoringStatus.createErrorStatus(Messages.format(
-					RefactoringCoreMessages.ProcessorBasedRefactoring_check_condition_participant_failed,
-					participant.getName())));
-				iter.remove();
-			}
-
-			stats.endRun();
-
-			if (sm.isCanceled())
-				throw new OperationCanceledException();
+		if (fParticipants.size() > 1 && isParallelParticipantExecution()) {
+			checkParticipantConditionsInParallel(result, context, sm);
+		} else {
+			checkParticipantConditions(result, context, sm);
 		}
-		sm.done();
 		if (result.hasFatalError()) {
 			pm.done();
 			return result;
@@ -407,6 +389,108 @@ public class ProcessorBasedRefactoring extends Refactoring {
 
 	//---- Helper methods ---------------------------------------------------------------------
 
+	private void checkParticipantConditions(RefactoringStatus result, CheckConditionsContext context, IProgressMonitor sm) {
+		sm.beginTask("", fParticipants.size()); //$NON-NLS-1$
+		for (Iterator<RefactoringParticipant> iter= fParticipants.iterator(); iter.hasNext() && !result.hasFatalError(); ) {
+
+			RefactoringParticipant participant= iter.next();
+
+			final PerformanceStats stats= PerformanceStats.getStats(PERF_CHECK_CONDITIONS, getName() + ", " + participant.getName()); //$NON-NLS-1$
+			stats.startRun();
+
+			try {
+				result.merge(participant.checkConditions(new SubProgressMonitor(sm, 1), context));
+			} catch (OperationCanceledException e) {
+				throw e;
+			} catch (RuntimeException e) {
+				// remove the participant so that it will be ignored during change execution.
+				RefactoringCorePlugin.log(e);
+				result.merge(RefactoringStatus.createErrorStatus(Messages.format(
+					RefactoringCoreMessages.ProcessorBasedRefactoring_check_condition_participant_failed,
+					participant.getName())));
+				iter.remove();
+			}
+
+			stats.endRun();
+
+			if (sm.isCanceled())
+				throw new OperationCanceledException();
+		}
+		sm.done();
+	}
+
+	private static boolean isParallelParticipantExecution() {
+		return Platform.getPreferencesService().getBoolean(RefactoringCorePlugin.getPluginId(), RefactoringPreferenceConstants.PREFERENCE_PARALLEL_PARTICIPANTS, false, null);
+	}
+
+	private static long getParticipantTimeout() {
+		return Platform.getPreferencesService().getLong(RefactoringCorePlugin.getPluginId(), RefactoringPreferenceConstants.PREFERENCE_PARTICIPANT_TIMEOUT, 0, null);
+	}
+
+	/**
+	 * Checks the conditions of all participants concurrently. Every participant (including a
+	 * sharable participant handling several elements) is checked exactly once. The statuses are
+	 * merged in participant order, so the result does not depend on the execution order.
+	 * Participants which fail or exceed the configured timeout are removed from this refactoring.
+	 *
+	 * @param result the status to merge the participant statuses into
+	 * @param context the condition checking context
+	 * @param pm the progress monitor, ticked once per finished participant
+	 */
+	private void checkParticipantConditionsInParallel(RefactoringStatus result, CheckConditionsContext context, IProgressMonitor pm) {
+		int size= fParticipants.size();
+		pm.beginTask("", size); //$NON-NLS-1$
+
+		ResourceChangeChecker resourceChecker= context.getChecker(ResourceChangeChecker.class);
+		if (resourceChecker != null)
+			resourceChecker.makeThreadSafe();
+
+		long timeout= getParticipantTimeout();
+		List<RefactoringParticipant> removed= new ArrayList<>();
+		ConcurrentTasks<RefactoringStatus> checks= new ConcurrentTasks<>("Refactoring Participant Condition Checker", //$NON-NLS-1$
+				Math.min(size, Runtime.getRuntime().availableProcessors()));
+		try {
+			for (RefactoringParticipant participant : fParticipants) {
+				checks.submit(monitor -> checkConditions(participant, context, monitor));
+			}
+			for (int i= 0; i < size && !result.hasFatalError(); i++) {
+				RefactoringParticipant participant= fParticipants.get(i);
+				try {
+					result.merge(checks.get(i, timeout, pm));
+				} catch (OperationCanceledException e) {
+					throw e;
+				} catch (TimeoutException e) {
+					result.merge(RefactoringStatus.createErrorStatus(Messages.format(
+						RefactoringCoreMessages.ProcessorBasedRefactoring_check_condition_participant_timed_out,
+						new Object[] { participant.getName(), Long.valueOf(timeout) })));
+					removed.add(participant);
+				} catch (CoreException | RuntimeException e) {
+					RefactoringCorePlugin.log(e);
+					result.merge(RefactoringStatus.createErrorStatus(Messages.format(
+						RefactoringCoreMessages.ProcessorBasedRefactoring_check_condition_participant_failed,
+						participant.getName())));
+					removed.add(participant);
+				}
+				pm.worked(1);
+			}
+		} finally {
+			checks.cancelAndJoin();
+			pm.done();
+		}
+		fParticipants.removeAll(removed);
+	}
+
+	private RefactoringStatus checkConditions(RefactoringParticipant participant, CheckConditionsContext context, IProgressMonitor monitor) {
+		final PerformanceStats stats= PerformanceStats.getStats(PERF_CHECK_CONDITIONS, getName() + ", " + participant.getName()); //$NON-NLS-1$
+		stats.startRun();
+		try {
+			RefactoringStatus status= participant.checkConditions(monitor, context);
+			return status != null ? status : new RefactoringStatus();
+		} finally {
+			stats.endRun();
+		}
+	}
+
 	private CheckConditionsContext createCheckConditionsContext() throws CoreException {
 		CheckConditionsContext result= new CheckConditionsContext();
 		result.add(new ValidateEditChecker(getValidationContext()));
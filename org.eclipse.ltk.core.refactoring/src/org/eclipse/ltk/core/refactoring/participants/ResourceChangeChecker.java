@@ -17,10 +17,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.mapping.IResourceChangeDescriptionFactory;
@@ -53,6 +55,15 @@ public class ResourceChangeChecker implements IConditionChecker {
 		fDeltaFactory= ResourceChangeValidator.getValidator().createDeltaFactory();
 	}
 
+	/**
+	 * Guards the delta factory so that participants checking their
+	 * conditions concurrently can record resource operations safely.
+	 */
+	/* package */ void makeThreadSafe() {
+		if (!(fDeltaFactory instanceof SynchronizedDeltaFactory))
+			fDeltaFactory= new SynchronizedDeltaFactory(fDeltaFactory);
+	}
+
 	/**
 	 * A helper method to check a set of changed files.
 	 *
@@ -140,4 +151,48 @@ public class ResourceChangeChecker implements IConditionChecker {
 			return result;
 		}
 	}
+
+	private static final class SynchronizedDeltaFactory implements IResourceChangeDescriptionFactory {
+
+		private final IResourceChangeDescriptionFactory fDelegate;
+
+		public SynchronizedDeltaFactory(IResourceChangeDescriptionFactory delegate) {
+			fDelegate= delegate;
+		}
+
+		@Override
+		public synchronized void change(IFile file) {
+			fDelegate.change(file);
+		}
+
+		@Override
+		public synchronized void close(IProject project) {
+			fDelegate.close(project);
+		}
+
+		@Override
+		public synchronized void copy(IResource resource, IPath destination) {
+			fDelegate.copy(resource, destination);
+		}
+
+		@Override
+		public synchronized void create(IResource resource) {
+			fDelegate.create(resource);
+		}
+
+		@Override
+		public synchronized void delete(IResource resource) {
+			fDelegate.delete(resource);
+		}
+
+		@Override
+		public synchronized IResourceDelta getDelta() {
+			return fDelegate.getDelta();
+		}
+
+		@Override
+		public synchronized void move(IResource resource, IPath destination) {
+			fDelegate.move(resource, destination);
+		}
+	}
 }
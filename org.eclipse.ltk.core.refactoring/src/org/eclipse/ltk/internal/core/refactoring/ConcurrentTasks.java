@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
+
+/**
+ * Runs tasks concurrently as system jobs of one {@link JobGroup} and hands their results to
+ * the caller in the order of submission.
+ * <p>
+ * The caller polls for the results, so that the cancellation of its progress monitor is
+ * noticed while it waits. The caller must call {@link #cancelAndJoin()} when it stops waiting,
+ * typically in a <code>finally</code> block: the tasks that have not finished yet are canceled
+ * and given a short time to stop. Tasks that ignore the cancellation, e.g. a participant that
+ * never returns, are left running in the background, so that they cannot block the caller.
+ * </p>
+ *
+ * @param <T> the type of the results of the tasks
+ */
+public final class ConcurrentTasks<T> {
+
+	/**
+	 * A task run by {@link ConcurrentTasks}.
+	 *
+	 * @param <T> the type of the result
+	 */
+	public interface Task<T> {
+		/**
+		 * Runs the task.
+		 *
+		 * @param monitor the monitor of the job running the task, which is canceled when the
+		 *            task has to stop
+		 * @return the result of the task
+		 * @throws CoreException if the task fails
+		 */
+		T run(IProgressMonitor monitor) throws CoreException;
+	}
+
+	/** Interval in milliseconds in which the caller is polled for cancellation and timeouts */
+	private static final long POLL_INTERVAL= 100;
+
+	/** Time in milliseconds that canceled tasks are given to stop */
+	private static final long STOP_TIMEOUT= 1000;
+
+	private final String fName;
+	private final JobGroup fGroup;
+	private final List<TaskJob<T>> fJobs= new ArrayList<>();
+
+	/**
+	 * Creates a new set of concurrent tasks.
+	 *
+	 * @param name the name of the jobs
+	 * @param maxThreads the maximal number of tasks that run at the same time
+	 */
+	public ConcurrentTasks(String name, int maxThreads) {
+		fName= name;
+		fGroup= new JobGroup(name, Math.max(1, maxThreads), 0);
+	}
+
+	/**
+	 * Schedules the given task.
+	 *
+	 * @param task the task to run
+	 * @return the index of the task, to be passed to {@link #get(int, long, IProgressMonitor)}
+	 */
+	public int submit(Task<T> task) {
+		TaskJob<T> job= new TaskJob<>(fName, task);
+		job.setSystem(true);
+		job.setJobGroup(fGroup);
+		fJobs.add(job);
+		job.schedule();
+		return fJobs.size() - 1;
+	}
+
+	/**
+	 * Waits for a task and returns its result.
+	 *
+	 * @param index the index of the task
+	 * @param timeout the time in milliseconds the task may run, or 0 for no limit. A task that
+	 *            has not started yet may wait as long for a free thread.
+	 * @param monitor the monitor of the caller
+	 * @return the result of the task
+	 * @throws CoreException if the task has thrown it
+	 * @throws TimeoutException if the task has been running or waiting longer than the given
+	 *             timeout. The task is canceled.
+	 * @throws OperationCanceledException if the caller or the task has been canceled
+	 */
+	public T get(int index, long timeout, IProgressMonitor monitor) throws CoreException, TimeoutException {
+		TaskJob<T> job= fJobs.get(index);
+		long waitStart= System.currentTimeMillis();
+		while (true) {
+			if (monitor.isCanceled())
+				throw new OperationCanceledException();
+			try {
+				if (job.join(POLL_INTERVAL, null))
+					break;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			}
+			if (timeout > 0 && job.isOverdue(timeout, waitStart)) {
+				job.cancel();
+				throw new TimeoutException();
+			}
+		}
+
+		Throwable failure= job.fFailure;
+		if (failure instanceof CoreException)
+			throw (CoreException) failure;
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		if (failure instanceof Error)
+			throw (Error) failure;
+		if (!job.fFinished)
+			throw new OperationCanceledException();
+		return job.fValue;
+	}
+
+	/**
+	 * Cancels the tasks that have not finished yet and waits a short time until they have
+	 * stopped. Tasks that are still running afterwards are left running in the background.
+	 */
+	public void cancelAndJoin() {
+		fGroup.cancel();
+		long end= System.currentTimeMillis() + STOP_TIMEOUT;
+		boolean interrupted= false;
+		for (long left= STOP_TIMEOUT; left > 0; left= end - System.currentTimeMillis()) {
+			try {
+				fGroup.join(left, null);
+				break;
+			} catch (InterruptedException e) {
+				interrupted= true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private static final class TaskJob<T> extends Job {
+
+		private final Task<T> fTask;
+
+		private volatile long fStartTime= -1;
+		private volatile T fValue;
+		private volatile Throwable fFailure;
+		private volatile boolean fFinished;
+
+		public TaskJob(String name, Task<T> task) {
+			super(name);
+			fTask= task;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			fStartTime= System.currentTimeMillis();
+			try {
+				fValue= fTask.run(monitor);
+				fFinished= true;
+			} catch (OperationCanceledException e) {
+				return Status.CANCEL_STATUS;
+			} catch (CoreException | RuntimeException | Error e) {
+				fFailure= e;
+			}
+			return Status.OK_STATUS;
+		}
+
+		/*
+		 * A task that has not started yet is measured from the given time, so that tasks waiting
+		 * behind tasks that do not stop cannot wait forever.
+		 */
+		public boolean isOverdue(long timeout, long waitStart) {
+			long start= fStartTime;
+			return System.currentTimeMillis() - (start >= 0 ? start : waitStart) > timeout;
+		}
+	}
+}
@@ -145,6 +145,8 @@ public final class RefactoringCoreMessages extends NLS {
 
 	public static String ProcessorBasedRefactoring_check_condition_participant_failed;
 
+	public static String ProcessorBasedRefactoring_check_condition_participant_timed_out;
+
 	public static String ProcessorBasedRefactoring_create_change;
 
 	public static String ProcessorBasedRefactoring_final_conditions;
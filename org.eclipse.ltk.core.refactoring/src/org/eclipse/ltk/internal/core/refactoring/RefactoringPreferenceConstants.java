@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2008 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,18 @@ public final class RefactoringPreferenceConstants {
 	/** The shared refactoring history preference */
 	public static final String PREFERENCE_SHARED_REFACTORING_HISTORY= "org.eclipse.ltk.core.refactoring.enable.project.refactoring.history"; //$NON-NLS-1$
 
+	/**
+	 * Whether the condition checks of refactoring participants are executed concurrently
+	 * (value <code>true</code> or <code>false</code>, default is <code>false</code>)
+	 */
+	public static final String PREFERENCE_PARALLEL_PARTICIPANTS= "org.eclipse.ltk.core.refactoring.parallel.participants"; //$NON-NLS-1$
+
+	/**
+	 * The time in milliseconds a single participant may spend checking its conditions when
+	 * participants are executed concurrently (value <code>0</code> means no limit, default is <code>0</code>)
+	 */
+	public static final String PREFERENCE_PARTICIPANT_TIMEOUT= "org.eclipse.ltk.core.refactoring.participant.timeout"; //$NON-NLS-1$
+
 	private RefactoringPreferenceConstants() {
 		// Not for instantiation
 	}